@@ -0,0 +1,64 @@
+package com.example.starter.service;
+
+import com.example.starter.entity.Project;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 项目 YAML 的 Base64 编解码基准（保存项目、生成 playbook 文件时的路径）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectServiceBenchmark {
+
+    /**
+     * playbook 大小（字节）
+     */
+    @Param({ "1024", "65536", "1048576" })
+    int size;
+
+    private final ProjectService projectService = new ProjectService();
+
+    private String yaml;
+
+    private Project project;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder("---\n- hosts: all\n  tasks:\n");
+        for (int i = 0; builder.length() < size; i++) {
+            builder.append("    - name: 安装软件包 ").append(i).append('\n')
+                    .append("      ansible.builtin.package:\n")
+                    .append("        name: pkg").append(i).append('\n')
+                    .append("        state: present\n");
+        }
+        yaml = builder.toString();
+        project = new Project();
+        project.setYamlContent(projectService.encodeToBase64(yaml));
+    }
+
+    @Benchmark
+    public String encode() {
+        return projectService.encodeToBase64(yaml);
+    }
+
+    @Benchmark
+    public String decode() {
+        return projectService.getDecodedYamlContent(project);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.starter.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 资源预览统计基准 - 在预先写入数据的 SQLite 文件上执行 StatisticsService.getAllStatistics 的查询
+ * StatisticsService 依赖 Hibernate 和 CDI 容器，这里用 JDBC 直接执行与各 Repository 查询等价的 SQL：
+ * database 对应 statistics.counters.enabled=false（主机和任务统计走聚合查询），
+ * counters 对应默认配置（主机和任务统计读取内存计数器，只剩计数、最近任务和指标趋势查询）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatisticsQueryBenchmark {
+
+    private static final String[] STATUSES = { "PENDING", "RUNNING", "SUCCESS", "FAILED", "CANCELLED" };
+
+    @Param({ "10000" })
+    int hosts;
+
+    @Param({ "10000", "100000" })
+    int tasks;
+
+    private Path databaseFile;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        databaseFile = Files.createTempFile("jmh-statistics", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        Files.deleteIfExists(databaseFile);
+    }
+
+    @Benchmark
+    public void database(Blackhole blackhole) throws SQLException {
+        hostCounts(blackhole);
+        taskCounts(blackhole);
+        common(blackhole);
+    }
+
+    @Benchmark
+    public void counters(Blackhole blackhole) throws SQLException {
+        common(blackhole);
+    }
+
+    /**
+     * 清单/项目/模板计数、最近5个任务、最近24小时的指标桶
+     */
+    private void common(Blackhole blackhole) throws SQLException {
+        for (String table : new String[] { "inventories", "projects", "templates" }) {
+            scalar(blackhole, "SELECT COUNT(*) FROM " + table);
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT t.id, t.name, t.status, t.created_at, tp.id, tp.name"
+                        + " FROM tasks t LEFT JOIN templates tp ON tp.id = t.template_id"
+                        + " ORDER BY t.created_at DESC LIMIT 5")) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString(2));
+                blackhole.consume(rs.getString(6));
+            }
+        }
+        LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM metric_buckets"
+                + " WHERE resolution = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start")) {
+            statement.setString(1, "HOUR");
+            statement.setTimestamp(2, Timestamp.valueOf(end.minusHours(24)));
+            statement.setTimestamp(3, Timestamp.valueOf(end));
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    blackhole.consume(rs.getLong("tasks_started"));
+                }
+            }
+        }
+    }
+
+    private void hostCounts(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT COUNT(id),"
+                        + " COALESCE(SUM(CASE WHEN connected = 1 THEN 1 ELSE 0 END), 0) FROM inventory_hosts")) {
+            rs.next();
+            blackhole.consume(rs.getLong(1));
+            blackhole.consume(rs.getLong(2));
+        }
+    }
+
+    private void taskCounts(Blackhole blackhole) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT status, COUNT(id) FROM tasks GROUP BY status")) {
+            while (rs.next()) {
+                blackhole.consume(rs.getString(1));
+                blackhole.consume(rs.getLong(2));
+            }
+        }
+    }
+
+    private void scalar(Blackhole blackhole, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            blackhole.consume(rs.getLong(1));
+        }
+    }
+
+    /**
+     * 建表（只包含统计查询用到的列和索引，与实体映射一致）并写入数据
+     */
+    private void seed() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(
+                    "CREATE TABLE inventory_hosts (id INTEGER PRIMARY KEY, name TEXT, connected BOOLEAN)");
+            statement.executeUpdate("CREATE TABLE inventories (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.executeUpdate("CREATE TABLE projects (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.executeUpdate("CREATE TABLE templates (id INTEGER PRIMARY KEY, name TEXT)");
+            statement.executeUpdate("CREATE TABLE tasks (id INTEGER PRIMARY KEY, name TEXT, status TEXT,"
+                    + " template_id INTEGER, created_at TIMESTAMP)");
+            statement.executeUpdate("CREATE INDEX idx_tasks_created_at ON tasks (created_at)");
+            statement.executeUpdate("CREATE INDEX idx_tasks_status ON tasks (status)");
+            statement.executeUpdate("CREATE INDEX idx_tasks_template_created_at ON tasks (template_id, created_at)");
+            statement.executeUpdate("CREATE TABLE metric_buckets (id INTEGER PRIMARY KEY, resolution TEXT,"
+                    + " bucket_start TIMESTAMP, tasks_started INTEGER, UNIQUE (resolution, bucket_start))");
+        }
+
+        connection.setAutoCommit(false);
+        insert("INSERT INTO inventory_hosts (id, name, connected) VALUES (?, ?, ?)", hosts, (statement, i) -> {
+            statement.setString(2, "host" + i);
+            statement.setBoolean(3, i % 5 != 0);
+        });
+        insert("INSERT INTO inventories (id, name) VALUES (?, ?)", 50, (statement, i) -> statement.setString(2,
+                "inventory" + i));
+        insert("INSERT INTO projects (id, name) VALUES (?, ?)", 50, (statement, i) -> statement.setString(2,
+                "project" + i));
+        insert("INSERT INTO templates (id, name) VALUES (?, ?)", 100, (statement, i) -> statement.setString(2,
+                "template" + i));
+        LocalDateTime now = LocalDateTime.now();
+        insert("INSERT INTO tasks (id, name, status, template_id, created_at) VALUES (?, ?, ?, ?, ?)", tasks,
+                (statement, i) -> {
+                    statement.setString(2, "task" + i);
+                    statement.setString(3, STATUSES[i % STATUSES.length]);
+                    statement.setLong(4, i % 100 + 1);
+                    statement.setTimestamp(5, Timestamp.valueOf(now.minusMinutes(tasks - i)));
+                });
+        LocalDateTime hour = now.truncatedTo(ChronoUnit.HOURS);
+        insert("INSERT INTO metric_buckets (id, resolution, bucket_start, tasks_started) VALUES (?, ?, ?, ?)",
+                24 * 90, (statement, i) -> {
+                    statement.setString(2, "HOUR");
+                    statement.setTimestamp(3, Timestamp.valueOf(hour.minusHours(i)));
+                    statement.setLong(4, i % 17);
+                });
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("ANALYZE");
+        }
+    }
+
+    private interface RowBinder {
+        void bind(PreparedStatement statement, int index) throws SQLException;
+    }
+
+    private void insert(String sql, int count, RowBinder binder) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < count; i++) {
+                statement.setLong(1, i + 1);
+                binder.bind(statement, i);
+                statement.addBatch();
+                if (i % 1000 == 999) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+    }
+}
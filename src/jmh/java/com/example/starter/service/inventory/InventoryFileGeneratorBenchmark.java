@@ -0,0 +1,92 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.Inventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 清单文件生成基准 - 对应 TaskService.generateInventoryFile 的各个阶段
+ * cold：从实体构建快照并合并变量后生成（清单变化后的第一次任务）；
+ * warm：复用缓存的快照（清单未变化时的任务）；limited：主机范围只选中 1% 的主机；
+ * write：生成并写入临时文件。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InventoryFileGeneratorBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    int hosts;
+
+    private final InventoryFileGenerator generator = new InventoryFileGenerator();
+
+    private final Map<String, String> templateVariables = Map.of("app_version", "2.3.1", "deploy_user", "release");
+
+    private Inventory inventory;
+
+    private InventorySnapshot snapshot;
+
+    private BitSet limited;
+
+    private Path tempDir;
+
+    private long version;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inventory = SyntheticInventory.build(hosts);
+        snapshot = InventorySnapshot.of(inventory, 1);
+        snapshot.getResolvedVariables();
+        limited = HostPatternMatcher.parse("host*00.example.com").match(snapshot);
+        tempDir = Files.createTempDirectory("jmh-inventory");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(tempDir.resolve("inventory.yml"));
+        Files.deleteIfExists(tempDir);
+    }
+
+    @Benchmark
+    public String cold() {
+        return generator.generateYaml(InventorySnapshot.of(inventory, ++version), templateVariables, null);
+    }
+
+    @Benchmark
+    public String warm() {
+        return generator.generateYaml(snapshot, templateVariables, null);
+    }
+
+    @Benchmark
+    public String limited() {
+        return generator.generateYaml(snapshot, templateVariables, limited);
+    }
+
+    @Benchmark
+    public Path write() throws IOException {
+        return Files.writeString(tempDir.resolve("inventory.yml"),
+                generator.generateYaml(snapshot, templateVariables, null), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostInventory;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+
+/**
+ * 基准测试用的合成清单 - 在内存中构建实体图，不访问数据库
+ * 三层组结构：环境组 -> 区域组 -> 服务组（每组约100台主机），每台主机5个变量，每个组3个变量。
+ */
+final class SyntheticInventory {
+
+    static final int HOSTS_PER_GROUP = 100;
+
+    static final int REGIONS_PER_ENVIRONMENT = 4;
+
+    static final int SERVICES_PER_REGION = 5;
+
+    private SyntheticInventory() {
+    }
+
+    static Inventory build(int hostCount) {
+        Inventory inventory = new Inventory("bench-" + hostCount, "synthetic inventory");
+        inventory.setId(1L);
+        inventory.getVariables().add(new InventoryVariable("ansible_user", "deploy"));
+        inventory.getVariables().add(new InventoryVariable("ntp_server", "ntp.example.com"));
+        inventory.getVariables().add(new InventoryVariable("dns_servers", "[10.0.0.2, 10.0.0.3]"));
+
+        long groupId = 1;
+        InventoryGroup environment = null;
+        InventoryGroup region = null;
+        InventoryGroup service = null;
+        for (int i = 0; i < hostCount; i++) {
+            int serviceIndex = i / HOSTS_PER_GROUP;
+            if (i % HOSTS_PER_GROUP == 0) {
+                if (serviceIndex % SERVICES_PER_REGION == 0) {
+                    int regionIndex = serviceIndex / SERVICES_PER_REGION;
+                    if (regionIndex % REGIONS_PER_ENVIRONMENT == 0) {
+                        environment = group(inventory, groupId++, "env" + regionIndex / REGIONS_PER_ENVIRONMENT,
+                                null);
+                    }
+                    region = group(inventory, groupId++, "region" + regionIndex, environment);
+                }
+                service = group(inventory, groupId++, "svc" + serviceIndex, region);
+            }
+
+            InventoryHost host = new InventoryHost("host" + i + ".example.com", "10." + (i >> 16 & 255) + "."
+                    + (i >> 8 & 255) + "." + (i & 255), 22, "root", "secret: " + i);
+            host.setId((long) i + 1);
+            host.getVariables().add(new InventoryHostVariable("rack", "r" + i % 40));
+            host.getVariables().add(new InventoryHostVariable("weight", String.valueOf(i % 10)));
+            host.getVariables().add(new InventoryHostVariable("enabled", i % 7 == 0 ? "false" : "true"));
+            host.getVariables().add(new InventoryHostVariable("motd", "Welcome to \"host" + i + "\": 主机"));
+            host.getVariables().add(new InventoryHostVariable("tags", "{role: web, tier: " + i % 3 + "}"));
+            inventory.getHostInventories().add(new InventoryHostInventory(inventory, host));
+            service.getGroupHosts().add(new InventoryGroupHost(service, host));
+        }
+        return inventory;
+    }
+
+    private static InventoryGroup group(Inventory inventory, long id, String name, InventoryGroup parent) {
+        InventoryGroup group = new InventoryGroup(name, "group " + name);
+        group.setId(id);
+        group.setInventory(inventory);
+        group.setParentGroup(parent);
+        if (parent != null) {
+            parent.getChildGroups().add(group);
+        }
+        group.getVariables().add(new InventoryGroupVariable(name + "_port", String.valueOf(8000 + id % 1000)));
+        group.getVariables().add(new InventoryGroupVariable("ansible_user", name + "-user"));
+        group.getVariables().add(new InventoryGroupVariable("description", "managed by " + name));
+        inventory.getGroups().add(group);
+        return group;
+    }
+}
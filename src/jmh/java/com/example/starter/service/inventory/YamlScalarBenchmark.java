@@ -0,0 +1,48 @@
+package com.example.starter.service.inventory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 变量值和键的 YAML 写法基准（原 TaskService.formatVariableValue）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YamlScalarBenchmark {
+
+    private final String[] values = {
+            "10.0.0.1", "8080", "true", "deploy", "-0.5", "\"already quoted\"", "'single'",
+            "key: value", "{role: web, tier: 1}", "line1\nline2", "C:\\path\\to\\file", "欢迎使用 wmc-deploy",
+            "" };
+
+    private final String[] keys = {
+            "ansible_host", "web-01.example.com", "group/name", "null", "with space", "主机", "@tag" };
+
+    @Benchmark
+    public void value(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(YamlScalar.value(value));
+        }
+    }
+
+    @Benchmark
+    public void key(Blackhole blackhole) {
+        for (String key : keys) {
+            blackhole.consume(YamlScalar.key(key));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.starter.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.websockets.next.WebSocketConnection;
+import io.smallrye.mutiny.Uni;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 广播扇出基准 - 向 N 个模拟 WebSocket 连接投递一条消息
+ * 模拟连接的 sendText 立即完成，测量的是入队、发送调度和回调的开销（原 BroadcastWebSocket.broadcast）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocalBroadcastFanoutBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    int sessions;
+
+    private LocalBroadcastFanout fanout;
+
+    private final String message = ChangeEvent.updated("task", 42L, "RUNNING", "status", "startedAt").toJson();
+
+    @Setup
+    public void setUp() {
+        fanout = new LocalBroadcastFanout();
+        fanout.queueCapacity = 64;
+        fanout.overflowPolicy = LocalBroadcastFanout.OverflowPolicy.DROP_OLDEST;
+        fanout.meterRegistry = new SimpleMeterRegistry();
+        for (int i = 0; i < sessions; i++) {
+            fanout.register("tasks", mockConnection("conn-" + i));
+        }
+    }
+
+    @Benchmark
+    public void deliver() {
+        fanout.deliver("tasks", message);
+    }
+
+    /**
+     * 只实现扇出用到的方法：id、isOpen、sendText、close
+     */
+    private static WebSocketConnection mockConnection(String id) {
+        return (WebSocketConnection) Proxy.newProxyInstance(WebSocketConnection.class.getClassLoader(),
+                new Class<?>[] { WebSocketConnection.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "id" -> id;
+                    case "isOpen" -> true;
+                    case "sendText", "close" -> Uni.createFrom().voidItem();
+                    case "hashCode" -> id.hashCode();
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> id;
+                    default -> null;
+                });
+    }
+}
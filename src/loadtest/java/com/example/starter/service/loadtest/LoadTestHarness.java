@@ -0,0 +1,366 @@
+package com.example.starter.service.loadtest;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.Project;
+import com.example.starter.entity.Task;
+import com.example.starter.entity.Template;
+import com.example.starter.service.ProjectService;
+import com.example.starter.service.TaskService;
+import com.example.starter.service.TemplateService;
+import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.util.LocalBroadcastFanout;
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 端到端压测 - 启动后写入一个大清单，并发启动 N 个任务，统计启动延迟、完成吞吐量、
+ * 日志写入速率、数据库写入延迟和 WebSocket 扇出延迟，报告写入 JSON 文件
+ * 默认关闭；以 loadtest 配置运行时开启，ansible.path 指向 src/loadtest/fake-ansible-playbook，
+ * 不需要安装 ansible 和真实主机：mvn -Ploadtest quarkus:dev -Dquarkus.profile=loadtest
+ */
+@ApplicationScoped
+public class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private static final DateTimeFormatter RUN_ID_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * 每个组的主机数
+     */
+    private static final int HOSTS_PER_GROUP = 100;
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+
+    private static final long POLL_INTERVAL_MILLIS = 500;
+
+    private static final long DB_PROBE_INTERVAL_MILLIS = 200;
+
+    private static final String PLAYBOOK = """
+            ---
+            - hosts: all
+              gather_facts: true
+              tasks:
+                - name: load test
+                  ansible.builtin.ping:
+            """;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    InventoryService inventoryService;
+
+    @Inject
+    ProjectService projectService;
+
+    @Inject
+    TemplateService templateService;
+
+    @Inject
+    TaskService taskService;
+
+    @Inject
+    LocalBroadcastFanout localFanout;
+
+    @ConfigProperty(name = "loadtest.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "loadtest.hosts", defaultValue = "1000")
+    int hostCount;
+
+    @ConfigProperty(name = "loadtest.tasks", defaultValue = "50")
+    int taskCount;
+
+    @ConfigProperty(name = "loadtest.concurrency", defaultValue = "10")
+    int concurrency;
+
+    @ConfigProperty(name = "loadtest.timeout", defaultValue = "30m")
+    Duration timeout;
+
+    @ConfigProperty(name = "loadtest.report", defaultValue = "target/loadtest-report.json")
+    String reportPath;
+
+    @ConfigProperty(name = "loadtest.exit-on-finish", defaultValue = "true")
+    boolean exitOnFinish;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Thread.ofPlatform().name("loadtest").daemon().start(() -> {
+            int exitCode = 0;
+            try {
+                LoadTestReport report = run();
+                exitCode = report.launchFailures() > 0 || report.unfinished() > 0 ? 1 : 0;
+            } catch (Exception e) {
+                logger.error("Load test failed: {}", e.getMessage(), e);
+                exitCode = 1;
+            }
+            if (exitOnFinish) {
+                Quarkus.asyncExit(exitCode);
+            }
+        });
+    }
+
+    /**
+     * 执行一次压测
+     */
+    public LoadTestReport run() throws InterruptedException, IOException {
+        String runId = LocalDateTime.now().format(RUN_ID_FORMATTER);
+        String taskPrefix = "loadtest-" + runId + "-";
+        logger.info("Load test {}: seeding inventory with {} hosts", runId, hostCount);
+        long seedStart = System.currentTimeMillis();
+        Long templateId = seed(runId);
+        logger.info("Load test {}: seeded in {} ms, launching {} tasks with concurrency {}", runId,
+                System.currentTimeMillis() - seedStart, taskCount, concurrency);
+
+        // 扇出延迟探针和数据库写入探针
+        TaskEventProbe eventProbe = new TaskEventProbe();
+        localFanout.register("tasks", eventProbe.getConnection());
+        createProbeTable();
+        List<Long> dbWriteLatencies = Collections.synchronizedList(new ArrayList<>());
+        ScheduledExecutorService dbProbe = Executors.newSingleThreadScheduledExecutor();
+        dbProbe.scheduleWithFixedDelay(() -> {
+            long start = System.nanoTime();
+            try {
+                probeWrite();
+                dbWriteLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            } catch (RuntimeException e) {
+                logger.warn("Database probe write failed: {}", e.getMessage());
+            }
+        }, 0, DB_PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+
+        // 并发启动任务
+        List<Long> launchLatencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger launchFailures = new AtomicInteger();
+        long launchStart = System.currentTimeMillis();
+        ExecutorService launcher = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < taskCount; i++) {
+            String name = taskPrefix + i;
+            launcher.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    taskService.createAndStartTask(name, templateId);
+                    launchLatencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                } catch (RuntimeException e) {
+                    launchFailures.incrementAndGet();
+                    logger.warn("Failed to launch {}: {}", name, e.getMessage());
+                }
+            });
+        }
+        launcher.shutdown();
+        launcher.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        // 等待全部任务结束
+        long deadline = launchStart + timeout.toMillis();
+        List<Object[]> states = listTaskStates(taskPrefix);
+        while (countUnfinished(states) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+            states = listTaskStates(taskPrefix);
+        }
+        // 等待最后的结束事件送达探针
+        Thread.sleep(POLL_INTERVAL_MILLIS);
+        dbProbe.shutdownNow();
+        eventProbe.close();
+        localFanout.unregister("tasks", eventProbe.getId());
+        dropProbeTable();
+
+        LoadTestReport report = buildReport(states, launchStart, launchFailures.get(), launchLatencies,
+                dbWriteLatencies, eventProbe.getFinishedEventAt());
+        Path path = Paths.get(reportPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, report.toJson(), StandardCharsets.UTF_8);
+
+        logger.info("Load test {} finished: {} succeeded, {} failed, {} unfinished, {} launch failures",
+                runId, report.succeeded(), report.failed(), report.unfinished(), report.launchFailures());
+        logger.info("  throughput {} tasks/s, logs {} bytes/s, wall time {} ms",
+                String.format("%.2f", report.throughput()), String.format("%.0f", report.logBytesPerSecond()),
+                report.wallTimeMillis());
+        logger.info("  launch latency {}", report.launchLatency());
+        logger.info("  queue delay    {}", report.queueDelay());
+        logger.info("  duration       {}", report.duration());
+        logger.info("  db write       {}", report.dbWriteLatency());
+        logger.info("  fan-out lag    {}", report.fanoutLag());
+        logger.info("  report written to {}", path.toAbsolutePath());
+        return report;
+    }
+
+    /**
+     * 写入清单（分组，每台主机带变量）、项目和模板
+     *
+     * @return 模板ID
+     */
+    private Long seed(String runId) {
+        Inventory inventory = inventoryService.createInventory("loadtest-" + runId, "压测清单");
+        inventoryService.addVariablesToInventory(inventory.getId(), Map.of("ansible_user", "loadtest",
+                "ansible_connection", "local"));
+
+        int groupCount = Math.max(1, (hostCount + HOSTS_PER_GROUP - 1) / HOSTS_PER_GROUP);
+        List<Long> groupIds = new ArrayList<>(groupCount);
+        for (int g = 0; g < groupCount; g++) {
+            InventoryGroup group = inventoryService.addGroupToInventory(inventory.getId(), "lt" + runId + "-g" + g,
+                    null);
+            groupIds.add(group.getId());
+        }
+
+        for (int from = 0; from < hostCount; from += SEED_CHUNK_SIZE) {
+            List<InventoryHost> hosts = new ArrayList<>();
+            for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, hostCount); i++) {
+                InventoryHost host = new InventoryHost("lt" + runId + "-h" + i, "127.0.0.1", 22, "loadtest",
+                        null);
+                host.getVariables().add(new InventoryHostVariable("rack", "r" + i % 40));
+                host.getVariables().add(new InventoryHostVariable("index", String.valueOf(i)));
+                hosts.add(host);
+            }
+            inventoryService.createHosts(hosts);
+            List<Long> hostIds = hosts.stream().map(InventoryHost::getId).toList();
+            inventoryService.addHostsToInventory(inventory.getId(), hostIds);
+            for (int g = 0; g < groupCount; g++) {
+                List<Long> members = new ArrayList<>();
+                for (int i = g; i < hostIds.size(); i += groupCount) {
+                    members.add(hostIds.get(i));
+                }
+                if (!members.isEmpty()) {
+                    inventoryService.addHostsToGroup(groupIds.get(g), members);
+                }
+            }
+        }
+
+        Project project = projectService.createProject("loadtest-" + runId, "压测项目", PLAYBOOK);
+        Template template = templateService.createTemplate("loadtest-" + runId, "压测模板", project.getId(),
+                inventory.getId());
+        return template.getId();
+    }
+
+    private LoadTestReport buildReport(List<Object[]> states, long launchStart, int launchFailures,
+            List<Long> launchLatencies, List<Long> dbWriteLatencies, Map<Long, Long> finishedEventAt) {
+        int succeeded = 0;
+        int failed = 0;
+        long lastFinish = launchStart;
+        long logBytes = 0;
+        List<Long> queueDelays = new ArrayList<>();
+        List<Long> durations = new ArrayList<>();
+        List<Long> fanoutLags = new ArrayList<>();
+        for (Object[] state : states) {
+            Long taskId = (Long) state[0];
+            Task.TaskStatus status = (Task.TaskStatus) state[1];
+            Long createdAt = toMillis((LocalDateTime) state[2]);
+            Long startedAt = toMillis((LocalDateTime) state[3]);
+            Long finishedAt = toMillis((LocalDateTime) state[4]);
+            if (status == Task.TaskStatus.SUCCESS) {
+                succeeded++;
+            } else if (status == Task.TaskStatus.FAILED || status == Task.TaskStatus.CANCELLED) {
+                failed++;
+            }
+            if (createdAt != null && startedAt != null) {
+                queueDelays.add(startedAt - createdAt);
+            }
+            if (startedAt != null && finishedAt != null) {
+                durations.add(finishedAt - startedAt);
+            }
+            if (finishedAt != null) {
+                lastFinish = Math.max(lastFinish, finishedAt);
+                Long eventAt = finishedEventAt.get(taskId);
+                if (eventAt != null) {
+                    fanoutLags.add(Math.max(0, eventAt - finishedAt));
+                }
+            }
+            if (state[5] != null) {
+                try {
+                    logBytes += Files.size(Paths.get((String) state[5]));
+                } catch (IOException e) {
+                    logger.debug("Cannot read log size of task {}: {}", taskId, e.getMessage());
+                }
+            }
+        }
+
+        long wallTime = Math.max(1, lastFinish - launchStart);
+        return new LoadTestReport(hostCount, taskCount, concurrency, launchFailures, succeeded, failed,
+                countUnfinished(states), wallTime, (succeeded + failed) * 1000.0 / wallTime, logBytes,
+                logBytes * 1000.0 / wallTime, LoadTestReport.Latency.of(launchLatencies),
+                LoadTestReport.Latency.of(queueDelays), LoadTestReport.Latency.of(durations),
+                LoadTestReport.Latency.of(dbWriteLatencies), LoadTestReport.Latency.of(fanoutLags));
+    }
+
+    private static int countUnfinished(List<Object[]> states) {
+        int unfinished = 0;
+        for (Object[] state : states) {
+            Task.TaskStatus status = (Task.TaskStatus) state[1];
+            if (status == Task.TaskStatus.PENDING || status == Task.TaskStatus.RUNNING) {
+                unfinished++;
+            }
+        }
+        return unfinished;
+    }
+
+    private static Long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+
+    /**
+     * 本次压测任务的状态：id、status、createdAt、startedAt、finishedAt、logFilePath
+     */
+    @Transactional
+    List<Object[]> listTaskStates(String taskPrefix) {
+        return entityManager.createQuery("SELECT t.id, t.status, t.createdAt, t.startedAt, t.finishedAt,"
+                + " t.logFilePath FROM Task t WHERE t.name LIKE :prefix", Object[].class)
+                .setParameter("prefix", taskPrefix + "%")
+                .getResultList();
+    }
+
+    @Transactional
+    void createProbeTable() {
+        entityManager.createNativeQuery(
+                "CREATE TABLE IF NOT EXISTS loadtest_probe (id INTEGER PRIMARY KEY, written_at INTEGER)")
+                .executeUpdate();
+    }
+
+    @Transactional
+    void dropProbeTable() {
+        entityManager.createNativeQuery("DROP TABLE IF EXISTS loadtest_probe").executeUpdate();
+    }
+
+    /**
+     * 数据库写入探针：与任务状态更新竞争同一个 SQLite 写锁
+     */
+    @Transactional(TxType.REQUIRES_NEW)
+    void probeWrite() {
+        entityManager.createNativeQuery("INSERT INTO loadtest_probe (written_at) VALUES (?1)")
+                .setParameter(1, System.currentTimeMillis())
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.starter.service.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 压测报告
+ *
+ * @param hosts             清单主机数
+ * @param tasks             启动的任务数
+ * @param concurrency       并发启动线程数
+ * @param launchFailures    启动失败（createAndStartTask 抛出异常）的任务数
+ * @param succeeded         成功的任务数
+ * @param failed            失败的任务数
+ * @param unfinished        超时仍未结束的任务数
+ * @param wallTimeMillis    从第一个任务启动到最后一个任务结束的时间
+ * @param throughput        完成吞吐量（任务/秒）
+ * @param logBytes          全部任务日志的字节数
+ * @param logBytesPerSecond 日志写入速率（字节/秒）
+ * @param launchLatency     启动延迟：createAndStartTask 调用耗时
+ * @param queueDelay        排队延迟：任务创建到开始执行
+ * @param duration          执行耗时：开始执行到结束
+ * @param dbWriteLatency    压测期间探针写入（独立小事务）的耗时
+ * @param fanoutLag         任务结束到结束事件送达 WebSocket 连接的延迟
+ */
+public record LoadTestReport(int hosts, int tasks, int concurrency, int launchFailures, int succeeded, int failed,
+        int unfinished, long wallTimeMillis, double throughput, long logBytes, double logBytesPerSecond,
+        Latency launchLatency, Latency queueDelay, Latency duration, Latency dbWriteLatency, Latency fanoutLag) {
+
+    /**
+     * 延迟分布（毫秒）
+     */
+    public record Latency(int samples, double p50, double p95, double p99, double max) {
+
+        static Latency of(List<Long> values) {
+            if (values.isEmpty()) {
+                return new Latency(0, 0, 0, 0, 0);
+            }
+            long[] sorted = values.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return new Latency(sorted.length, percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted[sorted.length - 1]);
+        }
+
+        private static double percentile(long[] sorted, double percent) {
+            int index = (int) Math.ceil(percent / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+
+        String toJson() {
+            return String.format(Locale.ROOT, "{\"samples\":%d,\"p50\":%.1f,\"p95\":%.1f,\"p99\":%.1f,\"max\":%.1f}",
+                    samples, p50, p95, p99, max);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "p50=%.0fms p95=%.0fms p99=%.0fms max=%.0fms (n=%d)",
+                    p50, p95, p99, max, samples);
+        }
+    }
+
+    /**
+     * 转换为JSON，便于不同版本之间比较
+     */
+    public String toJson() {
+        return "{\"hosts\":" + hosts
+                + ",\"tasks\":" + tasks
+                + ",\"concurrency\":" + concurrency
+                + ",\"launchFailures\":" + launchFailures
+                + ",\"succeeded\":" + succeeded
+                + ",\"failed\":" + failed
+                + ",\"unfinished\":" + unfinished
+                + ",\"wallTimeMillis\":" + wallTimeMillis
+                + String.format(Locale.ROOT, ",\"throughput\":%.3f", throughput)
+                + ",\"logBytes\":" + logBytes
+                + String.format(Locale.ROOT, ",\"logBytesPerSecond\":%.1f", logBytesPerSecond)
+                + ",\"launchLatency\":" + launchLatency.toJson()
+                + ",\"queueDelay\":" + queueDelay.toJson()
+                + ",\"duration\":" + duration.toJson()
+                + ",\"dbWriteLatency\":" + dbWriteLatency.toJson()
+                + ",\"fanoutLag\":" + fanoutLag.toJson()
+                + "}";
+    }
+}
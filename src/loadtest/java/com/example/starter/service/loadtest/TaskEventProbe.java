@@ -0,0 +1,72 @@
+package com.example.starter.service.loadtest;
+
+import io.quarkus.websockets.next.WebSocketConnection;
+import io.smallrye.mutiny.Uni;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 任务变更事件探针 - 作为一个模拟的 WebSocket 连接注册到广播扇出，记录每个任务结束事件送达的时间
+ * 与任务的结束时间相减即为扇出延迟（包含事务提交和发送队列的等待）。
+ */
+class TaskEventProbe {
+
+    private static final Pattern CHANGE = Pattern.compile("\"id\":(\\d+),\"action\":\"UPDATED\",\"status\":\"(\\w+)\"");
+
+    private final String id = "loadtest-probe-" + System.nanoTime();
+
+    private final Map<Long, Long> finishedEventAt = new ConcurrentHashMap<>();
+
+    private volatile boolean open = true;
+
+    private final WebSocketConnection connection = (WebSocketConnection) Proxy.newProxyInstance(
+            WebSocketConnection.class.getClassLoader(), new Class<?>[] { WebSocketConnection.class },
+            (proxy, method, args) -> switch (method.getName()) {
+                case "id", "toString" -> id;
+                case "isOpen" -> open;
+                case "sendText" -> {
+                    received(String.valueOf(args[0]));
+                    yield Uni.createFrom().voidItem();
+                }
+                case "close" -> {
+                    open = false;
+                    yield Uni.createFrom().voidItem();
+                }
+                case "hashCode" -> id.hashCode();
+                case "equals" -> proxy == args[0];
+                default -> null;
+            });
+
+    WebSocketConnection getConnection() {
+        return connection;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    /**
+     * 任务ID -> 结束事件送达时间（毫秒时间戳）
+     */
+    Map<Long, Long> getFinishedEventAt() {
+        return finishedEventAt;
+    }
+
+    void close() {
+        open = false;
+    }
+
+    private void received(String message) {
+        Matcher matcher = CHANGE.matcher(message);
+        if (matcher.find()) {
+            String status = matcher.group(2);
+            if (status.equals("SUCCESS") || status.equals("FAILED") || status.equals("CANCELLED")) {
+                finishedEventAt.putIfAbsent(Long.parseLong(matcher.group(1)), System.currentTimeMillis());
+            }
+        }
+    }
+}
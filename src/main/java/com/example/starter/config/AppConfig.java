@@ -18,10 +18,16 @@ public class AppConfig {
     @Inject
     UserService userService;
 
+    @Inject
+    IdSequenceInitializer idSequenceInitializer;
+
     @Transactional
     public void init(@Observes StartupEvent event) {
         LOGGER.info("Initializing application configuration...");
 
+        // 先对齐ID序列，避免新插入的记录与已有ID冲突
+        idSequenceInitializer.reconcile();
+
         // 检查是否存在管理员账户，如果不存在则创建
         if (!User.existsByUsername("admin")) {
             User adminUser = new User();
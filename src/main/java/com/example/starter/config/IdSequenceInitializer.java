@@ -0,0 +1,77 @@
+package com.example.starter.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ID序列初始化器
+ * SQLite不支持原生序列，Hibernate会为每个实体使用 xxx_seq 表模拟序列（pooled-lo 优化器）。
+ * 从 IDENTITY 切换过来时，序列表的初始值为1，会与已有数据的ID冲突，
+ * 因此启动时需要把每个序列表的 next_val 推进到对应数据表的 MAX(id) + 1。
+ */
+@ApplicationScoped
+public class IdSequenceInitializer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    /**
+     * 数据表 -> 序列表
+     */
+    private static final Map<String, String> SEQUENCE_TABLES = new LinkedHashMap<>();
+
+    static {
+        SEQUENCE_TABLES.put("users", "users_seq");
+        SEQUENCE_TABLES.put("projects", "projects_seq");
+        SEQUENCE_TABLES.put("inventories", "inventories_seq");
+        SEQUENCE_TABLES.put("inventory_variables", "inventory_variables_seq");
+        SEQUENCE_TABLES.put("inventory_groups", "inventory_groups_seq");
+        SEQUENCE_TABLES.put("inventory_group_variables", "inventory_group_variables_seq");
+        SEQUENCE_TABLES.put("inventory_group_hosts", "inventory_group_hosts_seq");
+        SEQUENCE_TABLES.put("inventory_hosts", "inventory_hosts_seq");
+        SEQUENCE_TABLES.put("inventory_host_variables", "inventory_host_variables_seq");
+        SEQUENCE_TABLES.put("inventory_host_inventories", "inventory_host_inventories_seq");
+        SEQUENCE_TABLES.put("templates", "templates_seq");
+        SEQUENCE_TABLES.put("template_variables", "template_variables_seq");
+        SEQUENCE_TABLES.put("tasks", "tasks_seq");
+        SEQUENCE_TABLES.put("task_archives", "task_archives_seq");
+        SEQUENCE_TABLES.put("metric_buckets", "metric_buckets_seq");
+        SEQUENCE_TABLES.put("broadcast_messages", "broadcast_messages_seq");
+    }
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "quarkus.datasource.db-kind")
+    String dbKind;
+
+    /**
+     * 对齐序列表与数据表的最大ID（仅SQLite需要，其他数据库使用原生序列）
+     */
+    @Transactional(TxType.REQUIRES_NEW)
+    public void reconcile() {
+        if (!"sqlite".equalsIgnoreCase(dbKind)) {
+            return;
+        }
+
+        for (Map.Entry<String, String> entry : SEQUENCE_TABLES.entrySet()) {
+            String table = entry.getKey();
+            String sequenceTable = entry.getValue();
+            int updated = entityManager.createNativeQuery(
+                    "UPDATE " + sequenceTable + " SET next_val = (SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + ")"
+                            + " WHERE next_val <= (SELECT COALESCE(MAX(id), 0) FROM " + table + ")")
+                    .executeUpdate();
+            if (updated > 0) {
+                LOGGER.info("Advanced id sequence {} past existing rows of {}", sequenceTable, table);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.starter.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 广播消息实体
+ * 多节点部署时，广播消息写入此表，由其他节点轮询后转发给各自的 WebSocket 连接；消息只短暂保留
+ */
+@Entity
+@Table(name = "broadcast_messages", indexes = {
+        @Index(name = "idx_broadcast_messages_created_at", columnList = "createdAt")
+})
+public class BroadcastMessage extends PanacheEntityBase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "broadcast_messages_seq")
+    @SequenceGenerator(name = "broadcast_messages_seq", sequenceName = "broadcast_messages_seq", allocationSize = 50)
+    public Long id;
+
+    /**
+     * 发布消息的节点ID
+     */
+    @Column(nullable = false, length = 64)
+    public String nodeId;
+
+    @Column(nullable = false, length = 50)
+    public String viewType;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    public String payload;
+
+    @Column(nullable = false)
+    public LocalDateTime createdAt;
+
+    public BroadcastMessage() {
+    }
+
+    public BroadcastMessage(String nodeId, String viewType, String payload) {
+        this.nodeId = nodeId;
+        this.viewType = viewType;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getViewType() {
+        return viewType;
+    }
+
+    public void setViewType(String viewType) {
+        this.viewType = viewType;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,11 +16,16 @@ import java.util.List;
  * 每个Inventory可以包含主机、组和变量
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "inventories")
 public class Inventory extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventories_seq")
+    @SequenceGenerator(name = "inventories_seq", sequenceName = "inventories_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -26,15 +35,44 @@ public class Inventory extends PanacheEntityBase {
     public String description;
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "inventory", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<InventoryVariable> variables = new ArrayList<>();
 
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "inventory", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<InventoryGroup> groups = new ArrayList<>();
 
     // 主机与清单的多对多关系
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "inventory", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     public List<InventoryHostInventory> hostInventories = new ArrayList<>();
 
+    /**
+     * 动态清单来源类型（script / json-file / http），为空表示静态清单
+     */
+    @Column(name = "source_type", length = 50)
+    public String sourceType;
+
+    /**
+     * 动态清单来源位置（脚本命令、JSON文件路径或URL）
+     */
+    @Column(name = "source_location", length = 1000)
+    public String sourceLocation;
+
+    /**
+     * 最近一次成功从来源同步的时间
+     */
+    @Column(name = "source_refreshed_at")
+    public LocalDateTime sourceRefreshedAt;
+
+    /**
+     * 最近一次同步失败的原因，同步成功后清空
+     */
+    @Column(name = "source_error", length = 1000)
+    public String sourceError;
+
     public LocalDateTime createdAt;
 
     public LocalDateTime updatedAt;
@@ -125,6 +163,45 @@ public class Inventory extends PanacheEntityBase {
                 .toList();
     }
 
+    public String getSourceType() {
+        return sourceType;
+    }
+
+    public void setSourceType(String sourceType) {
+        this.sourceType = sourceType;
+    }
+
+    public String getSourceLocation() {
+        return sourceLocation;
+    }
+
+    public void setSourceLocation(String sourceLocation) {
+        this.sourceLocation = sourceLocation;
+    }
+
+    public LocalDateTime getSourceRefreshedAt() {
+        return sourceRefreshedAt;
+    }
+
+    public void setSourceRefreshedAt(LocalDateTime sourceRefreshedAt) {
+        this.sourceRefreshedAt = sourceRefreshedAt;
+    }
+
+    public String getSourceError() {
+        return sourceError;
+    }
+
+    public void setSourceError(String sourceError) {
+        this.sourceError = sourceError;
+    }
+
+    /**
+     * 是否为动态清单（主机、组和变量由来源定时同步）
+     */
+    public boolean isDynamic() {
+        return sourceType != null && !sourceType.isEmpty();
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,7 +1,11 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,13 +18,17 @@ import java.util.List;
  * 同一个Inventory中的组名必须唯一
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "inventory_groups", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "inventory_id", "name" }, name = "uk_inventory_group_name")
 })
 public class InventoryGroup extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_groups_seq")
+    @SequenceGenerator(name = "inventory_groups_seq", sequenceName = "inventory_groups_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -30,25 +38,30 @@ public class InventoryGroup extends PanacheEntityBase {
     public String description;
 
     // 所属的Inventory
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inventory_id")
     public Inventory inventory;
 
     // 父组（支持层级结构）
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_group_id")
     public InventoryGroup parentGroup;
 
     // 组级别的变量
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "group", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<InventoryGroupVariable> variables = new ArrayList<>();
 
     // 组内的主机
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "group", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     public List<InventoryGroupHost> groupHosts = new ArrayList<>();
 
     // 子组
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "parentGroup", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<InventoryGroup> childGroups = new ArrayList<>();
 
     public LocalDateTime createdAt;
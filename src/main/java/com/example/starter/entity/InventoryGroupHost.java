@@ -12,14 +12,15 @@ import jakarta.persistence.*;
 public class InventoryGroupHost extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_group_hosts_seq")
+    @SequenceGenerator(name = "inventory_group_hosts_seq", sequenceName = "inventory_group_hosts_seq", allocationSize = 50)
     public Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id")
     public InventoryGroup group;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "host_id")
     public InventoryHost host;
 
@@ -1,18 +1,25 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Inventory组变量实体
  * 用于存储组级别的变量
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "inventory_group_variables")
 public class InventoryGroupVariable extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_group_variables_seq")
+    @SequenceGenerator(name = "inventory_group_variables_seq", sequenceName = "inventory_group_variables_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -21,7 +28,7 @@ public class InventoryGroupVariable extends PanacheEntityBase {
     @Column(length = 2000)
     public String variableValue;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id")
     public InventoryGroup group;
 
@@ -1,7 +1,9 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,11 +15,14 @@ import java.util.List;
  * 主机可以同时属于多个清单和组
  */
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "inventory_hosts")
+@BatchSize(size = 50)
 public class InventoryHost extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_hosts_seq")
+    @SequenceGenerator(name = "inventory_hosts_seq", sequenceName = "inventory_hosts_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false, unique = true)
@@ -37,10 +42,12 @@ public class InventoryHost extends PanacheEntityBase {
 
     // 主机所属的清单（多对多关系）
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "host", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     public List<InventoryHostInventory> inventories = new ArrayList<>();
 
     // 主机级别的变量
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "host", fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
     public List<InventoryHostVariable> variables = new ArrayList<>();
 
     public LocalDateTime createdAt;
@@ -13,14 +13,15 @@ import jakarta.persistence.*;
 public class InventoryHostInventory extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_host_inventories_seq")
+    @SequenceGenerator(name = "inventory_host_inventories_seq", sequenceName = "inventory_host_inventories_seq", allocationSize = 50)
     public Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "inventory_id", nullable = false)
     public Inventory inventory;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "host_id", nullable = false)
     public InventoryHost host;
 
@@ -1,5 +1,6 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 
@@ -8,11 +9,13 @@ import jakarta.persistence.*;
  * 用于存储主机级别的变量
  */
 @Entity
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "inventory_host_variables")
 public class InventoryHostVariable extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_host_variables_seq")
+    @SequenceGenerator(name = "inventory_host_variables_seq", sequenceName = "inventory_host_variables_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -21,7 +24,7 @@ public class InventoryHostVariable extends PanacheEntityBase {
     @Column(length = 2000)
     public String variableValue;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "host_id")
     public InventoryHost host;
 
@@ -0,0 +1,249 @@
+package com.example.starter.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 指标时间桶实体
+ * 按分钟/小时/天三种粒度预聚合任务和主机指标，图表按时间范围直接读取桶数据，不扫描 tasks 表
+ */
+@Entity
+@Table(name = "metric_buckets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_metric_buckets_resolution_start", columnNames = { "resolution", "bucketStart" })
+})
+public class MetricBucket extends PanacheEntityBase {
+
+    /**
+     * 时间桶粒度
+     */
+    public enum Resolution {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Resolution(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        /**
+         * 计算时间所在桶的起始时间
+         */
+        public LocalDateTime truncate(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+
+        public ChronoUnit getUnit() {
+            return unit;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "metric_buckets_seq")
+    @SequenceGenerator(name = "metric_buckets_seq", sequenceName = "metric_buckets_seq", allocationSize = 50)
+    public Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    public Resolution resolution;
+
+    /**
+     * 桶起始时间
+     */
+    @Column(nullable = false)
+    public LocalDateTime bucketStart;
+
+    /**
+     * 开始执行的任务数
+     */
+    public long tasksStarted;
+
+    public long tasksSucceeded;
+
+    public long tasksFailed;
+
+    /**
+     * 已结束任务的执行耗时总和（毫秒），与 durationCount 一起计算平均值
+     */
+    public long durationSumMs;
+
+    public long durationCount;
+
+    public long durationMaxMs;
+
+    /**
+     * 任务从创建到开始执行的等待时间总和（毫秒）
+     */
+    public long queueWaitSumMs;
+
+    public long queueWaitCount;
+
+    /**
+     * 主机连接检测次数及其中连接成功的次数
+     */
+    public long hostChecks;
+
+    public long hostReachable;
+
+    public MetricBucket() {
+    }
+
+    public MetricBucket(Resolution resolution, LocalDateTime bucketStart) {
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+    }
+
+    /**
+     * 将另一个桶的计数累加到当前桶（用于上卷到更粗的粒度）
+     */
+    public void add(MetricBucket other) {
+        this.tasksStarted += other.tasksStarted;
+        this.tasksSucceeded += other.tasksSucceeded;
+        this.tasksFailed += other.tasksFailed;
+        this.durationSumMs += other.durationSumMs;
+        this.durationCount += other.durationCount;
+        this.durationMaxMs = Math.max(this.durationMaxMs, other.durationMaxMs);
+        this.queueWaitSumMs += other.queueWaitSumMs;
+        this.queueWaitCount += other.queueWaitCount;
+        this.hostChecks += other.hostChecks;
+        this.hostReachable += other.hostReachable;
+    }
+
+    /**
+     * 成功率（百分比），没有已结束任务时返回null
+     */
+    public Double getSuccessRate() {
+        long finished = tasksSucceeded + tasksFailed;
+        return finished > 0 ? tasksSucceeded * 100.0 / finished : null;
+    }
+
+    /**
+     * 平均执行耗时（毫秒），没有数据时返回null
+     */
+    public Double getAverageDurationMs() {
+        return durationCount > 0 ? (double) durationSumMs / durationCount : null;
+    }
+
+    /**
+     * 平均排队等待时间（毫秒），没有数据时返回null
+     */
+    public Double getAverageQueueWaitMs() {
+        return queueWaitCount > 0 ? (double) queueWaitSumMs / queueWaitCount : null;
+    }
+
+    /**
+     * 主机可达率（百分比），没有检测记录时返回null
+     */
+    public Double getHostReachability() {
+        return hostChecks > 0 ? hostReachable * 100.0 / hostChecks : null;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Resolution getResolution() {
+        return resolution;
+    }
+
+    public void setResolution(Resolution resolution) {
+        this.resolution = resolution;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getTasksStarted() {
+        return tasksStarted;
+    }
+
+    public void setTasksStarted(long tasksStarted) {
+        this.tasksStarted = tasksStarted;
+    }
+
+    public long getTasksSucceeded() {
+        return tasksSucceeded;
+    }
+
+    public void setTasksSucceeded(long tasksSucceeded) {
+        this.tasksSucceeded = tasksSucceeded;
+    }
+
+    public long getTasksFailed() {
+        return tasksFailed;
+    }
+
+    public void setTasksFailed(long tasksFailed) {
+        this.tasksFailed = tasksFailed;
+    }
+
+    public long getDurationSumMs() {
+        return durationSumMs;
+    }
+
+    public void setDurationSumMs(long durationSumMs) {
+        this.durationSumMs = durationSumMs;
+    }
+
+    public long getDurationCount() {
+        return durationCount;
+    }
+
+    public void setDurationCount(long durationCount) {
+        this.durationCount = durationCount;
+    }
+
+    public long getDurationMaxMs() {
+        return durationMaxMs;
+    }
+
+    public void setDurationMaxMs(long durationMaxMs) {
+        this.durationMaxMs = durationMaxMs;
+    }
+
+    public long getQueueWaitSumMs() {
+        return queueWaitSumMs;
+    }
+
+    public void setQueueWaitSumMs(long queueWaitSumMs) {
+        this.queueWaitSumMs = queueWaitSumMs;
+    }
+
+    public long getQueueWaitCount() {
+        return queueWaitCount;
+    }
+
+    public void setQueueWaitCount(long queueWaitCount) {
+        this.queueWaitCount = queueWaitCount;
+    }
+
+    public long getHostChecks() {
+        return hostChecks;
+    }
+
+    public void setHostChecks(long hostChecks) {
+        this.hostChecks = hostChecks;
+    }
+
+    public long getHostReachable() {
+        return hostReachable;
+    }
+
+    public void setHostReachable(long hostReachable) {
+        this.hostReachable = hostReachable;
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
  * 项目实体类 - 用于存放Ansible Playbook
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "projects")
 public class Project {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "projects_seq")
+    @SequenceGenerator(name = "projects_seq", sequenceName = "projects_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
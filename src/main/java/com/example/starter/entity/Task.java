@@ -1,5 +1,6 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 
@@ -10,11 +11,17 @@ import java.time.LocalDateTime;
  * 是模板的实例化，用于执行ansible playbook
  */
 @Entity
-@Table(name = "tasks")
+@EntityListeners(SearchIndexListener.class)
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_created_at", columnList = "createdAt"),
+        @Index(name = "idx_tasks_status", columnList = "status"),
+        @Index(name = "idx_tasks_template_created_at", columnList = "template_id, createdAt")
+})
 public class Task extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     public Long id;
 
     /**
@@ -65,6 +72,12 @@ public class Task extends PanacheEntityBase {
     @Column(columnDefinition = "TEXT")
     public String errorMessage;
 
+    /**
+     * 启动时指定的主机范围，为空时使用模板的主机范围
+     */
+    @Column(name = "host_limit", length = 1000)
+    public String hostLimit;
+
     /**
      * 创建时间
      */
@@ -174,6 +187,24 @@ public class Task extends PanacheEntityBase {
         this.errorMessage = errorMessage;
     }
 
+    public String getHostLimit() {
+        return hostLimit;
+    }
+
+    public void setHostLimit(String hostLimit) {
+        this.hostLimit = hostLimit;
+    }
+
+    /**
+     * 实际生效的主机范围：任务上的优先，其次是模板上的
+     */
+    public String getEffectiveHostLimit() {
+        if (hostLimit != null && !hostLimit.isBlank()) {
+            return hostLimit;
+        }
+        return template != null ? template.getHostLimit() : null;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,176 @@
+package com.example.starter.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务归档实体
+ * 超过保留策略的历史任务从 tasks 表移动到此表，执行日志压缩后单独存放
+ * 不与模板建立外键关联，模板删除后归档记录仍然保留
+ */
+@Entity
+@Table(name = "task_archives", indexes = {
+        @Index(name = "idx_task_archives_template", columnList = "templateId"),
+        @Index(name = "idx_task_archives_created_at", columnList = "createdAt")
+})
+public class TaskArchive extends PanacheEntityBase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_archives_seq")
+    @SequenceGenerator(name = "task_archives_seq", sequenceName = "task_archives_seq", allocationSize = 50)
+    public Long id;
+
+    /**
+     * 原任务ID
+     */
+    @Column(nullable = false)
+    public Long taskId;
+
+    @Column(nullable = false)
+    public String name;
+
+    public Long templateId;
+
+    public String templateName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    public Task.TaskStatus status;
+
+    public LocalDateTime startedAt;
+
+    public LocalDateTime finishedAt;
+
+    @Column(columnDefinition = "TEXT")
+    public String errorMessage;
+
+    public LocalDateTime createdAt;
+
+    /**
+     * 归档时间
+     */
+    public LocalDateTime archivedAt;
+
+    /**
+     * 压缩后的日志文件路径（gzip），无日志时为空
+     */
+    @Column(length = 500)
+    public String logArchivePath;
+
+    public TaskArchive() {
+    }
+
+    public TaskArchive(Task task, String logArchivePath) {
+        this.taskId = task.getId();
+        this.name = task.getName();
+        if (task.getTemplate() != null) {
+            this.templateId = task.getTemplate().getId();
+            this.templateName = task.getTemplate().getName();
+        }
+        this.status = task.getStatus();
+        this.startedAt = task.getStartedAt();
+        this.finishedAt = task.getFinishedAt();
+        this.errorMessage = task.getErrorMessage();
+        this.createdAt = task.getCreatedAt();
+        this.archivedAt = LocalDateTime.now();
+        this.logArchivePath = logArchivePath;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getTemplateId() {
+        return templateId;
+    }
+
+    public void setTemplateId(Long templateId) {
+        this.templateId = templateId;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public void setTemplateName(String templateName) {
+        this.templateName = templateName;
+    }
+
+    public Task.TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Task.TaskStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public String getLogArchivePath() {
+        return logArchivePath;
+    }
+
+    public void setLogArchivePath(String logArchivePath) {
+        this.logArchivePath = logArchivePath;
+    }
+}
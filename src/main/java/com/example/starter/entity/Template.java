@@ -1,7 +1,11 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,11 +16,16 @@ import java.util.List;
  * 绑定一个项目的Playbook和一个清单的Inventory
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@BatchSize(size = 50)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "templates")
 public class Template extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "templates_seq")
+    @SequenceGenerator(name = "templates_seq", sequenceName = "templates_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -43,8 +52,25 @@ public class Template extends PanacheEntityBase {
      * 额外的变量（可选）
      */
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, mappedBy = "template", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<TemplateVariable> variables = new ArrayList<>();
 
+    /**
+     * 任务保留天数（为空时使用全局配置，0表示不按时间清理）
+     */
+    public Integer retentionMaxAgeDays;
+
+    /**
+     * 任务保留数量（为空时使用全局配置，0表示不按数量清理）
+     */
+    public Integer retentionMaxCount;
+
+    /**
+     * 默认主机范围（ansible 主机模式，如 web:&amp;prod:!web3），为空时包含清单全部主机
+     */
+    @Column(name = "host_limit", length = 1000)
+    public String hostLimit;
+
     public LocalDateTime createdAt;
 
     public LocalDateTime updatedAt;
@@ -127,6 +153,30 @@ public class Template extends PanacheEntityBase {
         this.variables = variables;
     }
 
+    public Integer getRetentionMaxAgeDays() {
+        return retentionMaxAgeDays;
+    }
+
+    public void setRetentionMaxAgeDays(Integer retentionMaxAgeDays) {
+        this.retentionMaxAgeDays = retentionMaxAgeDays;
+    }
+
+    public Integer getRetentionMaxCount() {
+        return retentionMaxCount;
+    }
+
+    public void setRetentionMaxCount(Integer retentionMaxCount) {
+        this.retentionMaxCount = retentionMaxCount;
+    }
+
+    public String getHostLimit() {
+        return hostLimit;
+    }
+
+    public void setHostLimit(String hostLimit) {
+        this.hostLimit = hostLimit;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,18 +1,25 @@
 package com.example.starter.entity;
 
+import com.example.starter.service.search.SearchIndexListener;
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * 模板变量实体
  * 用于存储Template级别的变量
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(SearchIndexListener.class)
 @Table(name = "template_variables")
 public class TemplateVariable extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "template_variables_seq")
+    @SequenceGenerator(name = "template_variables_seq", sequenceName = "template_variables_seq", allocationSize = 50)
     public Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,31 @@
+package com.example.starter.repository;
+
+import com.example.starter.entity.BroadcastMessage;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 广播消息Repository
+ */
+@ApplicationScoped
+public class BroadcastMessageRepository implements PanacheRepository<BroadcastMessage> {
+
+    /**
+     * 查找其他节点在 since 之后发布的消息，按发布时间升序
+     */
+    public List<BroadcastMessage> findFromOtherNodesSince(String nodeId, LocalDateTime since, int limit) {
+        return find("nodeId <> ?1 and createdAt >= ?2 order by createdAt, id", nodeId, since)
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * 删除早于 cutoff 的消息
+     */
+    public long deleteOlderThan(LocalDateTime cutoff) {
+        return delete("createdAt < ?1", cutoff);
+    }
+}
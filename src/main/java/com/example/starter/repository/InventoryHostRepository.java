@@ -2,6 +2,7 @@ package com.example.starter.repository;
 
 import com.example.starter.entity.InventoryHost;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.transaction.Transactional;
 
@@ -35,28 +36,62 @@ public class InventoryHostRepository implements PanacheRepository<InventoryHost>
     }
 
     /**
-     * 更新主机连接状态
+     * 一次查询统计主机总数和已连接数量
+     *
+     * @return [总数, 已连接数]
+     */
+    public long[] countTotalAndConnected() {
+        Object[] row = getEntityManager()
+                .createQuery("SELECT COUNT(h), COALESCE(SUM(CASE WHEN h.connected = true THEN 1 ELSE 0 END), 0)"
+                        + " FROM InventoryHost h", Object[].class)
+                .getSingleResult();
+        return new long[] { ((Number) row[0]).longValue(), ((Number) row[1]).longValue() };
+    }
+
+    /**
+     * 保存主机的连接信息修改
      */
     @Transactional
-    public void updateConnectionStatus(Long hostId, Boolean connected) {
-        InventoryHost host = findById(hostId);
-        if (host != null) {
-            host.setConnected(connected);
-            host.setLastChecked(java.time.LocalDateTime.now());
-            getEntityManager().merge(host);
-        }
+    public void updateHost(InventoryHost host) {
+        getEntityManager().merge(host);
     }
 
     /**
-     * 根据名称更新主机连接状态
+     * 删除主机及其变量和组成员关系
      */
     @Transactional
-    public void updateConnectionStatusByName(String name, Boolean connected) {
-        InventoryHost host = findByName(name);
-        if (host != null) {
-            host.setConnected(connected);
-            host.setLastChecked(java.time.LocalDateTime.now());
-            getEntityManager().merge(host);
+    public void deleteHost(InventoryHost host) {
+        // 先删除关联的变量
+        getEntityManager().createQuery("DELETE FROM InventoryHostVariable hv WHERE hv.host.id = :hostId")
+                .setParameter("hostId", host.getId())
+                .executeUpdate();
+
+        // 删除关联的组-主机关系
+        getEntityManager().createQuery("DELETE FROM InventoryGroupHost gh WHERE gh.host.id = :hostId")
+                .setParameter("hostId", host.getId())
+                .executeUpdate();
+
+        // 删除主机
+        delete(host);
+    }
+
+    /**
+     * 分页查询主机（按名称或地址模糊过滤，filterPattern为空时不过滤）
+     */
+    public List<InventoryHost> findPage(String filterPattern, Sort sort, int offset, int limit) {
+        if (filterPattern == null) {
+            return findAll(sort).range(offset, offset + limit - 1).list();
+        }
+        return find("lower(name) like ?1 escape '\\' or lower(host) like ?1 escape '\\'", sort, filterPattern).range(offset, offset + limit - 1).list();
+    }
+
+    /**
+     * 统计符合过滤条件的主机数量
+     */
+    public long countByFilter(String filterPattern) {
+        if (filterPattern == null) {
+            return count();
         }
+        return count("lower(name) like ?1 escape '\\' or lower(host) like ?1 escape '\\'", filterPattern);
     }
 }
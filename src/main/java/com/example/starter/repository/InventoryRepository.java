@@ -1,18 +1,113 @@
 package com.example.starter.repository;
 
 import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 
 @ApplicationScoped
 public class InventoryRepository implements PanacheRepository<Inventory> {
     public List<Inventory> findAllActive() {
-        return listAll();
+        return listAllCached();
+    }
+
+    /**
+     * 查询所有清单（结果进入查询缓存，清单表有写入时自动失效）
+     */
+    public List<Inventory> listAllCached() {
+        return findAll().withHint(HibernateHints.HINT_CACHEABLE, true).list();
     }
 
     public boolean existsByName(String name) {
         return find("name", name).count() > 0;
     }
+
+    /**
+     * 按固定的查询计划加载清单及其全部关联数据（组、组成员、主机以及各级变量）
+     * 每个集合都是bag，一条查询只能 JOIN FETCH 一个bag，因此拆成若干条查询，
+     * 查询数量与清单规模无关（最多7条）。后续查询返回的实体会合并到同一个持久化上下文中。
+     *
+     * @return 清单，不存在时返回null
+     */
+    public Inventory findByIdWithAssociations(Long id) {
+        Inventory inventory = find("SELECT i FROM Inventory i LEFT JOIN FETCH i.variables WHERE i.id = ?1", id)
+                .firstResult();
+        if (inventory == null) {
+            return null;
+        }
+
+        // 清单下的组（同时加载父组引用，父组也属于同一清单）
+        getEntityManager().createQuery(
+                "SELECT DISTINCT i FROM Inventory i LEFT JOIN FETCH i.groups g LEFT JOIN FETCH g.parentGroup"
+                        + " WHERE i.id = :id", Inventory.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        // 清单下的主机
+        getEntityManager().createQuery(
+                "SELECT DISTINCT i FROM Inventory i LEFT JOIN FETCH i.hostInventories hi LEFT JOIN FETCH hi.host"
+                        + " WHERE i.id = :id", Inventory.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        if (!inventory.getGroups().isEmpty()) {
+            // 组变量
+            getEntityManager().createQuery(
+                    "SELECT DISTINCT g FROM InventoryGroup g LEFT JOIN FETCH g.variables WHERE g.inventory.id = :id",
+                    InventoryGroup.class)
+                    .setParameter("id", id)
+                    .getResultList();
+
+            // 组成员及其主机
+            getEntityManager().createQuery(
+                    "SELECT DISTINCT g FROM InventoryGroup g LEFT JOIN FETCH g.groupHosts gh LEFT JOIN FETCH gh.host"
+                            + " WHERE g.inventory.id = :id",
+                    InventoryGroup.class)
+                    .setParameter("id", id)
+                    .getResultList();
+
+            // 子组
+            getEntityManager().createQuery(
+                    "SELECT DISTINCT g FROM InventoryGroup g LEFT JOIN FETCH g.childGroups WHERE g.inventory.id = :id",
+                    InventoryGroup.class)
+                    .setParameter("id", id)
+                    .getResultList();
+        }
+
+        // 清单主机和组成员主机的变量
+        getEntityManager().createQuery(
+                "SELECT DISTINCT h FROM InventoryHost h LEFT JOIN FETCH h.variables"
+                        + " WHERE h.id IN (SELECT hi.host.id FROM InventoryHostInventory hi WHERE hi.inventory.id = :id)"
+                        + " OR h.id IN (SELECT gh.host.id FROM InventoryGroupHost gh WHERE gh.group.inventory.id = :id)",
+                InventoryHost.class)
+                .setParameter("id", id)
+                .getResultList();
+
+        return inventory;
+    }
+
+    /**
+     * 分页查询清单（按名称模糊过滤，filterPattern为空时不过滤）
+     */
+    public List<Inventory> findPage(String filterPattern, Sort sort, int offset, int limit) {
+        if (filterPattern == null) {
+            return findAll(sort).range(offset, offset + limit - 1).list();
+        }
+        return find("lower(name) like ?1 escape '\\'", sort, filterPattern).range(offset, offset + limit - 1).list();
+    }
+
+    /**
+     * 统计符合过滤条件的清单数量
+     */
+    public long countByFilter(String filterPattern) {
+        if (filterPattern == null) {
+            return count();
+        }
+        return count("lower(name) like ?1 escape '\\'", filterPattern);
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.starter.repository;
+
+import com.example.starter.entity.MetricBucket;
+import com.example.starter.entity.MetricBucket.Resolution;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 指标时间桶Repository
+ */
+@ApplicationScoped
+public class MetricBucketRepository implements PanacheRepository<MetricBucket> {
+
+    /**
+     * 查找指定粒度和起始时间的桶
+     */
+    public MetricBucket findBucket(Resolution resolution, LocalDateTime bucketStart) {
+        return find("resolution = ?1 and bucketStart = ?2", resolution, bucketStart).firstResult();
+    }
+
+    /**
+     * 按时间范围查找桶 [from, to)，按时间升序
+     */
+    public List<MetricBucket> findRange(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        return list("resolution = ?1 and bucketStart >= ?2 and bucketStart < ?3 order by bucketStart",
+                resolution, from, to);
+    }
+
+    /**
+     * 删除指定粒度下早于 cutoff 的桶
+     */
+    public long deleteOlderThan(Resolution resolution, LocalDateTime cutoff) {
+        return delete("resolution = ?1 and bucketStart < ?2", resolution, cutoff);
+    }
+}
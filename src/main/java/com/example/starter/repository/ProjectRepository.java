@@ -2,7 +2,9 @@ package com.example.starter.repository;
 
 import com.example.starter.entity.Project;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 import java.util.Optional;
@@ -40,4 +42,31 @@ public class ProjectRepository implements PanacheRepository<Project> {
     public boolean existsByNameExcludingId(String name, Long id) {
         return count("name = ?1 and id != ?2", name, id) > 0;
     }
+
+    /**
+     * 查询所有项目（结果进入查询缓存，项目表有写入时自动失效）
+     */
+    public List<Project> listAllCached() {
+        return findAll().withHint(HibernateHints.HINT_CACHEABLE, true).list();
+    }
+
+    /**
+     * 分页查询项目（按名称模糊过滤，filterPattern为空时不过滤）
+     */
+    public List<Project> findPage(String filterPattern, Sort sort, int offset, int limit) {
+        if (filterPattern == null) {
+            return findAll(sort).range(offset, offset + limit - 1).list();
+        }
+        return find("lower(name) like ?1 escape '\\'", sort, filterPattern).range(offset, offset + limit - 1).list();
+    }
+
+    /**
+     * 统计符合过滤条件的项目数量
+     */
+    public long countByFilter(String filterPattern) {
+        if (filterPattern == null) {
+            return count();
+        }
+        return count("lower(name) like ?1 escape '\\'", filterPattern);
+    }
 }
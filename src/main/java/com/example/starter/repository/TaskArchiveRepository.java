@@ -0,0 +1,28 @@
+package com.example.starter.repository;
+
+import com.example.starter.entity.TaskArchive;
+import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.List;
+
+/**
+ * 任务归档Repository
+ */
+@ApplicationScoped
+public class TaskArchiveRepository implements PanacheRepository<TaskArchive> {
+
+    /**
+     * 查找指定模板的归档任务，按创建时间倒序
+     */
+    public List<TaskArchive> findByTemplateId(Long templateId) {
+        return list("templateId = ?1 order by createdAt desc", templateId);
+    }
+
+    /**
+     * 根据原任务ID查找归档
+     */
+    public TaskArchive findByTaskId(Long taskId) {
+        return find("taskId", taskId).firstResult();
+    }
+}
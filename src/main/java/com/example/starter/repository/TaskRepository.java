@@ -3,9 +3,13 @@ package com.example.starter.repository;
 import com.example.starter.entity.Task;
 import com.example.starter.entity.Task.TaskStatus;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 
+import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 任务Repository
@@ -54,4 +58,108 @@ public class TaskRepository implements PanacheRepository<Task> {
     public long countByStatus(TaskStatus status) {
         return count("status", status);
     }
+
+    /**
+     * 按状态分组统计任务数量（一次 GROUP BY 查询），没有任务的状态计为0
+     */
+    public Map<TaskStatus, Long> countGroupByStatus() {
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        for (TaskStatus status : TaskStatus.values()) {
+            counts.put(status, 0L);
+        }
+        List<Object[]> rows = getEntityManager()
+                .createQuery("SELECT t.status, COUNT(t) FROM Task t GROUP BY t.status", Object[].class)
+                .getResultList();
+        for (Object[] row : rows) {
+            counts.put((TaskStatus) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    /**
+     * 查找最近的任务（数据库端 LIMIT 分页，同时取回模板避免逐条懒加载）
+     */
+    public List<Task> findRecent(int limit) {
+        return find("SELECT t FROM Task t LEFT JOIN FETCH t.template ORDER BY t.createdAt DESC")
+                .page(0, limit)
+                .list();
+    }
+
+    /**
+     * 查找存在任务的模板ID
+     */
+    public List<Long> findTemplateIdsWithTasks() {
+        return getEntityManager()
+                .createQuery("SELECT DISTINCT t.template.id FROM Task t", Long.class)
+                .getResultList();
+    }
+
+    /**
+     * 查找指定模板下创建时间早于 cutoff 的已结束任务ID
+     */
+    public List<Long> findFinishedIdsCreatedBefore(Long templateId, List<TaskStatus> statuses,
+            LocalDateTime cutoff, int limit) {
+        return getEntityManager()
+                .createQuery("SELECT t.id FROM Task t WHERE t.template.id = :templateId"
+                        + " AND t.status IN :statuses AND t.createdAt < :cutoff ORDER BY t.createdAt", Long.class)
+                .setParameter("templateId", templateId)
+                .setParameter("statuses", statuses)
+                .setParameter("cutoff", cutoff)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 查找指定模板下除最新 keep 个之外的已结束任务ID
+     */
+    public List<Long> findFinishedIdsBeyondNewest(Long templateId, List<TaskStatus> statuses, int keep, int limit) {
+        return getEntityManager()
+                .createQuery("SELECT t.id FROM Task t WHERE t.template.id = :templateId"
+                        + " AND t.status IN :statuses ORDER BY t.createdAt DESC", Long.class)
+                .setParameter("templateId", templateId)
+                .setParameter("statuses", statuses)
+                .setFirstResult(keep)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 按任务名称或模板名称过滤（显式左连接模板，不依赖隐式路径产生的内连接）
+     */
+    private static final String FILTER_QUERY = " FROM Task t LEFT JOIN t.template tp"
+            + " WHERE lower(t.name) LIKE :pattern ESCAPE '\\' OR lower(tp.name) LIKE :pattern ESCAPE '\\'";
+
+    /**
+     * 分页查询任务（按任务名称或模板名称模糊过滤，filterPattern为空时不过滤）
+     */
+    public List<Task> findPage(String filterPattern, Sort sort, int offset, int limit) {
+        if (filterPattern == null) {
+            return findAll(sort).range(offset, offset + limit - 1).list();
+        }
+        // 排序字段来自视图的白名单，限定为任务自身的属性
+        StringBuilder jpql = new StringBuilder("SELECT t").append(FILTER_QUERY);
+        String separator = " ORDER BY ";
+        for (Sort.Column column : sort.getColumns()) {
+            jpql.append(separator).append("t.").append(column.getName())
+                    .append(column.getDirection() == Sort.Direction.Descending ? " DESC" : " ASC");
+            separator = ", ";
+        }
+        return getEntityManager().createQuery(jpql.toString(), Task.class)
+                .setParameter("pattern", filterPattern)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 统计符合过滤条件的任务数量
+     */
+    public long countByFilter(String filterPattern) {
+        if (filterPattern == null) {
+            return count();
+        }
+        return getEntityManager().createQuery("SELECT COUNT(t)" + FILTER_QUERY, Long.class)
+                .setParameter("pattern", filterPattern)
+                .getSingleResult();
+    }
 }
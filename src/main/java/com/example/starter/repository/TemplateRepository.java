@@ -2,7 +2,9 @@ package com.example.starter.repository;
 
 import com.example.starter.entity.Template;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 import java.util.Optional;
@@ -59,6 +61,28 @@ public class TemplateRepository implements PanacheRepository<Template> {
      * 查找所有模板并关联加载项目和清单
      */
     public List<Template> findAllWithAssociations() {
-        return findAll().list();
+        return find("SELECT DISTINCT t FROM Template t LEFT JOIN FETCH t.project LEFT JOIN FETCH t.inventory")
+                .withHint(HibernateHints.HINT_CACHEABLE, true)
+                .list();
+    }
+
+    /**
+     * 分页查询模板（按名称模糊过滤，filterPattern为空时不过滤）
+     */
+    public List<Template> findPage(String filterPattern, Sort sort, int offset, int limit) {
+        if (filterPattern == null) {
+            return findAll(sort).range(offset, offset + limit - 1).list();
+        }
+        return find("lower(name) like ?1 escape '\\'", sort, filterPattern).range(offset, offset + limit - 1).list();
+    }
+
+    /**
+     * 统计符合过滤条件的模板数量
+     */
+    public long countByFilter(String filterPattern) {
+        if (filterPattern == null) {
+            return count();
+        }
+        return count("lower(name) like ?1 escape '\\'", filterPattern);
     }
 }
@@ -0,0 +1,216 @@
+package com.example.starter.service;
+
+import com.example.starter.entity.MetricBucket;
+import com.example.starter.entity.MetricBucket.Resolution;
+import com.example.starter.repository.MetricBucketRepository;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 时间序列指标服务
+ * 任务和主机事件先累加到内存中的分钟桶，定时写入 metric_buckets 表并上卷到小时桶和天桶；
+ * 图表按时间范围读取预聚合的桶数据。
+ */
+@ApplicationScoped
+public class MetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsService.class);
+
+    /**
+     * 尚未落库的分钟桶，key 为分钟起始时间
+     */
+    private final Map<LocalDateTime, MetricBucket> pending = new ConcurrentHashMap<>();
+
+    @Inject
+    MetricBucketRepository metricBucketRepository;
+
+    @ConfigProperty(name = "metrics.timeseries.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "metrics.timeseries.minute-retention-hours", defaultValue = "48")
+    int minuteRetentionHours;
+
+    @ConfigProperty(name = "metrics.timeseries.hour-retention-days", defaultValue = "90")
+    int hourRetentionDays;
+
+    /**
+     * 记录任务开始执行
+     *
+     * @param queueWait 从创建到开始执行的等待时间，未知时为null
+     */
+    public void recordTaskStarted(Duration queueWait) {
+        record(bucket -> {
+            bucket.tasksStarted++;
+            if (queueWait != null) {
+                bucket.queueWaitSumMs += Math.max(0, queueWait.toMillis());
+                bucket.queueWaitCount++;
+            }
+        });
+    }
+
+    /**
+     * 记录任务执行结束
+     *
+     * @param duration 执行耗时，未知时为null
+     */
+    public void recordTaskFinished(boolean success, Duration duration) {
+        record(bucket -> {
+            if (success) {
+                bucket.tasksSucceeded++;
+            } else {
+                bucket.tasksFailed++;
+            }
+            if (duration != null) {
+                long millis = Math.max(0, duration.toMillis());
+                bucket.durationSumMs += millis;
+                bucket.durationCount++;
+                bucket.durationMaxMs = Math.max(bucket.durationMaxMs, millis);
+            }
+        });
+    }
+
+    /**
+     * 记录一次主机连接检测
+     */
+    public void recordHostCheck(boolean reachable) {
+        record(bucket -> {
+            bucket.hostChecks++;
+            if (reachable) {
+                bucket.hostReachable++;
+            }
+        });
+    }
+
+    /**
+     * 查询时间范围 [from, to) 内的指标桶，按时间升序
+     */
+    public List<MetricBucket> getSeries(Resolution resolution, LocalDateTime from, LocalDateTime to) {
+        return metricBucketRepository.findRange(resolution, resolution.truncate(from), to);
+    }
+
+    /**
+     * 查询最近一段时间的指标桶（包含当前未结束的桶）
+     */
+    public List<MetricBucket> getRecentSeries(Resolution resolution, int buckets) {
+        LocalDateTime end = resolution.truncate(LocalDateTime.now()).plus(1, resolution.getUnit());
+        return getSeries(resolution, end.minus(buckets, resolution.getUnit()), end);
+    }
+
+    /**
+     * 定时将已结束的分钟桶写入数据库，并清理过期的桶
+     */
+    @Scheduled(every = "{metrics.timeseries.flush-interval}", delayed = "1m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        if (!enabled) {
+            return;
+        }
+        flush(false);
+        purgeExpired();
+    }
+
+    /**
+     * 应用关闭前把当前分钟桶也写入数据库
+     */
+    void onShutdown(@Observes ShutdownEvent event) {
+        if (enabled) {
+            flush(true);
+        }
+    }
+
+    /**
+     * 写入待落库的分钟桶
+     *
+     * @param includeCurrent 是否包含当前仍在累加的分钟桶
+     */
+    public void flush(boolean includeCurrent) {
+        LocalDateTime currentMinute = Resolution.MINUTE.truncate(LocalDateTime.now());
+        List<MetricBucket> buckets = new ArrayList<>();
+        for (LocalDateTime start : new ArrayList<>(pending.keySet())) {
+            if (includeCurrent || start.isBefore(currentMinute)) {
+                MetricBucket bucket = pending.remove(start);
+                if (bucket != null) {
+                    buckets.add(bucket);
+                }
+            }
+        }
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        try {
+            persistBuckets(buckets);
+        } catch (Exception e) {
+            // 写入失败时放回内存，下次重试
+            logger.error("写入指标时间桶失败", e);
+            for (MetricBucket bucket : buckets) {
+                pending.merge(bucket.bucketStart, bucket, (existing, failed) -> {
+                    existing.add(failed);
+                    return existing;
+                });
+            }
+        }
+    }
+
+    /**
+     * 将分钟桶累加到对应的分钟、小时、天桶
+     */
+    @Transactional
+    public void persistBuckets(List<MetricBucket> minuteBuckets) {
+        for (MetricBucket minuteBucket : minuteBuckets) {
+            for (Resolution resolution : Resolution.values()) {
+                LocalDateTime start = resolution.truncate(minuteBucket.bucketStart);
+                MetricBucket bucket = metricBucketRepository.findBucket(resolution, start);
+                if (bucket == null) {
+                    bucket = new MetricBucket(resolution, start);
+                    metricBucketRepository.persist(bucket);
+                }
+                bucket.add(minuteBucket);
+            }
+        }
+    }
+
+    /**
+     * 按保留时间清理分钟桶和小时桶（天桶长期保留）
+     */
+    @Transactional
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        if (minuteRetentionHours > 0) {
+            metricBucketRepository.deleteOlderThan(Resolution.MINUTE, now.minusHours(minuteRetentionHours));
+        }
+        if (hourRetentionDays > 0) {
+            metricBucketRepository.deleteOlderThan(Resolution.HOUR, now.minusDays(hourRetentionDays));
+        }
+    }
+
+    /**
+     * 在当前分钟桶上累加（同一个桶的更新由 ConcurrentHashMap.compute 串行化）
+     */
+    private void record(Consumer<MetricBucket> update) {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime minute = Resolution.MINUTE.truncate(LocalDateTime.now());
+        pending.compute(minute, (start, bucket) -> {
+            MetricBucket target = bucket != null ? bucket : new MetricBucket(Resolution.MINUTE, start);
+            update.accept(target);
+            return target;
+        });
+    }
+}
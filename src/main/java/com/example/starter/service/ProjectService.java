@@ -4,6 +4,8 @@ import com.example.starter.entity.Project;
 import com.example.starter.exception.DuplicateResourceException;
 import com.example.starter.exception.ResourceNotFoundException;
 import com.example.starter.repository.ProjectRepository;
+import com.example.starter.util.GridSortUtil;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -118,7 +120,7 @@ public class ProjectService {
      * @return 项目列表
      */
     public List<Project> getAllProjects() {
-        return projectRepository.listAll();
+        return projectRepository.listAllCached();
     }
 
     /**
@@ -127,7 +129,7 @@ public class ProjectService {
      * @return 项目列表
      */
     public List<Project> getProjectResources() {
-        return projectRepository.listAll();
+        return projectRepository.listAllCached();
     }
 
     /**
@@ -146,7 +148,7 @@ public class ProjectService {
     /**
      * 将字符串编码为Base64
      */
-    private String encodeToBase64(String input) {
+    String encodeToBase64(String input) {
         if (input == null) {
             return "";
         }
@@ -156,11 +158,25 @@ public class ProjectService {
     /**
      * 从Base64解码字符串
      */
-    private String decodeFromBase64(String encoded) {
+    String decodeFromBase64(String encoded) {
         if (encoded == null || encoded.isEmpty()) {
             return "";
         }
         byte[] decodedBytes = Base64.getDecoder().decode(encoded);
         return new String(decodedBytes, StandardCharsets.UTF_8);
     }
+
+    /**
+     * 分页查询项目（供Grid懒加载使用）
+     */
+    public List<Project> getProjectsPage(String filter, Sort sort, int offset, int limit) {
+        return projectRepository.findPage(GridSortUtil.toLikePattern(filter), sort, offset, limit);
+    }
+
+    /**
+     * 统计符合过滤条件的项目数量
+     */
+    public long countProjects(String filter) {
+        return projectRepository.countByFilter(GridSortUtil.toLikePattern(filter));
+    }
 }
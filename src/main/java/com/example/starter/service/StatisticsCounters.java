@@ -0,0 +1,209 @@
+package com.example.starter.service;
+
+import com.example.starter.entity.Task.TaskStatus;
+import com.example.starter.repository.InventoryHostRepository;
+import com.example.starter.repository.TaskRepository;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计计数器 - 在内存中增量维护任务状态和主机连接数量
+ * 状态变更点在事务提交后更新计数，定时与数据库对账修正偏差，
+ * 资源预览页面读取统计时不再访问数据库。
+ */
+@ApplicationScoped
+public class StatisticsCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCounters.class);
+
+    private final Map<TaskStatus, LongAdder> taskCounts = new EnumMap<>(TaskStatus.class);
+
+    private final LongAdder hostTotal = new LongAdder();
+
+    private final LongAdder hostConnected = new LongAdder();
+
+    /**
+     * 计数是否需要从数据库重新加载（启动后或批量变更后）
+     */
+    private volatile boolean stale = true;
+
+    @Inject
+    TaskRepository taskRepository;
+
+    @Inject
+    InventoryHostRepository hostRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    public StatisticsCounters() {
+        for (TaskStatus status : TaskStatus.values()) {
+            taskCounts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * 新任务创建
+     */
+    public void taskCreated(TaskStatus status) {
+        transactionCallbacks.afterCommit(() -> taskCounts.get(status).increment());
+    }
+
+    /**
+     * 任务状态变更
+     */
+    public void taskStatusChanged(TaskStatus from, TaskStatus to) {
+        if (from == to) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> {
+            if (from != null) {
+                taskCounts.get(from).decrement();
+            }
+            taskCounts.get(to).increment();
+        });
+    }
+
+    /**
+     * 任务删除或归档
+     */
+    public void taskRemoved(TaskStatus status) {
+        transactionCallbacks.afterCommit(() -> taskCounts.get(status).decrement());
+    }
+
+    /**
+     * 新主机创建
+     */
+    public void hostCreated(boolean connected) {
+        transactionCallbacks.afterCommit(() -> {
+            hostTotal.increment();
+            if (connected) {
+                hostConnected.increment();
+            }
+        });
+    }
+
+    /**
+     * 主机连接状态变更
+     */
+    public void hostConnectionChanged(boolean wasConnected, boolean connected) {
+        if (wasConnected == connected) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> {
+            if (connected) {
+                hostConnected.increment();
+            } else {
+                hostConnected.decrement();
+            }
+        });
+    }
+
+    /**
+     * 主机删除
+     */
+    public void hostRemoved(boolean connected) {
+        transactionCallbacks.afterCommit(() -> {
+            hostTotal.decrement();
+            if (connected) {
+                hostConnected.decrement();
+            }
+        });
+    }
+
+    /**
+     * 标记计数失效（批量变更、级联删除等无法逐条跟踪的场景），下次读取时重新加载
+     */
+    public void invalidate() {
+        transactionCallbacks.afterCommit(() -> stale = true);
+    }
+
+    /**
+     * 各状态任务数量
+     */
+    public Map<TaskStatus, Long> getTaskCounts() {
+        ensureLoaded();
+        Map<TaskStatus, Long> counts = new EnumMap<>(TaskStatus.class);
+        taskCounts.forEach((status, adder) -> counts.put(status, Math.max(0, adder.sum())));
+        return counts;
+    }
+
+    /**
+     * 当前内存中指定状态的任务数，不触发数据库加载（供指标采集线程读取，计数未加载时为0）
+     */
+    public long peekTaskCount(TaskStatus status) {
+        return Math.max(0, taskCounts.get(status).sum());
+    }
+
+    /**
+     * 主机总数
+     */
+    public long getHostTotal() {
+        ensureLoaded();
+        return Math.max(0, hostTotal.sum());
+    }
+
+    /**
+     * 已连接主机数
+     */
+    public long getHostConnected() {
+        ensureLoaded();
+        return Math.max(0, hostConnected.sum());
+    }
+
+    /**
+     * 定时与数据库对账
+     */
+    @Scheduled(every = "{statistics.counters.reconcile-interval}", delayed = "30s",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledReconcile() {
+        reconcile();
+    }
+
+    /**
+     * 从数据库重新加载计数（两条聚合查询）
+     * 加载与并发增量之间存在短暂竞争，产生的偏差在下一次对账时修正
+     */
+    public synchronized void reconcile() {
+        Map<TaskStatus, Long> counts = taskRepository.countGroupByStatus();
+        long[] hostCounts = hostRepository.countTotalAndConnected();
+
+        boolean drifted = false;
+        for (TaskStatus status : TaskStatus.values()) {
+            drifted |= reset(taskCounts.get(status), counts.getOrDefault(status, 0L));
+        }
+        drifted |= reset(hostTotal, hostCounts[0]);
+        drifted |= reset(hostConnected, hostCounts[1]);
+
+        if (drifted && !stale) {
+            logger.debug("统计计数与数据库存在偏差，已修正");
+        }
+        stale = false;
+    }
+
+    private void ensureLoaded() {
+        if (stale) {
+            reconcile();
+        }
+    }
+
+    /**
+     * 将计数器调整为目标值
+     *
+     * @return 调整前是否存在偏差
+     */
+    private boolean reset(LongAdder adder, long value) {
+        long delta = value - adder.sum();
+        if (delta != 0) {
+            adder.add(delta);
+        }
+        return delta != 0;
+    }
+}
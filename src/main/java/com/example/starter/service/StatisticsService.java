@@ -1,12 +1,21 @@
 package com.example.starter.service;
 
-import com.example.starter.entity.*;
+import com.example.starter.entity.MetricBucket;
+import com.example.starter.entity.MetricBucket.Resolution;
+import com.example.starter.entity.Task;
 import com.example.starter.entity.Task.TaskStatus;
 import com.example.starter.repository.*;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,27 +40,71 @@ public class StatisticsService {
     @Inject
     TaskRepository taskRepository;
 
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    MetricsService metricsService;
+
     /**
-     * 获取主机统计信息
+     * 为true时主机和任务统计直接读取内存计数器，否则每次查询数据库
      */
-    public Map<String, Object> getHostStatistics() {
-        Map<String, Object> stats = new HashMap<>();
+    @ConfigProperty(name = "statistics.counters.enabled", defaultValue = "true")
+    boolean countersEnabled;
 
-        List<InventoryHost> hosts = hostRepository.listAll();
-        long totalHosts = hosts.size();
+    /**
+     * 主机统计
+     */
+    public record HostStatistics(long total, long connected, long disconnected, double connectionRate) {
+    }
 
-        long connectedHosts = hosts.stream()
-                .filter(InventoryHost::getConnected)
-                .count();
+    /**
+     * 任务统计
+     */
+    public record TaskStatistics(long total, long pending, long running, long success, long failed,
+            long cancelled, long completed, double successRate) {
+    }
 
-        long disconnectedHosts = totalHosts - connectedHosts;
+    /**
+     * 缓存区域统计
+     */
+    public record CacheRegionStats(long hits, long misses, long puts, long elements) {
+    }
 
-        stats.put("total", totalHosts);
-        stats.put("connected", connectedHosts);
-        stats.put("disconnected", disconnectedHosts);
-        stats.put("connectionRate", totalHosts > 0 ? (connectedHosts * 100.0 / totalHosts) : 0.0);
+    /**
+     * 二级缓存和查询缓存统计
+     */
+    public record CacheStatistics(boolean enabled, long hits, long misses, long puts, double hitRate,
+            long queryHits, long queryMisses, Map<String, CacheRegionStats> regions) {
+    }
 
-        return stats;
+    /**
+     * 资源预览页面所需的全部统计数据
+     */
+    public record DashboardStatistics(HostStatistics hosts, long inventories, long projects, long templates,
+            TaskStatistics tasks, List<Task> recentTasks, CacheStatistics cache, List<MetricBucket> hourlyTrend) {
+    }
+
+    /**
+     * 获取主机统计信息（内存计数或数据库端聚合，不加载主机实体）
+     */
+    public HostStatistics getHostStatistics() {
+        long totalHosts;
+        long connectedHosts;
+        if (countersEnabled) {
+            totalHosts = statisticsCounters.getHostTotal();
+            connectedHosts = Math.min(statisticsCounters.getHostConnected(), totalHosts);
+        } else {
+            long[] counts = hostRepository.countTotalAndConnected();
+            totalHosts = counts[0];
+            connectedHosts = counts[1];
+        }
+
+        return new HostStatistics(totalHosts, connectedHosts, totalHosts - connectedHosts,
+                totalHosts > 0 ? (connectedHosts * 100.0 / totalHosts) : 0.0);
     }
 
     /**
@@ -76,56 +129,89 @@ public class StatisticsService {
     }
 
     /**
-     * 获取任务统计信息
+     * 获取任务统计信息（一次 GROUP BY 查询得到各状态数量）
      */
-    public Map<String, Object> getTaskStatistics() {
-        Map<String, Object> stats = new HashMap<>();
-
-        long totalTasks = taskRepository.count();
-        long pendingTasks = taskRepository.countByStatus(TaskStatus.PENDING);
-        long runningTasks = taskRepository.countByStatus(TaskStatus.RUNNING);
-        long successTasks = taskRepository.countByStatus(TaskStatus.SUCCESS);
-        long failedTasks = taskRepository.countByStatus(TaskStatus.FAILED);
-        long cancelledTasks = taskRepository.countByStatus(TaskStatus.CANCELLED);
-
-        stats.put("total", totalTasks);
-        stats.put("pending", pendingTasks);
-        stats.put("running", runningTasks);
-        stats.put("success", successTasks);
-        stats.put("failed", failedTasks);
-        stats.put("cancelled", cancelledTasks);
+    public TaskStatistics getTaskStatistics() {
+        Map<TaskStatus, Long> counts = countersEnabled
+                ? statisticsCounters.getTaskCounts()
+                : taskRepository.countGroupByStatus();
+
+        long pendingTasks = counts.get(TaskStatus.PENDING);
+        long runningTasks = counts.get(TaskStatus.RUNNING);
+        long successTasks = counts.get(TaskStatus.SUCCESS);
+        long failedTasks = counts.get(TaskStatus.FAILED);
+        long cancelledTasks = counts.get(TaskStatus.CANCELLED);
+        long totalTasks = counts.values().stream().mapToLong(Long::longValue).sum();
 
         long completedTasks = successTasks + failedTasks + cancelledTasks;
-        stats.put("completed", completedTasks);
-        stats.put("successRate", completedTasks > 0 ? (successTasks * 100.0 / completedTasks) : 0.0);
-
-        return stats;
+        return new TaskStatistics(totalTasks, pendingTasks, runningTasks, successTasks, failedTasks,
+                cancelledTasks, completedTasks,
+                completedTasks > 0 ? (successTasks * 100.0 / completedTasks) : 0.0);
     }
 
     /**
      * 获取最近的任务
      */
     public List<Task> getRecentTasks(int limit) {
-        List<Task> allTasks = taskRepository.findAllOrderByCreatedAtDesc();
-        if (allTasks.size() > limit) {
-            return allTasks.subList(0, limit);
+        return taskRepository.findRecent(limit);
+    }
+
+    /**
+     * 获取最近若干小时的指标趋势（读取预聚合的小时桶，没有数据的小时补空桶）
+     */
+    public List<MetricBucket> getHourlyTrend(int hours) {
+        Map<LocalDateTime, MetricBucket> buckets = new HashMap<>();
+        for (MetricBucket bucket : metricsService.getRecentSeries(Resolution.HOUR, hours)) {
+            buckets.put(bucket.getBucketStart(), bucket);
+        }
+
+        List<MetricBucket> trend = new ArrayList<>(hours);
+        LocalDateTime start = Resolution.HOUR.truncate(LocalDateTime.now()).minusHours(hours - 1L);
+        for (int i = 0; i < hours; i++) {
+            LocalDateTime hour = start.plusHours(i);
+            trend.add(buckets.getOrDefault(hour, new MetricBucket(Resolution.HOUR, hour)));
         }
-        return allTasks;
+        return trend;
     }
 
     /**
-     * 获取所有统计数据
+     * 获取二级缓存和查询缓存的命中统计（需开启 quarkus.hibernate-orm.statistics）
      */
-    public Map<String, Object> getAllStatistics() {
-        Map<String, Object> allStats = new HashMap<>();
+    public CacheStatistics getCacheStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+
+        // 各缓存区域的命中情况
+        Map<String, CacheRegionStats> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            regions.put(regionName, new CacheRegionStats(region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory()));
+        }
 
-        allStats.put("hosts", getHostStatistics());
-        allStats.put("inventories", getInventoryCount());
-        allStats.put("projects", getProjectCount());
-        allStats.put("templates", getTemplateCount());
-        allStats.put("tasks", getTaskStatistics());
-        allStats.put("recentTasks", getRecentTasks(5));
+        return new CacheStatistics(statistics.isStatisticsEnabled(), hits, misses,
+                statistics.getSecondLevelCachePutCount(),
+                hits + misses > 0 ? (hits * 100.0 / (hits + misses)) : 0.0,
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(), regions);
+    }
 
-        return allStats;
+    /**
+     * 获取所有统计数据
+     */
+    public DashboardStatistics getAllStatistics() {
+        return new DashboardStatistics(
+                getHostStatistics(),
+                getInventoryCount(),
+                getProjectCount(),
+                getTemplateCount(),
+                getTaskStatistics(),
+                getRecentTasks(5),
+                getCacheStatistics(),
+                getHourlyTrend(24));
     }
 }
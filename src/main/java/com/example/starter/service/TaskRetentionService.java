@@ -0,0 +1,235 @@
+package com.example.starter.service;
+
+import com.example.starter.entity.Task;
+import com.example.starter.entity.Task.TaskStatus;
+import com.example.starter.entity.TaskArchive;
+import com.example.starter.entity.Template;
+import com.example.starter.repository.TaskArchiveRepository;
+import com.example.starter.repository.TaskRepository;
+import com.example.starter.repository.TemplateRepository;
+import com.example.starter.util.UIBroadcaster;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 任务保留服务 - 按模板的保留策略将历史任务移入归档表
+ * 日志压缩为gzip后存放到归档目录，任务临时目录随之删除，保持 tasks 表和临时目录规模可控
+ */
+@ApplicationScoped
+public class TaskRetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskRetentionService.class);
+
+    /**
+     * 只归档已结束的任务
+     */
+    private static final List<TaskStatus> FINISHED_STATUSES = List.of(
+            TaskStatus.SUCCESS, TaskStatus.FAILED, TaskStatus.CANCELLED);
+
+    private static final DateTimeFormatter ARCHIVE_MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    @Inject
+    TaskRepository taskRepository;
+
+    @Inject
+    TaskArchiveRepository taskArchiveRepository;
+
+    @Inject
+    TemplateRepository templateRepository;
+
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
+    @ConfigProperty(name = "task.retention.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "task.retention.max-age-days", defaultValue = "90")
+    int defaultMaxAgeDays;
+
+    @ConfigProperty(name = "task.retention.max-count", defaultValue = "500")
+    int defaultMaxCount;
+
+    @ConfigProperty(name = "task.retention.batch-size", defaultValue = "100")
+    int batchSize;
+
+    @ConfigProperty(name = "task.retention.archive.directory", defaultValue = "tmp/wmc-deploy-archive")
+    String archiveDirectory;
+
+    /**
+     * 定时执行保留策略
+     */
+    @Scheduled(every = "{task.retention.interval}", delayed = "1m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRetention() {
+        if (!enabled) {
+            return;
+        }
+        runRetention();
+    }
+
+    /**
+     * 对所有模板执行一次保留策略
+     *
+     * @return 本次归档的任务数量
+     */
+    public int runRetention() {
+        int archived = 0;
+        for (Long templateId : taskRepository.findTemplateIdsWithTasks()) {
+            archived += applyPolicy(templateId);
+        }
+
+        if (archived > 0) {
+            logger.info("任务保留策略执行完成，共归档 {} 个任务", archived);
+            uiBroadcaster.broadcastRefresh("tasks");
+            uiBroadcaster.broadcastRefresh("dashboard");
+        }
+        return archived;
+    }
+
+    /**
+     * 对单个模板执行保留策略（先按时间，再按数量）
+     */
+    private int applyPolicy(Long templateId) {
+        Template template = templateRepository.findById(templateId);
+        int maxAgeDays = template != null && template.getRetentionMaxAgeDays() != null
+                ? template.getRetentionMaxAgeDays()
+                : defaultMaxAgeDays;
+        int maxCount = template != null && template.getRetentionMaxCount() != null
+                ? template.getRetentionMaxCount()
+                : defaultMaxCount;
+
+        int archived = 0;
+        try {
+            if (maxAgeDays > 0) {
+                LocalDateTime cutoff = LocalDateTime.now().minusDays(maxAgeDays);
+                List<Long> taskIds;
+                while (!(taskIds = taskRepository.findFinishedIdsCreatedBefore(
+                        templateId, FINISHED_STATUSES, cutoff, batchSize)).isEmpty()) {
+                    archived += archiveAndCleanup(taskIds);
+                }
+            }
+            if (maxCount > 0) {
+                List<Long> taskIds;
+                while (!(taskIds = taskRepository.findFinishedIdsBeyondNewest(
+                        templateId, FINISHED_STATUSES, maxCount, batchSize)).isEmpty()) {
+                    archived += archiveAndCleanup(taskIds);
+                }
+            }
+        } catch (Exception e) {
+            // 本轮跳过该模板，下次调度时重试
+            logger.error("归档模板任务失败，模板ID: " + templateId, e);
+        }
+        return archived;
+    }
+
+    /**
+     * 归档一批任务，事务提交后再删除临时目录
+     */
+    private int archiveAndCleanup(List<Long> taskIds) {
+        List<String> tempDirectories = archiveBatch(taskIds);
+        for (String tempDirectory : tempDirectories) {
+            deleteDirectory(Paths.get(tempDirectory));
+        }
+        return taskIds.size();
+    }
+
+    /**
+     * 在独立的小事务中归档一批任务：压缩日志、写入归档表、删除任务记录
+     *
+     * @return 需要清理的临时目录
+     */
+    @Transactional(TxType.REQUIRES_NEW)
+    public List<String> archiveBatch(List<Long> taskIds) {
+        List<String> tempDirectories = new ArrayList<>();
+        for (Long taskId : taskIds) {
+            Task task = taskRepository.findById(taskId);
+            if (task == null || !FINISHED_STATUSES.contains(task.getStatus())) {
+                continue;
+            }
+
+            taskArchiveRepository.persist(new TaskArchive(task, compressLog(task)));
+            if (task.getTempDirectory() != null && !task.getTempDirectory().isEmpty()) {
+                tempDirectories.add(task.getTempDirectory());
+            }
+            taskRepository.delete(task);
+            statisticsCounters.taskRemoved(task.getStatus());
+        }
+        return tempDirectories;
+    }
+
+    /**
+     * 将任务日志压缩到归档目录（按月份分目录）
+     *
+     * @return 压缩文件路径，日志不存在时返回null
+     */
+    private String compressLog(Task task) {
+        if (task.getLogFilePath() == null) {
+            return null;
+        }
+
+        Path logPath = Paths.get(task.getLogFilePath());
+        if (!Files.exists(logPath)) {
+            return null;
+        }
+
+        LocalDateTime createdAt = task.getCreatedAt() != null ? task.getCreatedAt() : LocalDateTime.now();
+        Path target = Paths.get(archiveDirectory, createdAt.format(ARCHIVE_MONTH_FORMATTER),
+                "task-" + task.getId() + ".log.gz");
+        try {
+            Files.createDirectories(target.getParent());
+            try (InputStream in = Files.newInputStream(logPath);
+                    OutputStream out = new GZIPOutputStream(Files.newOutputStream(target))) {
+                in.transferTo(out);
+            }
+            return target.toAbsolutePath().toString();
+        } catch (IOException e) {
+            // 日志未能保存时不能删除任务和临时目录，抛出异常让整批回滚
+            throw new UncheckedIOException("压缩任务日志失败: " + logPath, e);
+        }
+    }
+
+    /**
+     * 递归删除目录
+     */
+    private void deleteDirectory(Path directory) {
+        if (!Files.exists(directory)) {
+            return;
+        }
+
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    logger.error("删除文件失败: " + path, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.error("清理临时目录失败: " + directory, e);
+        }
+    }
+}
@@ -4,10 +4,32 @@ import com.example.starter.entity.*;
 import com.example.starter.exception.ResourceNotFoundException;
 import com.example.starter.repository.TaskRepository;
 import com.example.starter.repository.TemplateRepository;
+import com.example.starter.service.inventory.HostPatternMatcher;
+import com.example.starter.service.inventory.InventoryFileGenerator;
+import com.example.starter.service.inventory.InventorySnapshot;
+import com.example.starter.service.inventory.InventorySnapshotCache;
+import com.example.starter.service.inventory.source.InventorySourceService;
+import com.example.starter.service.search.TaskLogIndexService;
+import com.example.starter.util.ChangeEvent;
+import com.example.starter.util.GridSortUtil;
 import com.example.starter.util.UIBroadcaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.quarkus.panache.common.Sort;
+import io.quarkus.runtime.StartupEvent;
 import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.transaction.Transactional.TxType;
@@ -22,9 +44,14 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -42,6 +69,39 @@ public class TaskService {
     @Inject
     TemplateRepository templateRepository;
 
+    @Inject
+    InventorySnapshotCache inventorySnapshotCache;
+
+    @Inject
+    InventorySourceService inventorySourceService;
+
+    @Inject
+    InventoryFileGenerator inventoryFileGenerator;
+
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    MetricsService metricsService;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    TaskLogIndexService taskLogIndexService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    OpenTelemetry openTelemetry;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
     @ConfigProperty(name = "ansible.path", defaultValue = "/usr/bin/ansible-playbook")
     String ansiblePath;
 
@@ -51,27 +111,62 @@ public class TaskService {
     @ConfigProperty(name = "task.temp.directory", defaultValue = "tmp/wmc-deploy-tasks")
     String taskTempDirectory;
 
+    /**
+     * 主机范围文件名（每行一个主机，以 --limit @文件 的形式传给 ansible）
+     */
+    private static final String LIMIT_FILE_NAME = "limit.txt";
+
     // 存储正在运行的任务进程，用于取消任务
     private final Map<Long, Process> runningProcesses = new ConcurrentHashMap<>();
 
+    /**
+     * 注册排队和运行中任务数的指标
+     */
+    void registerMetrics(@Observes StartupEvent event) {
+        Gauge.builder("wmc.tasks.queued", statisticsCounters,
+                counters -> counters.peekTaskCount(Task.TaskStatus.PENDING))
+                .register(meterRegistry);
+        Gauge.builder("wmc.tasks.running", runningProcesses, Map::size)
+                .register(meterRegistry);
+    }
+
     /**
      * 创建并启动任务
      */
     @Transactional
     public Task createAndStartTask(String taskName, Long templateId) {
+        return createAndStartTask(taskName, templateId, null);
+    }
+
+    /**
+     * 创建并启动任务
+     *
+     * @param hostLimit 本次执行的主机范围（ansible 主机模式），为空时使用模板的主机范围
+     */
+    @WithSpan("task.create")
+    @Transactional
+    public Task createAndStartTask(String taskName, Long templateId, String hostLimit) {
         // 查找模板
         Template template = templateRepository.findById(templateId);
         if (template == null) {
             throw new ResourceNotFoundException("模板不存在，ID: " + templateId);
         }
+        HostPatternMatcher.validate(hostLimit);
 
         // 创建任务
         Task task = new Task(taskName, template);
+        if (hostLimit != null && !hostLimit.isBlank()) {
+            task.setHostLimit(hostLimit.trim());
+        }
         taskRepository.persist(task);
         taskRepository.flush(); // 确保获取到ID
+        statisticsCounters.taskCreated(task.getStatus());
+        publishTaskChange(ChangeEvent.created("task", task.getId(), task.getStatus().name()));
+        Span.current().setAttribute("wmc.task.id", task.getId());
+        Span.current().setAttribute("wmc.template.name", template.getName());
 
-        // 异步执行任务（使用Quarkus的异步执行器）
-        Infrastructure.getDefaultWorkerPool().submit(() -> executeTask(task));
+        // 异步执行任务（使用Quarkus的异步执行器），执行 span 挂在当前 trace 下
+        Infrastructure.getDefaultWorkerPool().submit(Context.current().wrap(() -> executeTask(task)));
 
         return task;
     }
@@ -79,6 +174,7 @@ public class TaskService {
     /**
      * 重新启动任务
      */
+    @WithSpan("task.restart")
     @Transactional
     public Task restartTask(Long taskId) {
         Task task = taskRepository.findById(taskId);
@@ -87,14 +183,18 @@ public class TaskService {
         }
 
         // 重置任务状态
+        statisticsCounters.taskStatusChanged(task.getStatus(), Task.TaskStatus.PENDING);
         task.setStatus(Task.TaskStatus.PENDING);
         task.setStartedAt(null);
         task.setFinishedAt(null);
         task.setErrorMessage(null);
         taskRepository.persist(task);
+        publishTaskChange(ChangeEvent.updated("task", task.getId(), task.getStatus().name(),
+                "status", "startedAt", "finishedAt", "errorMessage"));
+        Span.current().setAttribute("wmc.task.id", task.getId());
 
-        // 异步执行任务（使用Quarkus的异步执行器）
-        Infrastructure.getDefaultWorkerPool().submit(() -> executeTask(task));
+        // 异步执行任务（使用Quarkus的异步执行器），执行 span 挂在当前 trace 下
+        Infrastructure.getDefaultWorkerPool().submit(Context.current().wrap(() -> executeTask(task)));
 
         return task;
     }
@@ -119,9 +219,12 @@ public class TaskService {
         }
 
         // 更新任务状态
+        statisticsCounters.taskStatusChanged(task.getStatus(), Task.TaskStatus.CANCELLED);
         task.setStatus(Task.TaskStatus.CANCELLED);
         task.setFinishedAt(LocalDateTime.now());
         taskRepository.persist(task);
+        publishTaskChange(ChangeEvent.updated("task", task.getId(), task.getStatus().name(),
+                "status", "finishedAt"));
 
         return task;
     }
@@ -135,14 +238,17 @@ public class TaskService {
 
     /**
      * 根据ID获取任务
+     * 开启事务以便在没有请求上下文的线程（如界面轮询线程）中调用
      */
+    @Transactional
     public Task getTaskById(Long taskId) {
         return taskRepository.findById(taskId);
     }
 
     /**
-     * 读取任务日志
+     * 读取任务日志（日志实时刷新时在界面轮询线程中调用）
      */
+    @Transactional
     public String getTaskLog(Long taskId) {
         Task task = taskRepository.findById(taskId);
         if (task == null) {
@@ -170,6 +276,7 @@ public class TaskService {
      * 执行任务（在独立线程中运行）
      * 使用@ActivateRequestContext确保在异步线程中有CDI请求上下文
      */
+    @WithSpan("task.execute")
     @ActivateRequestContext
     public void executeTask(Task task) {
         // 重新加载Task对象以获取最新状态（因为传入的可能是detached对象）
@@ -179,9 +286,13 @@ public class TaskService {
             logger.error("任务不存在，ID: {}", originalTaskId);
             return;
         }
+        Span span = Span.current();
+        span.setAttribute("wmc.task.id", task.getId());
+        span.setAttribute("wmc.template.name", task.getTemplate().getName());
+        if (hasHostLimit(task)) {
+            span.setAttribute("wmc.task.host_limit", task.getEffectiveHostLimit());
+        }
 
-        ProcessBuilder processBuilder = null;
-        Process process = null;
         File logFile = null;
         boolean isNewExecution = false;
         String tempDirPath = null;
@@ -196,7 +307,7 @@ public class TaskService {
                 logFile = new File(tempDirPath, "execution.log");
                 // 重新生成playbook和inventory文件
                 playbookPath = generatePlaybookFile(task.getTemplate().getProject(), tempDirPath);
-                inventoryPath = generateInventoryFile(task.getTemplate().getInventory(), tempDirPath);
+                inventoryPath = generateInventoryFile(task, tempDirPath);
                 logger.info("重用现有临时目录: {}", tempDirPath);
             } else {
                 // 创建临时目录
@@ -204,7 +315,7 @@ public class TaskService {
                 // 生成playbook文件
                 playbookPath = generatePlaybookFile(task.getTemplate().getProject(), tempDirPath);
                 // 生成inventory文件（YAML格式）
-                inventoryPath = generateInventoryFile(task.getTemplate().getInventory(), tempDirPath);
+                inventoryPath = generateInventoryFile(task, tempDirPath);
                 // 创建日志文件
                 logFile = new File(tempDirPath, "execution.log");
                 isNewExecution = true;
@@ -212,14 +323,55 @@ public class TaskService {
             }
 
             // 关键节点：更新任务状态为运行中
+            Timer.Sample runningUpdate = Timer.start(meterRegistry);
             updateTaskStatusToRunning(task.getId(), tempDirPath, logFile.getAbsolutePath(), isNewExecution);
+            runningUpdate.stop(statusUpdateTimer("running"));
+
+            int exitCode = runPlaybook(task, tempDirPath, playbookPath, inventoryPath, logFile, isNewExecution);
+            span.setAttribute("wmc.task.exit_code", exitCode);
+
+            // 关键节点：更新任务状态为完成或失败
+            Timer.Sample finishedUpdate = Timer.start(meterRegistry);
+            updateTaskStatusAfterExecution(task.getId(), exitCode, null);
+            finishedUpdate.stop(statusUpdateTimer("finished"));
+
+            logger.info("任务执行完成: {} (ID: {}), 状态: {}, 退出码: {}",
+                    task.getName(), task.getId(),
+                    exitCode == 0 ? Task.TaskStatus.SUCCESS : Task.TaskStatus.FAILED, exitCode);
+        } catch (Exception e) {
+            logger.error("任务执行出错: " + task.getName() + " (ID: " + task.getId() + ")", e);
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+
+            // 更新任务状态为失败（在小事务中）
+            updateTaskStatusAfterExecution(task.getId(), -1, e.getMessage());
+
+        } finally {
+            // 清理
+            Process process = runningProcesses.remove(task.getId());
+            if (process != null) {
+                process.destroy();
+            }
+        }
+    }
 
+    /**
+     * 启动 ansible-playbook 进程，把输出写入日志文件和日志索引，返回退出码
+     * 当前 trace 上下文以 TRACEPARENT / TRACESTATE 环境变量传给 ansible，
+     * 启用 OpenTelemetry 回调插件时每个 play 和主机的 span 会挂在 ansible.run 之下
+     */
+    private int runPlaybook(Task task, String tempDirPath, String playbookPath, String inventoryPath, File logFile,
+            boolean isNewExecution) throws IOException, InterruptedException {
+        Span span = tracer.spanBuilder("ansible.run").startSpan();
+        try (Scope ignored = span.makeCurrent()) {
             // 构建ansible-playbook命令
-            processBuilder = new ProcessBuilder(
-                    ansiblePath,
-                    "-i", inventoryPath,
-                    playbookPath,
-                    "-v");
+            List<String> command = new ArrayList<>(List.of(ansiblePath, "-i", inventoryPath, playbookPath, "-v"));
+            if (hasHostLimit(task)) {
+                // 清单文件已只包含范围内的主机，--limit 再限定一次，防止 playbook 访问范围外的主机
+                command.add("--limit");
+                command.add("@" + Paths.get(tempDirPath, LIMIT_FILE_NAME).toAbsolutePath());
+            }
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
 
             // 设置工作目录
             processBuilder.directory(new File(tempDirPath));
@@ -237,76 +389,104 @@ public class TaskService {
                     logger.debug("设置环境变量: {}={}", envVarName, envVarValue);
                 }
             }
+            openTelemetry.getPropagators().getTextMapPropagator().inject(Context.current(), environment,
+                    (env, key, value) -> env.put(key.toUpperCase(Locale.ROOT), value));
 
             // 启动进程
-            process = processBuilder.start();
+            Process process = processBuilder.start();
             runningProcesses.put(task.getId(), process);
+            span.setAttribute("process.pid", process.pid());
 
-            // 读取进程输出并写入日志文件（追加模式）
+            // 读取进程输出并写入日志文件（追加模式），同时写入日志索引
+            Counter logBytes = meterRegistry.counter("wmc.task.log.bytes");
+            long lines = 0;
             try (BufferedReader reader = new BufferedReader(
                     new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
                     BufferedWriter writer = new BufferedWriter(
-                            new OutputStreamWriter(new FileOutputStream(logFile, !isNewExecution),
-                                    StandardCharsets.UTF_8))) {
+                            new OutputStreamWriter(new CountingOutputStream(
+                                    new FileOutputStream(logFile, !isNewExecution), logBytes),
+                                    StandardCharsets.UTF_8));
+                    TaskLogIndexService.Writer logIndex = taskLogIndexService.open(task.getId(), null)) {
 
                 String line;
                 while ((line = reader.readLine()) != null) {
                     writer.write(line);
                     writer.newLine();
                     writer.flush();
+                    logIndex.append(line);
+                    lines++;
                 }
             }
+            span.setAttribute("wmc.task.log_lines", lines);
 
             // 等待进程完成
             int exitCode = process.waitFor();
-
-            // 关键节点：更新任务状态为完成或失败
-            updateTaskStatusAfterExecution(task.getId(), exitCode, null);
-
-            logger.info("任务执行完成: {} (ID: {}), 状态: {}, 退出码: {}",
-                    task.getName(), task.getId(),
-                    exitCode == 0 ? Task.TaskStatus.SUCCESS : Task.TaskStatus.FAILED, exitCode);
-        } catch (Exception e) {
-            logger.error("任务执行出错: " + task.getName() + " (ID: " + task.getId() + ")", e);
-
-            // 更新任务状态为失败（在小事务中）
-            updateTaskStatusAfterExecution(task.getId(), -1, e.getMessage());
-
-        } finally {
-            // 清理
-            if (process != null) {
-                runningProcesses.remove(task.getId());
-                process.destroy();
+            span.setAttribute("process.exit_code", exitCode);
+            if (exitCode != 0) {
+                span.setStatus(StatusCode.ERROR);
             }
+            return exitCode;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
         }
     }
 
     /**
      * 关键节点：更新任务状态为运行中（同时更新临时目录和日志路径）
      */
+    @WithSpan("task.status.running")
     @Transactional(TxType.REQUIRES_NEW)
     public void updateTaskStatusToRunning(Long taskId, String tempDirPath, String logFilePath, boolean isNewExecution) {
         Task task = taskRepository.findById(taskId);
         if (task != null) {
+            statisticsCounters.taskStatusChanged(task.getStatus(), Task.TaskStatus.RUNNING);
             task.setStatus(Task.TaskStatus.RUNNING);
             task.setStartedAt(LocalDateTime.now());
+            // 重新执行的任务创建时间较早，不计入排队等待时间
+            Duration queueTime = isNewExecution && task.getCreatedAt() != null
+                    ? Duration.between(task.getCreatedAt(), task.getStartedAt())
+                    : null;
+            // 指标在事务提交后记录，回滚的状态变更不计入
+            transactionCallbacks.afterCommit(() -> metricsService.recordTaskStarted(queueTime));
             task.setTempDirectory(tempDirPath);
             task.setLogFilePath(logFilePath);
             taskRepository.persist(task);
             // 广播到任务管理和资源预览页面
-            UIBroadcaster.broadcastRefresh("tasks");
-            UIBroadcaster.broadcastRefresh("dashboard");
+            publishTaskChange(ChangeEvent.updated("task", task.getId(), task.getStatus().name(),
+                    "status", "startedAt"));
         }
     }
 
     /**
      * 关键节点：更新任务状态为完成或失败
      */
+    @WithSpan("task.status.finished")
     @Transactional(TxType.REQUIRES_NEW)
     public void updateTaskStatusAfterExecution(Long taskId, int exitCode, String errorMessage) {
         Task task = taskRepository.findById(taskId);
         if (task != null) {
+            statisticsCounters.taskStatusChanged(task.getStatus(),
+                    exitCode == 0 ? Task.TaskStatus.SUCCESS : Task.TaskStatus.FAILED);
             task.setFinishedAt(LocalDateTime.now());
+            Duration duration = task.getStartedAt() != null
+                    ? Duration.between(task.getStartedAt(), task.getFinishedAt())
+                    : null;
+            String templateName = task.getTemplate().getName();
+            transactionCallbacks.afterCommit(() -> {
+                metricsService.recordTaskFinished(exitCode == 0, duration);
+                if (duration != null) {
+                    Timer.builder("wmc.task.duration")
+                            .tag("template", templateName)
+                            .tag("outcome", exitCode == 0 ? "success" : "failure")
+                            .publishPercentileHistogram()
+                            .register(meterRegistry)
+                            .record(duration);
+                }
+            });
             if (exitCode == 0) {
                 task.setStatus(Task.TaskStatus.SUCCESS);
             } else {
@@ -315,8 +495,40 @@ public class TaskService {
             }
             taskRepository.persist(task);
             // 广播到任务管理和资源预览页面
-            UIBroadcaster.broadcastRefresh("tasks");
-            UIBroadcaster.broadcastRefresh("dashboard");
+            publishTaskChange(ChangeEvent.updated("task", task.getId(), task.getStatus().name(),
+                    "status", "finishedAt", "errorMessage"));
+        }
+    }
+
+    private Timer statusUpdateTimer(String phase) {
+        return Timer.builder("wmc.task.status.update")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * 统计写入日志文件的字节数
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final Counter counter;
+
+        CountingOutputStream(OutputStream out, Counter counter) {
+            super(out);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            counter.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            counter.increment(len);
         }
     }
 
@@ -334,163 +546,98 @@ public class TaskService {
      * 生成playbook文件
      */
     private String generatePlaybookFile(Project project, String tempDir) throws IOException {
-        // 解码Base64内容
-        byte[] decodedBytes = Base64.getDecoder().decode(project.getYamlContent());
-        String yamlContent = new String(decodedBytes, StandardCharsets.UTF_8);
-
-        // 写入文件
-        Path playbookPath = Paths.get(tempDir, "playbook.yml");
-        Files.writeString(playbookPath, yamlContent, StandardCharsets.UTF_8);
-
-        logger.info("生成playbook文件: {}", playbookPath);
-        return playbookPath.toAbsolutePath().toString();
+        Span span = tracer.spanBuilder("task.generate.playbook").startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            // 解码Base64内容
+            byte[] decodedBytes = Base64.getDecoder().decode(project.getYamlContent());
+            String yamlContent = new String(decodedBytes, StandardCharsets.UTF_8);
+
+            // 写入文件
+            Path playbookPath = Paths.get(tempDir, "playbook.yml");
+            Files.writeString(playbookPath, yamlContent, StandardCharsets.UTF_8);
+            span.setAttribute("wmc.file.size", Files.size(playbookPath));
+
+            logger.info("生成playbook文件: {}", playbookPath);
+            return playbookPath.toAbsolutePath().toString();
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
     }
 
     /**
-     * 生成inventory文件（YAML格式）
+     * 模板变量（优先级最高，合并到每台主机的变量中）
      */
-    private String generateInventoryFile(Inventory inventory, String tempDir) throws IOException {
-        StringBuilder yaml = new StringBuilder();
-        yaml.append("---\n");
-
-        // 添加清单级别的变量
-        if (!inventory.getVariables().isEmpty()) {
-            yaml.append("all:\n");
-            yaml.append("  vars:\n");
-            for (InventoryVariable variable : inventory.getVariables()) {
-                String value = formatVariableValue(variable.getVariableValue());
-                yaml.append("    ").append(variable.getVariableName()).append(": ").append(value).append("\n");
-            }
-            yaml.append("\n");
+    private Map<String, String> templateVariables(Template template) {
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (TemplateVariable variable : template.getVariables()) {
+            variables.put(variable.getVariableName(), variable.getVariableValue());
         }
+        return variables;
+    }
 
-        // 添加组
-        for (InventoryGroup group : inventory.getGroups()) {
-            yaml.append(group.getName()).append(":\n");
-
-            // 组的变量
-            if (!group.getVariables().isEmpty()) {
-                yaml.append("  vars:\n");
-                for (InventoryGroupVariable variable : group.getVariables()) {
-                    String value = formatVariableValue(variable.getVariableValue());
-                    yaml.append("    ").append(variable.getVariableName()).append(": ").append(value).append("\n");
-                }
-            }
-
-            // 组的主机
-            if (!group.getGroupHosts().isEmpty()) {
-                yaml.append("  hosts:\n");
-                for (InventoryGroupHost groupHost : group.getGroupHosts()) {
-                    InventoryHost host = groupHost.getHost();
-                    yaml.append("    ").append(host.getName()).append(":\n");
-
-                    // 添加SSH认证信息
-                    if (host.getUsername() != null && !host.getUsername().isEmpty()) {
-                        yaml.append("      ansible_user: ").append(host.getUsername()).append("\n");
-                    }
-                    if (host.getPassword() != null && !host.getPassword().isEmpty()) {
-                        yaml.append("      ansible_password: ").append(formatVariableValue(host.getPassword()))
-                                .append("\n");
-                    }
-                    if (host.getPort() != null && host.getPort() != 22) {
-                        yaml.append("      ansible_port: ").append(host.getPort()).append("\n");
-                    }
+    private static boolean hasHostLimit(Task task) {
+        String hostLimit = task.getEffectiveHostLimit();
+        return hostLimit != null && !hostLimit.isBlank();
+    }
 
-                    // 主机变量
-                    if (!host.getVariables().isEmpty()) {
-                        yaml.append("      ansible_host: ").append(host.getHost()).append("\n");
-                        yaml.append("      vars:\n");
-                        for (InventoryHostVariable variable : host.getVariables()) {
-                            String value = formatVariableValue(variable.getVariableValue());
-                            yaml.append("        ").append(variable.getVariableName()).append(": ").append(value)
-                                    .append("\n");
-                        }
-                    } else {
-                        yaml.append("      ansible_host: ").append(host.getHost()).append("\n");
-                    }
-                }
+    /**
+     * 生成inventory文件（YAML格式）
+     * 设置了主机范围时只写出范围内的主机，并把主机名写入 limit 文件供 --limit 使用
+     */
+    private String generateInventoryFile(Task task, String tempDir) throws IOException {
+        Span span = tracer.spanBuilder("task.generate.inventory").startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            Template template = task.getTemplate();
+            Long inventoryId = template.getInventory().getId();
+            // 动态清单的快照过期时在后台刷新，本次仍使用最近一次同步成功的数据
+            inventorySourceService.refreshIfStale(inventoryId);
+            // 使用共享的清单快照，清单未变化时不再访问数据库
+            InventorySnapshot snapshot = inventorySnapshotCache.get(inventoryId);
+            if (snapshot == null) {
+                throw new ResourceNotFoundException("清单不存在，ID: " + inventoryId);
             }
-            yaml.append("\n");
-        }
 
-        // 添加不在任何组中的主机
-        List<InventoryHost> ungroupedHosts = inventory.getHosts();
-        if (!ungroupedHosts.isEmpty()) {
-            boolean hasUngrouped = false;
-            for (InventoryHost host : ungroupedHosts) {
-                boolean inAnyGroup = inventory.getGroups().stream()
-                        .anyMatch(g -> g.getGroupHosts().stream()
-                                .anyMatch(gh -> gh.getHost().getId().equals(host.getId())));
-                if (!inAnyGroup) {
-                    hasUngrouped = true;
-                    break;
+            // 在快照的成员索引上计算主机范围
+            BitSet selectedHosts = null;
+            Path limitPath = Paths.get(tempDir, LIMIT_FILE_NAME);
+            if (hasHostLimit(task)) {
+                selectedHosts = HostPatternMatcher.parse(task.getEffectiveHostLimit()).match(snapshot);
+                if (selectedHosts.isEmpty()) {
+                    throw new IllegalArgumentException("主机范围没有匹配到任何主机: " + task.getEffectiveHostLimit());
                 }
-            }
-
-            if (hasUngrouped) {
-                yaml.append("ungrouped:\n");
-                yaml.append("  hosts:\n");
-                for (InventoryHost host : ungroupedHosts) {
-                    boolean inAnyGroup = inventory.getGroups().stream()
-                            .anyMatch(g -> g.getGroupHosts().stream()
-                                    .anyMatch(gh -> gh.getHost().getId().equals(host.getId())));
-                    if (!inAnyGroup) {
-                        yaml.append("    ").append(host.getName()).append(":\n");
-
-                        // 添加SSH认证信息
-                        if (host.getUsername() != null && !host.getUsername().isEmpty()) {
-                            yaml.append("      ansible_user: ").append(host.getUsername()).append("\n");
-                        }
-                        if (host.getPassword() != null && !host.getPassword().isEmpty()) {
-                            yaml.append("      ansible_password: ").append(formatVariableValue(host.getPassword()))
-                                    .append("\n");
-                        }
-                        if (host.getPort() != null && host.getPort() != 22) {
-                            yaml.append("      ansible_port: ").append(host.getPort()).append("\n");
-                        }
-
-                        yaml.append("      ansible_host: ").append(host.getHost()).append("\n");
-                        if (!host.getVariables().isEmpty()) {
-                            yaml.append("      vars:\n");
-                            for (InventoryHostVariable variable : host.getVariables()) {
-                                String value = formatVariableValue(variable.getVariableValue());
-                                yaml.append("        ").append(variable.getVariableName()).append(": ")
-                                        .append(value).append("\n");
-                            }
-                        }
-                    }
+                StringBuilder limit = new StringBuilder();
+                for (int i = selectedHosts.nextSetBit(0); i >= 0; i = selectedHosts.nextSetBit(i + 1)) {
+                    limit.append(snapshot.getAllHosts().get(i).name()).append('\n');
                 }
+                Files.writeString(limitPath, limit, StandardCharsets.UTF_8);
+            } else {
+                Files.deleteIfExists(limitPath);
             }
-        }
 
-        // 写入文件
-        Path inventoryPath = Paths.get(tempDir, "inventory.yml");
-        Files.writeString(inventoryPath, yaml.toString(), StandardCharsets.UTF_8);
-
-        logger.info("生成inventory文件: {}", inventoryPath);
-        return inventoryPath.toAbsolutePath().toString();
-    }
-
-    /**
-     * 格式化变量值（根据类型添加引号）
-     */
-    private String formatVariableValue(String value) {
-        if (value == null || value.isEmpty()) {
-            return "\"\"";
-        }
-        // 尝试判断是否为数字或布尔值
-        if (value.equals("true") || value.equals("false") ||
-                value.matches("\\d+") || value.matches("\\d+\\.\\d+")) {
-            return value;
-        }
-        // 字符串需要加引号
-        if (value.startsWith("\"") && value.endsWith("\"")) {
-            return value;
-        }
-        if (value.startsWith("'") && value.endsWith("'")) {
-            return value;
+            // 写入文件
+            Path inventoryPath = Paths.get(tempDir, "inventory.yml");
+            Files.writeString(inventoryPath,
+                    inventoryFileGenerator.generateYaml(snapshot, templateVariables(template), selectedHosts),
+                    StandardCharsets.UTF_8);
+
+            int hostCount = selectedHosts != null ? selectedHosts.cardinality() : snapshot.getAllHosts().size();
+            span.setAttribute("wmc.inventory.id", inventoryId);
+            span.setAttribute("wmc.inventory.hosts", hostCount);
+            span.setAttribute("wmc.file.size", Files.size(inventoryPath));
+
+            logger.info("生成inventory文件: {} (快照版本 {}, 主机数 {})", inventoryPath, snapshot.getVersion(), hostCount);
+            return inventoryPath.toAbsolutePath().toString();
+        } catch (IOException | RuntimeException e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
         }
-        return "\"" + value + "\"";
     }
 
     /**
@@ -521,11 +668,32 @@ public class TaskService {
             }
         }
 
-        // 删除数据库记录
+        // 删除数据库记录和日志索引
         taskRepository.delete(task);
+        taskLogIndexService.removeTask(taskId);
+        statisticsCounters.taskRemoved(task.getStatus());
+        publishTaskChange(ChangeEvent.deleted("task", taskId));
         logger.info("删除任务: {} (ID: {})", task.getName(), taskId);
     }
 
+    /**
+     * 事务提交后通知任务管理页面（按行更新）和资源预览页面
+     */
+    private void publishTaskChange(ChangeEvent event) {
+        Context context = Context.current();
+        transactionCallbacks.afterCommit(() -> {
+            Span span = tracer.spanBuilder("task.broadcast").setParent(context)
+                    .setAttribute("wmc.change.action", event.getAction().name())
+                    .startSpan();
+            try (Scope ignored = span.makeCurrent()) {
+                uiBroadcaster.broadcastChange("tasks", event);
+                uiBroadcaster.broadcastRefresh("dashboard");
+            } finally {
+                span.end();
+            }
+        });
+    }
+
     /**
      * 清理临时目录（可选）
      */
@@ -560,4 +728,18 @@ public class TaskService {
                     }
                 });
     }
+
+    /**
+     * 分页查询任务（供Grid懒加载使用）
+     */
+    public List<Task> getTasksPage(String filter, Sort sort, int offset, int limit) {
+        return taskRepository.findPage(GridSortUtil.toLikePattern(filter), sort, offset, limit);
+    }
+
+    /**
+     * 统计符合过滤条件的任务数量
+     */
+    public long countTasks(String filter) {
+        return taskRepository.countByFilter(GridSortUtil.toLikePattern(filter));
+    }
 }
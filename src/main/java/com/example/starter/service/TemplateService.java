@@ -7,7 +7,10 @@ import com.example.starter.entity.TemplateVariable;
 import com.example.starter.exception.DuplicateResourceException;
 import com.example.starter.exception.ResourceNotFoundException;
 import com.example.starter.repository.TemplateRepository;
+import com.example.starter.service.inventory.HostPatternMatcher;
 import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.util.GridSortUtil;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
@@ -30,6 +33,9 @@ public class TemplateService {
     @Inject
     InventoryService inventoryService;
 
+    @Inject
+    StatisticsCounters statisticsCounters;
+
     /**
      * 创建新模板
      * 
@@ -94,6 +100,20 @@ public class TemplateService {
             }
         }
 
+        // 验证任务保留策略
+        if (template.getRetentionMaxAgeDays() != null && template.getRetentionMaxAgeDays() < 0) {
+            throw new IllegalArgumentException("任务保留天数不能为负数");
+        }
+        if (template.getRetentionMaxCount() != null && template.getRetentionMaxCount() < 0) {
+            throw new IllegalArgumentException("任务保留数量不能为负数");
+        }
+
+        // 验证主机范围
+        HostPatternMatcher.validate(template.getHostLimit());
+        if (template.getHostLimit() != null) {
+            template.setHostLimit(template.getHostLimit().isBlank() ? null : template.getHostLimit().trim());
+        }
+
         // 验证项目和清单是否存在
         if (template.getProject() != null) {
             Project project = projectService.getProjectById(template.getProject().getId());
@@ -122,6 +142,8 @@ public class TemplateService {
         Template template = templateRepository.findById(id);
         if (template != null) {
             templateRepository.delete(template);
+            // 模板的任务随模板级联删除，无法逐条跟踪状态，让统计计数重新加载
+            statisticsCounters.invalidate();
         }
     }
 
@@ -200,4 +222,18 @@ public class TemplateService {
         template.getVariables().removeIf(v -> v.getVariableName().equals(variableName));
         templateRepository.getEntityManager().merge(template);
     }
+
+    /**
+     * 分页查询模板（供Grid懒加载使用）
+     */
+    public List<Template> getTemplatesPage(String filter, Sort sort, int offset, int limit) {
+        return templateRepository.findPage(GridSortUtil.toLikePattern(filter), sort, offset, limit);
+    }
+
+    /**
+     * 统计符合过滤条件的模板数量
+     */
+    public long countTemplates(String filter) {
+        return templateRepository.countByFilter(GridSortUtil.toLikePattern(filter));
+    }
 }
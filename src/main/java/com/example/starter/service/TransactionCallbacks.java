@@ -0,0 +1,39 @@
+package com.example.starter.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * 事务回调 - 把内存状态更新、前端通知等副作用推迟到事务提交之后执行
+ */
+@ApplicationScoped
+public class TransactionCallbacks {
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    /**
+     * 当前存在事务时在提交成功后执行，事务回滚则丢弃；没有事务时立即执行
+     */
+    public void afterCommit(Runnable action) {
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
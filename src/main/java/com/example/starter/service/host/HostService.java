@@ -0,0 +1,104 @@
+package com.example.starter.service.host;
+
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.repository.InventoryHostRepository;
+import com.example.starter.service.MetricsService;
+import com.example.starter.service.StatisticsCounters;
+import com.example.starter.service.TransactionCallbacks;
+import com.example.starter.service.inventory.InventorySnapshotCache;
+import com.example.starter.util.ChangeEvent;
+import com.example.starter.util.UIBroadcaster;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 主机服务 - 主机修改、删除和连接状态更新
+ * 持久化由 {@link InventoryHostRepository} 完成，这里负责统计计数、指标、清单快照失效和页面广播
+ */
+@ApplicationScoped
+public class HostService {
+
+    @Inject
+    InventoryHostRepository hostRepository;
+
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    MetricsService metricsService;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    @Inject
+    InventorySnapshotCache snapshotCache;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
+    /**
+     * 保存主机的连接信息修改，事务提交后失效包含该主机的清单快照
+     */
+    @Transactional
+    public void updateHost(InventoryHost host) {
+        hostRepository.updateHost(host);
+        snapshotCache.invalidateHost(host.getId());
+    }
+
+    /**
+     * 删除主机及其变量和组成员关系，事务提交后失效包含该主机的清单快照
+     */
+    @Transactional
+    public void deleteHost(Long hostId) {
+        InventoryHost host = hostRepository.findById(hostId);
+        if (host != null) {
+            statisticsCounters.hostRemoved(Boolean.TRUE.equals(host.getConnected()));
+            hostRepository.deleteHost(host);
+        }
+        snapshotCache.invalidateHost(hostId);
+    }
+
+    /**
+     * 更新主机连接状态（连接状态不在清单快照中，无需失效快照）
+     */
+    @Transactional
+    public void updateConnectionStatus(Long hostId, Boolean connected) {
+        updateConnectionStatus(hostRepository.findById(hostId), connected);
+    }
+
+    /**
+     * 根据名称更新主机连接状态
+     */
+    @Transactional
+    public void updateConnectionStatusByName(String name, Boolean connected) {
+        updateConnectionStatus(hostRepository.findByName(name), connected);
+    }
+
+    private void updateConnectionStatus(InventoryHost host, Boolean connected) {
+        if (host == null) {
+            return;
+        }
+        statisticsCounters.hostConnectionChanged(Boolean.TRUE.equals(host.getConnected()),
+                Boolean.TRUE.equals(connected));
+        transactionCallbacks.afterCommit(() -> metricsService.recordHostCheck(Boolean.TRUE.equals(connected)));
+        host.setConnected(connected);
+        host.setLastChecked(LocalDateTime.now());
+        publishConnectionChange(host);
+    }
+
+    /**
+     * 事务提交后通知主机管理页面更新该主机所在的行，并刷新资源预览页面
+     */
+    private void publishConnectionChange(InventoryHost host) {
+        ChangeEvent event = ChangeEvent.updated("host", host.getId(),
+                Boolean.TRUE.equals(host.getConnected()) ? "CONNECTED" : "DISCONNECTED",
+                "connected", "lastChecked");
+        transactionCallbacks.afterCommit(() -> {
+            uiBroadcaster.broadcastChange("hosts", event);
+            uiBroadcaster.broadcastRefresh("dashboard");
+        });
+    }
+}
@@ -3,7 +3,10 @@ package com.example.starter.service.host;
 import com.example.starter.entity.InventoryHost;
 import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.Session;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
 import java.util.Properties;
 import java.util.concurrent.*;
@@ -24,6 +27,9 @@ public class SSHConnectionService {
      */
     private final ExecutorService executorService = Executors.newCachedThreadPool();
 
+    @Inject
+    MeterRegistry meterRegistry;
+
     /**
      * 连接结果
      */
@@ -71,10 +77,15 @@ public class SSHConnectionService {
         // 使用 Future 和 Executor 来实现超时控制
         Future<ConnectionResult> future = executorService.submit(() -> doTestConnection(host));
 
+        long start = System.nanoTime();
+        String outcome = "failure";
         try {
             // 等待连接测试完成，最多等待 CONNECTION_TIMEOUT + 2 秒
-            return future.get(CONNECTION_TIMEOUT + 2000, TimeUnit.MILLISECONDS);
+            ConnectionResult result = future.get(CONNECTION_TIMEOUT + 2000, TimeUnit.MILLISECONDS);
+            outcome = result.isSuccess() ? "success" : "failure";
+            return result;
         } catch (TimeoutException e) {
+            outcome = "timeout";
             future.cancel(true);
             return new ConnectionResult(false, "连接超时（超过" + (CONNECTION_TIMEOUT / 1000) + "秒）");
         } catch (InterruptedException e) {
@@ -83,6 +94,13 @@ public class SSHConnectionService {
         } catch (ExecutionException e) {
             return new ConnectionResult(false,
                     "连接失败: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+        } finally {
+            // SSH 探测耗时和结果（success / failure / timeout）
+            Timer.builder("wmc.ssh.probe")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
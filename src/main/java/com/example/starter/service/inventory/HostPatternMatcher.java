@@ -0,0 +1,217 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.service.inventory.InventorySnapshot.GroupNode;
+import com.example.starter.service.inventory.InventorySnapshot.HostNode;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * ansible 主机模式匹配 - 在清单快照的成员索引上计算主机范围
+ * 支持的写法（以 , 或 : 分隔多个条件）：
+ * <ul>
+ * <li>all / *：全部主机</li>
+ * <li>组名或主机名，组包含其所有子组的主机</li>
+ * <li>通配符 web*、db?.example.com，以及 ~ 开头的正则表达式，同时匹配组名和主机名</li>
+ * <li>&amp;条件：与前面的结果取交集；!条件：从结果中排除</li>
+ * </ul>
+ * 与 ansible 相同，先合并普通条件，再依次应用交集和排除；只有交集或排除条件时以全部主机为基础。
+ */
+public final class HostPatternMatcher {
+
+    private enum Operator {
+        UNION, INTERSECTION, EXCLUSION
+    }
+
+    private record Term(Operator operator, String expression, Pattern pattern) {
+    }
+
+    private final List<Term> terms;
+
+    private HostPatternMatcher(List<Term> terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * 解析主机模式
+     *
+     * @throws IllegalArgumentException 模式为空或格式错误
+     */
+    public static HostPatternMatcher parse(String pattern) {
+        if (pattern == null || pattern.isBlank()) {
+            throw new IllegalArgumentException("主机范围不能为空");
+        }
+        String separator = pattern.contains(",") ? "," : ":";
+        List<Term> terms = new ArrayList<>();
+        for (String part : pattern.split(Pattern.quote(separator))) {
+            String expression = part.trim();
+            if (expression.isEmpty()) {
+                continue;
+            }
+            Operator operator = Operator.UNION;
+            if (expression.startsWith("!")) {
+                operator = Operator.EXCLUSION;
+                expression = expression.substring(1).trim();
+            } else if (expression.startsWith("&")) {
+                operator = Operator.INTERSECTION;
+                expression = expression.substring(1).trim();
+            }
+            if (expression.isEmpty()) {
+                throw new IllegalArgumentException("主机范围格式错误: " + part.trim());
+            }
+            terms.add(new Term(operator, expression, compile(expression)));
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("主机范围不能为空");
+        }
+        return new HostPatternMatcher(terms);
+    }
+
+    /**
+     * 检查主机模式的格式，空值表示不限制
+     *
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static void validate(String pattern) {
+        if (pattern != null && !pattern.isBlank()) {
+            parse(pattern);
+        }
+    }
+
+    /**
+     * 计算匹配的主机
+     *
+     * @return 主机在 {@link InventorySnapshot#getAllHosts()} 中的下标集合
+     */
+    public BitSet match(InventorySnapshot snapshot) {
+        Index index = new Index(snapshot);
+
+        BitSet selected = new BitSet();
+        boolean hasUnion = false;
+        for (Term term : terms) {
+            if (term.operator() == Operator.UNION) {
+                selected.or(index.resolve(term));
+                hasUnion = true;
+            }
+        }
+        if (!hasUnion) {
+            selected.or(index.all);
+        }
+        for (Term term : terms) {
+            if (term.operator() == Operator.INTERSECTION) {
+                selected.and(index.resolve(term));
+            }
+        }
+        for (Term term : terms) {
+            if (term.operator() == Operator.EXCLUSION) {
+                selected.andNot(index.resolve(term));
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 通配符或正则条件编译为正则，普通名称返回 null
+     */
+    private static Pattern compile(String expression) {
+        if (expression.startsWith("~")) {
+            try {
+                return Pattern.compile(expression.substring(1));
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("主机范围中的正则表达式无效: " + expression, e);
+            }
+        }
+        if (expression.equals("all") || expression.indexOf('*') < 0 && expression.indexOf('?') < 0) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (char c : expression.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * 快照的名称索引：组（含子组）成员位图、主机名下标
+     */
+    private static final class Index {
+
+        private final InventorySnapshot snapshot;
+        private final BitSet all = new BitSet();
+        private final Map<String, BitSet> groups = new HashMap<>();
+        private final Map<String, Integer> hosts = new HashMap<>();
+
+        Index(InventorySnapshot snapshot) {
+            this.snapshot = snapshot;
+            List<HostNode> allHosts = snapshot.getAllHosts();
+            all.set(0, allHosts.size());
+            for (int i = 0; i < allHosts.size(); i++) {
+                hosts.putIfAbsent(allHosts.get(i).name(), i);
+            }
+
+            // 组树按先序排列，逆序遍历时子组总在父组之前处理，子组成员逐级并入父组
+            List<GroupNode> groupNodes = snapshot.getGroups();
+            Map<Long, BitSet> closures = new HashMap<>();
+            for (int i = groupNodes.size() - 1; i >= 0; i--) {
+                GroupNode group = groupNodes.get(i);
+                BitSet members = closures.computeIfAbsent(group.getId(), k -> new BitSet());
+                for (HostNode host : group.getHosts()) {
+                    members.set(snapshot.indexOfHost(host.id()));
+                }
+                if (group.getParentId() != null) {
+                    closures.computeIfAbsent(group.getParentId(), k -> new BitSet()).or(members);
+                }
+                groups.merge(group.getName(), members, (a, b) -> {
+                    BitSet merged = (BitSet) a.clone();
+                    merged.or(b);
+                    return merged;
+                });
+            }
+        }
+
+        BitSet resolve(Term term) {
+            String expression = term.expression();
+            if (expression.equals("all") || expression.equals("*")) {
+                return all;
+            }
+            BitSet matched = new BitSet();
+            if (term.pattern() == null) {
+                BitSet group = groups.get(expression);
+                if (group != null) {
+                    matched.or(group);
+                }
+                Integer host = hosts.get(expression);
+                if (host != null) {
+                    matched.set(host);
+                }
+                return matched;
+            }
+            boolean regex = expression.startsWith("~");
+            groups.forEach((name, members) -> {
+                if (matches(term.pattern(), name, regex)) {
+                    matched.or(members);
+                }
+            });
+            List<HostNode> allHosts = snapshot.getAllHosts();
+            for (int i = 0; i < allHosts.size(); i++) {
+                if (matches(term.pattern(), allHosts.get(i).name(), regex)) {
+                    matched.set(i);
+                }
+            }
+            return matched;
+        }
+
+        private static boolean matches(Pattern pattern, String name, boolean regex) {
+            return regex ? pattern.matcher(name).find() : pattern.matcher(name).matches();
+        }
+    }
+}
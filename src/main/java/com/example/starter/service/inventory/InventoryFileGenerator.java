@@ -0,0 +1,119 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.service.inventory.InventorySnapshot.GroupNode;
+import com.example.starter.service.inventory.InventorySnapshot.HostNode;
+import com.example.starter.service.inventory.VariableResolution.ResolvedVariable;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 清单文件生成器 - 把清单快照渲染为 Ansible YAML 清单
+ * 只读取共享的不可变快照，不访问数据库。每台主机只在 all.hosts 中出现一次，
+ * 直接写出预先合并好的生效变量（含模板变量），组只列出成员和子组，ansible 不再需要逐层合并变量。
+ * 指定主机范围时只写出范围内的主机，以及包含这些主机的组。
+ */
+@ApplicationScoped
+public class InventoryFileGenerator {
+
+    /**
+     * 生成 YAML 格式的清单内容
+     */
+    public String generateYaml(InventorySnapshot snapshot) {
+        return generateYaml(snapshot, Map.of(), null);
+    }
+
+    /**
+     * 生成 YAML 格式的清单内容
+     *
+     * @param templateVariables 模板变量，优先级高于清单、组和主机变量
+     * @param selectedHosts     要写出的主机在 {@link InventorySnapshot#getAllHosts()} 中的下标，为空时写出全部主机
+     */
+    public String generateYaml(InventorySnapshot snapshot, Map<String, String> templateVariables,
+            BitSet selectedHosts) {
+        VariableResolution resolution = snapshot.getResolvedVariables();
+        List<HostNode> allHosts = snapshot.getAllHosts();
+        BitSet selected = selectedHosts;
+        if (selected == null) {
+            selected = new BitSet();
+            selected.set(0, allHosts.size());
+        }
+
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("---\n");
+
+        // 主机（清单主机及组成员主机）及其生效变量
+        yaml.append("all:\n");
+        if (!selected.isEmpty()) {
+            yaml.append("  hosts:\n");
+            for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+                HostNode host = allHosts.get(i);
+                yaml.append("    ").append(YamlScalar.key(host.name())).append(":\n");
+                for (ResolvedVariable variable : resolution.forHost(host.id(), templateVariables)) {
+                    yaml.append("      ").append(YamlScalar.key(variable.name())).append(": ")
+                            .append(YamlScalar.value(variable.value())).append("\n");
+                }
+            }
+        }
+
+        // 组：成员和子组（变量已合并到主机上）
+        Map<Long, List<GroupNode>> children = new HashMap<>();
+        List<GroupNode> roots = new ArrayList<>();
+        for (GroupNode group : snapshot.getGroups()) {
+            if (group.getParentId() == null) {
+                roots.add(group);
+            } else {
+                children.computeIfAbsent(group.getParentId(), k -> new ArrayList<>()).add(group);
+            }
+        }
+        StringBuilder groups = new StringBuilder();
+        for (GroupNode root : roots) {
+            appendGroup(groups, snapshot, root, children, selectedHosts, "    ");
+        }
+        if (!groups.isEmpty()) {
+            yaml.append("  children:\n").append(groups);
+        }
+        return yaml.toString();
+    }
+
+    /**
+     * 写出组及其子组；限定主机范围时跳过不包含范围内主机的组
+     *
+     * @return 是否写出了该组
+     */
+    private boolean appendGroup(StringBuilder yaml, InventorySnapshot snapshot, GroupNode group,
+            Map<Long, List<GroupNode>> children, BitSet selectedHosts, String indent) {
+        List<HostNode> hosts = group.getHosts();
+        if (selectedHosts != null) {
+            hosts = hosts.stream().filter(host -> selectedHosts.get(snapshot.indexOfHost(host.id()))).toList();
+        }
+        StringBuilder childYaml = new StringBuilder();
+        for (GroupNode child : children.getOrDefault(group.getId(), List.of())) {
+            appendGroup(childYaml, snapshot, child, children, selectedHosts, indent + "    ");
+        }
+        if (selectedHosts != null && hosts.isEmpty() && childYaml.isEmpty()) {
+            return false;
+        }
+
+        yaml.append(indent).append(YamlScalar.key(group.getName())).append(":");
+        if (hosts.isEmpty() && childYaml.isEmpty()) {
+            yaml.append(" {}\n");
+            return true;
+        }
+        yaml.append("\n");
+        if (!hosts.isEmpty()) {
+            yaml.append(indent).append("  hosts:\n");
+            for (HostNode host : hosts) {
+                yaml.append(indent).append("    ").append(YamlScalar.key(host.name())).append(": {}\n");
+            }
+        }
+        if (!childYaml.isEmpty()) {
+            yaml.append(indent).append("  children:\n").append(childYaml);
+        }
+        return true;
+    }
+}
@@ -2,18 +2,32 @@ package com.example.starter.service.inventory;
 
 import com.example.starter.entity.Inventory;
 import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
 import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostInventory;
 import com.example.starter.entity.InventoryVariable;
 import com.example.starter.exception.DuplicateResourceException;
 import com.example.starter.exception.ResourceNotFoundException;
 import com.example.starter.repository.InventoryHostRepository;
 import com.example.starter.repository.InventoryRepository;
+import com.example.starter.service.StatisticsCounters;
+import com.example.starter.service.inventory.source.InventorySourceService;
+import com.example.starter.util.GridSortUtil;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * 清单服务类，处理所有清单相关的业务逻辑
@@ -27,32 +41,41 @@ public class InventoryService {
     @Inject
     InventoryHostRepository hostRepository;
 
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    InventorySnapshotCache snapshotCache;
+
+    @Inject
+    InventorySourceService inventorySourceService;
+
     @Inject
     EntityManager entityManager;
 
+    /**
+     * IN 查询参数分块大小（SQLite默认最多999个绑定参数）
+     */
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    @ConfigProperty(name = "inventory.bulk.batch-size", defaultValue = "50")
+    int batchSize;
+
     /**
      * 获取所有清单
      */
     @Transactional
     public List<Inventory> getAllInventories() {
-        return inventoryRepository.listAll();
+        return inventoryRepository.listAllCached();
     }
 
     /**
      * 根据ID获取清单（包含所有关联数据）
+     * 组、组成员、主机及各级变量均已加载，可在事务外访问
      */
     @Transactional
     public Inventory getInventoryByIdWithAssociations(Long id) {
-        Inventory inventory = entityManager.find(Inventory.class, id);
-
-        // 手动初始化集合以确保在事务外也能访问
-        if (inventory != null) {
-            inventory.getHosts().size();
-            inventory.getGroups().size();
-            inventory.getVariables().size();
-        }
-
-        return inventory;
+        return inventoryRepository.findByIdWithAssociations(id);
     }
 
     /**
@@ -103,8 +126,25 @@ public class InventoryService {
             throw new ResourceNotFoundException("清单不存在");
         }
 
+        if (inventory.isDynamic()) {
+            if (inventorySourceService.findSource(inventory.getSourceType()).isEmpty()) {
+                throw new IllegalArgumentException("不支持的清单来源类型: " + inventory.getSourceType());
+            }
+            if (inventory.getSourceLocation() == null || inventory.getSourceLocation().trim().isEmpty()) {
+                throw new IllegalArgumentException("清单来源位置不能为空");
+            }
+            inventory.setSourceLocation(inventory.getSourceLocation().trim());
+        }
+        // 来源变更后需要重新同步
+        if (!Objects.equals(inventory.getSourceType(), existing.getSourceType())
+                || !Objects.equals(inventory.getSourceLocation(), existing.getSourceLocation())) {
+            inventory.setSourceRefreshedAt(null);
+            inventory.setSourceError(null);
+        }
+
         // 使用 merge 而不是 persist，因为这是更新现有实体
         entityManager.merge(inventory);
+        snapshotCache.invalidate(inventory.getId());
     }
 
     /**
@@ -122,6 +162,7 @@ public class InventoryService {
         }
 
         inventoryRepository.delete(inventory);
+        snapshotCache.invalidate(inventory.getId());
     }
 
     /**
@@ -142,22 +183,25 @@ public class InventoryService {
         group.setInventory(inventory);
         inventory.getGroups().add(group);
         inventoryRepository.persist(inventory);
+        snapshotCache.invalidate(inventoryId);
 
         return group;
     }
 
     /**
-     * 从清单删除组
+     * 从清单删除组（连同其子组）
      */
     @Transactional
-    public void removeGroupFromInventory(Long inventoryId, InventoryGroup group) {
+    public void removeGroupFromInventory(Long inventoryId, Long groupId) {
         Inventory inventory = getInventoryById(inventoryId);
         if (inventory == null) {
             throw new ResourceNotFoundException("清单不存在");
         }
 
-        inventory.getGroups().remove(group);
+        // 子组同样在清单的组集合中，需要一并移除，否则会被级联重新保存
+        inventory.getGroups().removeIf(group -> isSameOrDescendant(group, groupId));
         inventoryRepository.persist(inventory);
+        snapshotCache.invalidate(inventoryId);
     }
 
     /**
@@ -178,6 +222,7 @@ public class InventoryService {
         variable.setInventory(inventory);
         inventory.getVariables().add(variable);
         entityManager.persist(variable);
+        snapshotCache.invalidate(inventoryId);
 
         return variable;
     }
@@ -186,14 +231,15 @@ public class InventoryService {
      * 从清单删除变量
      */
     @Transactional
-    public void removeVariableFromInventory(Long inventoryId, InventoryVariable variable) {
+    public void removeVariableFromInventory(Long inventoryId, Long variableId) {
         Inventory inventory = getInventoryById(inventoryId);
         if (inventory == null) {
             throw new ResourceNotFoundException("清单不存在");
         }
 
-        inventory.getVariables().remove(variable);
+        inventory.getVariables().removeIf(variable -> variable.getId().equals(variableId));
         inventoryRepository.persist(inventory);
+        snapshotCache.invalidate(inventoryId);
     }
 
     /**
@@ -224,6 +270,7 @@ public class InventoryService {
                 inventory, host);
         inventory.getHostInventories().add(hostInventory);
         inventoryRepository.persist(inventory);
+        snapshotCache.invalidate(inventoryId);
     }
 
     /**
@@ -240,6 +287,7 @@ public class InventoryService {
         // 从清单中移除主机
         inventory.getHostInventories().removeIf(hi -> hi.getHost().getId().equals(hostId));
         inventoryRepository.persist(inventory);
+        snapshotCache.invalidate(inventoryId);
     }
 
     /**
@@ -251,14 +299,56 @@ public class InventoryService {
         return hostRepository.findAllOrderByCreatedAtDesc();
     }
 
+    /**
+     * 分页查询清单（供Grid懒加载使用）
+     */
+    @Transactional
+    public List<Inventory> getInventoriesPage(String filter, Sort sort, int offset, int limit) {
+        return inventoryRepository.findPage(GridSortUtil.toLikePattern(filter), sort, offset, limit);
+    }
+
+    /**
+     * 统计符合过滤条件的清单数量
+     */
+    @Transactional
+    public long countInventories(String filter) {
+        return inventoryRepository.countByFilter(GridSortUtil.toLikePattern(filter));
+    }
+
+    /**
+     * 分页查询可用主机（用于添加到清单或组的选择列表）
+     */
+    @Transactional
+    public List<InventoryHost> getAvailableHostsPage(String filter, Sort sort, int offset, int limit) {
+        return hostRepository.findPage(GridSortUtil.toLikePattern(filter), sort, offset, limit);
+    }
+
+    /**
+     * 统计符合过滤条件的可用主机数量
+     */
+    @Transactional
+    public long countAvailableHosts(String filter) {
+        return hostRepository.countByFilter(GridSortUtil.toLikePattern(filter));
+    }
+
     /**
      * 计算组的层级深度（从根组开始计算）
+     * 清单快照已缓存时直接使用预先计算的深度，否则沿父组链计算
      * 
      * @param group 要计算的组
      * @return 层级深度，根组为1
      */
     @Transactional
     public int calculateGroupDepth(InventoryGroup group) {
+        if (group.getId() != null && group.getInventory() != null) {
+            InventorySnapshot.GroupNode node = snapshotCache.peek(group.getInventory().getId())
+                    .map(snapshot -> snapshot.getGroup(group.getId()))
+                    .orElse(null);
+            if (node != null) {
+                return node.getDepth();
+            }
+        }
+
         int depth = 1;
         InventoryGroup current = group;
         while (current.getParentGroup() != null) {
@@ -305,7 +395,10 @@ public class InventoryService {
         childGroup.setInventory(parentGroup.getInventory());
         childGroup.setParentGroup(parentGroup);
         parentGroup.getChildGroups().add(childGroup);
+        // 子组同样属于清单，需要同步清单的组集合（否则清单的集合缓存不包含该子组）
+        existingGroup.getGroups().add(childGroup);
         entityManager.persist(childGroup);
+        snapshotCache.invalidate(existingGroup.getId());
 
         return childGroup;
     }
@@ -339,6 +432,7 @@ public class InventoryService {
                 group, host);
         group.getGroupHosts().add(groupHost);
         entityManager.persist(groupHost);
+        snapshotCache.invalidate(group.getInventory().getId());
     }
 
     /**
@@ -356,5 +450,222 @@ public class InventoryService {
 
         group.getGroupHosts().removeIf(gh -> gh.getHost().getId().equals(hostId));
         entityManager.persist(group);
+        snapshotCache.invalidate(group.getInventory().getId());
+    }
+
+    /**
+     * 批量创建主机（连同主机上挂载的变量一起级联保存）
+     * 加入调用方的事务，每 batchSize 个实体刷新一次，使插入语句以JDBC批量方式发送；
+     * 刷新后只分离本方法保存的主机（不调用 clear），调用方已加载的实体仍然受管，返回后主机ID可直接使用。
+     *
+     * @param hosts 待创建的主机
+     * @return 创建的主机数量
+     */
+    @Transactional
+    public int createHosts(Collection<InventoryHost> hosts) {
+        if (hosts == null || hosts.isEmpty()) {
+            return 0;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (InventoryHost host : hosts) {
+            if (host.getName() == null || host.getName().trim().isEmpty()) {
+                throw new IllegalArgumentException("主机名称不能为空");
+            }
+            host.setName(host.getName().trim());
+            if (!names.add(host.getName())) {
+                throw new DuplicateResourceException("导入数据中主机名称重复: " + host.getName());
+            }
+        }
+
+        for (List<String> chunk : chunk(names)) {
+            List<String> existing = entityManager
+                    .createQuery("SELECT h.name FROM InventoryHost h WHERE h.name IN :names", String.class)
+                    .setParameter("names", chunk)
+                    .setMaxResults(1)
+                    .getResultList();
+            if (!existing.isEmpty()) {
+                throw new DuplicateResourceException("主机名称已存在: " + existing.get(0));
+            }
+        }
+
+        int count = 0;
+        List<InventoryHost> batch = new ArrayList<>(batchSize);
+        for (InventoryHost host : hosts) {
+            host.getVariables().forEach(variable -> variable.setHost(host));
+            entityManager.persist(host);
+            statisticsCounters.hostCreated(Boolean.TRUE.equals(host.getConnected()));
+            batch.add(host);
+            if (++count % batchSize == 0) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+        return count;
+    }
+
+    /**
+     * 刷新并分离一批新建的主机（级联分离其变量），控制持久化上下文的大小
+     */
+    private void flushAndDetach(List<InventoryHost> batch) {
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    /**
+     * 批量添加主机到清单，已在清单中的主机会被跳过（只按传入的主机ID分块查询已有关联）
+     *
+     * @return 实际新增的关联数量
+     */
+    @Transactional
+    public int addHostsToInventory(Long inventoryId, Collection<Long> hostIds) {
+        Inventory inventory = getInventoryById(inventoryId);
+        if (inventory == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        if (hostIds == null || hostIds.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> candidates = new LinkedHashSet<>(hostIds);
+        for (List<Long> chunk : chunk(candidates)) {
+            candidates.removeAll(entityManager.createQuery(
+                    "SELECT hi.host.id FROM InventoryHostInventory hi"
+                            + " WHERE hi.inventory.id = :inventoryId AND hi.host.id IN :ids", Long.class)
+                    .setParameter("inventoryId", inventoryId)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        List<Long> toAdd = new ArrayList<>(candidates);
+        requireHostsExist(toAdd);
+
+        int count = 0;
+        for (Long hostId : toAdd) {
+            entityManager.persist(new InventoryHostInventory(inventory,
+                    entityManager.getReference(InventoryHost.class, hostId)));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+            }
+        }
+        entityManager.flush();
+        snapshotCache.invalidate(inventoryId);
+        return count;
+    }
+
+    /**
+     * 批量添加主机到组，已在组中的主机会被跳过（只按传入的主机ID分块查询已有成员）
+     *
+     * @return 实际新增的关联数量
+     */
+    @Transactional
+    public int addHostsToGroup(Long groupId, Collection<Long> hostIds) {
+        InventoryGroup group = entityManager.find(InventoryGroup.class, groupId);
+        if (group == null) {
+            throw new ResourceNotFoundException("组不存在");
+        }
+        if (hostIds == null || hostIds.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> candidates = new LinkedHashSet<>(hostIds);
+        for (List<Long> chunk : chunk(candidates)) {
+            candidates.removeAll(entityManager.createQuery(
+                    "SELECT gh.host.id FROM InventoryGroupHost gh WHERE gh.group.id = :groupId AND gh.host.id IN :ids",
+                    Long.class)
+                    .setParameter("groupId", groupId)
+                    .setParameter("ids", chunk)
+                    .getResultList());
+        }
+        List<Long> toAdd = new ArrayList<>(candidates);
+        requireHostsExist(toAdd);
+
+        int count = 0;
+        for (Long hostId : toAdd) {
+            entityManager.persist(new InventoryGroupHost(group,
+                    entityManager.getReference(InventoryHost.class, hostId)));
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+            }
+        }
+        entityManager.flush();
+        snapshotCache.invalidate(group.getInventory().getId());
+        return count;
+    }
+
+    /**
+     * 批量添加变量到清单
+     *
+     * @param variables 变量名 -> 变量值
+     * @return 新增的变量数量
+     */
+    @Transactional
+    public int addVariablesToInventory(Long inventoryId, Map<String, String> variables) {
+        Inventory inventory = getInventoryById(inventoryId);
+        if (inventory == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        if (variables == null || variables.isEmpty()) {
+            return 0;
+        }
+
+        int count = 0;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            if (entry.getKey() == null || entry.getKey().trim().isEmpty()) {
+                throw new IllegalArgumentException("变量名称不能为空");
+            }
+            InventoryVariable variable = new InventoryVariable(entry.getKey().trim(), entry.getValue());
+            variable.setInventory(inventory);
+            entityManager.persist(variable);
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+            }
+        }
+        entityManager.flush();
+        snapshotCache.invalidate(inventoryId);
+        return count;
+    }
+
+    /**
+     * 校验主机ID均存在（分块查询，避免超出绑定参数上限）
+     */
+    private void requireHostsExist(List<Long> hostIds) {
+        for (List<Long> chunk : chunk(hostIds)) {
+            Long found = entityManager
+                    .createQuery("SELECT COUNT(h) FROM InventoryHost h WHERE h.id IN :ids", Long.class)
+                    .setParameter("ids", chunk)
+                    .getSingleResult();
+            if (found < chunk.size()) {
+                throw new ResourceNotFoundException("主机不存在");
+            }
+        }
+    }
+
+    /**
+     * 组本身或其子孙组（最多3层，沿父组链判断）
+     */
+    private static boolean isSameOrDescendant(InventoryGroup group, Long groupId) {
+        for (InventoryGroup current = group; current != null; current = current.getParentGroup()) {
+            if (groupId.equals(current.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> List<List<T>> chunk(Collection<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        List<T> current = new ArrayList<>(IN_CLAUSE_CHUNK_SIZE);
+        for (T value : values) {
+            current.add(value);
+            if (current.size() == IN_CLAUSE_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(IN_CLAUSE_CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
     }
 }
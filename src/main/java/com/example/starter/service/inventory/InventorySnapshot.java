@@ -0,0 +1,317 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 清单快照 - 清单及其组树、主机、变量的不可变副本
+ * 组树按先序展开并预先计算层级深度，组成员以主机下标位图表示；
+ * 由 {@link InventorySnapshotCache} 构建和版本化，所有UI会话和清单文件生成共享同一份只读快照。
+ */
+public final class InventorySnapshot {
+
+    /**
+     * 变量
+     */
+    public record Variable(Long id, String name, String value) {
+    }
+
+    /**
+     * 主机（不包含连接状态，连接检测不会使快照失效）
+     */
+    public record HostNode(Long id, String name, String host, Integer port, String username, String password,
+            List<Variable> variables) {
+    }
+
+    /**
+     * 组，depth 从根组的1开始
+     */
+    public static final class GroupNode {
+
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Long parentId;
+        private final int depth;
+        private final List<Variable> variables;
+        private final BitSet members;
+        private final List<HostNode> hosts;
+
+        private GroupNode(Long id, String name, String description, Long parentId, int depth,
+                List<Variable> variables, BitSet members, List<HostNode> hosts) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.variables = variables;
+            this.members = members;
+            this.hosts = hosts;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public Long getParentId() {
+            return parentId;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public List<Variable> getVariables() {
+            return variables;
+        }
+
+        /**
+         * 组内主机，按加入顺序
+         */
+        public List<HostNode> getHosts() {
+            return hosts;
+        }
+
+        /**
+         * 指定下标的主机是否属于该组
+         */
+        public boolean containsHost(int hostIndex) {
+            return members.get(hostIndex);
+        }
+    }
+
+    private final Long inventoryId;
+    private final long version;
+    private final String name;
+    private final String description;
+    private final List<Variable> variables;
+    private final List<HostNode> hosts;
+    private final List<GroupNode> groups;
+    private final Map<Long, Integer> hostIndex;
+    private final Map<Long, GroupNode> groupsById;
+    private final BitSet inventoryHosts;
+    private final BitSet ungroupedHosts;
+    private volatile VariableResolution resolvedVariables;
+
+    private InventorySnapshot(Long inventoryId, long version, String name, String description,
+            List<Variable> variables, List<HostNode> hosts, List<GroupNode> groups, Map<Long, Integer> hostIndex,
+            BitSet inventoryHosts, BitSet ungroupedHosts) {
+        this.inventoryId = inventoryId;
+        this.version = version;
+        this.name = name;
+        this.description = description;
+        this.variables = variables;
+        this.hosts = hosts;
+        this.groups = groups;
+        this.hostIndex = hostIndex;
+        this.inventoryHosts = inventoryHosts;
+        this.ungroupedHosts = ungroupedHosts;
+        Map<Long, GroupNode> byId = new HashMap<>();
+        groups.forEach(group -> byId.put(group.getId(), group));
+        this.groupsById = Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * 从已加载全部关联数据的清单实体构建快照（需在事务内调用）
+     *
+     * @param inventory 通过 findByIdWithAssociations 加载的清单
+     * @param version   快照版本号
+     */
+    static InventorySnapshot of(Inventory inventory, long version) {
+        // 主机下标：先是清单直接包含的主机，再是只出现在组中的主机
+        List<HostNode> hosts = new ArrayList<>();
+        Map<Long, Integer> hostIndex = new LinkedHashMap<>();
+        BitSet inventoryHosts = new BitSet();
+        for (InventoryHost host : inventory.getHosts()) {
+            inventoryHosts.set(indexHost(host, hosts, hostIndex));
+        }
+
+        Set<Long> groupIds = new HashSet<>();
+        inventory.getGroups().forEach(group -> groupIds.add(group.getId()));
+        Map<Long, List<InventoryGroup>> children = new LinkedHashMap<>();
+        List<InventoryGroup> roots = new ArrayList<>();
+        for (InventoryGroup group : inventory.getGroups()) {
+            InventoryGroup parent = group.getParentGroup();
+            if (parent == null || !groupIds.contains(parent.getId())) {
+                roots.add(group);
+            } else {
+                children.computeIfAbsent(parent.getId(), k -> new ArrayList<>()).add(group);
+            }
+        }
+
+        List<GroupNode> groups = new ArrayList<>();
+        BitSet grouped = new BitSet();
+        for (InventoryGroup root : roots) {
+            flatten(root, null, 1, children, hosts, hostIndex, groups, grouped);
+        }
+
+        BitSet ungroupedHosts = (BitSet) inventoryHosts.clone();
+        ungroupedHosts.andNot(grouped);
+
+        List<Variable> variables = inventory.getVariables().stream()
+                .map(v -> new Variable(v.getId(), v.getVariableName(), v.getVariableValue()))
+                .toList();
+
+        return new InventorySnapshot(inventory.getId(), version, inventory.getName(), inventory.getDescription(),
+                variables, Collections.unmodifiableList(hosts), Collections.unmodifiableList(groups),
+                Collections.unmodifiableMap(hostIndex), inventoryHosts, ungroupedHosts);
+    }
+
+    /**
+     * 先序展开组树，同时计算层级和成员位图
+     */
+    private static void flatten(InventoryGroup group, Long parentId, int depth,
+            Map<Long, List<InventoryGroup>> children, List<HostNode> hosts, Map<Long, Integer> hostIndex,
+            List<GroupNode> groups, BitSet grouped) {
+        BitSet members = new BitSet();
+        List<HostNode> groupHosts = new ArrayList<>();
+        for (InventoryGroupHost groupHost : group.getGroupHosts()) {
+            int index = indexHost(groupHost.getHost(), hosts, hostIndex);
+            if (!members.get(index)) {
+                members.set(index);
+                groupHosts.add(hosts.get(index));
+            }
+        }
+        grouped.or(members);
+
+        List<Variable> variables = group.getVariables().stream()
+                .map(v -> new Variable(v.getId(), v.getVariableName(), v.getVariableValue()))
+                .toList();
+        groups.add(new GroupNode(group.getId(), group.getName(), group.getDescription(), parentId, depth,
+                variables, members, Collections.unmodifiableList(groupHosts)));
+
+        for (InventoryGroup child : children.getOrDefault(group.getId(), List.of())) {
+            flatten(child, group.getId(), depth + 1, children, hosts, hostIndex, groups, grouped);
+        }
+    }
+
+    private static int indexHost(InventoryHost host, List<HostNode> hosts, Map<Long, Integer> hostIndex) {
+        Integer existing = hostIndex.get(host.getId());
+        if (existing != null) {
+            return existing;
+        }
+        List<Variable> variables = new ArrayList<>();
+        for (InventoryHostVariable variable : host.getVariables()) {
+            variables.add(new Variable(variable.getId(), variable.getVariableName(), variable.getVariableValue()));
+        }
+        hosts.add(new HostNode(host.getId(), host.getName(), host.getHost(), host.getPort(), host.getUsername(),
+                host.getPassword(), List.copyOf(variables)));
+        hostIndex.put(host.getId(), hosts.size() - 1);
+        return hosts.size() - 1;
+    }
+
+    public Long getInventoryId() {
+        return inventoryId;
+    }
+
+    /**
+     * 快照版本号，每次重建递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public List<Variable> getVariables() {
+        return variables;
+    }
+
+    /**
+     * 按先序展开的组树（父组在前，子组紧随其后）
+     */
+    public List<GroupNode> getGroups() {
+        return groups;
+    }
+
+    public GroupNode getGroup(Long groupId) {
+        return groupsById.get(groupId);
+    }
+
+    /**
+     * 快照涉及的全部主机（清单主机及组成员主机）
+     */
+    public List<HostNode> getAllHosts() {
+        return hosts;
+    }
+
+    /**
+     * 清单直接包含的主机
+     */
+    public List<HostNode> getInventoryHosts() {
+        return select(inventoryHosts);
+    }
+
+    /**
+     * 属于清单但不在任何组中的主机
+     */
+    public List<HostNode> getUngroupedHosts() {
+        return select(ungroupedHosts);
+    }
+
+    /**
+     * 快照是否涉及指定主机
+     */
+    public boolean containsHost(Long hostId) {
+        return hostIndex.containsKey(hostId);
+    }
+
+    /**
+     * 主机在快照中的下标，不存在时返回 -1
+     */
+    public int indexOfHost(Long hostId) {
+        return hostIndex.getOrDefault(hostId, -1);
+    }
+
+    /**
+     * 各主机的生效变量，首次访问时计算，之后随快照共享
+     */
+    public VariableResolution getResolvedVariables() {
+        VariableResolution resolved = resolvedVariables;
+        if (resolved == null) {
+            synchronized (this) {
+                resolved = resolvedVariables;
+                if (resolved == null) {
+                    resolved = VariableResolution.of(this);
+                    resolvedVariables = resolved;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    private List<HostNode> select(BitSet bits) {
+        List<HostNode> selected = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            selected.add(hosts.get(i));
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.repository.InventoryRepository;
+import com.example.starter.service.TransactionCallbacks;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 清单快照缓存 - 每个清单保留一份最新的只读快照
+ * 清单、组、成员或变量发生变化时，在事务提交后只失效受影响的清单，下次访问时重建；
+ * 主机信息变化时只失效包含该主机的清单。
+ * <p>
+ * 失效粒度是整个清单，不做增量更新：任何一处修改都丢弃整份快照，由下一次读取用固定条数的查询
+ * （见 {@code InventoryRepository#findByIdWithAssociations}）重新加载。快照不可变且被多个会话共享，
+ * 增量更新需要复制并修补组树、成员位图和变量合并结果，还要与并发的构建协调，复杂度远高于重建；
+ * 而清单的修改远少于读取（任务执行、界面预览），重建成本只在修改后的第一次读取时付出一次。
+ * 批量修改（导入、同步）的失效都在提交后才生效，整批修改只会引起之后第一次读取时的一次重建。
+ */
+@ApplicationScoped
+public class InventorySnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySnapshotCache.class);
+
+    @Inject
+    InventoryRepository inventoryRepository;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    private final Map<Long, InventorySnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 每个清单的失效代数，构建期间发生失效时丢弃构建结果，避免缓存旧数据
+     */
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * 主机失效代数，主机变化时无法确定正在构建的快照是否包含该主机，统一丢弃构建结果
+     */
+    private final AtomicLong hostGeneration = new AtomicLong();
+
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    private final AtomicLong buildCount = new AtomicLong();
+
+    /**
+     * 获取清单快照，不存在或已失效时从数据库重建
+     * 重建在独立的新事务中进行，调用方处于写事务中时也只读取已提交的数据，
+     * 不会把调用方未提交（可能回滚）的修改放入共享缓存。
+     *
+     * @return 清单不存在时返回 null
+     */
+    public InventorySnapshot get(Long inventoryId) {
+        InventorySnapshot cached = snapshots.get(inventoryId);
+        if (cached != null) {
+            return cached;
+        }
+        return build(inventoryId);
+    }
+
+    /**
+     * 从数据库构建快照（独立事务），构建期间发生失效时不放入缓存
+     */
+    @Transactional(TxType.REQUIRES_NEW)
+    InventorySnapshot build(Long inventoryId) {
+        long generation = generations.getOrDefault(inventoryId, 0L);
+        long hostGenerationAtStart = hostGeneration.get();
+        Inventory inventory = inventoryRepository.findByIdWithAssociations(inventoryId);
+        if (inventory == null) {
+            return null;
+        }
+        InventorySnapshot snapshot = InventorySnapshot.of(inventory, versionSequence.incrementAndGet());
+        buildCount.incrementAndGet();
+
+        if (generations.getOrDefault(inventoryId, 0L) == generation
+                && hostGeneration.get() == hostGenerationAtStart) {
+            snapshots.put(inventoryId, snapshot);
+        }
+        logger.debug("Built inventory snapshot {} version {}", inventoryId, snapshot.getVersion());
+        return snapshot;
+    }
+
+    /**
+     * 获取已缓存的快照，不触发重建
+     */
+    public Optional<InventorySnapshot> peek(Long inventoryId) {
+        return Optional.ofNullable(snapshots.get(inventoryId));
+    }
+
+    /**
+     * 清单发生变化，事务提交后失效其快照
+     */
+    public void invalidate(Long inventoryId) {
+        if (inventoryId == null) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> {
+            generations.merge(inventoryId, 1L, Long::sum);
+            snapshots.remove(inventoryId);
+        });
+    }
+
+    /**
+     * 主机信息发生变化，事务提交后失效所有包含该主机的清单快照
+     */
+    public void invalidateHost(Long hostId) {
+        if (hostId == null) {
+            return;
+        }
+        transactionCallbacks.afterCommit(() -> {
+            hostGeneration.incrementAndGet();
+            snapshots.values().removeIf(snapshot -> snapshot.containsHost(hostId));
+        });
+    }
+
+    /**
+     * 已缓存的快照数量
+     */
+    public int getCachedCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * 快照累计构建次数
+     */
+    public long getBuildCount() {
+        return buildCount.get();
+    }
+}
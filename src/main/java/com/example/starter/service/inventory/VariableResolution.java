@@ -0,0 +1,191 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.service.inventory.InventorySnapshot.GroupNode;
+import com.example.starter.service.inventory.InventorySnapshot.HostNode;
+import com.example.starter.service.inventory.InventorySnapshot.Variable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 一个清单快照中每台主机的生效变量
+ * 优先级从低到高：清单变量 → 组变量（按组层级由浅到深，同层按组名排序，与 ansible 一致）→ 主机连接信息 → 主机变量。
+ * 每台主机的结果分两层：继承自清单和组的部分按所属组组合计算一次，由所属组相同的主机共享；
+ * 主机自身的部分单独保存。结果随快照一起缓存，快照版本变化后重新计算。
+ * 模板变量因任务而异，不在这里合并，见 {@link VariableResolver}。
+ */
+public final class VariableResolution {
+
+    /**
+     * 生效的变量
+     *
+     * @param source 变量来源（清单 / 组 xxx / 主机 / 模板）
+     */
+    public record ResolvedVariable(String name, String value, String source) {
+    }
+
+    private static final String SOURCE_INVENTORY = "清单";
+    private static final String SOURCE_HOST = "主机";
+    private static final String SOURCE_TEMPLATE = "模板";
+
+    private static final Comparator<GroupNode> GROUP_PRECEDENCE = Comparator.comparingInt(GroupNode::getDepth)
+            .thenComparing(GroupNode::getName);
+
+    /**
+     * 主机的两层变量：inherited 为共享的清单和组变量，own 为主机自身的变量
+     */
+    private record HostLayers(Map<String, ResolvedVariable> inherited, Map<String, ResolvedVariable> own) {
+    }
+
+    private final long version;
+    private final Map<Long, HostLayers> hostLayers;
+    private final int sharedScopeCount;
+
+    private VariableResolution(long version, Map<Long, HostLayers> hostLayers, int sharedScopeCount) {
+        this.version = version;
+        this.hostLayers = hostLayers;
+        this.sharedScopeCount = sharedScopeCount;
+    }
+
+    static VariableResolution of(InventorySnapshot snapshot) {
+        List<HostNode> hosts = snapshot.getAllHosts();
+
+        // 每台主机直接所属的组
+        List<List<GroupNode>> memberships = new ArrayList<>(hosts.size());
+        for (int i = 0; i < hosts.size(); i++) {
+            memberships.add(new ArrayList<>());
+        }
+        for (GroupNode group : snapshot.getGroups()) {
+            for (HostNode host : group.getHosts()) {
+                memberships.get(snapshot.indexOfHost(host.id())).add(group);
+            }
+        }
+
+        Map<String, ResolvedVariable> inventoryScope = new LinkedHashMap<>();
+        for (Variable variable : snapshot.getVariables()) {
+            put(inventoryScope, variable.name(), variable.value(), SOURCE_INVENTORY);
+        }
+        Map<String, ResolvedVariable> sharedInventoryScope = Collections.unmodifiableMap(inventoryScope);
+
+        // 相同组合（按组ID）只计算一次，结果在主机之间共享
+        Map<Set<Long>, Map<String, ResolvedVariable>> groupScopes = new HashMap<>();
+        Map<Long, HostLayers> hostLayers = new HashMap<>(hosts.size() * 2);
+        for (int i = 0; i < hosts.size(); i++) {
+            HostNode host = hosts.get(i);
+            List<GroupNode> groups = memberships.get(i);
+            Set<Long> key = new HashSet<>();
+            groups.forEach(group -> key.add(group.getId()));
+            Map<String, ResolvedVariable> inherited = groups.isEmpty() ? sharedInventoryScope
+                    : groupScopes.computeIfAbsent(key, k -> resolveGroups(snapshot, groups, inventoryScope));
+            hostLayers.put(host.id(), new HostLayers(inherited, resolveHost(host)));
+        }
+        return new VariableResolution(snapshot.getVersion(), hostLayers, groupScopes.size() + 1);
+    }
+
+    /**
+     * 合并组及其全部上级组的变量
+     */
+    private static Map<String, ResolvedVariable> resolveGroups(InventorySnapshot snapshot, List<GroupNode> groups,
+            Map<String, ResolvedVariable> inventoryScope) {
+        Map<Long, GroupNode> closure = new LinkedHashMap<>();
+        for (GroupNode group : groups) {
+            for (GroupNode current = group; current != null && !closure.containsKey(current.getId());
+                    current = current.getParentId() != null ? snapshot.getGroup(current.getParentId()) : null) {
+                closure.put(current.getId(), current);
+            }
+        }
+        List<GroupNode> ordered = new ArrayList<>(closure.values());
+        ordered.sort(GROUP_PRECEDENCE);
+
+        Map<String, ResolvedVariable> scope = new LinkedHashMap<>(inventoryScope);
+        for (GroupNode group : ordered) {
+            String source = "组 " + group.getName();
+            for (Variable variable : group.getVariables()) {
+                put(scope, variable.name(), variable.value(), source);
+            }
+        }
+        return Collections.unmodifiableMap(scope);
+    }
+
+    /**
+     * 主机连接信息（ansible_host 等）和主机变量，主机变量可以覆盖连接信息
+     */
+    private static Map<String, ResolvedVariable> resolveHost(HostNode host) {
+        Map<String, ResolvedVariable> scope = new LinkedHashMap<>();
+        put(scope, "ansible_host", host.host(), SOURCE_HOST);
+        if (host.port() != null && host.port() != 22) {
+            put(scope, "ansible_port", String.valueOf(host.port()), SOURCE_HOST);
+        }
+        if (host.username() != null && !host.username().isEmpty()) {
+            put(scope, "ansible_user", host.username(), SOURCE_HOST);
+        }
+        if (host.password() != null && !host.password().isEmpty()) {
+            put(scope, "ansible_password", host.password(), SOURCE_HOST);
+        }
+        for (Variable variable : host.variables()) {
+            put(scope, variable.name(), variable.value(), SOURCE_HOST);
+        }
+        return Collections.unmodifiableMap(scope);
+    }
+
+    private static void put(Map<String, ResolvedVariable> scope, String name, String value, String source) {
+        // 先移除再放入，使映射的顺序反映覆盖关系（后生效的排在后面）
+        scope.remove(name);
+        scope.put(name, new ResolvedVariable(name, value, source));
+    }
+
+    /**
+     * 计算时使用的快照版本
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 主机的生效变量，按生效顺序排列（被覆盖的变量只保留最终值）；主机不在快照中时返回空列表
+     *
+     * @param overrides 优先级最高的附加变量（如模板变量），可为空
+     */
+    public List<ResolvedVariable> forHost(Long hostId, Map<String, String> overrides) {
+        HostLayers layers = hostLayers.get(hostId);
+        if (layers == null) {
+            return List.of();
+        }
+        Map<String, String> top = overrides != null ? overrides : Map.of();
+        List<ResolvedVariable> resolved = new ArrayList<>(layers.inherited().size() + layers.own().size()
+                + top.size());
+        for (ResolvedVariable variable : layers.inherited().values()) {
+            if (!layers.own().containsKey(variable.name()) && !top.containsKey(variable.name())) {
+                resolved.add(variable);
+            }
+        }
+        for (ResolvedVariable variable : layers.own().values()) {
+            if (!top.containsKey(variable.name())) {
+                resolved.add(variable);
+            }
+        }
+        top.forEach((name, value) -> resolved.add(new ResolvedVariable(name, value, SOURCE_TEMPLATE)));
+        return resolved;
+    }
+
+    /**
+     * 快照是否包含指定主机
+     */
+    public boolean containsHost(Long hostId) {
+        return hostLayers.containsKey(hostId);
+    }
+
+    /**
+     * 主机之间共享的继承层数量（清单层加上不同的组组合数）
+     */
+    public int getSharedScopeCount() {
+        return sharedScopeCount;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.exception.ResourceNotFoundException;
+import com.example.starter.service.inventory.VariableResolution.ResolvedVariable;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 变量解析服务 - 查询主机在清单中的生效变量
+ * 清单、组和主机三层的合并结果随清单快照缓存（见 {@link VariableResolution}），
+ * 模板变量优先级最高，在查询时叠加。
+ */
+@ApplicationScoped
+public class VariableResolver {
+
+    @Inject
+    InventorySnapshotCache snapshotCache;
+
+    /**
+     * 主机在清单中的生效变量
+     *
+     * @param templateVariables 模板变量，可为空
+     */
+    public List<ResolvedVariable> getEffectiveVariables(Long inventoryId, Long hostId,
+            Map<String, String> templateVariables) {
+        InventorySnapshot snapshot = snapshotCache.get(inventoryId);
+        if (snapshot == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        VariableResolution resolution = snapshot.getResolvedVariables();
+        if (!resolution.containsHost(hostId)) {
+            throw new ResourceNotFoundException("主机不在清单中");
+        }
+        return resolution.forHost(hostId, templateVariables);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.starter.service.inventory;
+
+import java.util.regex.Pattern;
+
+/**
+ * YAML 标量写法 - 生成清单文件时决定键和值是否需要加引号
+ * 数字和布尔值保持原样（ansible 按对应类型读取），其余字符串使用双引号并转义特殊字符。
+ */
+final class YamlScalar {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(\\.\\d+)?");
+
+    /**
+     * 可以不加引号的键：只包含常见的名称字符，且不以 YAML 指示符开头
+     */
+    private static final Pattern PLAIN_KEY = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9_.\\-/@]*");
+
+    private YamlScalar() {
+    }
+
+    /**
+     * 变量值
+     */
+    static String value(String value) {
+        if (value == null || value.isEmpty()) {
+            return "\"\"";
+        }
+        if (value.equals("true") || value.equals("false") || NUMBER.matcher(value).matches()) {
+            return value;
+        }
+        // 用户已自行加引号的值原样输出（兼容以往的写法）
+        if (isQuoted(value, '"') || isQuoted(value, '\'')) {
+            return value;
+        }
+        return quote(value);
+    }
+
+    /**
+     * 映射的键（变量名、组名、主机名）
+     */
+    static String key(String key) {
+        if (key != null && PLAIN_KEY.matcher(key).matches() && !key.equals("true") && !key.equals("false")
+                && !key.equals("null")) {
+            return key;
+        }
+        return quote(key == null ? "" : key);
+    }
+
+    private static boolean isQuoted(String value, char quote) {
+        if (value.length() < 2 || value.charAt(0) != quote || value.charAt(value.length() - 1) != quote) {
+            return false;
+        }
+        // 中间不能再出现未转义的同种引号，否则不是单个标量
+        for (int i = 1; i < value.length() - 1; i++) {
+            char c = value.charAt(i);
+            if (quote == '"' && c == '\\') {
+                i++;
+            } else if (c == quote) {
+                if (quote == '\'' && i + 1 < value.length() - 1 && value.charAt(i + 1) == '\'') {
+                    i++;
+                } else {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\x%02x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
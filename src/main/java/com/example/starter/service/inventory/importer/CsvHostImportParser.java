@@ -0,0 +1,128 @@
+package com.example.starter.service.inventory.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * CSV 主机文件解析器
+ * 第一行为表头：name、host、port、username、password、groups 为固定列（groups 多个组用 ; 分隔），
+ * 其余列作为主机变量；支持双引号包裹的字段（字段内可包含逗号、换行，"" 表示一个双引号）。
+ */
+public class CsvHostImportParser implements HostImportParser {
+
+    @Override
+    public void parse(Reader reader, HostImportSink sink) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        List<String> header = readRow(in);
+        if (header == null) {
+            return;
+        }
+        header.replaceAll(column -> column.trim().toLowerCase(Locale.ROOT));
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1));
+        }
+        int nameColumn = header.indexOf("name");
+        if (nameColumn < 0) {
+            sink.error("CSV 缺少 name 列");
+            return;
+        }
+
+        List<String> row;
+        long line = 1;
+        while ((row = readRow(in)) != null) {
+            line++;
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            String name = column(row, nameColumn);
+            if (name.isEmpty()) {
+                sink.error("第 " + line + " 行: 主机名称为空");
+                continue;
+            }
+            try {
+                sink.host(toRecord(name, header, row));
+            } catch (IllegalArgumentException e) {
+                sink.error("第 " + line + " 行 " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private HostImportRecord toRecord(String name, List<String> header, List<String> row) {
+        HostImportRecord record = new HostImportRecord(name);
+        for (int i = 0; i < header.size(); i++) {
+            String value = column(row, i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header.get(i)) {
+                case "name" -> {
+                }
+                case "host", "address" -> record.setHost(value);
+                case "port" -> record.setPort(HostImportRecord.parsePort(value));
+                case "username", "user" -> record.setUsername(value);
+                case "password" -> record.setPassword(value);
+                case "groups", "group" -> {
+                    for (String group : value.split("[;|]")) {
+                        record.addGroup(group.trim());
+                    }
+                }
+                default -> record.setVariable(header.get(i), value);
+            }
+        }
+        return record;
+    }
+
+    private static String column(List<String> row, int index) {
+        return index < row.size() ? row.get(index).trim() : "";
+    }
+
+    /**
+     * 读取一行记录（引号内的换行属于字段内容）
+     *
+     * @return 文件结束时返回 null
+     */
+    private static List<String> readRow(BufferedReader in) throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next >= 0) {
+                            in.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        row.add(field.toString());
+        return row;
+    }
+}
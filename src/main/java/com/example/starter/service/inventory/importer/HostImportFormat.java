@@ -0,0 +1,41 @@
+package com.example.starter.service.inventory.importer;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * 支持的导入文件格式
+ */
+public enum HostImportFormat {
+
+    CSV(CsvHostImportParser::new),
+    INI(IniHostImportParser::new),
+    YAML(YamlHostImportParser::new);
+
+    private final Supplier<HostImportParser> parserFactory;
+
+    HostImportFormat(Supplier<HostImportParser> parserFactory) {
+        this.parserFactory = parserFactory;
+    }
+
+    public HostImportParser createParser() {
+        return parserFactory.get();
+    }
+
+    /**
+     * 根据文件扩展名判断格式，无扩展名的文件按 ansible INI 清单处理
+     */
+    public static HostImportFormat fromFileName(String fileName) {
+        String lower = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lower.endsWith(".yml") || lower.endsWith(".yaml")) {
+            return YAML;
+        }
+        if (lower.endsWith(".ini") || lower.endsWith(".cfg") || !lower.contains(".")) {
+            return INI;
+        }
+        throw new IllegalArgumentException("不支持的文件格式: " + fileName);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.starter.service.inventory.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 主机导入文件解析器
+ */
+public interface HostImportParser {
+
+    void parse(Reader reader, HostImportSink sink) throws IOException;
+}
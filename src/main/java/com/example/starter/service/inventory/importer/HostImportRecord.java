@@ -0,0 +1,131 @@
+package com.example.starter.service.inventory.importer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 导入的一条主机记录
+ * 同名主机在文件中多次出现（如属于多个组）时会合并为一条：后出现的连接信息覆盖前面的，组和变量累加。
+ */
+public class HostImportRecord {
+
+    private final String name;
+
+    private String host;
+
+    private Integer port;
+
+    private String username;
+
+    private String password;
+
+    private final List<String> groups = new ArrayList<>();
+
+    private final Map<String, String> variables = new LinkedHashMap<>();
+
+    public HostImportRecord(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 设置变量，ansible 连接变量映射为主机字段
+     *
+     * @throws IllegalArgumentException 端口不是合法数字时
+     */
+    public void setVariable(String key, String value) {
+        switch (key) {
+            case "ansible_host", "ansible_ssh_host" -> host = value;
+            case "ansible_port", "ansible_ssh_port" -> port = parsePort(value);
+            case "ansible_user", "ansible_ssh_user" -> username = value;
+            case "ansible_password", "ansible_ssh_pass" -> password = value;
+            default -> variables.put(key, value);
+        }
+    }
+
+    public void addGroup(String group) {
+        if (group != null && !group.isEmpty() && !groups.contains(group)) {
+            groups.add(group);
+        }
+    }
+
+    /**
+     * 合并同名主机的另一条记录
+     */
+    public void merge(HostImportRecord other) {
+        if (other.host != null) {
+            host = other.host;
+        }
+        if (other.port != null) {
+            port = other.port;
+        }
+        if (other.username != null) {
+            username = other.username;
+        }
+        if (other.password != null) {
+            password = other.password;
+        }
+        other.groups.forEach(this::addGroup);
+        variables.putAll(other.variables);
+    }
+
+    static Integer parsePort(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            int port = Integer.parseInt(value.trim());
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("端口超出范围: " + value);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("端口不是数字: " + value);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public Integer getPort() {
+        return port;
+    }
+
+    public void setPort(Integer port) {
+        this.port = port;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public List<String> getGroups() {
+        return groups;
+    }
+
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.starter.service.inventory.importer;
+
+import java.util.List;
+
+/**
+ * 主机导入结果
+ *
+ * @param created        新建的主机数
+ * @param updated        已存在并被更新的主机数（同一文件中重复出现的主机也计入）
+ * @param failed         校验失败被跳过的记录数
+ * @param groupsCreated  新建的组数
+ * @param errors         错误信息（最多保留前若干条）
+ * @param durationMillis 耗时（毫秒）
+ */
+public record HostImportResult(long created, long updated, long failed, long groupsCreated, List<String> errors,
+        long durationMillis) {
+
+    /**
+     * 导入进度，每处理完一批回调一次
+     */
+    public record Progress(long processed, long created, long updated, long failed) {
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.starter.service.inventory.importer;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import com.example.starter.exception.ResourceNotFoundException;
+import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.service.inventory.InventorySnapshotCache;
+import com.example.starter.util.UIBroadcaster;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 主机批量导入服务 - 流式解析 CSV / INI / YAML 文件，分批在独立事务中写入
+ * 每批内按主机名称一次性查询已有主机（哈希查找），存在则更新，不存在的通过 {@link InventoryService}
+ * 的批量方法创建并写入清单成员、组成员；内存中只保留当前批次和清单的组索引。
+ * 某一批失败时停止导入，之前已提交的批次保留。
+ */
+@ApplicationScoped
+public class HostImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostImportService.class);
+
+    /**
+     * IN 查询参数分块大小（SQLite默认最多999个绑定参数）
+     */
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    /**
+     * 最多保留的错误信息条数
+     */
+    private static final int MAX_ERRORS = 100;
+
+    /**
+     * 组嵌套层级上限，与手工创建子组的限制一致
+     */
+    private static final int MAX_GROUP_DEPTH = 3;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    InventoryService inventoryService;
+
+    @Inject
+    InventorySnapshotCache snapshotCache;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
+    @ConfigProperty(name = "inventory.import.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "inventory.import.default-username", defaultValue = "root")
+    String defaultUsername;
+
+    /**
+     * 导入主机
+     *
+     * @param reader      文件内容
+     * @param format      文件格式
+     * @param inventoryId 目标清单，为空时只导入主机（忽略组和组变量）
+     * @param progress    进度回调，每提交一批调用一次（在导入线程中执行）
+     */
+    public HostImportResult importHosts(Reader reader, HostImportFormat format, Long inventoryId,
+            Consumer<HostImportResult.Progress> progress) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        ImportContext context = new ImportContext(inventoryId);
+        if (inventoryId != null) {
+            loadInventoryState(context);
+        }
+
+        try {
+            format.createParser().parse(reader, new HostImportSink() {
+                @Override
+                public void host(HostImportRecord record) {
+                    context.pending.merge(record.getName(), record, (current, next) -> {
+                        current.merge(next);
+                        return current;
+                    });
+                    if (context.pending.size() >= chunkSize) {
+                        flushPending(context, progress);
+                    }
+                }
+
+                @Override
+                public void groupVariable(String group, String name, String value) {
+                    context.groupVariables.add(new String[] { group, name, value });
+                }
+
+                @Override
+                public void groupChild(String parent, String child) {
+                    context.groupChildren.add(new String[] { parent, child });
+                }
+
+                @Override
+                public void error(String message) {
+                    context.fail(message);
+                }
+            });
+            flushPending(context, progress);
+
+            if (inventoryId != null && !(context.groupVariables.isEmpty() && context.groupChildren.isEmpty())) {
+                applyGroupStructure(context);
+            }
+        } catch (ImportAbortedException e) {
+            logger.error("Host import aborted after {} hosts: {}", context.processed, e.getMessage());
+        }
+
+        if (context.created + context.updated > 0) {
+            uiBroadcaster.broadcastRefresh("hosts");
+        }
+        long duration = System.currentTimeMillis() - startedAt;
+        logger.info("Imported hosts in {} ms: created={}, updated={}, failed={}, groupsCreated={}",
+                duration, context.created, context.updated, context.failed, context.groupsCreated);
+        return new HostImportResult(context.created, context.updated, context.failed, context.groupsCreated,
+                List.copyOf(context.errors), duration);
+    }
+
+    private void flushPending(ImportContext context, Consumer<HostImportResult.Progress> progress) {
+        if (context.pending.isEmpty()) {
+            return;
+        }
+        List<HostImportRecord> records = new ArrayList<>(context.pending.values());
+        context.pending.clear();
+        long created;
+        try {
+            created = importChunk(context, records);
+        } catch (RuntimeException e) {
+            context.fail("第 " + (context.processed + 1) + " 条起的一批导入失败，已停止导入: " + e.getMessage());
+            throw new ImportAbortedException(e);
+        }
+        // 计数在事务提交后才累加，失败的批次不计入
+        context.processed += records.size();
+        context.created += created;
+        context.updated += records.size() - created;
+        if (progress != null) {
+            progress.accept(new HostImportResult.Progress(context.processed, context.created, context.updated,
+                    context.failed));
+        }
+    }
+
+    /**
+     * 读取目标清单已有的组
+     */
+    @Transactional
+    void loadInventoryState(ImportContext context) {
+        if (entityManager.find(Inventory.class, context.inventoryId) == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        for (Object[] row : entityManager.createQuery(
+                "SELECT g.name, g.id FROM InventoryGroup g WHERE g.inventory.id = :id", Object[].class)
+                .setParameter("id", context.inventoryId)
+                .getResultList()) {
+            context.groupIds.put((String) row[0], (Long) row[1]);
+        }
+    }
+
+    /**
+     * 导入一批主机（独立事务）
+     *
+     * @return 新建的主机数
+     */
+    @Transactional
+    long importChunk(ImportContext context, List<HostImportRecord> records) {
+        Map<String, InventoryHost> existing = findHostsByName(records.stream().map(HostImportRecord::getName).toList());
+
+        List<InventoryHost> newHosts = new ArrayList<>();
+        List<InventoryHost> hosts = new ArrayList<>(records.size());
+        for (HostImportRecord record : records) {
+            InventoryHost host = existing.get(record.getName());
+            if (host == null) {
+                host = new InventoryHost(record.getName(),
+                        record.getHost() != null ? record.getHost() : record.getName(),
+                        record.getPort() != null ? record.getPort() : 22,
+                        record.getUsername() != null ? record.getUsername() : defaultUsername,
+                        record.getPassword() != null ? record.getPassword() : "");
+                applyVariables(host, record.getVariables());
+                newHosts.add(host);
+            } else {
+                updateHost(host, record);
+                snapshotCache.invalidateHost(host.getId());
+            }
+            hosts.add(host);
+        }
+        // 新主机与手工批量创建走同一条写入路径（JDBC批量插入）
+        int created = inventoryService.createHosts(newHosts);
+
+        if (context.inventoryId != null) {
+            inventoryService.addHostsToInventory(context.inventoryId,
+                    hosts.stream().map(InventoryHost::getId).toList());
+            Map<Long, List<Long>> groupMembers = new LinkedHashMap<>();
+            for (int i = 0; i < records.size(); i++) {
+                for (String groupName : records.get(i).getGroups()) {
+                    groupMembers.computeIfAbsent(ensureGroup(context, groupName), k -> new ArrayList<>())
+                            .add(hosts.get(i).getId());
+                }
+            }
+            groupMembers.forEach(inventoryService::addHostsToGroup);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return created;
+    }
+
+    /**
+     * 写入组变量、清单变量（all 组）和组的父子关系
+     */
+    @Transactional
+    void applyGroupStructure(ImportContext context) {
+        Inventory inventory = entityManager.find(Inventory.class, context.inventoryId);
+
+        for (String[] variable : context.groupVariables) {
+            String group = variable[0];
+            if ("all".equals(group)) {
+                upsertInventoryVariable(inventory, variable[1], variable[2]);
+            } else if (!"ungrouped".equals(group)) {
+                InventoryGroup managed = entityManager.find(InventoryGroup.class, ensureGroup(context, group));
+                upsertGroupVariable(managed, variable[1], variable[2]);
+            }
+        }
+
+        for (String[] relation : context.groupChildren) {
+            String parentName = relation[0];
+            String childName = relation[1];
+            if ("all".equals(parentName) || "ungrouped".equals(childName) || parentName.equals(childName)) {
+                continue;
+            }
+            InventoryGroup parent = entityManager.find(InventoryGroup.class, ensureGroup(context, parentName));
+            InventoryGroup child = entityManager.find(InventoryGroup.class, ensureGroup(context, childName));
+            if (child.getParentGroup() == parent) {
+                continue;
+            }
+            if (isAncestor(child, parent)) {
+                context.fail("组 " + childName + " 是 " + parentName + " 的上级组，不能互为父子");
+                continue;
+            }
+            if (depthOf(parent) + heightOf(child) > MAX_GROUP_DEPTH) {
+                context.fail("组 " + parentName + " -> " + childName + ": 组嵌套层级不能超过" + MAX_GROUP_DEPTH + "层");
+                continue;
+            }
+            if (child.getParentGroup() != null) {
+                child.getParentGroup().getChildGroups().remove(child);
+            }
+            child.setParentGroup(parent);
+            parent.getChildGroups().add(child);
+        }
+
+        snapshotCache.invalidate(context.inventoryId);
+    }
+
+    /**
+     * 按名称查找已有主机（连同变量），分块查询
+     */
+    private Map<String, InventoryHost> findHostsByName(List<String> names) {
+        Map<String, InventoryHost> hosts = new HashMap<>(names.size() * 2);
+        for (int from = 0; from < names.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, names.size()));
+            entityManager.createQuery(
+                    "SELECT DISTINCT h FROM InventoryHost h LEFT JOIN FETCH h.variables WHERE h.name IN :names",
+                    InventoryHost.class)
+                    .setParameter("names", chunk)
+                    .getResultList()
+                    .forEach(host -> hosts.put(host.getName(), host));
+        }
+        return hosts;
+    }
+
+    /**
+     * 获取组ID，组不存在时在当前事务中创建
+     */
+    private Long ensureGroup(ImportContext context, String name) {
+        Long id = context.groupIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        Inventory inventory = entityManager.find(Inventory.class, context.inventoryId);
+        InventoryGroup group = new InventoryGroup(name, null);
+        group.setInventory(inventory);
+        // 同步清单的组集合（集合缓存中需要包含新组）
+        inventory.getGroups().add(group);
+        entityManager.persist(group);
+        context.groupIds.put(name, group.getId());
+        context.groupsCreated++;
+        return group.getId();
+    }
+
+    private void updateHost(InventoryHost host, HostImportRecord record) {
+        if (record.getHost() != null) {
+            host.setHost(record.getHost());
+        }
+        if (record.getPort() != null) {
+            host.setPort(record.getPort());
+        }
+        if (record.getUsername() != null) {
+            host.setUsername(record.getUsername());
+        }
+        if (record.getPassword() != null) {
+            host.setPassword(record.getPassword());
+        }
+        host.setUpdatedAt(LocalDateTime.now());
+        applyVariables(host, record.getVariables());
+    }
+
+    private void applyVariables(InventoryHost host, Map<String, String> variables) {
+        if (variables.isEmpty()) {
+            return;
+        }
+        Map<String, InventoryHostVariable> current = new HashMap<>();
+        host.getVariables().forEach(variable -> current.put(variable.getVariableName(), variable));
+        variables.forEach((name, value) -> {
+            InventoryHostVariable variable = current.get(name);
+            if (variable != null) {
+                variable.setVariableValue(value);
+            } else {
+                variable = new InventoryHostVariable(name, value);
+                variable.setHost(host);
+                host.getVariables().add(variable);
+                current.put(name, variable);
+            }
+        });
+    }
+
+    private void upsertInventoryVariable(Inventory inventory, String name, String value) {
+        for (InventoryVariable variable : inventory.getVariables()) {
+            if (variable.getVariableName().equals(name)) {
+                variable.setVariableValue(value);
+                return;
+            }
+        }
+        InventoryVariable variable = new InventoryVariable(name, value);
+        variable.setInventory(inventory);
+        inventory.getVariables().add(variable);
+        entityManager.persist(variable);
+    }
+
+    private void upsertGroupVariable(InventoryGroup group, String name, String value) {
+        for (InventoryGroupVariable variable : group.getVariables()) {
+            if (variable.getVariableName().equals(name)) {
+                variable.setVariableValue(value);
+                return;
+            }
+        }
+        InventoryGroupVariable variable = new InventoryGroupVariable(name, value);
+        variable.setGroup(group);
+        group.getVariables().add(variable);
+        entityManager.persist(variable);
+    }
+
+    private static boolean isAncestor(InventoryGroup candidate, InventoryGroup group) {
+        for (InventoryGroup current = group; current != null; current = current.getParentGroup()) {
+            if (current == candidate) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depthOf(InventoryGroup group) {
+        int depth = 0;
+        for (InventoryGroup current = group; current != null; current = current.getParentGroup()) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private static int heightOf(InventoryGroup group) {
+        int height = 0;
+        for (InventoryGroup child : group.getChildGroups()) {
+            height = Math.max(height, heightOf(child));
+        }
+        return height + 1;
+    }
+
+    /**
+     * 单次导入的状态
+     */
+    static class ImportContext {
+
+        final Long inventoryId;
+
+        final Map<String, HostImportRecord> pending = new LinkedHashMap<>();
+
+        final Map<String, Long> groupIds = new HashMap<>();
+
+        final List<String[]> groupVariables = new ArrayList<>();
+
+        final List<String[]> groupChildren = new ArrayList<>();
+
+        final List<String> errors = new ArrayList<>();
+
+        long processed;
+
+        long created;
+
+        long updated;
+
+        long failed;
+
+        long groupsCreated;
+
+        ImportContext(Long inventoryId) {
+            this.inventoryId = inventoryId;
+        }
+
+        void fail(String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            } else if (errors.size() == MAX_ERRORS) {
+                errors.add("……更多错误已省略");
+            }
+        }
+    }
+
+    /**
+     * 某一批写入失败，终止解析
+     */
+    private static class ImportAbortedException extends RuntimeException {
+
+        ImportAbortedException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.starter.service.inventory.importer;
+
+/**
+ * 解析结果的接收方，解析器每解析出一项就立即交出，不在内存中保留整个文件
+ */
+public interface HostImportSink {
+
+    /**
+     * 主机记录（包含所属组和主机变量）
+     */
+    void host(HostImportRecord record);
+
+    /**
+     * 组变量，组名为 all 时表示清单全局变量
+     */
+    void groupVariable(String group, String name, String value);
+
+    /**
+     * 组的父子关系
+     */
+    void groupChild(String parent, String child);
+
+    /**
+     * 无法解析的内容，跳过并记录
+     */
+    void error(String message);
+}
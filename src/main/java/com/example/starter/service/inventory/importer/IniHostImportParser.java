@@ -0,0 +1,175 @@
+package com.example.starter.service.inventory.importer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ansible INI 清单解析器
+ * 支持 [group]、[group:vars]、[group:children] 三种节，主机行上的 key=value 作为主机变量，
+ * 主机名中的数字或字母范围（如 web[01:20].example.com）会展开为多台主机。
+ */
+public class IniHostImportParser implements HostImportParser {
+
+    private static final Pattern RANGE = Pattern.compile("\\[([0-9]+|[a-z]):([0-9]+|[a-z])]");
+
+    /**
+     * 单个范围最多展开的主机数，防止写错的范围产生海量主机
+     */
+    private static final int MAX_RANGE_SIZE = 100_000;
+
+    private enum Section {
+        HOSTS, VARS, CHILDREN
+    }
+
+    @Override
+    public void parse(Reader reader, HostImportSink sink) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        String group = "ungrouped";
+        Section section = Section.HOSTS;
+        String line;
+        long lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#") || line.startsWith(";")) {
+                continue;
+            }
+
+            if (line.startsWith("[") && line.endsWith("]")) {
+                String header = line.substring(1, line.length() - 1).trim();
+                section = Section.HOSTS;
+                if (header.endsWith(":vars")) {
+                    section = Section.VARS;
+                    header = header.substring(0, header.length() - ":vars".length());
+                } else if (header.endsWith(":children")) {
+                    section = Section.CHILDREN;
+                    header = header.substring(0, header.length() - ":children".length());
+                }
+                group = header;
+                continue;
+            }
+
+            try {
+                switch (section) {
+                    case HOSTS -> parseHostLine(line, group, sink);
+                    case VARS -> {
+                        int eq = line.indexOf('=');
+                        if (eq <= 0) {
+                            throw new IllegalArgumentException("变量格式应为 key=value");
+                        }
+                        sink.groupVariable(group, line.substring(0, eq).trim(), unquote(line.substring(eq + 1).trim()));
+                    }
+                    case CHILDREN -> sink.groupChild(group, line);
+                }
+            } catch (IllegalArgumentException e) {
+                sink.error("第 " + lineNumber + " 行: " + e.getMessage());
+            }
+        }
+    }
+
+    private void parseHostLine(String line, String group, HostImportSink sink) {
+        List<String> tokens = tokenize(line);
+        String pattern = tokens.get(0);
+        for (String name : expand(pattern)) {
+            HostImportRecord record = new HostImportRecord(name);
+            for (int i = 1; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                int eq = token.indexOf('=');
+                if (eq <= 0) {
+                    throw new IllegalArgumentException(pattern + ": 无法解析 " + token);
+                }
+                record.setVariable(token.substring(0, eq), unquote(token.substring(eq + 1)));
+            }
+            if (!"ungrouped".equals(group) && !"all".equals(group)) {
+                record.addGroup(group);
+            }
+            sink.host(record);
+        }
+    }
+
+    /**
+     * 按空白切分，引号内的空白不切分
+     */
+    private static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        char quote = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                token.append(c);
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                token.append(c);
+            } else if (c == '#' && token.isEmpty()) {
+                break;
+            } else if (Character.isWhitespace(c)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * 展开主机名中的第一个范围，剩余部分递归展开
+     */
+    static List<String> expand(String pattern) {
+        Matcher matcher = RANGE.matcher(pattern);
+        if (!matcher.find()) {
+            return List.of(pattern);
+        }
+        String prefix = pattern.substring(0, matcher.start());
+        List<String> suffixes = expand(pattern.substring(matcher.end()));
+        String from = matcher.group(1);
+        String to = matcher.group(2);
+
+        List<String> names = new ArrayList<>();
+        if (Character.isDigit(from.charAt(0)) && Character.isDigit(to.charAt(0))) {
+            int start = Integer.parseInt(from);
+            int end = Integer.parseInt(to);
+            if (end < start || (long) (end - start + 1) * suffixes.size() > MAX_RANGE_SIZE) {
+                throw new IllegalArgumentException("主机范围无效: " + pattern);
+            }
+            // 起始值带前导零时按相同宽度补零
+            String format = from.length() > 1 && from.startsWith("0") ? "%0" + from.length() + "d" : "%d";
+            for (int i = start; i <= end; i++) {
+                String value = String.format(format, i);
+                suffixes.forEach(suffix -> names.add(prefix + value + suffix));
+            }
+        } else if (Character.isLetter(from.charAt(0)) && Character.isLetter(to.charAt(0))
+                && from.charAt(0) <= to.charAt(0)) {
+            for (char c = from.charAt(0); c <= to.charAt(0); c++) {
+                char value = c;
+                suffixes.forEach(suffix -> names.add(prefix + value + suffix));
+            }
+        } else {
+            throw new IllegalArgumentException("主机范围无效: " + pattern);
+        }
+        return names;
+    }
+}
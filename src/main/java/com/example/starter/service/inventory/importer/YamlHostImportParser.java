@@ -0,0 +1,181 @@
+package com.example.starter.service.inventory.importer;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.ScalarEvent;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ansible YAML 清单解析器
+ * 基于 SnakeYAML 事件流逐个读取，组结构（hosts / vars / children）按事件遍历，
+ * 只有单台主机的配置会被组装成对象，大文件不会整体载入内存。
+ * 兼容本系统生成的清单文件（主机下嵌套 vars）。
+ */
+public class YamlHostImportParser implements HostImportParser {
+
+    @Override
+    public void parse(Reader reader, HostImportSink sink) throws IOException {
+        LoaderOptions options = new LoaderOptions();
+        // 默认的 3MB 文档上限不适合大清单
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        try {
+            Iterator<Event> events = new Yaml(options).parse(reader).iterator();
+            while (events.hasNext()) {
+                Event event = events.next();
+                if (event.is(Event.ID.MappingStart)) {
+                    // 文档顶层：组名 -> 组定义
+                    readGroups(events, null, sink);
+                }
+            }
+        } catch (YAMLException e) {
+            sink.error("YAML 格式错误: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读取组映射（当前位置位于 MappingStart 之后）
+     */
+    private void readGroups(Iterator<Event> events, String parent, HostImportSink sink) {
+        Event event;
+        while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+            String group = scalar(event);
+            if (group == null) {
+                skip(events, event);
+                skip(events, events.next());
+                continue;
+            }
+            if (parent != null) {
+                sink.groupChild(parent, group);
+            }
+            readGroup(events, group, sink);
+        }
+    }
+
+    private void readGroup(Iterator<Event> events, String group, HostImportSink sink) {
+        Event start = events.next();
+        if (!start.is(Event.ID.MappingStart)) {
+            skip(events, start);
+            return;
+        }
+        Event event;
+        while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+            String key = scalar(event);
+            Event valueStart = events.next();
+            if ("hosts".equals(key) && valueStart.is(Event.ID.MappingStart)) {
+                readHosts(events, group, sink);
+            } else if ("children".equals(key) && valueStart.is(Event.ID.MappingStart)) {
+                readGroups(events, group, sink);
+            } else if ("vars".equals(key)) {
+                if (readValue(events, valueStart) instanceof Map<?, ?> vars) {
+                    vars.forEach((name, value) -> sink.groupVariable(group, String.valueOf(name), stringify(value)));
+                }
+            } else {
+                skip(events, valueStart);
+            }
+        }
+    }
+
+    private void readHosts(Iterator<Event> events, String group, HostImportSink sink) {
+        Event event;
+        while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+            String name = scalar(event);
+            Object value = readValue(events, events.next());
+            if (name == null || name.isEmpty()) {
+                sink.error("组 " + group + " 中存在无效的主机名称");
+                continue;
+            }
+            try {
+                HostImportRecord record = new HostImportRecord(name);
+                if (value instanceof Map<?, ?> attributes) {
+                    attributes.forEach((key, attribute) -> {
+                        if ("vars".equals(key) && attribute instanceof Map<?, ?> vars) {
+                            vars.forEach((varName, varValue) -> record.setVariable(String.valueOf(varName),
+                                    stringify(varValue)));
+                        } else {
+                            record.setVariable(String.valueOf(key), stringify(attribute));
+                        }
+                    });
+                }
+                if (!"all".equals(group) && !"ungrouped".equals(group)) {
+                    record.addGroup(group);
+                }
+                sink.host(record);
+            } catch (IllegalArgumentException e) {
+                sink.error(name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把以 start 开始的节点组装成 Map / List / String
+     */
+    private Object readValue(Iterator<Event> events, Event start) {
+        if (start instanceof ScalarEvent scalar) {
+            return scalar.getValue();
+        }
+        if (start.is(Event.ID.MappingStart)) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            Event event;
+            while (!(event = events.next()).is(Event.ID.MappingEnd)) {
+                Object key = readValue(events, event);
+                map.put(String.valueOf(key), readValue(events, events.next()));
+            }
+            return map;
+        }
+        if (start.is(Event.ID.SequenceStart)) {
+            List<Object> list = new ArrayList<>();
+            Event event;
+            while (!(event = events.next()).is(Event.ID.SequenceEnd)) {
+                list.add(readValue(events, event));
+            }
+            return list;
+        }
+        // 别名等不支持的节点按空值处理
+        return null;
+    }
+
+    /**
+     * 跳过以 start 开始的节点
+     */
+    private void skip(Iterator<Event> events, Event start) {
+        if (!start.is(Event.ID.MappingStart) && !start.is(Event.ID.SequenceStart)) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Event event = events.next();
+            if (event.is(Event.ID.MappingStart) || event.is(Event.ID.SequenceStart)) {
+                depth++;
+            } else if (event.is(Event.ID.MappingEnd) || event.is(Event.ID.SequenceEnd)) {
+                depth--;
+            }
+        }
+    }
+
+    private static String scalar(Event event) {
+        return event instanceof ScalarEvent scalar ? scalar.getValue() : null;
+    }
+
+    private static String stringify(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Map<?, ?> || value instanceof List<?>) {
+            // 复杂结构以单行 YAML 流式写法保存为字符串
+            DumperOptions options = new DumperOptions();
+            options.setDefaultFlowStyle(DumperOptions.FlowStyle.FLOW);
+            return new Yaml(options).dump(value).trim();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.starter.service.inventory.source;
+
+import com.example.starter.service.inventory.importer.HostImportRecord;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 解析 ansible 动态清单 JSON（脚本 --list 的输出格式）
+ * <pre>
+ * { "_meta": { "hostvars": { "web1": { "ansible_host": "10.0.0.1" } } },
+ *   "all":   { "vars": { ... }, "children": ["web"] },
+ *   "web":   { "hosts": ["web1"], "vars": { ... }, "children": [] } }
+ * </pre>
+ * 组的值也可以直接是主机列表。JSON 按 YAML 解析，不额外引入 JSON 库。
+ */
+final class DynamicInventoryParser {
+
+    private DynamicInventoryParser() {
+    }
+
+    static InventoryDefinition parse(String json) throws IOException {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        Object root;
+        try {
+            // 合法 JSON 的字符串内不会出现原始制表符，替换为空格以兼容 YAML 的缩进规则
+            root = new Yaml(options).load(json.replace('\t', ' '));
+        } catch (YAMLException e) {
+            throw new IOException("动态清单不是合法的 JSON: " + e.getMessage(), e);
+        }
+        if (!(root instanceof Map<?, ?> groups)) {
+            throw new IOException("动态清单的根节点必须是对象");
+        }
+
+        InventoryDefinition definition = new InventoryDefinition();
+        for (Map.Entry<?, ?> entry : groups.entrySet()) {
+            String name = String.valueOf(entry.getKey());
+            if ("_meta".equals(name)) {
+                continue;
+            }
+            readGroup(definition, name, entry.getValue());
+        }
+
+        // 主机变量（连接变量映射为主机字段）
+        if (groups.get("_meta") instanceof Map<?, ?> meta && meta.get("hostvars") instanceof Map<?, ?> hostvars) {
+            for (Map.Entry<?, ?> entry : hostvars.entrySet()) {
+                HostImportRecord host = definition.host(String.valueOf(entry.getKey()));
+                if (entry.getValue() instanceof Map<?, ?> vars) {
+                    for (Map.Entry<?, ?> var : vars.entrySet()) {
+                        try {
+                            host.setVariable(String.valueOf(var.getKey()), stringify(var.getValue()));
+                        } catch (IllegalArgumentException e) {
+                            throw new IOException(host.getName() + ": " + e.getMessage(), e);
+                        }
+                    }
+                }
+            }
+        }
+        return definition;
+    }
+
+    private static void readGroup(InventoryDefinition definition, String name, Object value) {
+        boolean all = "all".equals(name);
+        boolean ungrouped = "ungrouped".equals(name);
+        if (value instanceof List<?> hosts) {
+            addHosts(definition, name, hosts, all || ungrouped);
+            return;
+        }
+        if (!(value instanceof Map<?, ?> group)) {
+            return;
+        }
+        if (group.get("hosts") instanceof List<?> hosts) {
+            addHosts(definition, name, hosts, all || ungrouped);
+        }
+        if (group.get("vars") instanceof Map<?, ?> vars) {
+            Map<String, String> target = all ? definition.getVariables()
+                    : ungrouped ? null : definition.group(name).variables();
+            if (target != null) {
+                vars.forEach((key, varValue) -> target.put(String.valueOf(key), stringify(varValue)));
+            }
+        }
+        if (!all && !ungrouped && group.get("children") instanceof List<?> children) {
+            for (Object child : children) {
+                definition.group(name).children().add(String.valueOf(child));
+            }
+        }
+    }
+
+    private static void addHosts(InventoryDefinition definition, String group, List<?> hosts, boolean topLevel) {
+        for (Object host : hosts) {
+            HostImportRecord record = definition.host(String.valueOf(host));
+            if (!topLevel) {
+                definition.group(group);
+                record.addGroup(group);
+            }
+        }
+    }
+
+    private static String stringify(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof Map<?, ?> || value instanceof List<?>) {
+            DumperOptions options = new DumperOptions();
+            options.setDefaultFlowStyle(DumperOptions.FlowStyle.FLOW);
+            return new Yaml(options).dump(value).trim();
+        }
+        return value.toString();
+    }
+}
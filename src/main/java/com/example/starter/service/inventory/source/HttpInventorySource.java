@@ -0,0 +1,52 @@
+package com.example.starter.service.inventory.source;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP 来源 - GET 请求返回动态清单格式 JSON 的接口（如 CMDB 导出接口，或本地的测试桩）
+ */
+@ApplicationScoped
+public class HttpInventorySource implements InventorySource {
+
+    @ConfigProperty(name = "inventory.source.timeout", defaultValue = "30s")
+    Duration timeout;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    @Override
+    public String getType() {
+        return "http";
+    }
+
+    @Override
+    public InventoryDefinition load(String location) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(location.trim()))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("清单接口返回 HTTP " + response.statusCode());
+            }
+            return DynamicInventoryParser.parse(response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("请求清单接口被中断", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("清单接口地址无效: " + location, e);
+        }
+    }
+}
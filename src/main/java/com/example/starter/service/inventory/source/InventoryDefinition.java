@@ -0,0 +1,59 @@
+package com.example.starter.service.inventory.source;
+
+import com.example.starter.service.inventory.importer.HostImportRecord;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 动态来源产出的清单定义，同步时与数据库中的清单比较，只写入差异
+ */
+public class InventoryDefinition {
+
+    /**
+     * 组定义
+     */
+    public record Group(String name, Map<String, String> variables, Set<String> children) {
+
+        public Group(String name) {
+            this(name, new LinkedHashMap<>(), new LinkedHashSet<>());
+        }
+    }
+
+    private final Map<String, HostImportRecord> hosts = new LinkedHashMap<>();
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    private final Map<String, String> variables = new LinkedHashMap<>();
+
+    /**
+     * 主机名称 -> 主机（连接信息、所属组、主机变量）
+     */
+    public Map<String, HostImportRecord> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * 组名称 -> 组定义（不包含 all 和 ungrouped）
+     */
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * 清单全局变量（来自 all 组的 vars）
+     */
+    public Map<String, String> getVariables() {
+        return variables;
+    }
+
+    public HostImportRecord host(String name) {
+        return hosts.computeIfAbsent(name, HostImportRecord::new);
+    }
+
+    public Group group(String name) {
+        return groups.computeIfAbsent(name, Group::new);
+    }
+}
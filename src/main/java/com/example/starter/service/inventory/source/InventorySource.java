@@ -0,0 +1,22 @@
+package com.example.starter.service.inventory.source;
+
+import java.io.IOException;
+
+/**
+ * 动态清单来源 - 实现类为 CDI Bean，按 {@link #getType()} 与清单的 sourceType 匹配
+ * 新增来源只需提供一个新的实现类。
+ */
+public interface InventorySource {
+
+    /**
+     * 来源类型标识，保存在清单的 sourceType 字段中
+     */
+    String getType();
+
+    /**
+     * 读取来源，返回完整的清单定义（主机、组、变量）
+     *
+     * @param location 来源位置（命令、文件路径或URL，含义由实现决定）
+     */
+    InventoryDefinition load(String location) throws IOException;
+}
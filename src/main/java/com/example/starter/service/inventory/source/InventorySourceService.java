@@ -0,0 +1,215 @@
+package com.example.starter.service.inventory.source;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.exception.ResourceNotFoundException;
+import com.example.starter.util.UIBroadcaster;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 动态清单服务 - 定时从来源拉取清单定义并同步到数据库
+ * 拉取（执行脚本、读取文件、请求接口）在事务之外进行，拿到完整定义后再由
+ * {@link InventorySourceSynchronizer} 在一个事务中写入差异；拉取失败时保留上一次同步的数据，
+ * 只记录失败原因。任务使用清单快照生成文件，快照过期时在后台触发刷新而不阻塞任务。
+ */
+@ApplicationScoped
+public class InventorySourceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventorySourceService.class);
+
+    /**
+     * 失败原因的最大长度（与 source_error 列长度一致）
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Inject
+    @Any
+    Instance<InventorySource> sources;
+
+    @Inject
+    InventorySourceSynchronizer synchronizer;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
+    @ConfigProperty(name = "inventory.source.cache-ttl", defaultValue = "10m")
+    Duration cacheTtl;
+
+    /**
+     * 正在刷新的清单，同一清单不会并发刷新
+     */
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已注册的来源类型
+     */
+    public List<String> getSourceTypes() {
+        return sources.stream().map(InventorySource::getType).sorted().toList();
+    }
+
+    public Optional<InventorySource> findSource(String type) {
+        return sources.stream().filter(source -> source.getType().equals(type)).findFirst();
+    }
+
+    /**
+     * 立即从来源刷新清单
+     *
+     * @throws IllegalStateException 清单不是动态清单、正在刷新，或拉取 / 同步失败
+     */
+    public InventorySyncResult refresh(Long inventoryId) {
+        if (!refreshing.add(inventoryId)) {
+            throw new IllegalStateException("清单正在刷新，请稍后再试");
+        }
+        try {
+            return doRefresh(inventoryId);
+        } finally {
+            refreshing.remove(inventoryId);
+        }
+    }
+
+    /**
+     * 快照超过缓存时间时在后台刷新，立即返回；从未同步成功过的清单没有可用数据，同步等待刷新完成
+     */
+    public void refreshIfStale(Long inventoryId) {
+        SourceConfig config = loadSourceConfig(inventoryId);
+        if (config == null || !config.isStale(cacheTtl)) {
+            return;
+        }
+        if (config.refreshedAt() == null) {
+            try {
+                refresh(inventoryId);
+            } catch (IllegalStateException e) {
+                logger.warn("Initial refresh of inventory {} failed: {}", inventoryId, e.getMessage());
+            }
+            return;
+        }
+        if (refreshing.add(inventoryId)) {
+            Infrastructure.getDefaultWorkerPool().submit(() -> {
+                try {
+                    doRefresh(inventoryId);
+                } catch (RuntimeException e) {
+                    logger.warn("Background refresh of inventory {} failed: {}", inventoryId, e.getMessage());
+                } finally {
+                    refreshing.remove(inventoryId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 定时刷新所有动态清单
+     */
+    @Scheduled(every = "{inventory.source.refresh-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRefresh() {
+        for (Long inventoryId : findDynamicInventoryIds()) {
+            if (!refreshing.add(inventoryId)) {
+                continue;
+            }
+            try {
+                doRefresh(inventoryId);
+            } catch (RuntimeException e) {
+                logger.warn("Scheduled refresh of inventory {} failed: {}", inventoryId, e.getMessage());
+            } finally {
+                refreshing.remove(inventoryId);
+            }
+        }
+    }
+
+    private InventorySyncResult doRefresh(Long inventoryId) {
+        SourceConfig config = loadSourceConfig(inventoryId);
+        if (config == null) {
+            throw new IllegalStateException("清单未配置动态来源");
+        }
+        InventorySource source = findSource(config.type())
+                .orElseThrow(() -> new IllegalStateException("不支持的清单来源类型: " + config.type()));
+
+        long startedAt = System.currentTimeMillis();
+        InventorySyncResult result;
+        try {
+            InventoryDefinition definition = source.load(config.location());
+            result = synchronizer.apply(inventoryId, definition);
+        } catch (IOException | RuntimeException e) {
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            markFailed(inventoryId, message);
+            throw new IllegalStateException("刷新清单失败: " + message, e);
+        }
+        markRefreshed(inventoryId);
+
+        if (!result.isEmpty()) {
+            uiBroadcaster.broadcastRefresh("hosts");
+        }
+        logger.info("Refreshed inventory {} from {} source in {} ms: {}", inventoryId, config.type(),
+                System.currentTimeMillis() - startedAt, result);
+        return result;
+    }
+
+    @Transactional
+    SourceConfig loadSourceConfig(Long inventoryId) {
+        Inventory inventory = entityManager.find(Inventory.class, inventoryId);
+        if (inventory == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        if (!inventory.isDynamic()) {
+            return null;
+        }
+        return new SourceConfig(inventory.getSourceType(), inventory.getSourceLocation(),
+                inventory.getSourceRefreshedAt());
+    }
+
+    @Transactional
+    List<Long> findDynamicInventoryIds() {
+        return entityManager.createQuery(
+                "SELECT i.id FROM Inventory i WHERE i.sourceType IS NOT NULL AND i.sourceType <> ''", Long.class)
+                .getResultList();
+    }
+
+    @Transactional
+    void markRefreshed(Long inventoryId) {
+        Inventory inventory = entityManager.find(Inventory.class, inventoryId);
+        if (inventory != null) {
+            inventory.setSourceRefreshedAt(LocalDateTime.now());
+            inventory.setSourceError(null);
+        }
+    }
+
+    @Transactional
+    void markFailed(Long inventoryId, String message) {
+        Inventory inventory = entityManager.find(Inventory.class, inventoryId);
+        if (inventory != null) {
+            inventory.setSourceError(message.length() > MAX_ERROR_LENGTH
+                    ? message.substring(0, MAX_ERROR_LENGTH)
+                    : message);
+        }
+    }
+
+    /**
+     * 清单的来源配置
+     */
+    record SourceConfig(String type, String location, LocalDateTime refreshedAt) {
+
+        boolean isStale(Duration ttl) {
+            return refreshedAt == null || refreshedAt.plus(ttl).isBefore(LocalDateTime.now());
+        }
+    }
+}
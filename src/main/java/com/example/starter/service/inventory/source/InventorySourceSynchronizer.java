@@ -0,0 +1,417 @@
+package com.example.starter.service.inventory.source;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostInventory;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import com.example.starter.exception.ResourceNotFoundException;
+import com.example.starter.service.StatisticsCounters;
+import com.example.starter.service.inventory.InventorySnapshotCache;
+import com.example.starter.service.inventory.importer.HostImportRecord;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 把来源产出的清单定义同步到数据库
+ * 先按名称把定义与现有主机、清单成员、组、组成员和变量逐项比较，只写入差异，
+ * 全部变更在同一个事务中提交，避免任务在同步过程中读到一半的清单。
+ * 主机是全局共享的，同步只会新增或更新主机，不会删除主机或其变量；
+ * 不在定义中的主机只从清单和组中移除。
+ */
+@ApplicationScoped
+public class InventorySourceSynchronizer {
+
+    /**
+     * IN 查询参数分块大小（SQLite默认最多999个绑定参数）
+     */
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    /**
+     * 组嵌套层级上限，与手工创建子组的限制一致
+     */
+    private static final int MAX_GROUP_DEPTH = 3;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    InventorySnapshotCache snapshotCache;
+
+    @ConfigProperty(name = "inventory.bulk.batch-size", defaultValue = "50")
+    int batchSize;
+
+    @ConfigProperty(name = "inventory.import.default-username", defaultValue = "root")
+    String defaultUsername;
+
+    /**
+     * 将定义同步到清单
+     */
+    @Transactional
+    public InventorySyncResult apply(Long inventoryId, InventoryDefinition definition) {
+        Inventory inventory = entityManager.find(Inventory.class, inventoryId);
+        if (inventory == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        SyncState state = new SyncState();
+
+        Map<String, InventoryHost> hosts = syncHosts(definition, state);
+        syncInventoryMembers(inventory, hosts, state);
+        Map<String, InventoryGroup> groups = syncGroups(inventory, definition, state);
+        syncGroupMembers(inventory, definition, hosts, groups, state);
+        removeStaleGroups(inventory, groups.keySet(), state);
+        syncInventoryVariables(inventory, definition.getVariables());
+
+        entityManager.flush();
+        snapshotCache.invalidate(inventoryId);
+        return new InventorySyncResult(state.hostsCreated, state.hostsUpdated, state.membersAdded,
+                state.membersRemoved, state.groupsCreated, state.groupsRemoved, List.copyOf(state.warnings));
+    }
+
+    /**
+     * 新建缺少的主机，更新有变化的主机（只覆盖来源提供了的字段）
+     */
+    private Map<String, InventoryHost> syncHosts(InventoryDefinition definition, SyncState state) {
+        List<String> names = new ArrayList<>(definition.getHosts().keySet());
+        Map<String, InventoryHost> hosts = new HashMap<>(names.size() * 2);
+        for (int from = 0; from < names.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<String> chunk = names.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, names.size()));
+            entityManager.createQuery(
+                    "SELECT DISTINCT h FROM InventoryHost h LEFT JOIN FETCH h.variables WHERE h.name IN :names",
+                    InventoryHost.class)
+                    .setParameter("names", chunk)
+                    .getResultList()
+                    .forEach(host -> hosts.put(host.getName(), host));
+        }
+
+        int count = 0;
+        for (HostImportRecord record : definition.getHosts().values()) {
+            InventoryHost host = hosts.get(record.getName());
+            if (host == null) {
+                host = new InventoryHost(record.getName(),
+                        record.getHost() != null ? record.getHost() : record.getName(),
+                        record.getPort() != null ? record.getPort() : 22,
+                        record.getUsername() != null ? record.getUsername() : defaultUsername,
+                        record.getPassword() != null ? record.getPassword() : "");
+                applyHostVariables(host, record.getVariables());
+                entityManager.persist(host);
+                hosts.put(host.getName(), host);
+                statisticsCounters.hostCreated(false);
+                state.hostsCreated++;
+            } else if (updateHost(host, record)) {
+                host.setUpdatedAt(LocalDateTime.now());
+                snapshotCache.invalidateHost(host.getId());
+                state.hostsUpdated++;
+            }
+            if (++count % batchSize == 0) {
+                entityManager.flush();
+            }
+        }
+        return hosts;
+    }
+
+    private boolean updateHost(InventoryHost host, HostImportRecord record) {
+        boolean changed = false;
+        if (record.getHost() != null && !record.getHost().equals(host.getHost())) {
+            host.setHost(record.getHost());
+            changed = true;
+        }
+        if (record.getPort() != null && !record.getPort().equals(host.getPort())) {
+            host.setPort(record.getPort());
+            changed = true;
+        }
+        if (record.getUsername() != null && !record.getUsername().equals(host.getUsername())) {
+            host.setUsername(record.getUsername());
+            changed = true;
+        }
+        if (record.getPassword() != null && !record.getPassword().equals(host.getPassword())) {
+            host.setPassword(record.getPassword());
+            changed = true;
+        }
+        return applyHostVariables(host, record.getVariables()) || changed;
+    }
+
+    private boolean applyHostVariables(InventoryHost host, Map<String, String> variables) {
+        if (variables.isEmpty()) {
+            return false;
+        }
+        Map<String, InventoryHostVariable> current = new HashMap<>();
+        host.getVariables().forEach(variable -> current.put(variable.getVariableName(), variable));
+        boolean changed = false;
+        for (Map.Entry<String, String> entry : variables.entrySet()) {
+            InventoryHostVariable variable = current.get(entry.getKey());
+            if (variable == null) {
+                variable = new InventoryHostVariable(entry.getKey(), entry.getValue());
+                variable.setHost(host);
+                host.getVariables().add(variable);
+                current.put(entry.getKey(), variable);
+                changed = true;
+            } else if (!Objects.equals(variable.getVariableValue(), entry.getValue())) {
+                variable.setVariableValue(entry.getValue());
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 清单成员：补充缺少的，移除定义中已不存在的
+     */
+    private void syncInventoryMembers(Inventory inventory, Map<String, InventoryHost> hosts, SyncState state) {
+        Set<Long> wanted = new HashSet<>();
+        hosts.values().forEach(host -> wanted.add(host.getId()));
+
+        Set<Long> present = new HashSet<>();
+        for (InventoryHostInventory member : entityManager.createQuery(
+                "SELECT hi FROM InventoryHostInventory hi WHERE hi.inventory.id = :id", InventoryHostInventory.class)
+                .setParameter("id", inventory.getId())
+                .getResultList()) {
+            Long hostId = member.getHost().getId();
+            if (!wanted.contains(hostId) || !present.add(hostId)) {
+                entityManager.remove(member);
+                state.membersRemoved++;
+            }
+        }
+        for (InventoryHost host : hosts.values()) {
+            if (present.add(host.getId())) {
+                entityManager.persist(new InventoryHostInventory(inventory, host));
+                state.membersAdded++;
+            }
+        }
+    }
+
+    /**
+     * 组：新建缺少的组，同步组变量和父子关系。返回定义中的全部组（名称 -> 实体）
+     */
+    private Map<String, InventoryGroup> syncGroups(Inventory inventory, InventoryDefinition definition,
+            SyncState state) {
+        // children 中引用但未单独定义的组也需要创建
+        List<String> names = new ArrayList<>(definition.getGroups().keySet());
+        for (String name : names) {
+            for (String child : definition.getGroups().get(name).children()) {
+                definition.group(child);
+            }
+        }
+
+        Map<String, InventoryGroup> existing = new HashMap<>();
+        inventory.getGroups().forEach(group -> existing.put(group.getName(), group));
+        Map<String, InventoryGroup> groups = new LinkedHashMap<>();
+        for (InventoryDefinition.Group definitionGroup : definition.getGroups().values()) {
+            InventoryGroup group = existing.get(definitionGroup.name());
+            if (group == null) {
+                group = new InventoryGroup(definitionGroup.name(), null);
+                group.setInventory(inventory);
+                // 同步清单的组集合（集合缓存中需要包含新组）
+                inventory.getGroups().add(group);
+                entityManager.persist(group);
+                state.groupsCreated++;
+            }
+            syncGroupVariables(group, definitionGroup.variables());
+            groups.put(definitionGroup.name(), group);
+        }
+
+        Map<String, String> parents = resolveParents(definition, state);
+        for (Map.Entry<String, InventoryGroup> entry : groups.entrySet()) {
+            InventoryGroup group = entry.getValue();
+            String parentName = parents.get(entry.getKey());
+            InventoryGroup parent = parentName != null ? groups.get(parentName) : null;
+            if (group.getParentGroup() == parent) {
+                continue;
+            }
+            if (group.getParentGroup() != null) {
+                group.getParentGroup().getChildGroups().remove(group);
+            }
+            group.setParentGroup(parent);
+            if (parent != null) {
+                parent.getChildGroups().add(group);
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * 计算每个组的父组（子组 -> 父组名称）
+     * 一个组只能有一个父组，重复声明时取第一个；成环或超过层级上限的关系被忽略。
+     */
+    private Map<String, String> resolveParents(InventoryDefinition definition, SyncState state) {
+        Map<String, String> parents = new HashMap<>();
+        for (InventoryDefinition.Group group : definition.getGroups().values()) {
+            for (String child : group.children()) {
+                if (child.equals(group.name())) {
+                    continue;
+                }
+                String current = parents.putIfAbsent(child, group.name());
+                if (current != null && !current.equals(group.name())) {
+                    state.warnings.add("组 " + child + " 已属于 " + current + "，忽略父组 " + group.name());
+                }
+            }
+        }
+        for (String name : definition.getGroups().keySet()) {
+            if (parents.containsKey(name) && (hasCycle(parents, name) || depth(parents, name) > MAX_GROUP_DEPTH)) {
+                state.warnings.add("组 " + parents.get(name) + " -> " + name + ": 成环或嵌套超过"
+                        + MAX_GROUP_DEPTH + "层，已忽略");
+                parents.remove(name);
+            }
+        }
+        return parents;
+    }
+
+    private static boolean hasCycle(Map<String, String> parents, String name) {
+        Set<String> seen = new HashSet<>();
+        for (String current = name; current != null; current = parents.get(current)) {
+            if (!seen.add(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int depth(Map<String, String> parents, String name) {
+        int depth = 0;
+        Set<String> seen = new HashSet<>();
+        for (String current = name; current != null && seen.add(current); current = parents.get(current)) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private void syncGroupVariables(InventoryGroup group, Map<String, String> variables) {
+        Map<String, String> remaining = new LinkedHashMap<>(variables);
+        group.getVariables().removeIf(variable -> !remaining.containsKey(variable.getVariableName()));
+        for (InventoryGroupVariable variable : group.getVariables()) {
+            String value = remaining.remove(variable.getVariableName());
+            if (!Objects.equals(variable.getVariableValue(), value)) {
+                variable.setVariableValue(value);
+            }
+        }
+        remaining.forEach((name, value) -> {
+            InventoryGroupVariable variable = new InventoryGroupVariable(name, value);
+            variable.setGroup(group);
+            group.getVariables().add(variable);
+            entityManager.persist(variable);
+        });
+    }
+
+    private void syncInventoryVariables(Inventory inventory, Map<String, String> variables) {
+        Map<String, String> remaining = new LinkedHashMap<>(variables);
+        inventory.getVariables().removeIf(variable -> !remaining.containsKey(variable.getVariableName()));
+        for (InventoryVariable variable : inventory.getVariables()) {
+            String value = remaining.remove(variable.getVariableName());
+            if (!Objects.equals(variable.getVariableValue(), value)) {
+                variable.setVariableValue(value);
+            }
+        }
+        remaining.forEach((name, value) -> {
+            InventoryVariable variable = new InventoryVariable(name, value);
+            variable.setInventory(inventory);
+            inventory.getVariables().add(variable);
+            entityManager.persist(variable);
+        });
+    }
+
+    /**
+     * 组成员：按 (组, 主机) 比较，补充缺少的，移除多余的
+     */
+    private void syncGroupMembers(Inventory inventory, InventoryDefinition definition,
+            Map<String, InventoryHost> hosts, Map<String, InventoryGroup> groups, SyncState state) {
+        Set<String> wanted = new HashSet<>();
+        for (HostImportRecord record : definition.getHosts().values()) {
+            Long hostId = hosts.get(record.getName()).getId();
+            for (String groupName : record.getGroups()) {
+                InventoryGroup group = groups.get(groupName);
+                if (group != null) {
+                    wanted.add(group.getId() + ":" + hostId);
+                }
+            }
+        }
+
+        Set<Long> groupIds = new HashSet<>();
+        groups.values().forEach(group -> groupIds.add(group.getId()));
+        Set<String> present = new HashSet<>();
+        for (InventoryGroupHost member : entityManager.createQuery(
+                "SELECT gh FROM InventoryGroupHost gh WHERE gh.group.inventory.id = :id", InventoryGroupHost.class)
+                .setParameter("id", inventory.getId())
+                .getResultList()) {
+            Long groupId = member.getGroup().getId();
+            if (!groupIds.contains(groupId)) {
+                // 将被删除的组，成员随组级联删除
+                continue;
+            }
+            String key = groupId + ":" + member.getHost().getId();
+            if (!wanted.contains(key) || !present.add(key)) {
+                entityManager.remove(member);
+                state.membersRemoved++;
+            }
+        }
+
+        int count = 0;
+        for (HostImportRecord record : definition.getHosts().values()) {
+            InventoryHost host = hosts.get(record.getName());
+            for (String groupName : record.getGroups()) {
+                InventoryGroup group = groups.get(groupName);
+                if (group != null && present.add(group.getId() + ":" + host.getId())) {
+                    entityManager.persist(new InventoryGroupHost(group, host));
+                    state.membersAdded++;
+                    if (++count % batchSize == 0) {
+                        entityManager.flush();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除定义中已不存在的组（组变量和组成员级联删除）
+     */
+    private void removeStaleGroups(Inventory inventory, Set<String> names, SyncState state) {
+        List<InventoryGroup> stale = inventory.getGroups().stream()
+                .filter(group -> !names.contains(group.getName()))
+                .toList();
+        for (InventoryGroup group : stale) {
+            if (group.getParentGroup() != null) {
+                group.getParentGroup().getChildGroups().remove(group);
+            }
+            inventory.getGroups().remove(group);
+            state.groupsRemoved++;
+        }
+    }
+
+    /**
+     * 单次同步的计数
+     */
+    private static class SyncState {
+
+        final List<String> warnings = new ArrayList<>();
+
+        int hostsCreated;
+
+        int hostsUpdated;
+
+        int membersAdded;
+
+        int membersRemoved;
+
+        int groupsCreated;
+
+        int groupsRemoved;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.starter.service.inventory.source;
+
+import java.util.List;
+
+/**
+ * 一次来源同步写入的差异
+ *
+ * @param hostsCreated   新建的主机数
+ * @param hostsUpdated   连接信息或变量有变化的主机数
+ * @param membersAdded   新增的清单成员和组成员数
+ * @param membersRemoved 移除的清单成员和组成员数
+ * @param groupsCreated  新建的组数
+ * @param groupsRemoved  移除的组数
+ * @param warnings       被忽略的定义（如超出层级的组关系）
+ */
+public record InventorySyncResult(int hostsCreated, int hostsUpdated, int membersAdded, int membersRemoved,
+        int groupsCreated, int groupsRemoved, List<String> warnings) {
+
+    public boolean isEmpty() {
+        return hostsCreated + hostsUpdated + membersAdded + membersRemoved + groupsCreated + groupsRemoved == 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.starter.service.inventory.source;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * JSON 文件来源 - 读取动态清单格式的 JSON 文件（例如由外部系统定期导出）
+ */
+@ApplicationScoped
+public class JsonFileInventorySource implements InventorySource {
+
+    @Override
+    public String getType() {
+        return "json-file";
+    }
+
+    @Override
+    public InventoryDefinition load(String location) throws IOException {
+        Path path = Path.of(location.trim());
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("清单文件不存在: " + path);
+        }
+        return DynamicInventoryParser.parse(Files.readString(path, StandardCharsets.UTF_8));
+    }
+}
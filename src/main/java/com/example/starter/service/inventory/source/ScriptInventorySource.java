@@ -0,0 +1,64 @@
+package com.example.starter.service.inventory.source;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脚本来源 - 执行 ansible 动态清单脚本（追加 --list 参数），解析其标准输出
+ */
+@ApplicationScoped
+public class ScriptInventorySource implements InventorySource {
+
+    @ConfigProperty(name = "inventory.source.timeout", defaultValue = "30s")
+    Duration timeout;
+
+    @Override
+    public String getType() {
+        return "script";
+    }
+
+    @Override
+    public InventoryDefinition load(String location) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(location.trim().split("\\s+")));
+        command.add("--list");
+
+        Process process = new ProcessBuilder(command).start();
+        CompletableFuture<String> stdout = CompletableFuture.supplyAsync(() -> read(process.getInputStream()));
+        CompletableFuture<String> stderr = CompletableFuture.supplyAsync(() -> read(process.getErrorStream()));
+        try {
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("清单脚本执行超时（" + timeout.toSeconds() + " 秒）");
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException("清单脚本退出码 " + process.exitValue() + ": " + stderr.get().strip());
+            }
+            return DynamicInventoryParser.parse(stdout.get());
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("清单脚本执行被中断", e);
+        } catch (ExecutionException e) {
+            throw new IOException("读取清单脚本输出失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private static String read(InputStream in) {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+}
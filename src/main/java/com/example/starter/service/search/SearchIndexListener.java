@@ -0,0 +1,124 @@
+package com.example.starter.service.search;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import com.example.starter.entity.Project;
+import com.example.starter.entity.Task;
+import com.example.starter.entity.Template;
+import com.example.starter.entity.TemplateVariable;
+import com.example.starter.service.TransactionCallbacks;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import jakarta.transaction.Status;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 搜索索引实体监听器 - 实体写入后记录需要重新索引的文档
+ * 变量的变化记到所属的主机、组、清单或模板上。只记录类型和ID，
+ * 由 {@link SearchIndexService} 定时从数据库重新读取。
+ * 事务内的变更先收集在事务资源中，提交后才进入待索引队列：
+ * 定时写入不会在提交前取走文档、读到旧数据后丢弃变更；事务回滚时不产生待索引文档。
+ */
+@ApplicationScoped
+public class SearchIndexListener {
+
+    private static final Set<DocumentKey> pending = ConcurrentHashMap.newKeySet();
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    @Inject
+    TransactionCallbacks transactionCallbacks;
+
+    /**
+     * 待索引的文档
+     */
+    record DocumentKey(SearchKind kind, Long id) {
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        if (entity instanceof InventoryHost host) {
+            markAfterCommit(SearchKind.HOST, host.getId());
+        } else if (entity instanceof InventoryHostVariable variable && variable.getHost() != null) {
+            markAfterCommit(SearchKind.HOST, variable.getHost().getId());
+        } else if (entity instanceof InventoryGroup group) {
+            markAfterCommit(SearchKind.GROUP, group.getId());
+        } else if (entity instanceof InventoryGroupVariable variable && variable.getGroup() != null) {
+            markAfterCommit(SearchKind.GROUP, variable.getGroup().getId());
+        } else if (entity instanceof Inventory inventory) {
+            markAfterCommit(SearchKind.INVENTORY, inventory.getId());
+        } else if (entity instanceof InventoryVariable variable && variable.getInventory() != null) {
+            markAfterCommit(SearchKind.INVENTORY, variable.getInventory().getId());
+        } else if (entity instanceof Template template) {
+            markAfterCommit(SearchKind.TEMPLATE, template.getId());
+        } else if (entity instanceof TemplateVariable variable && variable.getTemplate() != null) {
+            markAfterCommit(SearchKind.TEMPLATE, variable.getTemplate().getId());
+        } else if (entity instanceof Project project) {
+            markAfterCommit(SearchKind.PROJECT, project.getId());
+        } else if (entity instanceof Task task) {
+            markAfterCommit(SearchKind.TASK, task.getId());
+        }
+    }
+
+    /**
+     * 记录到当前事务的变更集合，同一事务只注册一次提交回调
+     */
+    @SuppressWarnings("unchecked")
+    private void markAfterCommit(SearchKind kind, Long id) {
+        if (id == null) {
+            return;
+        }
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            mark(kind, id);
+            return;
+        }
+        Set<DocumentKey> keys = (Set<DocumentKey>) transactionRegistry.getResource(SearchIndexListener.class);
+        if (keys == null) {
+            Set<DocumentKey> transactionKeys = new HashSet<>();
+            transactionRegistry.putResource(SearchIndexListener.class, transactionKeys);
+            transactionCallbacks.afterCommit(() -> pending.addAll(transactionKeys));
+            keys = transactionKeys;
+        }
+        keys.add(new DocumentKey(kind, id));
+    }
+
+    static void mark(SearchKind kind, Long id) {
+        if (id != null) {
+            pending.add(new DocumentKey(kind, id));
+        }
+    }
+
+    /**
+     * 取出全部待索引的文档
+     */
+    static List<DocumentKey> drain() {
+        List<DocumentKey> keys = new ArrayList<>();
+        for (DocumentKey key : pending) {
+            // 逐个移除：取出后再次变更的文档会重新加入
+            if (pending.remove(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    static int pendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.starter.service.search;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import com.example.starter.entity.Project;
+import com.example.starter.entity.Task;
+import com.example.starter.entity.Template;
+import com.example.starter.entity.TemplateVariable;
+import com.example.starter.service.ProjectService;
+import com.example.starter.service.search.SearchIndexListener.DocumentKey;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 全局搜索索引 - 基于 SQLite FTS5（trigram 分词，支持中文和任意子串）
+ * 每个主机、组、清单、模板、项目和任务是一条文档，变量以 name=value 的形式并入所属文档。
+ * 启动时在后台重建一次；之后由 {@link SearchIndexListener} 记录实体写入，定时按 rowid 增量更新。
+ */
+@ApplicationScoped
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    /**
+     * IN 查询参数分块大小（SQLite默认最多999个绑定参数）
+     */
+    private static final int IN_CLAUSE_CHUNK_SIZE = 500;
+
+    /**
+     * trigram 分词下 MATCH 查询的最短关键字长度，更短的关键字改用 LIKE
+     */
+    private static final int MIN_MATCH_LENGTH = 3;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    ProjectService projectService;
+
+    @ConfigProperty(name = "search.index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    private final AtomicBoolean ready = new AtomicBoolean();
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        createIndexTable();
+        Infrastructure.getDefaultWorkerPool().submit(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                logger.error("Failed to build search index: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @Transactional
+    void createIndexTable() {
+        entityManager.createNativeQuery(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS search_index USING fts5("
+                        + "kind UNINDEXED, ref_id UNINDEXED, title, body, tokenize = 'trigram')")
+                .executeUpdate();
+    }
+
+    /**
+     * 重建全部索引
+     */
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        clearIndex();
+        int count = 0;
+        for (SearchKind kind : SearchKind.values()) {
+            List<Long> ids = listIds(kind);
+            for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                reindex(kind, ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+            }
+            count += ids.size();
+        }
+        ready.set(true);
+        logger.info("Built search index with {} documents in {} ms", count, System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * 定时写入实体变更
+     */
+    @Scheduled(every = "{search.index.flush-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        if (!enabled || !ready.get()) {
+            return;
+        }
+        List<DocumentKey> keys = SearchIndexListener.drain();
+        if (keys.isEmpty()) {
+            return;
+        }
+        Map<SearchKind, List<Long>> byKind = new EnumMap<>(SearchKind.class);
+        keys.forEach(key -> byKind.computeIfAbsent(key.kind(), k -> new ArrayList<>()).add(key.id()));
+        try {
+            byKind.forEach((kind, ids) -> {
+                for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+                    reindex(kind, ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size())));
+                }
+            });
+        } catch (RuntimeException e) {
+            // 失败的文档放回队列，下次重试
+            keys.forEach(key -> SearchIndexListener.mark(key.kind(), key.id()));
+            logger.warn("Failed to update search index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索
+     *
+     * @param query 关键字，多个关键字以空格分隔，需全部命中
+     * @param limit 最多返回的条数
+     */
+    @Transactional
+    public List<SearchResult> search(String query, int limit) {
+        if (!enabled || query == null || query.isBlank()) {
+            return List.of();
+        }
+        String[] terms = query.trim().split("\\s+");
+        boolean match = true;
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) < MIN_MATCH_LENGTH) {
+                match = false;
+            }
+        }
+
+        List<?> rows;
+        if (match) {
+            StringJoiner expression = new StringJoiner(" ");
+            for (String term : terms) {
+                expression.add("\"" + term.replace("\"", "\"\"") + "\"");
+            }
+            rows = entityManager.createNativeQuery(
+                    "SELECT kind, ref_id, title, snippet(search_index, -1, '[', ']', '…', 12) FROM search_index"
+                            + " WHERE search_index MATCH ?1 ORDER BY rank LIMIT ?2")
+                    .setParameter(1, expression.toString())
+                    .setParameter(2, limit)
+                    .getResultList();
+        } else {
+            StringBuilder sql = new StringBuilder("SELECT kind, ref_id, title, substr(body, 1, 80) FROM search_index WHERE 1 = 1");
+            for (int i = 0; i < terms.length; i++) {
+                sql.append(" AND (title LIKE ?").append(i + 1).append(" ESCAPE '\\' OR body LIKE ?").append(i + 1)
+                        .append(" ESCAPE '\\')");
+            }
+            sql.append(" LIMIT ?").append(terms.length + 1);
+            var nativeQuery = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < terms.length; i++) {
+                nativeQuery.setParameter(i + 1, "%" + terms[i].replace("\\", "\\\\").replace("%", "\\%")
+                        .replace("_", "\\_") + "%");
+            }
+            rows = nativeQuery.setParameter(terms.length + 1, limit).getResultList();
+        }
+        return toResults(rows);
+    }
+
+    private List<SearchResult> toResults(List<?> rows) {
+        Map<SearchKind, List<Long>> idsByKind = new EnumMap<>(SearchKind.class);
+        List<Object[]> hits = new ArrayList<>();
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            SearchKind kind = SearchKind.valueOf((String) columns[0]);
+            idsByKind.computeIfAbsent(kind, k -> new ArrayList<>()).add(((Number) columns[1]).longValue());
+            hits.add(columns);
+        }
+
+        // 补充上下文，并过滤掉实体已被删除（如批量删除未触发监听器）的结果
+        Map<SearchKind, Map<Long, String>> contexts = new EnumMap<>(SearchKind.class);
+        idsByKind.forEach((kind, ids) -> contexts.put(kind, loadContext(kind, ids)));
+
+        List<SearchResult> results = new ArrayList<>(hits.size());
+        for (Object[] hit : hits) {
+            SearchKind kind = SearchKind.valueOf((String) hit[0]);
+            Long id = ((Number) hit[1]).longValue();
+            String context = contexts.get(kind).get(id);
+            if (context == null) {
+                SearchIndexListener.mark(kind, id);
+                continue;
+            }
+            String title = (String) hit[2];
+            String filter = kind == SearchKind.GROUP ? context : title;
+            results.add(new SearchResult(kind, id, title, (String) hit[3],
+                    kind == SearchKind.GROUP ? "清单 " + context : context, filter));
+        }
+        return results;
+    }
+
+    /**
+     * 查询结果的上下文（实体存在时返回非空值）：主机所属的清单、组所在的清单
+     */
+    private Map<Long, String> loadContext(SearchKind kind, List<Long> ids) {
+        Map<Long, String> contexts = new HashMap<>();
+        switch (kind) {
+            case HOST -> {
+                for (Long id : entityManager.createQuery(
+                        "SELECT h.id FROM InventoryHost h WHERE h.id IN :ids", Long.class)
+                        .setParameter("ids", ids).getResultList()) {
+                    contexts.put(id, "");
+                }
+                for (Object[] row : entityManager.createQuery(
+                        "SELECT hi.host.id, hi.inventory.name FROM InventoryHostInventory hi"
+                                + " WHERE hi.host.id IN :ids ORDER BY hi.inventory.name", Object[].class)
+                        .setParameter("ids", ids).getResultList()) {
+                    contexts.merge((Long) row[0], "所属清单: " + row[1], (a, b) -> a.isEmpty() ? b
+                            : a + ", " + row[1]);
+                }
+            }
+            case GROUP -> entityManager.createQuery(
+                    "SELECT g.id, g.inventory.name FROM InventoryGroup g WHERE g.id IN :ids", Object[].class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(row -> contexts.put((Long) row[0], (String) row[1]));
+            default -> listExisting(kind, ids).forEach(id -> contexts.put(id, ""));
+        }
+        return contexts;
+    }
+
+    private List<Long> listExisting(SearchKind kind, List<Long> ids) {
+        return entityManager.createQuery("SELECT e.id FROM " + entityName(kind) + " e WHERE e.id IN :ids",
+                Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    @Transactional
+    List<Long> listIds(SearchKind kind) {
+        return entityManager.createQuery("SELECT e.id FROM " + entityName(kind) + " e", Long.class)
+                .getResultList();
+    }
+
+    @Transactional
+    void clearIndex() {
+        entityManager.createNativeQuery("DELETE FROM search_index").executeUpdate();
+    }
+
+    /**
+     * 重新索引一批文档（独立事务）：先按 rowid 删除，实体仍存在时重新写入
+     */
+    @Transactional
+    void reindex(SearchKind kind, List<Long> ids) {
+        StringJoiner rowIds = new StringJoiner(",");
+        ids.forEach(id -> rowIds.add(String.valueOf(kind.rowId(id))));
+        entityManager.createNativeQuery("DELETE FROM search_index WHERE rowid IN (" + rowIds + ")").executeUpdate();
+
+        Map<Long, String[]> documents = loadDocuments(kind, ids);
+        for (Map.Entry<Long, String[]> document : documents.entrySet()) {
+            entityManager.createNativeQuery(
+                    "INSERT INTO search_index (rowid, kind, ref_id, title, body) VALUES (?1, ?2, ?3, ?4, ?5)")
+                    .setParameter(1, kind.rowId(document.getKey()))
+                    .setParameter(2, kind.name())
+                    .setParameter(3, document.getKey())
+                    .setParameter(4, document.getValue()[0])
+                    .setParameter(5, document.getValue()[1])
+                    .executeUpdate();
+        }
+        entityManager.clear();
+    }
+
+    /**
+     * 读取实体并生成文档（ID -> [标题, 正文]）
+     */
+    private Map<Long, String[]> loadDocuments(SearchKind kind, List<Long> ids) {
+        Map<Long, String[]> documents = new LinkedHashMap<>();
+        switch (kind) {
+            case HOST -> query("SELECT DISTINCT h FROM InventoryHost h LEFT JOIN FETCH h.variables WHERE h.id IN :ids",
+                    InventoryHost.class, ids).forEach(host -> {
+                        StringBuilder body = line(new StringBuilder(), host.getHost());
+                        for (InventoryHostVariable variable : host.getVariables()) {
+                            variable(body, variable.getVariableName(), variable.getVariableValue());
+                        }
+                        documents.put(host.getId(), new String[] { host.getName(), body.toString() });
+                    });
+            case GROUP -> query("SELECT DISTINCT g FROM InventoryGroup g LEFT JOIN FETCH g.variables WHERE g.id IN :ids",
+                    InventoryGroup.class, ids).forEach(group -> {
+                        StringBuilder body = line(new StringBuilder(), group.getDescription());
+                        for (InventoryGroupVariable variable : group.getVariables()) {
+                            variable(body, variable.getVariableName(), variable.getVariableValue());
+                        }
+                        documents.put(group.getId(), new String[] { group.getName(), body.toString() });
+                    });
+            case INVENTORY -> query("SELECT DISTINCT i FROM Inventory i LEFT JOIN FETCH i.variables WHERE i.id IN :ids",
+                    Inventory.class, ids).forEach(inventory -> {
+                        StringBuilder body = line(new StringBuilder(), inventory.getDescription());
+                        line(body, inventory.getSourceLocation());
+                        for (InventoryVariable variable : inventory.getVariables()) {
+                            variable(body, variable.getVariableName(), variable.getVariableValue());
+                        }
+                        documents.put(inventory.getId(), new String[] { inventory.getName(), body.toString() });
+                    });
+            case TEMPLATE -> query("SELECT DISTINCT t FROM Template t LEFT JOIN FETCH t.variables WHERE t.id IN :ids",
+                    Template.class, ids).forEach(template -> {
+                        StringBuilder body = line(new StringBuilder(), template.getDescription());
+                        line(body, template.getHostLimit());
+                        for (TemplateVariable variable : template.getVariables()) {
+                            variable(body, variable.getVariableName(), variable.getVariableValue());
+                        }
+                        documents.put(template.getId(), new String[] { template.getName(), body.toString() });
+                    });
+            case PROJECT -> query("SELECT p FROM Project p WHERE p.id IN :ids", Project.class, ids)
+                    .forEach(project -> {
+                        StringBuilder body = line(new StringBuilder(), project.getDescription());
+                        try {
+                            line(body, projectService.getDecodedYamlContent(project));
+                        } catch (RuntimeException e) {
+                            logger.debug("Skipping undecodable YAML of project {}", project.getId());
+                        }
+                        documents.put(project.getId(), new String[] { project.getName(), body.toString() });
+                    });
+            case TASK -> query("SELECT t FROM Task t WHERE t.id IN :ids", Task.class, ids).forEach(task -> documents
+                    .put(task.getId(), new String[] { task.getName(), task.getErrorMessage() != null
+                            ? task.getErrorMessage()
+                            : "" }));
+        }
+        return documents;
+    }
+
+    private <T> List<T> query(String jpql, Class<T> type, List<Long> ids) {
+        return entityManager.createQuery(jpql, type).setParameter("ids", ids).getResultList();
+    }
+
+    private static StringBuilder line(StringBuilder body, String value) {
+        if (value != null && !value.isEmpty()) {
+            body.append(value).append('\n');
+        }
+        return body;
+    }
+
+    private static void variable(StringBuilder body, String name, String value) {
+        body.append(name).append('=').append(value != null ? value : "").append('\n');
+    }
+
+    private static String entityName(SearchKind kind) {
+        return switch (kind) {
+            case HOST -> "InventoryHost";
+            case GROUP -> "InventoryGroup";
+            case INVENTORY -> "Inventory";
+            case TEMPLATE -> "Template";
+            case PROJECT -> "Project";
+            case TASK -> "Task";
+        };
+    }
+
+    /**
+     * 尚未写入索引的变更数
+     */
+    public int getPendingCount() {
+        return SearchIndexListener.pendingCount();
+    }
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    public boolean isReady() {
+        return ready.get();
+    }
+}
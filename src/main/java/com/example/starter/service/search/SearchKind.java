@@ -0,0 +1,31 @@
+package com.example.starter.service.search;
+
+/**
+ * 搜索结果类型
+ */
+public enum SearchKind {
+
+    HOST("主机"),
+    GROUP("组"),
+    INVENTORY("清单"),
+    TEMPLATE("模板"),
+    PROJECT("项目"),
+    TASK("任务");
+
+    private final String label;
+
+    SearchKind(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * 索引行的 rowid：实体ID与类型组合，更新和删除时按 rowid 直接定位
+     */
+    long rowId(Long id) {
+        return id * 8 + ordinal();
+    }
+}
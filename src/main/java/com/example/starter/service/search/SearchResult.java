@@ -0,0 +1,14 @@
+package com.example.starter.service.search;
+
+/**
+ * 搜索结果
+ *
+ * @param kind    类型
+ * @param id      实体ID
+ * @param title   名称
+ * @param snippet 命中内容摘要，命中处以 [ ] 标出
+ * @param context 补充信息（如主机所属清单）
+ * @param filter  跳转到对应管理页面时填入搜索框的关键字
+ */
+public record SearchResult(SearchKind kind, Long id, String title, String snippet, String context, String filter) {
+}
@@ -0,0 +1,17 @@
+package com.example.starter.service.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务日志搜索结果
+ *
+ * @param taskId     任务ID（任务归档后仍保留原ID）
+ * @param taskName   任务名称
+ * @param lineNumber 日志行号（从1开始）
+ * @param host       该行所属的主机，无法识别时为空
+ * @param loggedAt   写入时间
+ * @param line       日志内容
+ */
+public record TaskLogHit(Long taskId, String taskName, long lineNumber, String host, LocalDateTime loggedAt,
+        String line) {
+}
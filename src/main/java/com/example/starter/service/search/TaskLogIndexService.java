@@ -0,0 +1,405 @@
+package com.example.starter.service.search;
+
+import com.example.starter.entity.Task;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+import jakarta.transaction.Transactional.TxType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 任务日志索引 - 把 ansible 输出逐行写入 SQLite FTS5 表，支持按关键字、主机和时间范围跨任务搜索
+ * 每行一条记录，rowid 为 (任务ID << 24) + 行号，按任务删除和续写行号都只需按 rowid 范围查询。
+ * 主机取自 ansible 的结果行（ok: [web1]、fatal: [db-12]: UNREACHABLE! 等）和 PLAY RECAP。
+ */
+@ApplicationScoped
+public class TaskLogIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskLogIndexService.class);
+
+    /**
+     * rowid 中行号所占的位数（每个任务最多索引约1677万行）
+     */
+    private static final int LINE_BITS = 24;
+
+    private static final long MAX_LINE = (1L << LINE_BITS) - 1;
+
+    /**
+     * 单条 INSERT 的行数（每行5个参数，不超过SQLite默认的999个绑定参数）
+     */
+    private static final int INSERT_CHUNK_SIZE = 150;
+
+    private static final int MIN_MATCH_LENGTH = 3;
+
+    /**
+     * ansible 结果行：ok: [web1]、changed: [web1 -> localhost]、fatal: [db-12]: UNREACHABLE! => ...
+     */
+    private static final Pattern RESULT_LINE = Pattern.compile(
+            "^(?:ok|changed|fatal|failed|skipping|unreachable|included|rescued|ignored): \\[([^\\]\\s]+)");
+
+    /**
+     * PLAY RECAP 行：db-12 : ok=1 changed=0 unreachable=1 failed=0 ...
+     */
+    private static final Pattern RECAP_LINE = Pattern.compile("^(\\S+)\\s+:\\s+ok=\\d+");
+
+    @Inject
+    EntityManager entityManager;
+
+    @ConfigProperty(name = "task.log-index.enabled", defaultValue = "true")
+    boolean enabled;
+
+    @ConfigProperty(name = "task.log-index.batch-size", defaultValue = "200")
+    int batchSize;
+
+    @ConfigProperty(name = "task.log-index.flush-interval-ms", defaultValue = "1000")
+    long flushIntervalMillis;
+
+    @ConfigProperty(name = "task.log-index.retention-days", defaultValue = "30")
+    int retentionDays;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        createIndexTable();
+        Infrastructure.getDefaultWorkerPool().submit(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                logger.error("Failed to backfill task log index: {}", e.getMessage(), e);
+            }
+        });
+    }
+
+    @Transactional
+    void createIndexTable() {
+        entityManager.createNativeQuery(
+                "CREATE VIRTUAL TABLE IF NOT EXISTS task_log_index USING fts5("
+                        + "task_id UNINDEXED, logged_at UNINDEXED, host, content, tokenize = 'trigram')")
+                .executeUpdate();
+    }
+
+    /**
+     * 为任务打开一个日志写入器，行号接在已索引的行之后（重新执行的任务续写同一份日志）
+     *
+     * @param loggedAt 行的写入时间，为空时取当前时间
+     */
+    public Writer open(Long taskId, LocalDateTime loggedAt) {
+        if (!enabled) {
+            return new Writer(taskId, 0, null, false);
+        }
+        return new Writer(taskId, lastLine(taskId), loggedAt, true);
+    }
+
+    /**
+     * 搜索任务日志，按时间倒序返回（关键字和主机至少指定一个）
+     *
+     * @param query 关键字，多个关键字以空格分隔，需全部命中；可为空
+     * @param host  主机名（精确匹配）；可为空
+     * @param from  起始时间（含）；可为空
+     * @param to    结束时间（不含）；可为空
+     */
+    @Transactional
+    public List<TaskLogHit> search(String query, String host, LocalDateTime from, LocalDateTime to, int limit) {
+        List<String> terms = query == null || query.isBlank() ? List.of() : List.of(query.trim().split("\\s+"));
+        String hostName = host == null || host.isBlank() ? null : host.trim();
+        if (!enabled || terms.isEmpty() && hostName == null) {
+            return List.of();
+        }
+
+        List<Object> parameters = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+                "SELECT rowid, task_id, host, logged_at, content FROM task_log_index WHERE 1 = 1");
+        StringBuilder match = new StringBuilder();
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) >= MIN_MATCH_LENGTH) {
+                appendMatch(match, "content", term);
+            } else {
+                // trigram 无法匹配不足3个字符的关键字
+                parameters.add("%" + escapeLike(term) + "%");
+                sql.append(" AND content LIKE ?").append(parameters.size()).append(" ESCAPE '\\'");
+            }
+        }
+        if (hostName != null) {
+            if (hostName.codePointCount(0, hostName.length()) >= MIN_MATCH_LENGTH) {
+                appendMatch(match, "host", hostName);
+            }
+            parameters.add(hostName);
+            sql.append(" AND host = ?").append(parameters.size());
+        }
+        if (!match.isEmpty()) {
+            parameters.add(match.toString());
+            sql.append(" AND task_log_index MATCH ?").append(parameters.size());
+        }
+        if (from != null) {
+            parameters.add(toEpochMillis(from));
+            sql.append(" AND logged_at >= ?").append(parameters.size());
+        }
+        if (to != null) {
+            parameters.add(toEpochMillis(to));
+            sql.append(" AND logged_at < ?").append(parameters.size());
+        }
+        parameters.add(limit);
+        sql.append(" ORDER BY logged_at DESC, rowid DESC LIMIT ?").append(parameters.size());
+
+        Query nativeQuery = entityManager.createNativeQuery(sql.toString());
+        for (int i = 0; i < parameters.size(); i++) {
+            nativeQuery.setParameter(i + 1, parameters.get(i));
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Object row : nativeQuery.getResultList()) {
+            rows.add((Object[]) row);
+        }
+        Map<Long, String> taskNames = loadTaskNames(rows);
+
+        List<TaskLogHit> hits = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            long rowId = ((Number) row[0]).longValue();
+            Long taskId = ((Number) row[1]).longValue();
+            hits.add(new TaskLogHit(taskId, taskNames.getOrDefault(taskId, "#" + taskId), rowId & MAX_LINE,
+                    (String) row[2], toDateTime(((Number) row[3]).longValue()), (String) row[4]));
+        }
+        return hits;
+    }
+
+    /**
+     * 任务名称：任务已归档时从归档表读取
+     */
+    private Map<Long, String> loadTaskNames(List<Object[]> rows) {
+        List<Long> taskIds = rows.stream().map(row -> ((Number) row[1]).longValue()).distinct().toList();
+        Map<Long, String> names = new HashMap<>();
+        if (taskIds.isEmpty()) {
+            return names;
+        }
+        entityManager.createQuery("SELECT a.taskId, a.name FROM TaskArchive a WHERE a.taskId IN :ids", Object[].class)
+                .setParameter("ids", taskIds)
+                .getResultList()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        entityManager.createQuery("SELECT t.id, t.name FROM Task t WHERE t.id IN :ids", Object[].class)
+                .setParameter("ids", taskIds)
+                .getResultList()
+                .forEach(row -> names.put((Long) row[0], (String) row[1]));
+        return names;
+    }
+
+    /**
+     * 删除任务的全部索引（随任务删除在同一事务中执行）
+     */
+    @Transactional
+    public void removeTask(Long taskId) {
+        if (!enabled) {
+            return;
+        }
+        entityManager.createNativeQuery("DELETE FROM task_log_index WHERE rowid BETWEEN ?1 AND ?2")
+                .setParameter(1, taskId << LINE_BITS)
+                .setParameter(2, (taskId << LINE_BITS) + MAX_LINE)
+                .executeUpdate();
+    }
+
+    /**
+     * 定时清理超过保留天数的日志行
+     */
+    @Scheduled(every = "{task.log-index.prune-interval}", delayed = "5m",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    void prune() {
+        if (!enabled || retentionDays <= 0) {
+            return;
+        }
+        int removed = entityManager.createNativeQuery("DELETE FROM task_log_index WHERE logged_at < ?1")
+                .setParameter(1, toEpochMillis(LocalDateTime.now().minusDays(retentionDays)))
+                .executeUpdate();
+        if (removed > 0) {
+            logger.info("Pruned {} task log index lines older than {} days", removed, retentionDays);
+        }
+    }
+
+    @Transactional
+    long lastLine(Long taskId) {
+        Object max = entityManager.createNativeQuery(
+                "SELECT max(rowid) FROM task_log_index WHERE rowid BETWEEN ?1 AND ?2")
+                .setParameter(1, taskId << LINE_BITS)
+                .setParameter(2, (taskId << LINE_BITS) + MAX_LINE)
+                .getSingleResult();
+        return max == null ? 0 : ((Number) max).longValue() & MAX_LINE;
+    }
+
+    @Transactional(TxType.REQUIRES_NEW)
+    void insert(Long taskId, List<IndexedLine> lines) {
+        for (int from = 0; from < lines.size(); from += INSERT_CHUNK_SIZE) {
+            List<IndexedLine> chunk = lines.subList(from, Math.min(from + INSERT_CHUNK_SIZE, lines.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO task_log_index (rowid, task_id, logged_at, host, content) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                int p = i * 5;
+                sql.append(i == 0 ? "" : ", ").append("(?").append(p + 1).append(", ?").append(p + 2)
+                        .append(", ?").append(p + 3).append(", ?").append(p + 4).append(", ?").append(p + 5)
+                        .append(')');
+            }
+            Query query = entityManager.createNativeQuery(sql.toString());
+            for (int i = 0; i < chunk.size(); i++) {
+                IndexedLine line = chunk.get(i);
+                int p = i * 5;
+                query.setParameter(p + 1, (taskId << LINE_BITS) + line.lineNumber());
+                query.setParameter(p + 2, taskId);
+                query.setParameter(p + 3, line.loggedAt());
+                query.setParameter(p + 4, line.host());
+                query.setParameter(p + 5, line.content());
+            }
+            query.executeUpdate();
+        }
+    }
+
+    /**
+     * 为已有日志文件但尚未索引的任务补建索引（升级后首次启动）
+     */
+    void backfill() {
+        int indexed = 0;
+        for (Object[] task : listLoggedTasks()) {
+            Long taskId = (Long) task[0];
+            Path logPath = Paths.get((String) task[1]);
+            if (lastLine(taskId) > 0 || !Files.isRegularFile(logPath)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(logPath, StandardCharsets.UTF_8);
+                    Writer writer = new Writer(taskId, 0, (LocalDateTime) task[2], true)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    writer.append(line);
+                }
+                indexed++;
+            } catch (IOException e) {
+                logger.warn("Skipping task log index backfill for task {}: {}", taskId, e.getMessage());
+            }
+        }
+        if (indexed > 0) {
+            logger.info("Backfilled task log index for {} tasks", indexed);
+        }
+    }
+
+    @Transactional
+    List<Object[]> listLoggedTasks() {
+        return entityManager.createQuery("SELECT t.id, t.logFilePath, t.startedAt FROM Task t"
+                + " WHERE t.logFilePath IS NOT NULL AND t.status <> :running", Object[].class)
+                .setParameter("running", Task.TaskStatus.RUNNING)
+                .getResultList();
+    }
+
+    private static void appendMatch(StringBuilder match, String column, String term) {
+        match.append(match.isEmpty() ? "" : " AND ").append(column).append(" : \"")
+                .append(term.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * 识别日志行所属的主机
+     */
+    static String hostOf(String line) {
+        String trimmed = line.stripLeading();
+        Matcher matcher = RESULT_LINE.matcher(trimmed);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        matcher = RECAP_LINE.matcher(trimmed);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    record IndexedLine(long lineNumber, long loggedAt, String host, String content) {
+    }
+
+    /**
+     * 单个任务的日志写入器：攒够一批或超过刷新间隔后在独立事务中写入，关闭时写入剩余的行
+     * 索引失败只记录日志并停止索引该任务，不影响任务执行。非线程安全，由读取进程输出的线程独占使用。
+     */
+    public class Writer implements AutoCloseable {
+
+        private final Long taskId;
+        private final LocalDateTime fixedTime;
+        private final List<IndexedLine> buffer = new ArrayList<>();
+        private long lineNumber;
+        private long lastFlush = System.currentTimeMillis();
+        private boolean active;
+
+        Writer(Long taskId, long lastLine, LocalDateTime fixedTime, boolean active) {
+            this.taskId = taskId;
+            this.lineNumber = lastLine;
+            this.fixedTime = fixedTime;
+            this.active = active;
+        }
+
+        public void append(String line) {
+            if (!active) {
+                return;
+            }
+            if (lineNumber >= MAX_LINE) {
+                logger.warn("Task {} log exceeds {} lines, remaining lines are not indexed", taskId, MAX_LINE);
+                flush();
+                active = false;
+                return;
+            }
+            long now = System.currentTimeMillis();
+            buffer.add(new IndexedLine(++lineNumber, fixedTime != null ? toEpochMillis(fixedTime) : now,
+                    hostOf(line), line));
+            if (buffer.size() >= batchSize || now - lastFlush >= flushIntervalMillis) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            lastFlush = System.currentTimeMillis();
+            if (buffer.isEmpty()) {
+                return;
+            }
+            try {
+                insert(taskId, buffer);
+            } catch (RuntimeException e) {
+                logger.warn("Stopped indexing log of task {}: {}", taskId, e.getMessage());
+                active = false;
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() {
+            if (active) {
+                flush();
+            }
+        }
+    }
+}
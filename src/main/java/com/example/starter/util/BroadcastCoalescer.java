@@ -0,0 +1,96 @@
+package com.example.starter.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 广播合并器 - 按视图类型合并刷新事件
+ * 同一视图类型在合并窗口内的多次刷新只发送一次（窗口结束时发送），
+ * 批量检测主机或大量任务同时结束时，客户端不会被重复的刷新消息淹没。
+ */
+@ApplicationScoped
+public class BroadcastCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BroadcastCoalescer.class);
+
+    /**
+     * 合并窗口（毫秒），0表示不合并、立即发送
+     */
+    @ConfigProperty(name = "ui.broadcast.coalesce-window-ms", defaultValue = "250")
+    long windowMillis;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * 已安排发送、尚未发出的视图类型
+     */
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicLong sent = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        FunctionCounter.builder("wmc.broadcast.refresh.requested", requested, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.broadcast.refresh.sent", sent, AtomicLong::get)
+                .register(meterRegistry);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "broadcast-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 请求刷新指定视图类型，窗口内重复的请求会被丢弃
+     *
+     * @param sender 窗口结束时实际发送刷新事件
+     */
+    public void requestRefresh(String viewType, Consumer<String> sender) {
+        requested.incrementAndGet();
+        if (windowMillis <= 0) {
+            send(viewType, sender);
+            return;
+        }
+        if (pending.putIfAbsent(viewType, Boolean.TRUE) == null) {
+            scheduler.schedule(() -> {
+                pending.remove(viewType);
+                send(viewType, sender);
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void send(String viewType, Consumer<String> sender) {
+        sent.incrementAndGet();
+        try {
+            sender.accept(viewType);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast refresh for view type {}: {}", viewType, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.starter.util;
+
+/**
+ * 广播扇出后端 - 决定广播消息如何到达各节点上的 WebSocket 连接
+ * 通过 ui.broadcast.fanout 选择：local（默认，仅本节点）或 database（经数据库表转发到所有节点）
+ */
+public interface BroadcastFanout {
+
+    /**
+     * 发布消息到指定视图类型的所有客户端
+     */
+    void publish(String viewType, String message);
+}
@@ -1,84 +1,64 @@
 package com.example.starter.util;
 
-import jakarta.websocket.*;
-import jakarta.websocket.server.PathParam;
-import jakarta.websocket.server.ServerEndpoint;
+import io.quarkus.websockets.next.CloseReason;
+import io.quarkus.websockets.next.OnClose;
+import io.quarkus.websockets.next.OnError;
+import io.quarkus.websockets.next.OnOpen;
+import io.quarkus.websockets.next.PathParam;
+import io.quarkus.websockets.next.WebSocket;
+import io.quarkus.websockets.next.WebSocketConnection;
+import io.smallrye.common.annotation.NonBlocking;
+import jakarta.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
- * WebSocket 广播器 - 用于在后台线程中实时更新前端 UI
+ * WebSocket 广播端点 - 用于在后台线程中实时更新前端 UI
  * 支持 nginx 和 haproxy 代理
+ * 连接只在本节点注册，消息的发送和跨节点转发由 {@link BroadcastFanout} 负责
  */
-@ServerEndpoint(value = "/ws/broadcast/{viewType}")
+@WebSocket(path = "/ws/broadcast/{viewType}")
 public class BroadcastWebSocket {
 
     private static final Logger logger = LoggerFactory.getLogger(BroadcastWebSocket.class);
 
-    // 按视图类型存储所有活跃的 session
-    private static final ConcurrentHashMap<String, Set<Session>> sessions = new ConcurrentHashMap<>();
+    /**
+     * 允许订阅的视图类型（路径参数由客户端提供，其他值直接拒绝）
+     */
+    public static final Set<String> VIEW_TYPES = Set.of("tasks", "hosts", "dashboard");
+
+    @Inject
+    LocalBroadcastFanout localFanout;
 
     @OnOpen
-    public void onOpen(Session session, @PathParam("viewType") String viewType) {
-        sessions.computeIfAbsent(viewType, k -> new CopyOnWriteArraySet<>()).add(session);
-        logger.info("WebSocket connected: {} for view type: {}", session.getId(), viewType);
+    @NonBlocking
+    public void onOpen(WebSocketConnection connection, @PathParam("viewType") String viewType) {
+        if (!VIEW_TYPES.contains(viewType)) {
+            logger.warn("Rejecting WebSocket connection {} for unknown view type", connection.id());
+            connection.close(new CloseReason(1008, "unknown view type")).subscribe().with(
+                    ignored -> {
+                    },
+                    failure -> logger.error("Failed to close connection {}: {}",
+                            connection.id(), failure.getMessage()));
+            return;
+        }
+        localFanout.register(viewType, connection);
+        logger.info("WebSocket connected: {} for view type: {}", connection.id(), viewType);
     }
 
     @OnClose
-    public void onClose(Session session, @PathParam("viewType") String viewType) {
-        Set<Session> viewSessions = sessions.get(viewType);
-        if (viewSessions != null) {
-            viewSessions.remove(session);
-            if (viewSessions.isEmpty()) {
-                sessions.remove(viewType);
-            }
-        }
-        logger.info("WebSocket disconnected: {} for view type: {}", session.getId(), viewType);
+    @NonBlocking
+    public void onClose(WebSocketConnection connection, @PathParam("viewType") String viewType) {
+        localFanout.unregister(viewType, connection.id());
+        logger.info("WebSocket disconnected: {} for view type: {}", connection.id(), viewType);
     }
 
     @OnError
-    public void onError(Session session, Throwable error, @PathParam("viewType") String viewType) {
-        logger.error("WebSocket error for session {} and view type {}: {}",
-                session.getId(), viewType, error.getMessage());
-    }
-
-    /**
-     * 广播消息到指定视图类型的所有客户端
-     */
-    public static void broadcast(String viewType, String message) {
-        Set<Session> viewSessions = sessions.get(viewType);
-        if (viewSessions != null && !viewSessions.isEmpty()) {
-            for (Session session : viewSessions) {
-                if (session.isOpen()) {
-                    try {
-                        session.getBasicRemote().sendText(message);
-                    } catch (IOException e) {
-                        logger.error("Failed to send message to session {}: {}",
-                                session.getId(), e.getMessage());
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * 广播刷新事件到指定视图类型的所有客户端
-     */
-    public static void broadcastRefresh(String viewType) {
-        String message = String.format("{\"type\":\"refresh\",\"viewType\":\"%s\"}", viewType);
-        broadcast(viewType, message);
-    }
-
-    /**
-     * 获取指定视图类型的活跃连接数
-     */
-    public static int getActiveConnections(String viewType) {
-        Set<Session> viewSessions = sessions.get(viewType);
-        return viewSessions != null ? viewSessions.size() : 0;
+    @NonBlocking
+    public void onError(WebSocketConnection connection, Throwable error) {
+        logger.error("WebSocket error for connection {} and view type {}: {}",
+                connection.id(), connection.pathParam("viewType"), error.getMessage());
     }
 }
@@ -0,0 +1,115 @@
+package com.example.starter.util;
+
+import java.util.List;
+
+/**
+ * 实体变更事件 - 通过 WebSocket 发送给前端，视图据此只刷新受影响的行
+ * JSON格式：{"type":"change","entityType":"task","id":1,"action":"UPDATED","status":"RUNNING","changedFields":["status"]}
+ */
+public class ChangeEvent {
+
+    public enum Action {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final String entityType;
+
+    private final Long id;
+
+    private final Action action;
+
+    private final String status;
+
+    private final List<String> changedFields;
+
+    public ChangeEvent(String entityType, Long id, Action action, String status, List<String> changedFields) {
+        this.entityType = entityType;
+        this.id = id;
+        this.action = action;
+        this.status = status;
+        this.changedFields = changedFields != null ? List.copyOf(changedFields) : List.of();
+    }
+
+    public static ChangeEvent created(String entityType, Long id, String status) {
+        return new ChangeEvent(entityType, id, Action.CREATED, status, List.of());
+    }
+
+    public static ChangeEvent updated(String entityType, Long id, String status, String... changedFields) {
+        return new ChangeEvent(entityType, id, Action.UPDATED, status, List.of(changedFields));
+    }
+
+    public static ChangeEvent deleted(String entityType, Long id) {
+        return new ChangeEvent(entityType, id, Action.DELETED, null, List.of());
+    }
+
+    /**
+     * 转换为JSON消息
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\"type\":\"change\"");
+        json.append(",\"entityType\":").append(quote(entityType));
+        json.append(",\"id\":").append(id);
+        json.append(",\"action\":").append(quote(action.name()));
+        json.append(",\"status\":").append(status != null ? quote(status) : "null");
+        json.append(",\"changedFields\":[");
+        for (int i = 0; i < changedFields.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(quote(changedFields.get(i)));
+        }
+        return json.append("]}").toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public List<String> getChangedFields() {
+        return changedFields;
+    }
+}
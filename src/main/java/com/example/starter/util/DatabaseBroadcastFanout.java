@@ -0,0 +1,133 @@
+package com.example.starter.util;
+
+import com.example.starter.entity.BroadcastMessage;
+import com.example.starter.repository.BroadcastMessageRepository;
+import io.quarkus.arc.lookup.LookupIfProperty;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 数据库广播扇出 - 多节点部署时使用（ui.broadcast.fanout=database）
+ * 本节点的连接立即收到消息，同时把消息写入 broadcast_messages 表；
+ * 各节点定时轮询（ui.broadcast.database.poll-interval）其他节点发布的消息并转发给自己的连接。
+ * 作为 PostgreSQL LISTEN/NOTIFY 或消息中间件的替代，只依赖共享的数据源。
+ */
+@ApplicationScoped
+@LookupIfProperty(name = "ui.broadcast.fanout", stringValue = "database")
+public class DatabaseBroadcastFanout implements BroadcastFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseBroadcastFanout.class);
+
+    /**
+     * 每次轮询读取的最大消息数
+     */
+    private static final int POLL_LIMIT = 500;
+
+    /**
+     * 记录最近已转发的消息ID，用于轮询窗口重叠时去重
+     */
+    private static final int SEEN_CAPACITY = 5000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Set<Long> seenIds = new LinkedHashSet<>();
+
+    private LocalDateTime lastPolledAt = LocalDateTime.now();
+
+    private final Queue<BroadcastMessage> outbox = new ConcurrentLinkedQueue<>();
+
+    @Inject
+    LocalBroadcastFanout localFanout;
+
+    @Inject
+    BroadcastMessageRepository broadcastMessageRepository;
+
+    @ConfigProperty(name = "ui.broadcast.fanout", defaultValue = "local")
+    String fanoutMode;
+
+    /**
+     * 轮询窗口向前重叠的秒数，覆盖各节点之间的提交延迟和时钟误差
+     */
+    @ConfigProperty(name = "ui.broadcast.database.overlap-seconds", defaultValue = "5")
+    int overlapSeconds;
+
+    @ConfigProperty(name = "ui.broadcast.database.retention-seconds", defaultValue = "60")
+    int retentionSeconds;
+
+    /**
+     * 本节点立即投递；跨节点的消息先放入发件箱，由轮询任务在自己的事务中写入数据库，
+     * 调用方（可能处于事务提交回调中）不会开启新事务
+     */
+    @Override
+    public void publish(String viewType, String message) {
+        localFanout.deliver(viewType, message);
+        outbox.add(new BroadcastMessage(nodeId, viewType, message));
+    }
+
+    /**
+     * 定时拉取其他节点发布的消息并转发到本节点连接
+     */
+    @Scheduled(every = "{ui.broadcast.database.poll-interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledPoll() {
+        if (!"database".equalsIgnoreCase(fanoutMode)) {
+            return;
+        }
+        try {
+            poll();
+        } catch (Exception e) {
+            logger.error("Failed to poll broadcast messages: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 写入发件箱中的消息，拉取并转发其他节点的消息，同时清理过期消息
+     */
+    @Transactional
+    public void poll() {
+        BroadcastMessage outgoing;
+        while ((outgoing = outbox.poll()) != null) {
+            broadcastMessageRepository.persist(outgoing);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<BroadcastMessage> messages = broadcastMessageRepository.findFromOtherNodesSince(
+                nodeId, lastPolledAt.minusSeconds(overlapSeconds), POLL_LIMIT);
+        for (BroadcastMessage message : messages) {
+            if (markSeen(message.getId())) {
+                localFanout.deliver(message.getViewType(), message.getPayload());
+            }
+        }
+        lastPolledAt = messages.size() < POLL_LIMIT ? now : messages.get(messages.size() - 1).getCreatedAt();
+
+        broadcastMessageRepository.deleteOlderThan(now.minusSeconds(retentionSeconds));
+    }
+
+    /**
+     * 记录已转发的消息ID
+     *
+     * @return false 表示该消息已经转发过
+     */
+    private boolean markSeen(Long id) {
+        if (!seenIds.add(id)) {
+            return false;
+        }
+        if (seenIds.size() > SEEN_CAPACITY) {
+            seenIds.remove(seenIds.iterator().next());
+        }
+        return true;
+    }
+}
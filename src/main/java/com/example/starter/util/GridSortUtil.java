@@ -0,0 +1,53 @@
+package com.example.starter.util;
+
+import com.vaadin.flow.data.provider.QuerySortOrder;
+import com.vaadin.flow.data.provider.SortDirection;
+import io.quarkus.panache.common.Sort;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Grid排序工具 - 将Vaadin Grid的排序条件转换为Panache Sort
+ */
+public class GridSortUtil {
+
+    private GridSortUtil() {
+    }
+
+    /**
+     * 转换排序条件，只接受白名单内的实体属性，未指定排序时使用默认排序
+     *
+     * @param sortOrders        Grid传入的排序条件（来自列的 setSortProperty）
+     * @param allowedProperties 允许排序的实体属性
+     * @param defaultSort       默认排序
+     */
+    public static Sort toSort(List<QuerySortOrder> sortOrders, Set<String> allowedProperties, Sort defaultSort) {
+        Sort sort = null;
+        for (QuerySortOrder order : sortOrders) {
+            if (!allowedProperties.contains(order.getSorted())) {
+                continue;
+            }
+            Sort.Direction direction = order.getDirection() == SortDirection.DESCENDING
+                    ? Sort.Direction.Descending
+                    : Sort.Direction.Ascending;
+            sort = sort == null ? Sort.by(order.getSorted(), direction) : sort.and(order.getSorted(), direction);
+        }
+        return sort != null ? sort : defaultSort;
+    }
+
+    /**
+     * 将过滤文本转换为 LIKE 参数（小写、去空白），为空时返回null
+     * 文本中的 %、_ 和 \ 会被转义，查询需使用 ESCAPE '\'
+     */
+    public static String toLikePattern(String filter) {
+        if (filter == null || filter.trim().isEmpty()) {
+            return null;
+        }
+        String escaped = filter.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
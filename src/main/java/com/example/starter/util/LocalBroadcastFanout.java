@@ -0,0 +1,257 @@
+package com.example.starter.util;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.arc.lookup.LookupUnlessProperty;
+import io.quarkus.websockets.next.CloseReason;
+import io.quarkus.websockets.next.WebSocketConnection;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本节点广播扇出 - 维护本节点的 WebSocket 连接，并把消息写入每个连接的有界发送队列
+ * 发送使用 websockets-next 的非阻塞 sendText，同一连接同一时间只有一条消息在发送中，
+ * 调用方（任务执行线程、事务中的状态更新）不会被慢速客户端阻塞。
+ */
+@ApplicationScoped
+@LookupUnlessProperty(name = "ui.broadcast.fanout", stringValue = "database", lookupIfMissing = true)
+public class LocalBroadcastFanout implements BroadcastFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalBroadcastFanout.class);
+
+    /**
+     * 慢速客户端的处理策略：丢弃最旧的消息，或断开连接让客户端重连
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    @ConfigProperty(name = "ui.broadcast.queue-capacity", defaultValue = "64")
+    int queueCapacity;
+
+    @ConfigProperty(name = "ui.broadcast.overflow-policy", defaultValue = "DROP_OLDEST")
+    OverflowPolicy overflowPolicy;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    // 按视图类型存储本节点的连接发送器（key 为连接ID）
+    private final Map<String, Map<String, ConnectionSender>> connections = new ConcurrentHashMap<>();
+
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    private final AtomicLong slowConsumerDisconnects = new AtomicLong();
+
+    private final AtomicLong sentFrames = new AtomicLong();
+
+    // 按视图类型缓存发送耗时计时器
+    private final Map<String, Timer> sendTimers = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("wmc.websocket.frames.sent", sentFrames, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.websocket.frames.dropped", droppedFrames, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.websocket.slow-consumer.disconnects", slowConsumerDisconnects, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("wmc.websocket.queue.depth", this, LocalBroadcastFanout::getQueueDepth)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册连接
+     */
+    public void register(String viewType, WebSocketConnection connection) {
+        // 指标标签只使用已知的视图类型，避免产生无限多的指标
+        String metricView = BroadcastWebSocket.VIEW_TYPES.contains(viewType) ? viewType : "other";
+        Timer sendTimer = sendTimers.computeIfAbsent(metricView, view -> {
+            Gauge.builder("wmc.websocket.sessions", this, fanout -> fanout.getActiveConnections(view))
+                    .tag("view", view)
+                    .register(meterRegistry);
+            return Timer.builder("wmc.websocket.send")
+                    .tag("view", view)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        });
+        connections.computeIfAbsent(viewType, k -> new ConcurrentHashMap<>())
+                .put(connection.id(), new ConnectionSender(connection, sendTimer));
+    }
+
+    /**
+     * 注销连接
+     */
+    public void unregister(String viewType, String connectionId) {
+        connections.computeIfPresent(viewType, (k, viewConnections) -> {
+            viewConnections.remove(connectionId);
+            return viewConnections.isEmpty() ? null : viewConnections;
+        });
+    }
+
+    @Override
+    public void publish(String viewType, String message) {
+        deliver(viewType, message);
+    }
+
+    /**
+     * 把消息放入本节点该视图类型所有连接的发送队列（立即返回）
+     */
+    public void deliver(String viewType, String message) {
+        Map<String, ConnectionSender> viewConnections = connections.get(viewType);
+        if (viewConnections == null || viewConnections.isEmpty()) {
+            return;
+        }
+        for (ConnectionSender sender : viewConnections.values()) {
+            if (!sender.offer(message)) {
+                unregister(viewType, sender.connection.id());
+            }
+        }
+    }
+
+    /**
+     * 获取本节点指定视图类型的活跃连接数
+     */
+    public int getActiveConnections(String viewType) {
+        Map<String, ConnectionSender> viewConnections = connections.get(viewType);
+        return viewConnections != null ? viewConnections.size() : 0;
+    }
+
+    /**
+     * 所有连接发送队列中等待发送的消息总数
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Map<String, ConnectionSender> viewConnections : connections.values()) {
+            for (ConnectionSender sender : viewConnections.values()) {
+                depth += sender.size();
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * 因队列已满被丢弃的消息数
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * 因发送过慢被断开的连接数
+     */
+    public long getSlowConsumerDisconnects() {
+        return slowConsumerDisconnects.get();
+    }
+
+    /**
+     * 已成功发送的消息数
+     */
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    /**
+     * 单个连接的有界发送队列
+     */
+    private class ConnectionSender {
+
+        private final WebSocketConnection connection;
+
+        private final Timer sendTimer;
+
+        private final Deque<String> queue = new ArrayDeque<>();
+
+        private boolean sending;
+
+        ConnectionSender(WebSocketConnection connection, Timer sendTimer) {
+            this.connection = connection;
+            this.sendTimer = sendTimer;
+        }
+
+        /**
+         * 入队并触发发送
+         *
+         * @return false 表示连接已关闭或因过慢被断开，应从广播列表中移除
+         */
+        boolean offer(String message) {
+            if (!connection.isOpen()) {
+                return false;
+            }
+            synchronized (this) {
+                if (queue.size() >= queueCapacity) {
+                    if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                        queue.clear();
+                        disconnect();
+                        return false;
+                    }
+                    queue.pollFirst();
+                    droppedFrames.incrementAndGet();
+                }
+                queue.offerLast(message);
+            }
+            sendNext();
+            return true;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        private void sendNext() {
+            String message;
+            synchronized (this) {
+                if (sending || queue.isEmpty()) {
+                    return;
+                }
+                message = queue.pollFirst();
+                sending = true;
+            }
+
+            long start = System.nanoTime();
+            connection.sendText(message).subscribe().with(
+                    ignored -> {
+                        sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        sentFrames.incrementAndGet();
+                        sendCompleted();
+                    },
+                    failure -> {
+                        logger.error("Failed to send message to connection {}: {}",
+                                connection.id(), failure.getMessage());
+                        sendCompleted();
+                    });
+        }
+
+        private void sendCompleted() {
+            synchronized (this) {
+                sending = false;
+            }
+            if (connection.isOpen()) {
+                sendNext();
+            }
+        }
+
+        private void disconnect() {
+            slowConsumerDisconnects.incrementAndGet();
+            logger.warn("WebSocket connection {} is too slow, disconnecting", connection.id());
+            connection.close(new CloseReason(1013, "slow consumer")).subscribe().with(
+                    ignored -> {
+                    },
+                    failure -> logger.error("Failed to close connection {}: {}",
+                            connection.id(), failure.getMessage()));
+        }
+    }
+}
@@ -1,29 +1,60 @@
 package com.example.starter.util;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
 /**
  * UI 广播器 - 使用 WebSocket 实时更新前端
  * 支持 nginx 和 haproxy 代理
+ * 消息经 {@link BroadcastFanout} 发布，默认只投递到本节点，配置 ui.broadcast.fanout=database 后可到达所有节点
  */
+@ApplicationScoped
 public class UIBroadcaster {
 
+    @Inject
+    BroadcastCoalescer coalescer;
+
+    /**
+     * 按 ui.broadcast.fanout 生效的实现只有一个，启动时解析一次
+     */
+    @Inject
+    Instance<BroadcastFanout> fanouts;
+
+    private BroadcastFanout fanout;
+
+    @PostConstruct
+    void init() {
+        fanout = fanouts.get();
+    }
+
     /**
      * 广播刷新事件到指定视图类型的所有客户端
+     * 刷新事件经过合并窗口去重，短时间内的多次调用只会发送一次
+     */
+    public void broadcastRefresh(String viewType) {
+        coalescer.requestRefresh(viewType, this::sendRefresh);
+    }
+
+    /**
+     * 广播实体变更事件，视图据此只刷新受影响的行（不经过合并窗口）
      */
-    public static void broadcastRefresh(String viewType) {
-        BroadcastWebSocket.broadcastRefresh(viewType);
+    public void broadcastChange(String viewType, ChangeEvent event) {
+        broadcast(viewType, event.toJson());
     }
 
     /**
      * 广播自定义消息到指定视图类型的所有客户端
      */
-    public static void broadcast(String viewType, String message) {
-        BroadcastWebSocket.broadcast(viewType, message);
+    public void broadcast(String viewType, String message) {
+        fanout.publish(viewType, message);
     }
 
     /**
-     * 获取指定视图类型的活跃连接数
+     * 立即发送刷新事件（由合并器在窗口结束时调用）
      */
-    public static int getActiveConnections(String viewType) {
-        return BroadcastWebSocket.getActiveConnections(viewType);
+    private void sendRefresh(String viewType) {
+        broadcast(viewType, String.format("{\"type\":\"refresh\",\"viewType\":\"%s\"}", viewType));
     }
 }
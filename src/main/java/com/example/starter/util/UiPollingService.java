@@ -0,0 +1,170 @@
+package com.example.starter.util;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.shared.Registration;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UI轮询服务 - 所有界面定时刷新共用一个调度线程池，不再为每个对话框创建 Timer 线程
+ * 轮询与组件的生命周期绑定：组件分离（会话失效等）时自动取消，组件从未附加时分离监听不会触发，
+ * 调用方需要在对话框关闭时自行 cancel；每个 UI 同时活跃的轮询数量有上限。
+ */
+@ApplicationScoped
+public class UiPollingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UiPollingService.class);
+
+    /**
+     * 轮询任务，在 UI 锁内执行，可以通过 handle 停止后续轮询
+     */
+    @FunctionalInterface
+    public interface PollTask {
+        void run(PollHandle handle);
+    }
+
+    @Inject
+    UiUpdateScheduler uiUpdateScheduler;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "ui.polling.threads", defaultValue = "2")
+    int threads;
+
+    @ConfigProperty(name = "ui.polling.max-per-ui", defaultValue = "5")
+    int maxPerUi;
+
+    private final Map<UI, Set<PollHandle>> pollers = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        Gauge.builder("wmc.ui.pollers.active", this, UiPollingService::getActivePollers)
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.ui.pollers.rejected", rejectedCount, AtomicLong::get)
+                .register(meterRegistry);
+
+        executor = Executors.newScheduledThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ui-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 启动轮询
+     *
+     * @param ui       所属 UI（组件尚未附加时无法从组件获取）
+     * @param owner    轮询绑定的组件，分离时停止轮询，不可见时跳过本次刷新
+     * @param interval 轮询间隔（毫秒）
+     * @param task     轮询任务
+     * @return 超过该 UI 的轮询上限时返回空
+     */
+    public Optional<PollHandle> start(UI ui, Component owner, long interval, PollTask task) {
+        PollHandle handle = new PollHandle(ui);
+        // 上限检查和登记在同一个 compute 中完成，与 remove 互斥
+        pollers.compute(ui, (k, uiPollers) -> {
+            Set<PollHandle> handles = uiPollers != null ? uiPollers : ConcurrentHashMap.newKeySet();
+            if (handles.size() < maxPerUi) {
+                handles.add(handle);
+            }
+            return handles.isEmpty() ? null : handles;
+        });
+        if (!pollers.getOrDefault(ui, Set.of()).contains(handle)) {
+            rejectedCount.incrementAndGet();
+            logger.warn("UI polling limit reached ({}), poller not started", maxPerUi);
+            return Optional.empty();
+        }
+
+        handle.detachRegistration = owner.addDetachListener(e -> handle.cancel());
+        handle.future = executor.scheduleWithFixedDelay(
+                () -> uiUpdateScheduler.schedule(owner, () -> {
+                    if (!handle.cancelled) {
+                        task.run(handle);
+                    }
+                }),
+                interval, interval, TimeUnit.MILLISECONDS);
+        return Optional.of(handle);
+    }
+
+    /**
+     * 当前活跃的轮询数量
+     */
+    private int getActivePollers() {
+        return pollers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void remove(PollHandle handle) {
+        pollers.computeIfPresent(handle.ui, (k, uiPollers) -> {
+            uiPollers.remove(handle);
+            return uiPollers.isEmpty() ? null : uiPollers;
+        });
+    }
+
+    /**
+     * 轮询句柄
+     */
+    public class PollHandle {
+
+        private final UI ui;
+
+        private volatile ScheduledFuture<?> future;
+
+        private volatile Registration detachRegistration;
+
+        private volatile boolean cancelled;
+
+        PollHandle(UI ui) {
+            this.ui = ui;
+        }
+
+        /**
+         * 停止轮询（可重复调用）
+         */
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (future != null) {
+                future.cancel(false);
+            }
+            if (detachRegistration != null) {
+                detachRegistration.remove();
+            }
+            remove(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
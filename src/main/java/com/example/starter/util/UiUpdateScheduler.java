@@ -0,0 +1,194 @@
+package com.example.starter.util;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Command;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UI更新调度器 - 后台线程对界面的修改先按 UI 排队，每个帧间隔内合并为一次 ui.access + 手动 push
+ * 目标组件已分离或不可见时直接丢弃更新，不产生推送。
+ * 配合 {@code @Push(PushMode.MANUAL)} 使用，避免每次 ui.access 都立即触发一次推送往返。
+ */
+@ApplicationScoped
+public class UiUpdateScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UiUpdateScheduler.class);
+
+    @ConfigProperty(name = "ui.push.frame-interval-ms", defaultValue = "200")
+    long frameIntervalMillis;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<UI, PendingUpdates> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong updateCount = new AtomicLong();
+
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    // 从第一个更新入队到推送完成的耗时，计数即推送次数
+    private Timer pushLatency;
+
+    // 单次推送合并的更新数（推送数据量的近似指标）
+    private DistributionSummary batchSize;
+
+    private ScheduledExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        pushLatency = Timer.builder("wmc.ui.push.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("wmc.ui.push.batch.size")
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.ui.updates.executed", updateCount, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("wmc.ui.updates.skipped", skippedCount, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("wmc.ui.push.pending", pending, Map::size)
+                .register(meterRegistry);
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ui-update-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushAll, frameIntervalMillis, frameIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 安排一次界面更新，在下一帧与同一 UI 的其他更新一起执行并推送
+     *
+     * @param target 更新涉及的组件，用于确定所属 UI 以及是否仍然可见
+     * @param update 界面更新逻辑（在 UI 锁内执行）
+     */
+    public void schedule(Component target, Command update) {
+        Optional<UI> ui = target.getUI();
+        if (ui.isEmpty()) {
+            skippedCount.incrementAndGet();
+            return;
+        }
+        // compute 与 flushAll 中的 remove 对同一个 key 互斥，更新不会落入已取出的批次
+        pending.compute(ui.get(), (k, updates) -> {
+            PendingUpdates batch = updates != null ? updates : new PendingUpdates();
+            batch.add(target, update);
+            return batch;
+        });
+    }
+
+    private void flushAll() {
+        for (UI ui : new ArrayList<>(pending.keySet())) {
+            PendingUpdates updates = pending.remove(ui);
+            if (updates == null) {
+                continue;
+            }
+            if (ui.isClosing() || !ui.isAttached()) {
+                skippedCount.addAndGet(updates.size());
+                continue;
+            }
+            try {
+                ui.access(() -> flush(ui, updates));
+            } catch (Exception e) {
+                skippedCount.addAndGet(updates.size());
+                logger.debug("Skipped UI updates for closed session: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush(UI ui, PendingUpdates updates) {
+        int executed = 0;
+        for (PendingUpdate update : updates.drain()) {
+            if (!isShowing(update.target)) {
+                skippedCount.incrementAndGet();
+                continue;
+            }
+            try {
+                update.command.execute();
+                executed++;
+            } catch (Exception e) {
+                logger.error("UI update failed: {}", e.getMessage());
+            }
+        }
+        if (executed == 0) {
+            return;
+        }
+
+        ui.push();
+        long latency = System.currentTimeMillis() - updates.firstQueuedAt;
+        updateCount.addAndGet(executed);
+        pushLatency.record(latency, TimeUnit.MILLISECONDS);
+        batchSize.record(executed);
+    }
+
+    /**
+     * 组件仍在界面上且自身及所有上级都可见
+     */
+    private static boolean isShowing(Component component) {
+        if (!component.isAttached()) {
+            return false;
+        }
+        Optional<Component> current = Optional.of(component);
+        while (current.isPresent()) {
+            if (!current.get().isVisible()) {
+                return false;
+            }
+            current = current.get().getParent();
+        }
+        return true;
+    }
+
+    private record PendingUpdate(Component target, Command command) {
+    }
+
+    /**
+     * 单个 UI 的待执行更新
+     */
+    private static class PendingUpdates {
+
+        private final List<PendingUpdate> updates = new ArrayList<>();
+
+        private final long firstQueuedAt = System.currentTimeMillis();
+
+        synchronized void add(Component target, Command command) {
+            updates.add(new PendingUpdate(target, command));
+        }
+
+        synchronized int size() {
+            return updates.size();
+        }
+
+        synchronized List<PendingUpdate> drain() {
+            List<PendingUpdate> drained = new ArrayList<>(updates);
+            updates.clear();
+            return drained;
+        }
+    }
+}
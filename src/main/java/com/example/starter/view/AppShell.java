@@ -0,0 +1,14 @@
+package com.example.starter.view;
+
+import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
+import com.vaadin.flow.shared.communication.PushMode;
+import com.vaadin.flow.shared.ui.Transport;
+
+/**
+ * 应用外壳配置 - 使用手动推送，后台线程的界面更新由 UiUpdateScheduler 按帧合并后统一推送
+ * WebSocket 不可用时回退到长轮询
+ */
+@Push(value = PushMode.MANUAL, transport = Transport.WEBSOCKET_XHR)
+public class AppShell implements AppShellConfigurator {
+}
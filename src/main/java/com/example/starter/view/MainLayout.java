@@ -2,28 +2,39 @@ package com.example.starter.view;
 
 import com.example.starter.config.AppConfig;
 import com.example.starter.service.auth.UserService;
+import com.example.starter.service.search.SearchIndexService;
+import com.example.starter.service.search.SearchResult;
 import com.example.starter.view.admin.HostManagementView;
 import com.example.starter.view.admin.InventoryManagementView;
 import com.example.starter.view.admin.ProjectManagementView;
 import com.example.starter.view.admin.TaskManagementView;
 import com.example.starter.view.admin.TemplateManagementView;
+import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.HasElement;
+import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.router.AfterNavigationEvent;
 import com.vaadin.flow.router.AfterNavigationListener;
+import com.vaadin.flow.router.QueryParameters;
 import com.vaadin.flow.router.RouterLayout;
 import com.vaadin.flow.router.RouterLink;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
+import java.util.List;
+
 // 导入 ResourcePreviewView - 确保类在同一个包中可见
 
 /**
@@ -31,9 +42,17 @@ import jakarta.inject.Inject;
  */
 public class MainLayout extends VerticalLayout implements RouterLayout, AfterNavigationListener {
 
+    /**
+     * 全局搜索最多显示的结果数
+     */
+    private static final int SEARCH_RESULT_LIMIT = 50;
+
     @Inject
     UserService userService;
 
+    @Inject
+    SearchIndexService searchIndexService;
+
     private Div content;
     private HorizontalLayout mainLayout;
     private VerticalLayout sidebar;
@@ -119,7 +138,17 @@ public class MainLayout extends VerticalLayout implements RouterLayout, AfterNav
             logoutButton.addThemeVariants(ButtonVariant.LUMO_TERTIARY);
             logoutButton.getStyle().set("color", "#dc3545");
 
-            header.add(title, userLabel, logoutButton);
+            // 全局搜索
+            TextField globalSearch = new TextField();
+            globalSearch.setPlaceholder("搜索主机、组、变量、模板...");
+            globalSearch.setPrefixComponent(VaadinIcon.SEARCH.create());
+            globalSearch.setClearButtonVisible(true);
+            globalSearch.setWidth("320px");
+            globalSearch.addKeyPressListener(Key.ENTER, e -> openSearchDialog(globalSearch.getValue()));
+
+            HorizontalLayout userInfo = new HorizontalLayout(userLabel, logoutButton);
+            userInfo.setAlignItems(Alignment.CENTER);
+            header.add(title, globalSearch, userInfo);
         } else {
             header.add(title);
         }
@@ -284,6 +313,56 @@ public class MainLayout extends VerticalLayout implements RouterLayout, AfterNav
         breadcrumbs.add(currentPage);
     }
 
+    /**
+     * 打开全局搜索结果对话框
+     */
+    private void openSearchDialog(String query) {
+        if (query == null || query.isBlank()) {
+            return;
+        }
+        List<SearchResult> results = searchIndexService.search(query, SEARCH_RESULT_LIMIT);
+
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("搜索 \"" + query.trim() + "\" - " + results.size() + " 条结果");
+        dialog.setWidth("900px");
+
+        Grid<SearchResult> grid = new Grid<>();
+        grid.addThemeVariants(GridVariant.LUMO_ROW_STRIPES, GridVariant.LUMO_COMPACT);
+        grid.addColumn(result -> result.kind().getLabel()).setHeader("类型").setWidth("80px").setFlexGrow(0);
+        grid.addColumn(SearchResult::title).setHeader("名称").setAutoWidth(true);
+        grid.addColumn(SearchResult::snippet).setHeader("摘要").setFlexGrow(2);
+        grid.addColumn(SearchResult::context).setHeader("补充信息").setAutoWidth(true);
+        grid.setItems(results);
+        grid.setHeight("450px");
+        grid.addItemClickListener(e -> {
+            dialog.close();
+            navigateToResult(e.getItem());
+        });
+
+        if (!searchIndexService.isReady()) {
+            Span building = new Span("搜索索引正在构建，结果可能不完整");
+            building.getStyle().set("color", "#6c757d");
+            dialog.add(building);
+        }
+        dialog.add(grid);
+        dialog.getFooter().add(new Button("关闭", e -> dialog.close()));
+        dialog.open();
+    }
+
+    /**
+     * 跳转到搜索结果所在的管理页面，并以 q 参数带入过滤关键字
+     */
+    private void navigateToResult(SearchResult result) {
+        Class<? extends Component> target = switch (result.kind()) {
+            case HOST -> HostManagementView.class;
+            case GROUP, INVENTORY -> InventoryManagementView.class;
+            case TEMPLATE -> TemplateManagementView.class;
+            case PROJECT -> ProjectManagementView.class;
+            case TASK -> TaskManagementView.class;
+        };
+        UI.getCurrent().navigate(target, QueryParameters.of("q", result.filter()));
+    }
+
     /**
      * 处理登出
      */
@@ -1,9 +1,14 @@
 package com.example.starter.view;
 
+import com.example.starter.entity.MetricBucket;
 import com.example.starter.entity.Task;
 import com.example.starter.entity.Task.TaskStatus;
 import com.example.starter.service.StatisticsService;
+import com.example.starter.service.StatisticsService.DashboardStatistics;
+import com.example.starter.service.StatisticsService.HostStatistics;
+import com.example.starter.service.StatisticsService.TaskStatistics;
 import com.example.starter.service.auth.UserService;
+import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
@@ -17,10 +22,11 @@ import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 资源预览页面 - 登录后的默认主页，显示统计图表和数据
@@ -28,6 +34,8 @@ import java.util.Map;
 @Route(value = "", layout = MainLayout.class)
 public class ResourcePreviewView extends VerticalLayout implements BeforeEnterObserver {
 
+    private static final Logger logger = LoggerFactory.getLogger(ResourcePreviewView.class);
+
     @Inject
     UserService userService;
 
@@ -47,6 +55,8 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
     private Div successRateCard;
     private Div hostChartContainer;
     private Div taskChartContainer;
+    private Div trendChartContainer;
+    private Span trendSummary;
     private Div recentTasksContainer;
 
     public ResourcePreviewView() {
@@ -86,6 +96,9 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
         chartsLayout.setWidthFull();
         add(chartsLayout);
 
+        // 创建趋势图区域
+        add(createTrendChart());
+
         // 创建最近任务列表
         VerticalLayout recentTasksLayout = createRecentTasks();
         recentTasksLayout.setWidthFull();
@@ -99,14 +112,16 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
      * 初始化 WebSocket 连接
      */
     private void initWebSocketConnection() {
-        String jsCode = "if (!window.dashboardWebSocket) {" +
+        String jsCode = "window.dashboardView = $0;" +
+                "if (!window.dashboardWebSocket) {" +
                 "  var protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';" +
                 "  var host = window.location.host;" +
                 "  window.dashboardWebSocket = new WebSocket(protocol + '//' + host + '/ws/broadcast/dashboard');" +
                 "  window.dashboardWebSocket.onmessage = function(event) {" +
                 "    var data = JSON.parse(event.data);" +
-                "    if (data.type === 'refresh') {" +
-                "      window.location.reload();" +
+                "    var view = window.dashboardView;" +
+                "    if (view && view.$server && (data.type === 'refresh' || data.type === 'change')) {" +
+                "      view.$server.onRefresh();" +
                 "    }" +
                 "  };" +
                 "  window.dashboardWebSocket.onclose = function() {" +
@@ -114,12 +129,19 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
                 "  };" +
                 "}";
 
-        UI.getCurrent().getElement().executeJs(jsCode);
+        UI.getCurrent().getElement().executeJs(jsCode, getElement());
 
-        UI.getCurrent().addDetachListener(e -> {
-            UI.getCurrent().getElement()
-                    .executeJs("if (window.dashboardWebSocket) { window.dashboardWebSocket.close(); }");
-        });
+        // 视图分离时关闭连接，onclose 中的延迟置空不再执行
+        addDetachListener(e -> e.getUI().getPage().executeJs("window.dashboardView = null;" +
+                "if (window.dashboardWebSocket) { window.dashboardWebSocket.onclose = null; window.dashboardWebSocket.close(); window.dashboardWebSocket = null; }"));
+    }
+
+    /**
+     * 收到刷新事件：只重新读取统计数据，不整页刷新
+     */
+    @ClientCallable
+    public void onRefresh() {
+        refreshData();
     }
 
     /**
@@ -243,6 +265,118 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
         return layout;
     }
 
+    /**
+     * 创建近24小时趋势图
+     */
+    private Div createTrendChart() {
+        Div chart = new Div();
+        chart.setWidthFull();
+        chart.getStyle().set("background-color", "white");
+        chart.getStyle().set("border-radius", "8px");
+        chart.getStyle().set("padding", "20px");
+        chart.getStyle().set("box-shadow", "0 2px 4px rgba(0,0,0,0.1)");
+        chart.getStyle().set("margin-bottom", "20px");
+        chart.getStyle().set("box-sizing", "border-box");
+
+        H3 chartTitle = new H3("近24小时任务趋势");
+        chartTitle.getStyle().set("margin-top", "0");
+        chartTitle.getStyle().set("margin-bottom", "10px");
+        chartTitle.getStyle().set("color", "#2c3e50");
+
+        trendSummary = new Span();
+        trendSummary.getStyle().set("font-size", "13px");
+        trendSummary.getStyle().set("color", "#7f8c8d");
+        trendSummary.getStyle().set("display", "block");
+        trendSummary.getStyle().set("margin-bottom", "15px");
+
+        trendChartContainer = new Div();
+        trendChartContainer.setWidthFull();
+        trendChartContainer.getStyle().set("height", "160px");
+        trendChartContainer.getStyle().set("display", "flex");
+        trendChartContainer.getStyle().set("align-items", "flex-end");
+        trendChartContainer.getStyle().set("gap", "4px");
+
+        chart.add(chartTitle, trendSummary, trendChartContainer);
+        return chart;
+    }
+
+    /**
+     * 更新趋势图：柱高为每小时开始执行的任务数，成功/失败按颜色堆叠
+     */
+    private void updateTrendChart(List<MetricBucket> trend) {
+        if (trendChartContainer == null || trend == null) {
+            return;
+        }
+        trendChartContainer.removeAll();
+
+        long maxCount = 1;
+        long started = 0;
+        long succeeded = 0;
+        long failed = 0;
+        long durationSum = 0;
+        long durationCount = 0;
+        long queueWaitSum = 0;
+        long queueWaitCount = 0;
+        long hostChecks = 0;
+        long hostReachable = 0;
+        for (MetricBucket bucket : trend) {
+            maxCount = Math.max(maxCount, Math.max(bucket.getTasksStarted(),
+                    bucket.getTasksSucceeded() + bucket.getTasksFailed()));
+            started += bucket.getTasksStarted();
+            succeeded += bucket.getTasksSucceeded();
+            failed += bucket.getTasksFailed();
+            durationSum += bucket.getDurationSumMs();
+            durationCount += bucket.getDurationCount();
+            queueWaitSum += bucket.getQueueWaitSumMs();
+            queueWaitCount += bucket.getQueueWaitCount();
+            hostChecks += bucket.getHostChecks();
+            hostReachable += bucket.getHostReachable();
+        }
+
+        trendSummary.setText(String.format("执行 %d 次 | 成功率 %s | 平均耗时 %s | 平均等待 %s | 主机可达率 %s",
+                started,
+                succeeded + failed > 0 ? String.format("%.1f%%", succeeded * 100.0 / (succeeded + failed)) : "-",
+                durationCount > 0 ? formatMillis(durationSum / durationCount) : "-",
+                queueWaitCount > 0 ? formatMillis(queueWaitSum / queueWaitCount) : "-",
+                hostChecks > 0 ? String.format("%.1f%%", hostReachable * 100.0 / hostChecks) : "-"));
+
+        for (MetricBucket bucket : trend) {
+            Div column = new Div();
+            column.getStyle().set("flex", "1");
+            column.getStyle().set("height", "100%");
+            column.getStyle().set("display", "flex");
+            column.getStyle().set("flex-direction", "column-reverse");
+            column.getStyle().set("background-color", "#f7f9fa");
+            column.getElement().setAttribute("title", String.format("%s  执行:%d 成功:%d 失败:%d",
+                    bucket.getBucketStart().format(DateTimeFormatter.ofPattern("MM-dd HH:00")),
+                    bucket.getTasksStarted(), bucket.getTasksSucceeded(), bucket.getTasksFailed()));
+
+            Div successBar = new Div();
+            successBar.getStyle().set("height", (bucket.getTasksSucceeded() * 100.0 / maxCount) + "%");
+            successBar.getStyle().set("background-color", "#2ecc71");
+
+            Div failedBar = new Div();
+            failedBar.getStyle().set("height", (bucket.getTasksFailed() * 100.0 / maxCount) + "%");
+            failedBar.getStyle().set("background-color", "#e74c3c");
+
+            column.add(successBar, failedBar);
+            trendChartContainer.add(column);
+        }
+    }
+
+    /**
+     * 格式化毫秒时长
+     */
+    private String formatMillis(long millis) {
+        if (millis < 1000) {
+            return millis + "ms";
+        }
+        if (millis < 60_000) {
+            return String.format("%.1fs", millis / 1000.0);
+        }
+        return String.format("%dm%ds", millis / 60_000, (millis % 60_000) / 1000);
+    }
+
     /**
      * 创建简单的HTML图表
      */
@@ -314,10 +448,9 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
     /**
      * 刷新数据
      */
-    @SuppressWarnings("unchecked")
     private void refreshData() {
         try {
-            Map<String, Object> stats = statisticsService.getAllStatistics();
+            DashboardStatistics stats = statisticsService.getAllStatistics();
 
             // 更新统计卡片
             updateStatCards(stats);
@@ -325,35 +458,35 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
             // 更新图表
             updateCharts(stats);
 
+            // 更新趋势图
+            updateTrendChart(stats.hourlyTrend());
+
             // 更新最近任务列表
-            updateRecentTasks((List<Task>) stats.get("recentTasks"));
+            updateRecentTasks(stats.recentTasks());
         } catch (Exception e) {
-            System.err.println("刷新数据时出错: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Failed to refresh dashboard statistics: {}", e.getMessage(), e);
         }
     }
 
     /**
      * 更新统计卡片
      */
-    @SuppressWarnings("unchecked")
-    private void updateStatCards(Map<String, Object> stats) {
-        Map<String, Object> hostStats = (Map<String, Object>) stats.get("hosts");
-        Map<String, Object> taskStats = (Map<String, Object>) stats.get("tasks");
+    private void updateStatCards(DashboardStatistics stats) {
+        HostStatistics hostStats = stats.hosts();
+        TaskStatistics taskStats = stats.tasks();
 
         // 更新主机卡片
-        updateCardValue(hostCard, String.valueOf(hostStats.get("total")));
-        updateCardValue(inventoryCard, String.valueOf(stats.get("inventories")));
-        updateCardValue(projectCard, String.valueOf(stats.get("projects")));
-        updateCardValue(templateCard, String.valueOf(stats.get("templates")));
+        updateCardValue(hostCard, String.valueOf(hostStats.total()));
+        updateCardValue(inventoryCard, String.valueOf(stats.inventories()));
+        updateCardValue(projectCard, String.valueOf(stats.projects()));
+        updateCardValue(templateCard, String.valueOf(stats.templates()));
 
         // 更新任务卡片
-        updateCardValue(totalTasksCard, String.valueOf(taskStats.get("total")));
-        updateCardValue(successTasksCard, String.valueOf(taskStats.get("success")));
-        updateCardValue(failedTasksCard, String.valueOf(taskStats.get("failed")));
+        updateCardValue(totalTasksCard, String.valueOf(taskStats.total()));
+        updateCardValue(successTasksCard, String.valueOf(taskStats.success()));
+        updateCardValue(failedTasksCard, String.valueOf(taskStats.failed()));
 
-        double successRate = (Double) taskStats.get("successRate");
-        updateCardValue(successRateCard, String.format("%.1f%%", successRate));
+        updateCardValue(successRateCard, String.format("%.1f%%", taskStats.successRate()));
     }
 
     /**
@@ -376,17 +509,16 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
     /**
      * 更新图表
      */
-    @SuppressWarnings("unchecked")
-    private void updateCharts(Map<String, Object> stats) {
-        Map<String, Object> hostStats = (Map<String, Object>) stats.get("hosts");
-        Map<String, Object> taskStats = (Map<String, Object>) stats.get("tasks");
+    private void updateCharts(DashboardStatistics stats) {
+        HostStatistics hostStats = stats.hosts();
+        TaskStatistics taskStats = stats.tasks();
 
         // 更新主机连接状态图表
         if (hostChartContainer != null) {
             hostChartContainer.removeAll();
-            if ((Long) hostStats.get("total") > 0) {
-                long connected = (Long) hostStats.get("connected");
-                long disconnected = (Long) hostStats.get("disconnected");
+            if (hostStats.total() > 0) {
+                long connected = hostStats.connected();
+                long disconnected = hostStats.disconnected();
                 hostChartContainer.add(createProgressBar(connected, disconnected, "已连接", "未连接",
                         "#2ecc71", "#e74c3c"));
             } else {
@@ -399,12 +531,12 @@ public class ResourcePreviewView extends VerticalLayout implements BeforeEnterOb
         // 更新任务状态分布图表
         if (taskChartContainer != null) {
             taskChartContainer.removeAll();
-            if ((Long) taskStats.get("total") > 0) {
-                long success = (Long) taskStats.get("success");
-                long failed = (Long) taskStats.get("failed");
-                long running = (Long) taskStats.get("running");
-                long pending = (Long) taskStats.get("pending");
-                long cancelled = (Long) taskStats.get("cancelled");
+            if (taskStats.total() > 0) {
+                long success = taskStats.success();
+                long failed = taskStats.failed();
+                long running = taskStats.running();
+                long pending = taskStats.pending();
+                long cancelled = taskStats.cancelled();
 
                 VerticalLayout chartLayout = new VerticalLayout();
                 chartLayout.setSpacing(true);
@@ -0,0 +1,31 @@
+package com.example.starter.view;
+
+import com.vaadin.flow.server.ServiceInitEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vaadin 界面指标 - 统计当前存活的 UI 数量
+ */
+@ApplicationScoped
+public class UiMetrics {
+
+    private final AtomicInteger activeUis = new AtomicInteger();
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    void onServiceInit(@Observes ServiceInitEvent event) {
+        Gauge.builder("wmc.vaadin.uis", activeUis, AtomicInteger::get)
+                .register(meterRegistry);
+        event.getSource().addUIInitListener(uiInit -> {
+            activeUis.incrementAndGet();
+            uiInit.getUI().addDetachListener(detach -> activeUis.decrementAndGet());
+        });
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.starter.view.admin;
 
+import com.example.starter.entity.Inventory;
 import com.example.starter.entity.InventoryHost;
 import com.example.starter.repository.InventoryHostRepository;
+import com.example.starter.service.StatisticsCounters;
 import com.example.starter.service.auth.UserService;
+import com.example.starter.service.host.HostService;
 import com.example.starter.service.host.SSHConnectionService;
+import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.service.inventory.importer.HostImportFormat;
+import com.example.starter.service.inventory.importer.HostImportResult;
+import com.example.starter.service.inventory.importer.HostImportService;
+import com.example.starter.util.ChangeEvent;
+import com.example.starter.util.GridSortUtil;
 import com.example.starter.util.UIBroadcaster;
+import com.example.starter.util.UiUpdateScheduler;
 import com.example.starter.view.MainLayout;
+import com.vaadin.flow.component.ClientCallable;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.grid.Grid;
@@ -19,18 +31,32 @@ import com.vaadin.flow.component.notification.Notification;
 import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.progressbar.ProgressBar;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.PasswordField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.component.upload.Upload;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.streams.UploadHandler;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Set;
 
 /**
  * 主机管理视图 - 用于管理所有主机
@@ -38,6 +64,8 @@ import java.util.List;
 @Route(value = "hosts", layout = MainLayout.class)
 public class HostManagementView extends VerticalLayout implements BeforeEnterObserver {
 
+    private static final Logger logger = LoggerFactory.getLogger(HostManagementView.class);
+
     @Inject
     UserService userService;
 
@@ -47,8 +75,35 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
     @Inject
     SSHConnectionService sshConnectionService;
 
+    @Inject
+    StatisticsCounters statisticsCounters;
+
+    @Inject
+    InventoryService inventoryService;
+
+    @Inject
+    HostImportService hostImportService;
+
+    @Inject
+    UiUpdateScheduler uiUpdateScheduler;
+
+    @Inject
+    UIBroadcaster uiBroadcaster;
+
+    @Inject
+    HostService hostService;
+
     private Grid<InventoryHost> hostGrid;
     private H2 title;
+    private final TextField searchField = new TextField();
+
+    /**
+     * 允许排序的属性
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("name", "host", "port", "username", "connected",
+            "lastChecked");
+
+    private static final Sort DEFAULT_SORT = Sort.descending("createdAt");
 
     public HostManagementView() {
         addClassName("host-management-view");
@@ -72,8 +127,19 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
         addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         addButton.addClickListener(e -> openAddHostDialog());
 
+        // 批量导入按钮
+        Button importButton = new Button("批量导入", VaadinIcon.UPLOAD.create());
+        importButton.addClickListener(e -> openImportDialog());
+
+        // 搜索框
+        searchField.setPlaceholder("搜索主机名称或地址");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> refreshGrid());
+
         // 工具栏
-        HorizontalLayout toolbar = new HorizontalLayout(title, addButton);
+        HorizontalLayout toolbar = new HorizontalLayout(title, new HorizontalLayout(searchField, importButton, addButton));
         toolbar.setWidthFull();
         toolbar.setJustifyContentMode(JustifyContentMode.BETWEEN);
         toolbar.setAlignItems(Alignment.CENTER);
@@ -86,10 +152,12 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
             Span nameSpan = new Span(host.getName());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
-        }).setHeader("主机名称").setAutoWidth(true);
-        hostGrid.addColumn(InventoryHost::getHost).setHeader("主机地址").setAutoWidth(true);
-        hostGrid.addColumn(host -> host.getPort() != null ? host.getPort() : 22).setHeader("端口").setAutoWidth(true);
-        hostGrid.addColumn(InventoryHost::getUsername).setHeader("用户名").setAutoWidth(true);
+        }).setHeader("主机名称").setAutoWidth(true).setSortProperty("name");
+        hostGrid.addColumn(InventoryHost::getHost).setHeader("主机地址").setAutoWidth(true).setSortProperty("host");
+        hostGrid.addColumn(host -> host.getPort() != null ? host.getPort() : 22).setHeader("端口").setAutoWidth(true)
+                .setSortProperty("port");
+        hostGrid.addColumn(InventoryHost::getUsername).setHeader("用户名").setAutoWidth(true)
+                .setSortProperty("username");
         hostGrid.addComponentColumn(host -> {
             Span statusBadge = new Span();
             statusBadge.getStyle().set("padding", "4px 8px");
@@ -108,16 +176,25 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
             }
 
             return statusBadge;
-        }).setHeader("状态").setAutoWidth(true);
+        }).setHeader("状态").setAutoWidth(true).setSortProperty("connected");
         hostGrid.addComponentColumn(host -> {
             Span checkedTime = new Span(
                     host.getLastChecked() != null ? host.getLastChecked().toString().substring(0, 16) : "未检测");
             checkedTime.getStyle().set("font-size", "12px");
             checkedTime.getStyle().set("color", "#6c757d");
             return checkedTime;
-        }).setHeader("最后检测").setAutoWidth(true);
+        }).setHeader("最后检测").setAutoWidth(true).setSortProperty("lastChecked");
         hostGrid.addComponentColumn(this::createActionButtons).setHeader("操作").setAutoWidth(true);
 
+        // 懒加载：按需分页查询，只加载当前可见的行
+        hostGrid.setItems(
+                query -> hostRepository.findPage(GridSortUtil.toLikePattern(searchField.getValue()),
+                        GridSortUtil.toSort(query.getSortOrders(), SORT_PROPERTIES, DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) hostRepository.countByFilter(GridSortUtil.toLikePattern(searchField.getValue())))
+                // 按ID识别行，收到变更事件时可以只刷新单行
+                .setIdentifierProvider(InventoryHost::getId);
+
         // 添加组件到布局
         add(toolbar, hostGrid);
 
@@ -126,17 +203,24 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
     }
 
     /**
-     * 初始化 WebSocket 连接
+     * 初始化 WebSocket 连接：变更事件交给服务端按行刷新，刷新事件重新加载网格（不再整页刷新）
      */
     private void initWebSocketConnection() {
-        String jsCode = "if (!window.hostsWebSocket) {" +
+        String jsCode = "window.hostsView = $0;" +
+                "if (!window.hostsWebSocket) {" +
                 "  var protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';" +
                 "  var host = window.location.host;" +
                 "  window.hostsWebSocket = new WebSocket(protocol + '//' + host + '/ws/broadcast/hosts');" +
                 "  window.hostsWebSocket.onmessage = function(event) {" +
                 "    var data = JSON.parse(event.data);" +
-                "    if (data.type === 'refresh') {" +
-                "      setTimeout(function() { window.location.reload(); }, 100);" +
+                "    var view = window.hostsView;" +
+                "    if (!view || !view.$server) {" +
+                "      return;" +
+                "    }" +
+                "    if (data.type === 'change') {" +
+                "      view.$server.onHostChanged(data.action, String(data.id));" +
+                "    } else if (data.type === 'refresh') {" +
+                "      view.$server.onRefresh();" +
                 "    }" +
                 "  };" +
                 "  window.hostsWebSocket.onclose = function() {" +
@@ -144,12 +228,34 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
                 "  };" +
                 "}";
 
-        UI.getCurrent().getElement().executeJs(jsCode);
+        UI.getCurrent().getElement().executeJs(jsCode, getElement());
 
-        // 添加页面关闭时的清理
-        UI.getCurrent().addDetachListener(e -> {
-            UI.getCurrent().getElement().executeJs("if (window.hostsWebSocket) { window.hostsWebSocket.close(); }");
-        });
+        // 离开页面时关闭连接
+        addDetachListener(e -> e.getUI().getPage().executeJs("window.hostsView = null;" +
+                "if (window.hostsWebSocket) { window.hostsWebSocket.onclose = null; window.hostsWebSocket.close(); window.hostsWebSocket = null; }"));
+    }
+
+    /**
+     * 收到主机变更事件：连接状态更新只刷新对应的行，其他情况重新加载网格
+     */
+    @ClientCallable
+    public void onHostChanged(String action, String id) {
+        if (ChangeEvent.Action.UPDATED.name().equals(action) && id != null) {
+            InventoryHost host = hostRepository.findById(Long.valueOf(id));
+            if (host != null) {
+                hostGrid.getLazyDataView().refreshItem(host);
+                return;
+            }
+        }
+        refreshGrid();
+    }
+
+    /**
+     * 收到刷新事件：重新加载网格
+     */
+    @ClientCallable
+    public void onRefresh() {
+        refreshGrid();
     }
 
     /**
@@ -197,22 +303,21 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
                 result = sshConnectionService.testConnection(host);
             } catch (Exception e) {
                 // 静默处理异常
-                System.err.println("Connection test failed: " + e.getMessage());
+                logger.warn("Connection test failed for host {}: {}", host.getName(), e.getMessage());
             }
 
             // 在后台线程中先更新数据库（有事务上下文）
             final boolean success = (result != null && result.isSuccess());
 
             try {
-                hostRepository.updateConnectionStatus(host.getId(), success);
-                // 广播主机列表更新
-                UIBroadcaster.broadcastRefresh("hosts");
+                // 连接状态变更事件由 HostService 在提交后广播
+                hostService.updateConnectionStatus(host.getId(), success);
             } catch (Exception e) {
                 // 静默处理事务异常，不影响用户体验
-                System.err.println("Failed to update connection status: " + e.getMessage());
+                logger.warn("Failed to update connection status of host {}: {}", host.getName(), e.getMessage());
             }
 
-            System.out.println("Connection test completed. Success: " + success);
+            logger.debug("Connection test completed for host {}, success: {}", host.getName(), success);
         }).start();
     }
 
@@ -223,6 +328,107 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
         openHostDialog(null);
     }
 
+    /**
+     * 打开批量导入对话框：上传 CSV、ansible INI 或 YAML 清单文件，
+     * 文件先落到临时文件，再由后台线程流式解析并分批写入，进度通过推送更新
+     */
+    private void openImportDialog() {
+        Dialog dialog = new Dialog();
+        dialog.setWidth("560px");
+
+        H2 dialogTitle = new H2("批量导入主机");
+        dialogTitle.getStyle().set("margin", "0");
+
+        Span hint = new Span("支持 CSV（表头包含 name、host、port、username、password、groups，其余列作为主机变量）、"
+                + "ansible INI 清单和 YAML 清单。同名主机将被更新。");
+        hint.getStyle().set("font-size", "13px");
+        hint.getStyle().set("color", "#6c757d");
+
+        ComboBox<Inventory> inventorySelect = new ComboBox<>("导入到清单（可选，选择后同时导入组和组变量）");
+        inventorySelect.setItems(inventoryService.getAllInventories());
+        inventorySelect.setItemLabelGenerator(Inventory::getName);
+        inventorySelect.setClearButtonVisible(true);
+        inventorySelect.setWidthFull();
+
+        ProgressBar progressBar = new ProgressBar();
+        progressBar.setIndeterminate(true);
+        progressBar.setVisible(false);
+        Span status = new Span();
+        status.getStyle().set("white-space", "pre-line");
+
+        Upload upload = new Upload(UploadHandler.toTempFile((metadata, file) -> {
+            HostImportFormat format;
+            try {
+                format = HostImportFormat.fromFileName(metadata.fileName());
+            } catch (IllegalArgumentException ex) {
+                uiUpdateScheduler.schedule(status, () -> status.setText(ex.getMessage()));
+                Files.deleteIfExists(file.toPath());
+                return;
+            }
+            Long inventoryId = inventorySelect.getValue() != null ? inventorySelect.getValue().getId() : null;
+            // 上传处理结束后临时文件可能被回收，先移到自己的临时文件中
+            Path importFile = Files.createTempFile("host-import-", ".tmp");
+            Files.move(file.toPath(), importFile, StandardCopyOption.REPLACE_EXISTING);
+            uiUpdateScheduler.schedule(status, () -> {
+                progressBar.setVisible(true);
+                status.setText("正在导入 " + metadata.fileName() + " ...");
+            });
+            Infrastructure.getDefaultWorkerPool().submit(() -> runImport(importFile, format, inventoryId,
+                    progressBar, status));
+        }));
+        upload.setAcceptedFileTypes(".csv", ".ini", ".cfg", ".yml", ".yaml", ".txt", "text/csv");
+        upload.setMaxFiles(1);
+        upload.setWidthFull();
+
+        Button closeButton = new Button("关闭", e -> dialog.close());
+        closeButton.getElement().setAttribute("type", "button");
+        HorizontalLayout buttonLayout = new HorizontalLayout(closeButton);
+        buttonLayout.setJustifyContentMode(JustifyContentMode.END);
+        buttonLayout.setWidthFull();
+
+        VerticalLayout layout = new VerticalLayout(dialogTitle, hint, inventorySelect, upload, progressBar, status,
+                buttonLayout);
+        layout.setPadding(true);
+        layout.setSpacing(true);
+        dialog.add(layout);
+        dialog.open();
+    }
+
+    /**
+     * 在后台线程中执行导入（对话框关闭后导入继续进行，只是不再更新进度）
+     */
+    private void runImport(Path importFile, HostImportFormat format, Long inventoryId, ProgressBar progressBar,
+            Span status) {
+        try (Reader reader = Files.newBufferedReader(importFile, StandardCharsets.UTF_8)) {
+            HostImportResult result = hostImportService.importHosts(reader, format, inventoryId,
+                    progress -> uiUpdateScheduler.schedule(status, () -> status.setText(
+                            "已处理 " + progress.processed() + " 台主机（新建 " + progress.created()
+                                    + "，更新 " + progress.updated() + "，失败 " + progress.failed() + "）")));
+            StringBuilder summary = new StringBuilder()
+                    .append("导入完成，耗时 ").append(result.durationMillis()).append(" 毫秒：新建 ")
+                    .append(result.created()).append("，更新 ").append(result.updated())
+                    .append("，失败 ").append(result.failed()).append("，新建组 ").append(result.groupsCreated());
+            result.errors().forEach(error -> summary.append("\n").append(error));
+            uiUpdateScheduler.schedule(status, () -> {
+                progressBar.setVisible(false);
+                status.setText(summary.toString());
+                refreshGrid();
+            });
+        } catch (Exception e) {
+            logger.error("Host import failed: {}", e.getMessage(), e);
+            uiUpdateScheduler.schedule(status, () -> {
+                progressBar.setVisible(false);
+                status.setText("导入失败: " + e.getMessage());
+            });
+        } finally {
+            try {
+                Files.deleteIfExists(importFile);
+            } catch (IOException e) {
+                logger.warn("Failed to delete import file {}: {}", importFile, e.getMessage());
+            }
+        }
+    }
+
     /**
      * 打开编辑主机对话框
      */
@@ -326,24 +532,23 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
                                         passwordField.getValue());
                             } catch (Exception ex) {
                                 // 静默处理异常
-                                System.err.println("Connection test failed: " + ex.getMessage());
+                                logger.warn("Connection test failed: {}", ex.getMessage());
                             }
 
                             // 在后台线程中先更新数据库（有事务上下文）
                             final boolean success = (result != null && result.isSuccess());
 
                             try {
-                                hostRepository.updateConnectionStatusByName(
+                                // 连接状态变更事件由 HostService 在提交后广播
+                                hostService.updateConnectionStatusByName(
                                         nameField.getValue().trim(),
                                         success);
-                                // 广播主机列表更新
-                                UIBroadcaster.broadcastRefresh("hosts");
                             } catch (Exception ex) {
                                 // 静默处理事务异常，不影响用户体验
-                                System.err.println("Failed to update connection status: " + ex.getMessage());
+                                logger.warn("Failed to update connection status: {}", ex.getMessage());
                             }
 
-                            System.out.println("Connection test completed. Success: " + success);
+                            logger.debug("Connection test completed, success: {}", success);
                         }).start();
                     } catch (Exception ex) {
                         showNotification("保存主机失败: " + ex.getMessage(), NotificationVariant.LUMO_ERROR);
@@ -461,17 +666,17 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
         newHost.setLastChecked(LocalDateTime.now());
 
         hostRepository.persist(newHost);
+        statisticsCounters.hostCreated(connected);
 
         showNotification("主机添加成功", NotificationVariant.LUMO_SUCCESS);
         refreshGrid();
         // 广播刷新事件到所有客户端
-        UIBroadcaster.broadcastRefresh("hosts");
+        uiBroadcaster.broadcastRefresh("hosts");
     }
 
     /**
      * 更新主机
      */
-    @Transactional
     public void updateHost(InventoryHost host, String hostAddr, int port, String username, String password) {
         if (host == null) {
             showNotification("主机对象不能为空", NotificationVariant.LUMO_ERROR);
@@ -484,12 +689,12 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
         host.setPassword(password);
         host.setUpdatedAt(LocalDateTime.now());
 
-        hostRepository.getEntityManager().merge(host);
+        hostService.updateHost(host);
 
         showNotification("主机更新成功", NotificationVariant.LUMO_SUCCESS);
         refreshGrid();
         // 广播刷新事件到所有客户端
-        UIBroadcaster.broadcastRefresh("hosts");
+        uiBroadcaster.broadcastRefresh("hosts");
     }
 
     /**
@@ -517,7 +722,7 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
             refreshGrid();
             confirmDialog.close();
             // 广播刷新事件到所有客户端
-            UIBroadcaster.broadcastRefresh("hosts");
+            uiBroadcaster.broadcastRefresh("hosts");
         });
         confirmButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY, ButtonVariant.LUMO_ERROR);
 
@@ -535,26 +740,11 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
     /**
      * 从数据库删除主机
      */
-    @Transactional
     public void deleteHostFromDatabase(InventoryHost host) {
         if (host == null) {
             return;
         }
-
-        jakarta.persistence.EntityManager em = hostRepository.getEntityManager();
-
-        // 先删除关联的变量
-        em.createQuery("DELETE FROM InventoryHostVariable hv WHERE hv.host.id = :hostId")
-                .setParameter("hostId", host.getId())
-                .executeUpdate();
-
-        // 删除关联的组-主机关系
-        em.createQuery("DELETE FROM InventoryGroupHost gh WHERE gh.host.id = :hostId")
-                .setParameter("hostId", host.getId())
-                .executeUpdate();
-
-        // 删除主机
-        em.remove(em.find(InventoryHost.class, host.getId()));
+        hostService.deleteHost(host.getId());
     }
 
     /**
@@ -562,11 +752,10 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
      */
     private void refreshGrid() {
         try {
-            List<InventoryHost> hosts = hostRepository.findAllOrderByCreatedAtDesc();
-            hostGrid.setItems(hosts);
+            hostGrid.getDataProvider().refreshAll();
         } catch (Exception e) {
             // 静默处理异常，不影响用户体验
-            System.err.println("Failed to refresh grid: " + e.getMessage());
+            logger.warn("Failed to refresh host grid: {}", e.getMessage());
         }
     }
 
@@ -587,6 +776,9 @@ public class HostManagementView extends VerticalLayout implements BeforeEnterObs
             } else {
                 event.forwardTo("login");
             }
+            return;
         }
+        // 从全局搜索跳转时带入关键字
+        event.getLocation().getQueryParameters().getSingleParameter("q").ifPresent(searchField::setValue);
     }
 }
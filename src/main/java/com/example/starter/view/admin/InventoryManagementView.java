@@ -1,15 +1,26 @@
 package com.example.starter.view.admin;
 
 import com.example.starter.entity.Inventory;
-import com.example.starter.entity.InventoryGroup;
 import com.example.starter.entity.InventoryHost;
-import com.example.starter.entity.InventoryVariable;
+import com.example.starter.exception.ResourceNotFoundException;
 import com.example.starter.service.auth.UserService;
 import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.service.inventory.InventorySnapshot;
+import com.example.starter.service.inventory.InventorySnapshot.GroupNode;
+import com.example.starter.service.inventory.InventorySnapshot.HostNode;
+import com.example.starter.service.inventory.InventorySnapshot.Variable;
+import com.example.starter.service.inventory.InventorySnapshotCache;
+import com.example.starter.service.inventory.VariableResolution.ResolvedVariable;
+import com.example.starter.service.inventory.VariableResolver;
+import com.example.starter.service.inventory.source.InventorySourceService;
+import com.example.starter.service.inventory.source.InventorySyncResult;
+import com.example.starter.util.GridSortUtil;
+import com.example.starter.util.UiUpdateScheduler;
 import com.example.starter.view.MainLayout;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.grid.Grid;
@@ -24,14 +35,18 @@ import com.vaadin.flow.component.tabs.Tab;
 import com.vaadin.flow.component.tabs.Tabs;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
+import io.quarkus.panache.common.Sort;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Inventory清单管理视图
@@ -42,11 +57,35 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
     @Inject
     InventoryService inventoryService;
 
+    @Inject
+    InventorySnapshotCache inventorySnapshotCache;
+
+    @Inject
+    InventorySourceService inventorySourceService;
+
+    @Inject
+    VariableResolver variableResolver;
+
+    @Inject
+    UiUpdateScheduler uiUpdateScheduler;
+
     @Inject
     UserService userService;
 
     private Grid<Inventory> inventoryGrid;
     private H2 title;
+    private final TextField searchField = new TextField();
+
+    /**
+     * 允许排序的属性
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("name", "createdAt");
+
+    private static final Sort DEFAULT_SORT = Sort.descending("createdAt");
+
+    private static final Set<String> HOST_SORT_PROPERTIES = Set.of("name", "host", "port");
+
+    private static final Sort HOST_DEFAULT_SORT = Sort.descending("createdAt");
 
     public InventoryManagementView() {
         addClassName("inventory-management-view");
@@ -67,8 +106,15 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         addButton.addClickListener(e -> openAddInventoryDialog());
 
+        // 搜索框
+        searchField.setPlaceholder("搜索清单名称");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> refreshGrid());
+
         // 工具栏
-        HorizontalLayout toolbar = new HorizontalLayout(title, addButton);
+        HorizontalLayout toolbar = new HorizontalLayout(title, new HorizontalLayout(searchField, addButton));
         toolbar.setWidthFull();
         toolbar.setJustifyContentMode(JustifyContentMode.BETWEEN);
         toolbar.setAlignItems(Alignment.CENTER);
@@ -77,10 +123,18 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         // 创建清单列表网格
         inventoryGrid = new Grid<>();
         inventoryGrid.setSizeFull();
-        inventoryGrid.addColumn(Inventory::getName).setHeader("清单名称").setAutoWidth(true);
+        inventoryGrid.addColumn(Inventory::getName).setHeader("清单名称").setAutoWidth(true).setSortProperty("name");
         inventoryGrid.addColumn(Inventory::getDescription).setHeader("描述").setAutoWidth(true);
+        inventoryGrid.addColumn(this::formatSource).setHeader("来源").setAutoWidth(true);
         inventoryGrid.addComponentColumn(this::createActionButtons).setHeader("操作").setAutoWidth(true);
 
+        // 懒加载：按需分页查询，只加载当前可见的行
+        inventoryGrid.setItems(
+                query -> inventoryService.getInventoriesPage(searchField.getValue(),
+                        GridSortUtil.toSort(query.getSortOrders(), SORT_PROPERTIES, DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) inventoryService.countInventories(searchField.getValue()));
+
         // 添加组件到布局
         add(toolbar, inventoryGrid);
 
@@ -103,10 +157,58 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         deleteButton.addClickListener(e -> deleteInventory(inventory));
 
         HorizontalLayout actions = new HorizontalLayout(editButton, deleteButton);
+        if (inventory.isDynamic()) {
+            Button refreshButton = new Button(VaadinIcon.REFRESH.create());
+            refreshButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY);
+            refreshButton.getElement().setAttribute("title", "从来源刷新");
+            refreshButton.addClickListener(e -> refreshFromSource(inventory, refreshButton));
+            actions.addComponentAsFirst(refreshButton);
+        }
         actions.setSpacing(true);
         return actions;
     }
 
+    /**
+     * 来源列：静态清单显示“静态”，动态清单显示类型和最近一次同步状态
+     */
+    private String formatSource(Inventory inventory) {
+        if (!inventory.isDynamic()) {
+            return "静态";
+        }
+        if (inventory.getSourceError() != null) {
+            return inventory.getSourceType() + "（同步失败: " + inventory.getSourceError() + "）";
+        }
+        if (inventory.getSourceRefreshedAt() == null) {
+            return inventory.getSourceType() + "（未同步）";
+        }
+        return inventory.getSourceType() + "（" + inventory.getSourceRefreshedAt().withNano(0)
+                .toString().replace('T', ' ') + "）";
+    }
+
+    /**
+     * 在后台从来源刷新清单，完成后通知
+     */
+    private void refreshFromSource(Inventory inventory, Button refreshButton) {
+        refreshButton.setEnabled(false);
+        Infrastructure.getDefaultWorkerPool().submit(() -> {
+            try {
+                InventorySyncResult result = inventorySourceService.refresh(inventory.getId());
+                uiUpdateScheduler.schedule(refreshButton, () -> {
+                    showNotification("清单已刷新：新建主机 " + result.hostsCreated() + "，更新主机 "
+                            + result.hostsUpdated() + "，新增成员 " + result.membersAdded() + "，移除成员 "
+                            + result.membersRemoved(), NotificationVariant.LUMO_SUCCESS);
+                    refreshGrid();
+                });
+            } catch (RuntimeException ex) {
+                uiUpdateScheduler.schedule(refreshButton, () -> {
+                    showNotification(ex.getMessage(), NotificationVariant.LUMO_ERROR);
+                    refreshButton.setEnabled(true);
+                    refreshGrid();
+                });
+            }
+        });
+    }
+
     /**
      * 打开添加清单对话框
      */
@@ -172,8 +274,25 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         descriptionField.setValue(inventory.getDescription() != null ? inventory.getDescription() : "");
         descriptionField.setPlaceholder("输入清单描述（可选）");
 
+        // 动态来源（空字符串表示静态清单）
+        List<String> sourceTypes = new ArrayList<>();
+        sourceTypes.add("");
+        sourceTypes.addAll(inventorySourceService.getSourceTypes());
+        ComboBox<String> sourceTypeField = new ComboBox<>("清单来源");
+        sourceTypeField.setItems(sourceTypes);
+        sourceTypeField.setItemLabelGenerator(type -> type.isEmpty() ? "静态（手工维护）" : type);
+        sourceTypeField.setValue(inventory.isDynamic() ? inventory.getSourceType() : "");
+
+        TextField sourceLocationField = new TextField("来源位置");
+        sourceLocationField.setValue(inventory.getSourceLocation() != null ? inventory.getSourceLocation() : "");
+        sourceLocationField.setPlaceholder("脚本命令、JSON文件路径或URL");
+        sourceLocationField.setHelperText("动态清单的主机、组和变量会定时从来源同步，手工修改会被覆盖");
+        sourceLocationField.setVisible(inventory.isDynamic());
+        sourceTypeField.addValueChangeListener(
+                event -> sourceLocationField.setVisible(event.getValue() != null && !event.getValue().isEmpty()));
+
         FormLayout formLayout = new FormLayout();
-        formLayout.add(nameField, descriptionField);
+        formLayout.add(nameField, descriptionField, sourceTypeField, sourceLocationField);
         formLayout.setResponsiveSteps(new FormLayout.ResponsiveStep("0", 1));
 
         // 保存按钮
@@ -192,6 +311,10 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
                 // 更新清单
                 inventory.setName(newName);
                 inventory.setDescription(descriptionField.getValue());
+                String sourceType = sourceTypeField.getValue();
+                boolean dynamic = sourceType != null && !sourceType.isEmpty();
+                inventory.setSourceType(dynamic ? sourceType : null);
+                inventory.setSourceLocation(dynamic ? sourceLocationField.getValue() : null);
                 inventoryService.updateInventory(inventory);
 
                 showNotification("清单更新成功", NotificationVariant.LUMO_SUCCESS);
@@ -227,17 +350,13 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
      * 打开清单详情对话框
      */
     private void openInventoryDetailDialog(Inventory inventory) {
-        openInventoryDetailDialog(inventory, null);
-    }
-
-    /**
-     * 打开清单详情对话框（带刷新的Inventory对象）
-     */
-    private void openInventoryDetailDialog(Inventory inventory, Inventory refreshedInventory) {
-        // 从数据库重新加载清单，包含所有关联数据
-        Inventory fullInventory = refreshedInventory != null
-                ? refreshedInventory
-                : inventoryService.getInventoryByIdWithAssociations(inventory.getId());
+        // 使用共享的清单快照，清单未变化时不访问数据库
+        InventorySnapshot snapshot = inventorySnapshotCache.get(inventory.getId());
+        if (snapshot == null) {
+            showNotification("清单不存在", NotificationVariant.LUMO_ERROR);
+            refreshGrid();
+            return;
+        }
 
         Dialog dialog = new Dialog();
         dialog.setWidth("900px");
@@ -250,20 +369,20 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         headerLayout.setAlignItems(Alignment.CENTER);
         headerLayout.getStyle().set("margin-bottom", "10px");
 
-        H2 title = new H2("清单详情: " + fullInventory.getName());
+        H2 title = new H2("清单详情: " + snapshot.getName());
         title.getStyle().set("margin", "0");
 
         Button editInfoButton = new Button("编辑信息", VaadinIcon.EDIT.create());
         editInfoButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY);
         editInfoButton.addClickListener(e -> {
             dialog.close();
-            openEditInventoryDialog(fullInventory);
+            openEditInventoryDialog(inventory);
         });
 
         headerLayout.add(title, editInfoButton);
 
         // 描述
-        Span description = new Span(fullInventory.getDescription() != null ? fullInventory.getDescription() : "无描述");
+        Span description = new Span(snapshot.getDescription() != null ? snapshot.getDescription() : "无描述");
         description.getStyle().set("color", "#666");
         description.getStyle().set("margin-bottom", "20px");
 
@@ -281,19 +400,19 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
 
         // 默认显示主机面板
         contentLayout
-                .add(createHostsPanel(fullInventory, dialog, contentLayout, tabs, hostsTab, groupsTab, variablesTab));
+                .add(createHostsPanel(inventory, dialog, contentLayout, tabs, hostsTab, groupsTab, variablesTab));
 
         // 选项卡切换事件
         tabs.addSelectedChangeListener(e -> {
             contentLayout.removeAll();
             if (e.getSelectedTab() == hostsTab) {
-                contentLayout.add(createHostsPanel(fullInventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
+                contentLayout.add(createHostsPanel(inventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
                         variablesTab));
             } else if (e.getSelectedTab() == groupsTab) {
-                contentLayout.add(createGroupsPanel(fullInventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
+                contentLayout.add(createGroupsPanel(inventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
                         variablesTab));
             } else if (e.getSelectedTab() == variablesTab) {
-                contentLayout.add(createVariablesPanel(fullInventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
+                contentLayout.add(createVariablesPanel(inventory, dialog, contentLayout, tabs, hostsTab, groupsTab,
                         variablesTab));
             }
         });
@@ -330,27 +449,73 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         addButton.getElement().setAttribute("type", "button");
 
         // 主机列表
-        Grid<InventoryHost> hostGrid = new Grid<>();
+        Grid<HostNode> hostGrid = new Grid<>();
         hostGrid.setSizeFull();
-        hostGrid.addColumn(InventoryHost::getName).setHeader("主机名称").setAutoWidth(true);
-        hostGrid.addColumn(InventoryHost::getHost).setHeader("主机地址").setAutoWidth(true);
+        hostGrid.addColumn(HostNode::name).setHeader("主机名称").setAutoWidth(true);
+        hostGrid.addColumn(HostNode::host).setHeader("主机地址").setAutoWidth(true);
         hostGrid.addComponentColumn(host -> {
+            Button variablesButton = new Button(VaadinIcon.EYE.create());
+            variablesButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_TERTIARY);
+            variablesButton.getElement().setAttribute("title", "查看生效变量");
+            variablesButton.addClickListener(e -> openEffectiveVariablesDialog(inventory, host));
+
             Button deleteButton = new Button(VaadinIcon.TRASH.create());
             deleteButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_ERROR);
             deleteButton.addClickListener(e -> {
-                inventoryService.removeHostFromInventory(inventory.getId(), host.getId());
+                inventoryService.removeHostFromInventory(inventory.getId(), host.id());
                 // 刷新当前面板
                 refreshHostsPanel(inventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab, variablesTab);
             });
-            return deleteButton;
+            return new HorizontalLayout(variablesButton, deleteButton);
         }).setHeader("操作").setAutoWidth(true);
 
-        hostGrid.setItems(inventory.getHosts());
+        hostGrid.setItems(inventorySnapshot(inventory).getInventoryHosts());
 
         panel.add(addButton, hostGrid);
         return panel;
     }
 
+    /**
+     * 显示主机在清单中的生效变量及其来源（不含模板变量）
+     */
+    private void openEffectiveVariablesDialog(Inventory inventory, HostNode host) {
+        List<ResolvedVariable> variables;
+        try {
+            variables = variableResolver.getEffectiveVariables(inventory.getId(), host.id(), null);
+        } catch (ResourceNotFoundException ex) {
+            showNotification(ex.getMessage(), NotificationVariant.LUMO_ERROR);
+            return;
+        }
+
+        Dialog dialog = new Dialog();
+        dialog.setWidth("700px");
+        dialog.setHeight("500px");
+
+        H2 title = new H2("生效变量: " + host.name());
+        title.getStyle().set("margin-bottom", "10px");
+
+        Grid<ResolvedVariable> variableGrid = new Grid<>();
+        variableGrid.setSizeFull();
+        variableGrid.addColumn(ResolvedVariable::name).setHeader("变量名").setAutoWidth(true);
+        variableGrid.addColumn(variable -> variable.name().contains("pass") ? "******" : variable.value())
+                .setHeader("变量值").setAutoWidth(true);
+        variableGrid.addColumn(ResolvedVariable::source).setHeader("来源").setAutoWidth(true);
+        variableGrid.setItems(variables);
+
+        Button closeButton = new Button("关闭", e -> dialog.close());
+        closeButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        closeButton.getElement().setAttribute("type", "button");
+
+        VerticalLayout dialogLayout = new VerticalLayout(title, variableGrid, closeButton);
+        dialogLayout.setPadding(true);
+        dialogLayout.setSpacing(true);
+        dialogLayout.setSizeFull();
+        dialogLayout.setFlexGrow(1, variableGrid);
+
+        dialog.add(dialogLayout);
+        dialog.open();
+    }
+
     /**
      * 创建组管理面板
      */
@@ -367,12 +532,13 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
                 groupsTab, variablesTab));
         addButton.getElement().setAttribute("type", "button");
 
-        // 组列表
-        Grid<InventoryGroup> groupGrid = new Grid<>();
+        // 组列表（按层级缩进显示子组）
+        Grid<GroupNode> groupGrid = new Grid<>();
         groupGrid.setSizeFull();
         groupGrid.addComponentColumn(group -> {
             Span nameSpan = new Span(group.getName());
             nameSpan.getStyle().set("font-weight", "bold");
+            nameSpan.getStyle().set("padding-left", (group.getDepth() - 1) * 20 + "px");
             return nameSpan;
         }).setHeader("组名称").setAutoWidth(true);
         groupGrid.addComponentColumn(group -> {
@@ -385,7 +551,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             Button deleteButton = new Button(VaadinIcon.TRASH.create());
             deleteButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_ERROR);
             deleteButton.addClickListener(e -> {
-                inventoryService.removeGroupFromInventory(inventory.getId(), group);
+                inventoryService.removeGroupFromInventory(inventory.getId(), group.getId());
                 refreshGroupsPanel(inventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab, variablesTab);
             });
 
@@ -394,7 +560,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             return actions;
         }).setHeader("操作").setAutoWidth(true);
 
-        groupGrid.setItems(inventory.getGroups());
+        groupGrid.setItems(inventorySnapshot(inventory).getGroups());
 
         panel.add(addButton, groupGrid);
         return panel;
@@ -417,28 +583,28 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         addButton.getElement().setAttribute("type", "button");
 
         // 变量列表
-        Grid<InventoryVariable> variableGrid = new Grid<>();
+        Grid<Variable> variableGrid = new Grid<>();
         variableGrid.setSizeFull();
         variableGrid.addComponentColumn(variable -> {
-            Span nameSpan = new Span(variable.getVariableName());
+            Span nameSpan = new Span(variable.name());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
         }).setHeader("变量名").setAutoWidth(true);
         variableGrid.addComponentColumn(variable -> {
-            Span valueSpan = new Span(variable.getVariableValue());
+            Span valueSpan = new Span(variable.value());
             return valueSpan;
         }).setHeader("变量值").setAutoWidth(true);
         variableGrid.addComponentColumn(variable -> {
             Button deleteButton = new Button(VaadinIcon.TRASH.create());
             deleteButton.addThemeVariants(ButtonVariant.LUMO_SMALL, ButtonVariant.LUMO_ERROR);
             deleteButton.addClickListener(e -> {
-                inventoryService.removeVariableFromInventory(inventory.getId(), variable);
+                inventoryService.removeVariableFromInventory(inventory.getId(), variable.id());
                 refreshVariablesPanel(inventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab, variablesTab);
             });
             return deleteButton;
         }).setHeader("操作").setAutoWidth(true);
 
-        variableGrid.setItems(inventory.getVariables());
+        variableGrid.setItems(inventorySnapshot(inventory).getVariables());
 
         panel.add(addButton, variableGrid);
         return panel;
@@ -457,10 +623,8 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         title.getStyle().set("font-weight", "bold");
         title.getStyle().set("margin-bottom", "15px");
 
-        // 获取所有未分配的主机
-        List<InventoryHost> availableHosts = inventoryService.getAvailableHosts();
-
-        // 主机选择网格
+        // 主机选择网格（懒加载，可按名称或地址过滤）
+        TextField hostFilter = createHostFilterField();
         Grid<InventoryHost> hostGrid = new Grid<>();
         hostGrid.setSizeFull();
         hostGrid.setHeight("400px");
@@ -468,12 +632,13 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             Span nameSpan = new Span(host.getName());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
-        }).setHeader("主机名称").setAutoWidth(true);
-        hostGrid.addColumn(InventoryHost::getHost).setHeader("主机地址").setAutoWidth(true);
-        hostGrid.addColumn(host -> host.getPort() != null ? host.getPort() : 22).setHeader("端口").setAutoWidth(true);
-        hostGrid.setItems(availableHosts);
+        }).setHeader("主机名称").setAutoWidth(true).setSortProperty("name");
+        hostGrid.addColumn(InventoryHost::getHost).setHeader("主机地址").setAutoWidth(true).setSortProperty("host");
+        hostGrid.addColumn(host -> host.getPort() != null ? host.getPort() : 22).setHeader("端口").setAutoWidth(true)
+                .setSortProperty("port");
+        setLazyHostItems(hostGrid, hostFilter);
 
-        if (availableHosts.isEmpty()) {
+        if (inventoryService.countAvailableHosts(null) == 0) {
             Span message = new Span("没有可添加的主机，请先在主机管理中添加主机");
             message.getStyle().set("color", "#999");
             dialog.add(title, message);
@@ -505,7 +670,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             buttonLayout.setJustifyContentMode(JustifyContentMode.END);
             buttonLayout.setWidthFull();
 
-            VerticalLayout dialogLayout = new VerticalLayout(title, hostGrid, buttonLayout);
+            VerticalLayout dialogLayout = new VerticalLayout(title, hostFilter, hostGrid, buttonLayout);
             dialogLayout.setPadding(true);
             dialogLayout.setSizeFull();
 
@@ -515,6 +680,31 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         dialog.open();
     }
 
+    /**
+     * 创建主机过滤输入框
+     */
+    private TextField createHostFilterField() {
+        TextField hostFilter = new TextField();
+        hostFilter.setPlaceholder("搜索主机名称或地址");
+        hostFilter.setPrefixComponent(VaadinIcon.SEARCH.create());
+        hostFilter.setClearButtonVisible(true);
+        hostFilter.setValueChangeMode(ValueChangeMode.LAZY);
+        hostFilter.setWidthFull();
+        return hostFilter;
+    }
+
+    /**
+     * 为主机选择网格设置懒加载数据源，过滤条件变化时刷新
+     */
+    private void setLazyHostItems(Grid<InventoryHost> hostGrid, TextField hostFilter) {
+        hostGrid.setItems(
+                query -> inventoryService.getAvailableHostsPage(hostFilter.getValue(),
+                        GridSortUtil.toSort(query.getSortOrders(), HOST_SORT_PROPERTIES, HOST_DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) inventoryService.countAvailableHosts(hostFilter.getValue()));
+        hostFilter.addValueChangeListener(e -> hostGrid.getDataProvider().refreshAll());
+    }
+
     /**
      * 打开添加组对话框
      */
@@ -607,7 +797,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
     /**
      * 打开组详情对话框
      */
-    private void openGroupDetailDialog(InventoryGroup group) {
+    private void openGroupDetailDialog(GroupNode group) {
         Dialog dialog = new Dialog();
         dialog.setWidth("800px");
         dialog.setHeight("600px");
@@ -663,7 +853,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
     /**
      * 创建组内主机面板
      */
-    private VerticalLayout createGroupHostsPanel(InventoryGroup group) {
+    private VerticalLayout createGroupHostsPanel(GroupNode group) {
         VerticalLayout panel = new VerticalLayout();
         panel.setSizeFull();
         panel.setPadding(false);
@@ -675,10 +865,10 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         addButton.getElement().setAttribute("type", "button");
 
         // 主机列表
-        Grid<InventoryHost> hostGrid = new Grid<>();
+        Grid<HostNode> hostGrid = new Grid<>();
         hostGrid.setSizeFull();
         hostGrid.addComponentColumn(host -> {
-            Span hostSpan = new Span(host.getName() + " (" + host.getHost() + ")");
+            Span hostSpan = new Span(host.name() + " (" + host.host() + ")");
             hostSpan.getStyle().set("font-weight", "bold");
             return hostSpan;
         }).setHeader("主机").setAutoWidth(true);
@@ -691,7 +881,8 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             return removeButton;
         }).setHeader("操作").setAutoWidth(true);
 
-        hostGrid.setItems(new ArrayList<>());
+        // 组成员来自清单快照
+        hostGrid.setItems(group.getHosts());
 
         panel.add(addButton, hostGrid);
         return panel;
@@ -700,7 +891,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
     /**
      * 创建组变量面板
      */
-    private VerticalLayout createGroupVariablesPanel(InventoryGroup group) {
+    private VerticalLayout createGroupVariablesPanel(GroupNode group) {
         VerticalLayout panel = new VerticalLayout();
         panel.setSizeFull();
         panel.setPadding(false);
@@ -714,15 +905,15 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         addButton.getElement().setAttribute("type", "button");
 
         // 变量列表
-        Grid<InventoryVariable> variableGrid = new Grid<>();
+        Grid<Variable> variableGrid = new Grid<>();
         variableGrid.setSizeFull();
         variableGrid.addComponentColumn(variable -> {
-            Span nameSpan = new Span(variable.getVariableName());
+            Span nameSpan = new Span(variable.name());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
         }).setHeader("变量名").setAutoWidth(true);
         variableGrid.addComponentColumn(variable -> {
-            Span valueSpan = new Span(variable.getVariableValue());
+            Span valueSpan = new Span(variable.value());
             return valueSpan;
         }).setHeader("变量值").setAutoWidth(true);
         variableGrid.addComponentColumn(variable -> {
@@ -734,7 +925,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             return deleteButton;
         }).setHeader("操作").setAutoWidth(true);
 
-        variableGrid.setItems(new ArrayList<>());
+        variableGrid.setItems(group.getVariables());
 
         panel.add(addButton, variableGrid);
         return panel;
@@ -743,14 +934,12 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
     /**
      * 打开添加主机到组对话框
      */
-    private void openAddHostToGroupDialog(InventoryGroup group) {
+    private void openAddHostToGroupDialog(GroupNode group) {
         Dialog dialog = new Dialog();
         dialog.setWidth("500px");
 
-        // 从主机管理加载所有主机
-        List<InventoryHost> allHosts = inventoryService.getAvailableHosts();
-
-        // 主机选择网格
+        // 主机选择网格（懒加载，可按名称或地址过滤）
+        TextField hostFilter = createHostFilterField();
         Grid<InventoryHost> hostGrid = new Grid<>();
         hostGrid.setSizeFull();
         hostGrid.setHeight("300px");
@@ -758,8 +947,8 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             Span hostSpan = new Span(host.getName() + " (" + host.getHost() + ")");
             hostSpan.getStyle().set("font-weight", "bold");
             return hostSpan;
-        }).setHeader("主机").setAutoWidth(true);
-        hostGrid.setItems(allHosts);
+        }).setHeader("主机").setAutoWidth(true).setSortProperty("name");
+        setLazyHostItems(hostGrid, hostFilter);
 
         Button addButton = new Button("添加选中的主机", e -> {
             InventoryHost selectedHost = hostGrid.asSingleSelect().getValue();
@@ -780,7 +969,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
         HorizontalLayout buttonLayout = new HorizontalLayout(addButton, cancelButton);
         buttonLayout.setJustifyContentMode(JustifyContentMode.END);
 
-        VerticalLayout dialogLayout = new VerticalLayout(hostGrid, buttonLayout);
+        VerticalLayout dialogLayout = new VerticalLayout(hostFilter, hostGrid, buttonLayout);
         dialogLayout.setPadding(true);
         dialogLayout.setSizeFull();
 
@@ -831,8 +1020,7 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
      * 刷新网格数据
      */
     private void refreshGrid() {
-        List<Inventory> inventories = inventoryService.getAllInventories();
-        inventoryGrid.setItems(inventories);
+        inventoryGrid.getDataProvider().refreshAll();
     }
 
     /**
@@ -840,11 +1028,9 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
      */
     private void refreshHostsPanel(Inventory inventory, Dialog parentDialog,
             VerticalLayout contentLayout, Tabs tabs, Tab hostsTab, Tab groupsTab, Tab variablesTab) {
-        // 从数据库重新加载清单
-        Inventory refreshedInventory = inventoryService.getInventoryByIdWithAssociations(inventory.getId());
-        // 移除当前面板并重新创建
+        // 修改已使快照失效，重新创建面板时读取最新快照
         contentLayout.removeAll();
-        contentLayout.add(createHostsPanel(refreshedInventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab,
+        contentLayout.add(createHostsPanel(inventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab,
                 variablesTab));
     }
 
@@ -853,11 +1039,9 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
      */
     private void refreshGroupsPanel(Inventory inventory, Dialog parentDialog,
             VerticalLayout contentLayout, Tabs tabs, Tab hostsTab, Tab groupsTab, Tab variablesTab) {
-        // 从数据库重新加载清单
-        Inventory refreshedInventory = inventoryService.getInventoryByIdWithAssociations(inventory.getId());
-        // 移除当前面板并重新创建
+        // 修改已使快照失效，重新创建面板时读取最新快照
         contentLayout.removeAll();
-        contentLayout.add(createGroupsPanel(refreshedInventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab,
+        contentLayout.add(createGroupsPanel(inventory, parentDialog, contentLayout, tabs, hostsTab, groupsTab,
                 variablesTab));
     }
 
@@ -866,14 +1050,23 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
      */
     private void refreshVariablesPanel(Inventory inventory, Dialog parentDialog,
             VerticalLayout contentLayout, Tabs tabs, Tab hostsTab, Tab groupsTab, Tab variablesTab) {
-        // 从数据库重新加载清单
-        Inventory refreshedInventory = inventoryService.getInventoryByIdWithAssociations(inventory.getId());
-        // 移除当前面板并重新创建
+        // 修改已使快照失效，重新创建面板时读取最新快照
         contentLayout.removeAll();
-        contentLayout.add(createVariablesPanel(refreshedInventory, parentDialog, contentLayout, tabs, hostsTab,
+        contentLayout.add(createVariablesPanel(inventory, parentDialog, contentLayout, tabs, hostsTab,
                 groupsTab, variablesTab));
     }
 
+    /**
+     * 获取清单快照（清单已被其他会话删除时抛出异常）
+     */
+    private InventorySnapshot inventorySnapshot(Inventory inventory) {
+        InventorySnapshot snapshot = inventorySnapshotCache.get(inventory.getId());
+        if (snapshot == null) {
+            throw new ResourceNotFoundException("清单不存在");
+        }
+        return snapshot;
+    }
+
     /**
      * 显示通知
      */
@@ -891,6 +1084,9 @@ public class InventoryManagementView extends VerticalLayout implements BeforeEnt
             } else {
                 event.forwardTo("login");
             }
+            return;
         }
+        // 从全局搜索跳转时带入关键字
+        event.getLocation().getQueryParameters().getSingleParameter("q").ifPresent(searchField::setValue);
     }
 }
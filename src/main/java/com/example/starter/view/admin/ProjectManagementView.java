@@ -3,6 +3,7 @@ package com.example.starter.view.admin;
 import com.example.starter.entity.Project;
 import com.example.starter.service.ProjectService;
 import com.example.starter.service.auth.UserService;
+import com.example.starter.util.GridSortUtil;
 import com.example.starter.view.MainLayout;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -20,13 +21,16 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
+import io.quarkus.panache.common.Sort;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
 import java.time.format.DateTimeFormatter;
+import java.util.Set;
 
 /**
  * 项目管理视图 - 管理Ansible Playbook项目
@@ -42,8 +46,17 @@ public class ProjectManagementView extends VerticalLayout implements BeforeEnter
 
     private Grid<Project> grid = new Grid<>(Project.class, false);
 
+    private final TextField searchField = new TextField();
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 允许排序的属性
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("name", "createdAt", "updatedAt");
+
+    private static final Sort DEFAULT_SORT = Sort.descending("createdAt");
+
     public ProjectManagementView() {
         addClassName("project-management-view");
         setSizeFull();
@@ -63,8 +76,15 @@ public class ProjectManagementView extends VerticalLayout implements BeforeEnter
         addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         addButton.addClickListener(e -> openCreateDialog());
 
+        // 搜索框
+        searchField.setPlaceholder("搜索项目名称");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> refreshGrid());
+
         // 标题栏
-        HorizontalLayout headerLayout = new HorizontalLayout(title, addButton);
+        HorizontalLayout headerLayout = new HorizontalLayout(title, new HorizontalLayout(searchField, addButton));
         headerLayout.setWidthFull();
         headerLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
         headerLayout.setAlignItems(Alignment.CENTER);
@@ -88,23 +108,30 @@ public class ProjectManagementView extends VerticalLayout implements BeforeEnter
             Span nameSpan = new Span(project.getName());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
-        }).setHeader("项目名称").setAutoWidth(true);
+        }).setHeader("项目名称").setAutoWidth(true).setSortProperty("name");
         grid.addColumn(Project::getDescription).setHeader("描述").setAutoWidth(true);
         grid.addComponentColumn(project -> {
             Span createdTime = new Span(project.getCreatedAt().format(DATE_FORMATTER));
             createdTime.getStyle().set("font-size", "12px");
             createdTime.getStyle().set("color", "#6c757d");
             return createdTime;
-        }).setHeader("创建时间").setAutoWidth(true);
+        }).setHeader("创建时间").setAutoWidth(true).setSortProperty("createdAt");
         grid.addComponentColumn(project -> {
             Span updatedTime = new Span(project.getUpdatedAt().format(DATE_FORMATTER));
             updatedTime.getStyle().set("font-size", "12px");
             updatedTime.getStyle().set("color", "#6c757d");
             return updatedTime;
-        }).setHeader("更新时间").setAutoWidth(true);
+        }).setHeader("更新时间").setAutoWidth(true).setSortProperty("updatedAt");
 
         // 操作列
         grid.addComponentColumn(this::createActionButtons).setHeader("操作").setAutoWidth(true);
+
+        // 懒加载：按需分页查询，只加载当前可见的行
+        grid.setItems(
+                query -> projectService.getProjectsPage(searchField.getValue(),
+                        GridSortUtil.toSort(query.getSortOrders(), SORT_PROPERTIES, DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) projectService.countProjects(searchField.getValue()));
     }
 
     /**
@@ -130,7 +157,7 @@ public class ProjectManagementView extends VerticalLayout implements BeforeEnter
      * 刷新网格数据
      */
     private void refreshGrid() {
-        grid.setItems(projectService.getProjectResources());
+        grid.getDataProvider().refreshAll();
     }
 
     /**
@@ -327,6 +354,9 @@ public class ProjectManagementView extends VerticalLayout implements BeforeEnter
             } else {
                 event.forwardTo("login");
             }
+            return;
         }
+        // 从全局搜索跳转时带入关键字
+        event.getLocation().getQueryParameters().getSingleParameter("q").ifPresent(searchField::setValue);
     }
 }
@@ -5,14 +5,23 @@ import com.example.starter.entity.Task.TaskStatus;
 import com.example.starter.service.TaskService;
 import com.example.starter.service.TemplateService;
 import com.example.starter.service.auth.UserService;
+import com.example.starter.service.search.TaskLogHit;
+import com.example.starter.service.search.TaskLogIndexService;
+import com.example.starter.util.ChangeEvent;
+import com.example.starter.util.GridSortUtil;
+import com.example.starter.util.UiPollingService;
 import com.example.starter.view.MainLayout;
+import com.vaadin.flow.component.ClientCallable;
+import com.vaadin.flow.component.Key;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.datetimepicker.DateTimePicker;
 import com.vaadin.flow.component.dialog.Dialog;
 import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.grid.GridVariant;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Paragraph;
@@ -25,15 +34,19 @@ import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
+import io.quarkus.panache.common.Sort;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * 任务管理视图 - 管理Ansible Job
@@ -50,10 +63,31 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
     @Inject
     private UserService userService;
 
+    @Inject
+    private UiPollingService uiPollingService;
+
+    @Inject
+    private TaskLogIndexService taskLogIndexService;
+
     private Grid<Task> grid = new Grid<>(Task.class, false);
 
+    private final TextField searchField = new TextField();
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 允许排序的属性
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("name", "status", "createdAt", "startedAt",
+            "finishedAt");
+
+    private static final Sort DEFAULT_SORT = Sort.descending("createdAt");
+
+    /**
+     * 日志搜索最多显示的行数
+     */
+    private static final int LOG_SEARCH_LIMIT = 500;
+
     public TaskManagementView() {
         addClassName("task-management-view");
         setSizeFull();
@@ -73,7 +107,17 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
         addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         addButton.addClickListener(e -> openCreateTaskDialog());
 
-        HorizontalLayout headerLayout = new HorizontalLayout(title, addButton);
+        searchField.setPlaceholder("搜索任务或模板名称");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> refreshGrid());
+
+        Button logSearchButton = new Button("日志搜索", VaadinIcon.FILE_SEARCH.create());
+        logSearchButton.addClickListener(e -> openLogSearchDialog());
+
+        HorizontalLayout headerLayout = new HorizontalLayout(title,
+                new HorizontalLayout(searchField, logSearchButton, addButton));
         headerLayout.setWidthFull();
         headerLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
         headerLayout.setAlignItems(Alignment.CENTER);
@@ -83,15 +127,25 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
         refreshGrid();
     }
 
+    /**
+     * 初始化 WebSocket 连接：变更事件交给服务端按行刷新，刷新事件重新加载网格（不再整页刷新）
+     */
     private void initWebSocketConnection() {
-        String jsCode = "if (!window.tasksWebSocket) {" +
+        String jsCode = "window.tasksView = $0;" +
+                "if (!window.tasksWebSocket) {" +
                 "  var protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';" +
                 "  var host = window.location.host;" +
                 "  window.tasksWebSocket = new WebSocket(protocol + '//' + host + '/ws/broadcast/tasks');" +
                 "  window.tasksWebSocket.onmessage = function(event) {" +
                 "    var data = JSON.parse(event.data);" +
-                "    if (data.type === 'refresh') {" +
-                "      setTimeout(function() { window.location.reload(); }, 100);" +
+                "    var view = window.tasksView;" +
+                "    if (!view || !view.$server) {" +
+                "      return;" +
+                "    }" +
+                "    if (data.type === 'change') {" +
+                "      view.$server.onTaskChanged(data.action, String(data.id));" +
+                "    } else if (data.type === 'refresh') {" +
+                "      view.$server.onRefresh();" +
                 "    }" +
                 "  };" +
                 "  window.tasksWebSocket.onclose = function() {" +
@@ -99,11 +153,34 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
                 "  };" +
                 "}";
 
-        UI.getCurrent().getElement().executeJs(jsCode);
+        UI.getCurrent().getElement().executeJs(jsCode, getElement());
 
-        UI.getCurrent().addDetachListener(e -> {
-            UI.getCurrent().getElement().executeJs("if (window.tasksWebSocket) { window.tasksWebSocket.close(); }");
-        });
+        // 离开页面时关闭连接并解除对本视图的引用；先移除 onclose，避免延迟置空覆盖新视图建立的连接
+        addDetachListener(e -> e.getUI().getPage().executeJs("window.tasksView = null;" +
+                "if (window.tasksWebSocket) { window.tasksWebSocket.onclose = null; window.tasksWebSocket.close(); window.tasksWebSocket = null; }"));
+    }
+
+    /**
+     * 收到任务变更事件：状态更新只刷新对应的行，新增或删除时重新加载网格
+     */
+    @ClientCallable
+    public void onTaskChanged(String action, String id) {
+        if (ChangeEvent.Action.UPDATED.name().equals(action) && id != null) {
+            Task task = taskService.getTaskById(Long.valueOf(id));
+            if (task != null) {
+                grid.getLazyDataView().refreshItem(task);
+                return;
+            }
+        }
+        refreshGrid();
+    }
+
+    /**
+     * 收到刷新事件：重新加载网格
+     */
+    @ClientCallable
+    public void onRefresh() {
+        refreshGrid();
     }
 
     private void configureGrid() {
@@ -113,19 +190,20 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
             Span nameSpan = new Span(task.getName());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
-        }).setHeader("任务名称").setAutoWidth(true);
+        }).setHeader("任务名称").setAutoWidth(true).setSortProperty("name");
 
         grid.addColumn(task -> task.getTemplate() != null ? task.getTemplate().getName() : "N/A")
                 .setHeader("模板").setAutoWidth(true);
 
-        grid.addComponentColumn(this::createStatusBadge).setHeader("状态").setAutoWidth(true);
+        grid.addComponentColumn(this::createStatusBadge).setHeader("状态").setAutoWidth(true)
+                .setSortProperty("status");
 
         grid.addComponentColumn(task -> {
             Span createdTime = new Span(task.getCreatedAt().format(DATE_FORMATTER));
             createdTime.getStyle().set("font-size", "12px");
             createdTime.getStyle().set("color", "#6c757d");
             return createdTime;
-        }).setHeader("创建时间").setAutoWidth(true);
+        }).setHeader("创建时间").setAutoWidth(true).setSortProperty("createdAt");
 
         grid.addComponentColumn(task -> {
             if (task.getStartedAt() == null) {
@@ -134,7 +212,7 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
             Span startedTime = new Span(task.getStartedAt().format(DATE_FORMATTER));
             startedTime.getStyle().set("font-size", "12px");
             return startedTime;
-        }).setHeader("开始时间").setAutoWidth(true);
+        }).setHeader("开始时间").setAutoWidth(true).setSortProperty("startedAt");
 
         grid.addComponentColumn(task -> {
             if (task.getFinishedAt() == null) {
@@ -143,11 +221,20 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
             Span finishedTime = new Span(task.getFinishedAt().format(DATE_FORMATTER));
             finishedTime.getStyle().set("font-size", "12px");
             return finishedTime;
-        }).setHeader("完成时间").setAutoWidth(true);
+        }).setHeader("完成时间").setAutoWidth(true).setSortProperty("finishedAt");
 
         grid.addComponentColumn(this::createDurationSpan).setHeader("持续时间").setAutoWidth(true);
 
         grid.addComponentColumn(this::createActionButtons).setHeader("操作").setAutoWidth(true);
+
+        // 懒加载：按需分页查询，只加载当前可见的行
+        grid.setItems(
+                query -> taskService.getTasksPage(searchField.getValue(),
+                        GridSortUtil.toSort(query.getSortOrders(), SORT_PROPERTIES, DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) taskService.countTasks(searchField.getValue()))
+                // 按ID识别行，收到变更事件时可以只刷新单行
+                .setIdentifierProvider(Task::getId);
     }
 
     private Span createStatusBadge(Task task) {
@@ -276,7 +363,7 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
     }
 
     private void refreshGrid() {
-        grid.setItems(taskService.getAllTasks());
+        grid.getDataProvider().refreshAll();
     }
 
     private void showNotification(String message, NotificationVariant variant) {
@@ -303,9 +390,20 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
         templateField.setRequiredIndicatorVisible(true);
         templateField.setPrefixComponent(VaadinIcon.LIST.create());
         templateField.setItemLabelGenerator(com.example.starter.entity.Template::getName);
-        templateField.setItems(templateService.getAllTemplates());
+        templateField.setItems(
+                query -> templateService.getTemplatesPage(query.getFilter().orElse(null), Sort.by("name"),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) templateService.countTemplates(query.getFilter().orElse(null)));
+
+        TextField hostLimitField = new TextField("主机范围");
+        hostLimitField.setHelperText("ansible 主机模式，留空使用模板的主机范围");
+        hostLimitField.setPrefixComponent(VaadinIcon.FILTER.create());
+        templateField.addValueChangeListener(event -> hostLimitField.setPlaceholder(
+                event.getValue() != null && event.getValue().getHostLimit() != null
+                        ? event.getValue().getHostLimit()
+                        : "全部主机"));
 
-        formLayout.add(nameField, templateField);
+        formLayout.add(nameField, templateField, hostLimitField);
 
         Button saveButton = new Button("创建并启动", e -> {
             try {
@@ -322,7 +420,7 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
                     return;
                 }
 
-                taskService.createAndStartTask(name, template.getId());
+                taskService.createAndStartTask(name, template.getId(), hostLimitField.getValue());
                 refreshGrid();
                 dialog.close();
                 showNotification("任务创建成功，正在后台执行", NotificationVariant.LUMO_SUCCESS);
@@ -374,42 +472,34 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
 
         loadLogContent(task, logArea);
 
-        final Timer[] logRefreshTimer = new Timer[] { null };
+        Optional<UiPollingService.PollHandle> logPoller = Optional.empty();
         if (task.getStatus() == TaskStatus.RUNNING) {
-            logRefreshTimer[0] = new Timer("LogRefreshTimer", true);
-            logRefreshTimer[0].schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    try {
-                        UI ui = UI.getCurrent();
-                        if (ui != null) {
-                            ui.access(() -> {
-                                if (dialog.isOpened()) {
-                                    Task currentTask = taskService.getTaskById(task.getId());
-                                    if (currentTask != null && currentTask.getStatus() == TaskStatus.RUNNING) {
-                                        loadLogContent(currentTask, logArea);
-                                    } else {
-                                        this.cancel();
-                                        loadLogContent(taskService.getTaskById(task.getId()), logArea);
-                                    }
-                                } else {
-                                    this.cancel();
-                                }
-                            });
-                        }
-                    } catch (Exception e) {
-                        System.err.println("刷新日志时出错: " + e.getMessage());
+            // 共用轮询线程池，日志区域分离时自动停止
+            logPoller = uiPollingService.start(UI.getCurrent(), logArea, 2000, handle -> {
+                Task currentTask = taskService.getTaskById(task.getId());
+                if (currentTask != null && currentTask.getStatus() == TaskStatus.RUNNING) {
+                    loadLogContent(currentTask, logArea);
+                } else {
+                    handle.cancel();
+                    if (currentTask != null) {
+                        loadLogContent(currentTask, logArea);
                     }
                 }
-            }, 2000, 2000);
+            });
+            if (logPoller.isEmpty()) {
+                Notification.show("打开的日志窗口过多，日志不会自动刷新，请手动刷新", 3000,
+                        Notification.Position.TOP_CENTER);
+            }
         }
 
-        Button closeButton = new Button("关闭", e -> {
-            if (logRefreshTimer[0] != null) {
-                logRefreshTimer[0].cancel();
+        final Optional<UiPollingService.PollHandle> poller = logPoller;
+        // 对话框以任何方式关闭（按钮、ESC、点击遮罩）都停止轮询，不依赖日志区域的分离事件
+        dialog.addOpenedChangeListener(e -> {
+            if (!e.isOpened()) {
+                poller.ifPresent(UiPollingService.PollHandle::cancel);
             }
-            dialog.close();
         });
+        Button closeButton = new Button("关闭", e -> dialog.close());
         closeButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         closeButton.getElement().setAttribute("type", "button");
 
@@ -432,6 +522,73 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
         dialog.open();
     }
 
+    /**
+     * 跨任务搜索日志（按关键字、主机和时间范围）
+     */
+    private void openLogSearchDialog() {
+        Dialog dialog = new Dialog();
+        dialog.setHeaderTitle("日志搜索");
+        dialog.setWidth("1100px");
+        dialog.setHeight("700px");
+
+        TextField queryField = new TextField("关键字");
+        queryField.setPlaceholder("如 UNREACHABLE，多个关键字以空格分隔");
+        queryField.setWidth("300px");
+        TextField hostField = new TextField("主机");
+        hostField.setPlaceholder("主机名称");
+        DateTimePicker fromPicker = new DateTimePicker("开始时间");
+        fromPicker.setValue(LocalDateTime.now().minusDays(7).withSecond(0).withNano(0));
+        DateTimePicker toPicker = new DateTimePicker("结束时间");
+
+        Grid<TaskLogHit> resultGrid = new Grid<>();
+        resultGrid.addThemeVariants(GridVariant.LUMO_COMPACT, GridVariant.LUMO_ROW_STRIPES);
+        resultGrid.addColumn(hit -> hit.loggedAt().format(DATE_FORMATTER)).setHeader("时间").setAutoWidth(true)
+                .setFlexGrow(0);
+        resultGrid.addColumn(TaskLogHit::taskName).setHeader("任务").setAutoWidth(true).setFlexGrow(0);
+        resultGrid.addColumn(hit -> hit.host() != null ? hit.host() : "").setHeader("主机").setAutoWidth(true)
+                .setFlexGrow(0);
+        resultGrid.addColumn(TaskLogHit::lineNumber).setHeader("行号").setAutoWidth(true).setFlexGrow(0);
+        resultGrid.addColumn(TaskLogHit::line).setHeader("内容").setFlexGrow(1);
+        resultGrid.setSizeFull();
+        resultGrid.addItemClickListener(e -> {
+            Task task = taskService.getTaskById(e.getItem().taskId());
+            if (task != null) {
+                openLogDialog(task);
+            } else {
+                showNotification("任务已归档或删除，无法查看完整日志", NotificationVariant.LUMO_CONTRAST);
+            }
+        });
+
+        Span summary = new Span();
+        summary.getStyle().set("color", "#6c757d");
+
+        Button searchButton = new Button("搜索", VaadinIcon.SEARCH.create(), e -> {
+            if (queryField.isEmpty() && hostField.isEmpty()) {
+                showNotification("请输入关键字或主机", NotificationVariant.LUMO_ERROR);
+                return;
+            }
+            List<TaskLogHit> hits = taskLogIndexService.search(queryField.getValue(), hostField.getValue(),
+                    fromPicker.getValue(), toPicker.getValue(), LOG_SEARCH_LIMIT);
+            resultGrid.setItems(hits);
+            summary.setText(hits.size() >= LOG_SEARCH_LIMIT
+                    ? "显示最近的 " + LOG_SEARCH_LIMIT + " 行，请缩小搜索范围"
+                    : "共 " + hits.size() + " 行");
+        });
+        searchButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+        searchButton.addClickShortcut(Key.ENTER);
+
+        HorizontalLayout filters = new HorizontalLayout(queryField, hostField, fromPicker, toPicker, searchButton);
+        filters.setAlignItems(Alignment.BASELINE);
+
+        VerticalLayout layout = new VerticalLayout(filters, summary, resultGrid);
+        layout.setSizeFull();
+        layout.setPadding(false);
+        layout.setFlexGrow(1, resultGrid);
+        dialog.add(layout);
+        dialog.getFooter().add(new Button("关闭", e -> dialog.close()));
+        dialog.open();
+    }
+
     private void loadLogContent(Task task, TextArea logArea) {
         try {
             String log = taskService.getTaskLog(task.getId());
@@ -497,6 +654,9 @@ public class TaskManagementView extends VerticalLayout implements BeforeEnterObs
             } else {
                 event.forwardTo("login");
             }
+            return;
         }
+        // 从全局搜索跳转时带入关键字
+        event.getLocation().getQueryParameters().getSingleParameter("q").ifPresent(searchField::setValue);
     }
 }
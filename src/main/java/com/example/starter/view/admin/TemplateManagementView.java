@@ -7,6 +7,7 @@ import com.example.starter.service.ProjectService;
 import com.example.starter.service.TemplateService;
 import com.example.starter.service.auth.UserService;
 import com.example.starter.service.inventory.InventoryService;
+import com.example.starter.util.GridSortUtil;
 import com.example.starter.view.MainLayout;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.button.Button;
@@ -23,15 +24,19 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
+import io.quarkus.panache.common.Sort;
 import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
 
 /**
  * 模板管理视图 - 管理Ansible AWX类似的Job Template
@@ -53,8 +58,17 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
 
     private Grid<Template> grid = new Grid<>(Template.class, false);
 
+    private final TextField searchField = new TextField();
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    /**
+     * 允许排序的属性
+     */
+    private static final Set<String> SORT_PROPERTIES = Set.of("name", "createdAt", "updatedAt");
+
+    private static final Sort DEFAULT_SORT = Sort.descending("createdAt");
+
     public TemplateManagementView() {
         addClassName("template-management-view");
         setSizeFull();
@@ -74,8 +88,15 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
         addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
         addButton.addClickListener(e -> openCreateDialog());
 
+        // 搜索框
+        searchField.setPlaceholder("搜索模板名称");
+        searchField.setPrefixComponent(VaadinIcon.SEARCH.create());
+        searchField.setClearButtonVisible(true);
+        searchField.setValueChangeMode(ValueChangeMode.LAZY);
+        searchField.addValueChangeListener(e -> refreshGrid());
+
         // 标题栏
-        HorizontalLayout headerLayout = new HorizontalLayout(title, addButton);
+        HorizontalLayout headerLayout = new HorizontalLayout(title, new HorizontalLayout(searchField, addButton));
         headerLayout.setWidthFull();
         headerLayout.setJustifyContentMode(FlexComponent.JustifyContentMode.BETWEEN);
         headerLayout.setAlignItems(Alignment.CENTER);
@@ -101,7 +122,7 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
             Span nameSpan = new Span(template.getName());
             nameSpan.getStyle().set("font-weight", "bold");
             return nameSpan;
-        }).setHeader("模板名称").setAutoWidth(true);
+        }).setHeader("模板名称").setAutoWidth(true).setSortProperty("name");
 
         // 描述
         grid.addColumn(Template::getDescription).setHeader("描述").setAutoWidth(true);
@@ -120,7 +141,7 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
             createdTime.getStyle().set("font-size", "12px");
             createdTime.getStyle().set("color", "#6c757d");
             return createdTime;
-        }).setHeader("创建时间").setAutoWidth(true);
+        }).setHeader("创建时间").setAutoWidth(true).setSortProperty("createdAt");
 
         // 更新时间
         grid.addComponentColumn(template -> {
@@ -128,10 +149,17 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
             updatedTime.getStyle().set("font-size", "12px");
             updatedTime.getStyle().set("color", "#6c757d");
             return updatedTime;
-        }).setHeader("更新时间").setAutoWidth(true);
+        }).setHeader("更新时间").setAutoWidth(true).setSortProperty("updatedAt");
 
         // 操作列
         grid.addComponentColumn(this::createActionButtons).setHeader("操作").setAutoWidth(true);
+
+        // 懒加载：按需分页查询，只加载当前可见的行（项目和清单通过批量抓取/二级缓存加载）
+        grid.setItems(
+                query -> templateService.getTemplatesPage(searchField.getValue(),
+                        GridSortUtil.toSort(query.getSortOrders(), SORT_PROPERTIES, DEFAULT_SORT),
+                        query.getOffset(), query.getLimit()).stream(),
+                query -> (int) templateService.countTemplates(searchField.getValue()));
     }
 
     /**
@@ -157,7 +185,7 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
      * 刷新网格数据
      */
     private void refreshGrid() {
-        grid.setItems(templateService.getAllTemplates());
+        grid.getDataProvider().refreshAll();
     }
 
     /**
@@ -295,7 +323,23 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
         inventoryField.setItems(inventories);
         inventoryField.setValue(template.getInventory());
 
-        formLayout.add(nameField, descriptionField, projectField, inventoryField);
+        IntegerField retentionDaysField = new IntegerField("任务保留天数");
+        retentionDaysField.setMin(0);
+        retentionDaysField.setHelperText("留空使用系统默认值，0表示不按时间清理");
+        retentionDaysField.setValue(template.getRetentionMaxAgeDays());
+
+        IntegerField retentionCountField = new IntegerField("任务保留数量");
+        retentionCountField.setMin(0);
+        retentionCountField.setHelperText("留空使用系统默认值，0表示不按数量清理");
+        retentionCountField.setValue(template.getRetentionMaxCount());
+
+        TextField hostLimitField = new TextField("主机范围");
+        hostLimitField.setPlaceholder("例如：web:&prod:!web3");
+        hostLimitField.setHelperText("ansible 主机模式，只生成匹配的主机；留空包含清单全部主机");
+        hostLimitField.setValue(template.getHostLimit() != null ? template.getHostLimit() : "");
+
+        formLayout.add(nameField, descriptionField, projectField, inventoryField, hostLimitField,
+                retentionDaysField, retentionCountField);
 
         Button saveButton = new Button("保存", e -> {
             try {
@@ -323,6 +367,9 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
                 template.setDescription(description);
                 template.setProject(project);
                 template.setInventory(inventory);
+                template.setRetentionMaxAgeDays(retentionDaysField.getValue());
+                template.setRetentionMaxCount(retentionCountField.getValue());
+                template.setHostLimit(hostLimitField.getValue());
 
                 templateService.updateTemplate(template);
                 refreshGrid();
@@ -397,6 +444,9 @@ public class TemplateManagementView extends VerticalLayout implements BeforeEnte
             } else {
                 event.forwardTo("login");
             }
+            return;
         }
+        // 从全局搜索跳转时带入关键字
+        event.getLocation().getQueryParameters().getSingleParameter("q").ifPresent(searchField::setValue);
     }
 }
@@ -0,0 +1,132 @@
+package com.example.starter.repository;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostInventory;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 清单关联加载的 SQL 语句数与清单规模无关
+ */
+@QuarkusTest
+class InventoryRepositoryTest {
+
+    /**
+     * findByIdWithAssociations 的查询计划：清单及变量、组、主机、组变量、组成员、子组、主机变量
+     */
+    private static final long PLANNED_QUERIES = 7;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Inject
+    InventoryRepository inventoryRepository;
+
+    @Inject
+    EntityManager entityManager;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    @Test
+    void smallInventoryUsesPlannedQueries() {
+        Long inventoryId = seed(2, 3);
+        assertEquals(PLANNED_QUERIES, countQueries(inventoryId));
+    }
+
+    @Test
+    void largeInventoryUsesSameQueries() {
+        Long inventoryId = seed(20, 25);
+        assertEquals(PLANNED_QUERIES, countQueries(inventoryId));
+    }
+
+    /**
+     * 加载清单并遍历完整的对象图，返回期间执行的 SQL 语句数
+     */
+    private long countQueries(Long inventoryId) {
+        Statistics statistics = sessionFactory.getStatistics();
+        return QuarkusTransaction.requiringNew().call(() -> {
+            // 清空二级缓存，保证所有数据都从数据库读取
+            sessionFactory.getCache().evictAll();
+            statistics.clear();
+
+            Inventory inventory = inventoryRepository.findByIdWithAssociations(inventoryId);
+            inventory.getVariables().forEach(InventoryVariable::getVariableValue);
+            for (InventoryGroup group : inventory.getGroups()) {
+                if (group.getParentGroup() != null) {
+                    group.getParentGroup().getName();
+                }
+                group.getVariables().forEach(InventoryGroupVariable::getVariableValue);
+                group.getChildGroups().forEach(InventoryGroup::getName);
+                for (InventoryGroupHost member : group.getGroupHosts()) {
+                    member.getHost().getVariables().forEach(InventoryHostVariable::getVariableValue);
+                }
+            }
+            for (InventoryHost host : inventory.getHosts()) {
+                host.getVariables().forEach(InventoryHostVariable::getVariableValue);
+            }
+            return statistics.getPrepareStatementCount();
+        });
+    }
+
+    /**
+     * 创建一个清单：一个父组下挂 groups 个子组，每个子组 hostsPerGroup 台主机，清单、组、主机都带变量
+     */
+    private Long seed(int groups, int hostsPerGroup) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            String prefix = "fetch-plan-" + System.nanoTime() + "-" + SEQUENCE.incrementAndGet();
+            Inventory inventory = new Inventory(prefix);
+            for (int i = 0; i < 2; i++) {
+                InventoryVariable variable = new InventoryVariable("inventory_var_" + i, "value");
+                variable.setInventory(inventory);
+                inventory.getVariables().add(variable);
+            }
+
+            InventoryGroup parent = group(inventory, "parent", null);
+            for (int g = 0; g < groups; g++) {
+                InventoryGroup group = group(inventory, "group-" + g, parent);
+                for (int h = 0; h < hostsPerGroup; h++) {
+                    String name = prefix + "-" + g + "-" + h;
+                    InventoryHost host = new InventoryHost(name, "10.0." + g + "." + h, 22, "root", "secret");
+                    InventoryHostVariable variable = new InventoryHostVariable("host_var", "value");
+                    variable.setHost(host);
+                    host.getVariables().add(variable);
+                    entityManager.persist(host);
+
+                    inventory.getHostInventories().add(new InventoryHostInventory(inventory, host));
+                    group.getGroupHosts().add(new InventoryGroupHost(group, host));
+                }
+            }
+            entityManager.persist(inventory);
+            return inventory.getId();
+        });
+    }
+
+    private static InventoryGroup group(Inventory inventory, String name, InventoryGroup parent) {
+        InventoryGroup group = new InventoryGroup(name);
+        group.setInventory(inventory);
+        group.setParentGroup(parent);
+        InventoryGroupVariable variable = new InventoryGroupVariable("group_var", "value");
+        variable.setGroup(group);
+        group.getVariables().add(variable);
+        inventory.getGroups().add(group);
+        if (parent != null) {
+            parent.getChildGroups().add(group);
+        }
+        return group;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 主机模式匹配
+ * 清单结构：site > prod（直接成员 db2）> web（web1、web2）、app（app1）；db（db1、db2）；lone 不在任何组中。
+ */
+class HostPatternMatcherTest {
+
+    private InventorySnapshot snapshot;
+
+    @BeforeEach
+    void buildSnapshot() {
+        InventoryFixture fixture = new InventoryFixture("patterns");
+        InventoryHost web1 = fixture.host("web1");
+        InventoryHost web2 = fixture.host("web2");
+        InventoryHost app1 = fixture.host("app1");
+        InventoryHost db1 = fixture.host("db1");
+        InventoryHost db2 = fixture.host("db2");
+        fixture.host("lone");
+
+        InventoryGroup site = fixture.group("site", null);
+        InventoryGroup prod = fixture.group("prod", site, db2);
+        fixture.group("web", prod, web1, web2);
+        fixture.group("app", prod, app1);
+        fixture.group("db", null, db1, db2);
+        snapshot = fixture.snapshot();
+    }
+
+    private Set<String> match(String pattern) {
+        BitSet selected = HostPatternMatcher.parse(pattern).match(snapshot);
+        return selected.stream()
+                .mapToObj(i -> snapshot.getAllHosts().get(i).name())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    void allAndStarSelectEveryHost() {
+        Set<String> every = Set.of("web1", "web2", "app1", "db1", "db2", "lone");
+        assertEquals(every, match("all"));
+        assertEquals(every, match("*"));
+    }
+
+    @Test
+    void groupIncludesMembersOfAllDescendantGroups() {
+        assertEquals(Set.of("web1", "web2"), match("web"));
+        assertEquals(Set.of("db2", "web1", "web2", "app1"), match("prod"));
+        assertEquals(Set.of("db2", "web1", "web2", "app1"), match("site"));
+    }
+
+    @Test
+    void plainNamesMatchHostsAndUnknownNamesMatchNothing() {
+        assertEquals(Set.of("db1"), match("db1"));
+        assertEquals(Set.of(), match("missing"));
+    }
+
+    @Test
+    void unionsAreCombinedBeforeIntersectionsAndExclusions() {
+        // 交集作用于所有普通条件的并集，而不是按书写顺序依次计算
+        assertEquals(Set.of("web1", "web2"), match("prod:&web:db"));
+        assertEquals(Set.of("web1"), match("!web2:prod:&web"));
+        assertEquals(Set.of("web1"), match("prod:!web2:&web"));
+        // 条件的书写顺序不影响结果
+        assertEquals(Set.of("app1"), match("!db2:&prod:site:!web*"));
+    }
+
+    @Test
+    void intersectionOrExclusionOnlyStartsFromAllHosts() {
+        assertEquals(Set.of("web1", "web2", "app1", "lone"), match("!db"));
+        assertEquals(Set.of("db2", "web1", "web2", "app1"), match("&prod"));
+        assertEquals(Set.of("db2", "web1", "web2"), match("&prod:!app1"));
+    }
+
+    @Test
+    void globMatchesWholeGroupAndHostNames() {
+        assertEquals(Set.of("web1", "web2"), match("web*"));
+        assertEquals(Set.of("db1", "db2"), match("db?"));
+        assertEquals(Set.of("web1", "app1", "db1"), match("*1"));
+        assertEquals(Set.of(), match("eb*"));
+        // 组名匹配时包含子组成员
+        assertEquals(Set.of("db2", "web1", "web2", "app1"), match("si*"));
+    }
+
+    @Test
+    void globAndPlainNamesTreatRegexCharactersLiterally() {
+        assertEquals(Set.of(), match("web.*"));
+        assertEquals(Set.of(), match("db[12]"));
+    }
+
+    @Test
+    void regexFindsAnywhereInGroupAndHostNames() {
+        assertEquals(Set.of("web1", "web2"), match("~eb"));
+        assertEquals(Set.of("db1", "db2"), match("~^d"));
+        assertEquals(Set.of("db2", "web1", "web2", "app1", "lone"), match("~^(site|lone)$"));
+    }
+
+    @Test
+    void commaOrColonSeparatesTerms() {
+        assertEquals(Set.of("web1", "db1"), match("web1,db1"));
+        assertEquals(Set.of("web1", "db1"), match("web1:db1"));
+        assertEquals(Set.of("web1", "db1"), match(" web1 , db1 "));
+        assertEquals(Set.of("app1", "db2"), match("prod,!web*"));
+        assertEquals(Set.of("web1", "web2"), match("prod,&web"));
+    }
+
+    @Test
+    void commaKeepsColonsInsideRegexTerms() {
+        // 出现逗号时只按逗号分隔，正则中的 : 不会被拆开
+        assertEquals(Set.of("web1", "db1", "lone"), match("~(?:web|db)1,lone"));
+        // 单个含 : 的正则可以用结尾的逗号强制按逗号分隔
+        assertEquals(Set.of("web1", "db1"), match("~(?:web|db)1,"));
+        // 没有逗号时按 : 拆开，得到无效的正则
+        assertThrows(IllegalArgumentException.class, () -> HostPatternMatcher.parse("~(?:web|db)1"));
+    }
+
+    @Test
+    void invalidPatternsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HostPatternMatcher.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> HostPatternMatcher.parse(" , , "));
+        assertThrows(IllegalArgumentException.class, () -> HostPatternMatcher.parse("web:!"));
+        assertThrows(IllegalArgumentException.class, () -> HostPatternMatcher.parse("~[unclosed"));
+        assertDoesNotThrow(() -> HostPatternMatcher.validate(null));
+        assertDoesNotThrow(() -> HostPatternMatcher.validate(""));
+    }
+}
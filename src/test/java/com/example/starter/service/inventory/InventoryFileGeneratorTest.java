@@ -0,0 +1,66 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 清单文件生成结果与 src/test/resources/inventory 下的期望文件逐字比较
+ */
+class InventoryFileGeneratorTest {
+
+    private final InventoryFileGenerator generator = new InventoryFileGenerator();
+
+    private InventorySnapshot snapshot;
+
+    @BeforeEach
+    void buildSnapshot() {
+        InventoryFixture fixture = new InventoryFixture("golden")
+                .variable("ansible_connection", "ssh")
+                .variable("motd", "hello: world")
+                .variable("retries", "3");
+        InventoryHost web1 = fixture.host("web1", "10.0.0.11", 22, "deploy", "");
+        InventoryHost web2 = fixture.host("web2", "10.0.0.12", 2222, "deploy", "p@ss word");
+        InventoryHost db1 = fixture.host("db1", "10.0.0.21", 22, "", "");
+        fixture.host("bastion host", "10.0.0.1", 22, null, null);
+        fixture.hostVariable(web1, "http_port", "8081")
+                .hostVariable(web1, "note", "");
+
+        InventoryGroup prod = fixture.group("prod", null);
+        InventoryGroup web = fixture.group("web", prod, web1, web2);
+        InventoryGroup db = fixture.group("db", prod, db1);
+        fixture.group("staging", null);
+        fixture.groupVariable(prod, "tier", "prod")
+                .groupVariable(web, "http_port", "8080")
+                .groupVariable(web, "enabled", "true")
+                .groupVariable(db, "tier", "database");
+        snapshot = fixture.snapshot();
+    }
+
+    private static String golden(String name) throws IOException {
+        try (InputStream in = InventoryFileGeneratorTest.class.getResourceAsStream("/inventory/" + name)) {
+            assertNotNull(in, "missing golden file " + name);
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void fullInventoryMatchesGoldenFile() throws IOException {
+        assertEquals(golden("full.yml"), generator.generateYaml(snapshot, Map.of("release", "1.2.3"), null));
+    }
+
+    @Test
+    void hostPatternLimitsHostsAndGroups() throws IOException {
+        assertEquals(golden("limit-web.yml"),
+                generator.generateYaml(snapshot, Map.of(), HostPatternMatcher.parse("web").match(snapshot)));
+    }
+}
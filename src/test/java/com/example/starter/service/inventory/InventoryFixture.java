@@ -0,0 +1,88 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryGroupHost;
+import com.example.starter.entity.InventoryGroupVariable;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostInventory;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+
+/**
+ * 在内存中搭建清单对象图（不落库），用于构建测试用的快照
+ */
+final class InventoryFixture {
+
+    private final Inventory inventory;
+
+    private long nextId = 1;
+
+    InventoryFixture(String name) {
+        inventory = new Inventory(name);
+        inventory.setId(nextId++);
+    }
+
+    /**
+     * 清单变量
+     */
+    InventoryFixture variable(String name, String value) {
+        InventoryVariable variable = new InventoryVariable(name, value);
+        variable.setId(nextId++);
+        variable.setInventory(inventory);
+        inventory.getVariables().add(variable);
+        return this;
+    }
+
+    /**
+     * 清单直接包含的主机，地址与名称相同
+     */
+    InventoryHost host(String name) {
+        return host(name, name, 22, null, null);
+    }
+
+    InventoryHost host(String name, String address, Integer port, String username, String password) {
+        InventoryHost host = new InventoryHost(name, address, port, username, password);
+        host.setId(nextId++);
+        inventory.getHostInventories().add(new InventoryHostInventory(inventory, host));
+        return host;
+    }
+
+    /**
+     * 组，parent 为空时为根组
+     */
+    InventoryGroup group(String name, InventoryGroup parent, InventoryHost... members) {
+        InventoryGroup group = new InventoryGroup(name);
+        group.setId(nextId++);
+        group.setInventory(inventory);
+        group.setParentGroup(parent);
+        if (parent != null) {
+            parent.getChildGroups().add(group);
+        }
+        for (InventoryHost member : members) {
+            group.getGroupHosts().add(new InventoryGroupHost(group, member));
+        }
+        inventory.getGroups().add(group);
+        return group;
+    }
+
+    InventoryFixture groupVariable(InventoryGroup group, String name, String value) {
+        InventoryGroupVariable variable = new InventoryGroupVariable(name, value);
+        variable.setId(nextId++);
+        variable.setGroup(group);
+        group.getVariables().add(variable);
+        return this;
+    }
+
+    InventoryFixture hostVariable(InventoryHost host, String name, String value) {
+        InventoryHostVariable variable = new InventoryHostVariable(name, value);
+        variable.setId(nextId++);
+        variable.setHost(host);
+        host.getVariables().add(variable);
+        return this;
+    }
+
+    InventorySnapshot snapshot() {
+        return InventorySnapshot.of(inventory, 1);
+    }
+}
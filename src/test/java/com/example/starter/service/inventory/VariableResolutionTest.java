@@ -0,0 +1,140 @@
+package com.example.starter.service.inventory;
+
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.service.inventory.VariableResolution.ResolvedVariable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 生效变量的优先级：清单 → 组（按层级由浅到深，同层按组名）→ 主机连接信息 → 主机变量 → 模板
+ * 清单结构：b_root、a_root 为根组，aa_child 是 a_root 的子组；
+ * h1 属于 aa_child 和 b_root，h2、h3 属于 a_root 和 b_root，h4 不在任何组中。
+ */
+class VariableResolutionTest {
+
+    private InventorySnapshot snapshot;
+
+    private InventoryHost h1;
+
+    private InventoryHost h2;
+
+    private InventoryHost h3;
+
+    private InventoryHost h4;
+
+    @BeforeEach
+    void buildSnapshot() {
+        InventoryFixture fixture = new InventoryFixture("variables")
+                .variable("env", "inventory")
+                .variable("level", "inventory")
+                .variable("ansible_user", "inventory-user")
+                .variable("only_inventory", "1");
+        h1 = fixture.host("h1", "10.0.0.1", 2222, "deploy", "pw");
+        h2 = fixture.host("h2");
+        h3 = fixture.host("h3");
+        h4 = fixture.host("h4");
+        fixture.hostVariable(h1, "ansible_port", "2200")
+                .hostVariable(h1, "env", "host");
+
+        // 先创建 b_root，保证同层按组名而不是创建顺序排序
+        InventoryGroup bRoot = fixture.group("b_root", null, h1, h2, h3);
+        InventoryGroup aRoot = fixture.group("a_root", null, h2, h3);
+        // 子组名按字母排在最前，仍因层级更深而最后生效
+        InventoryGroup aaChild = fixture.group("aa_child", aRoot, h1);
+        fixture.groupVariable(bRoot, "level", "b_root")
+                .groupVariable(aRoot, "level", "a_root")
+                .groupVariable(aaChild, "level", "aa_child")
+                .groupVariable(aaChild, "env", "aa_child");
+        snapshot = fixture.snapshot();
+    }
+
+    private static ResolvedVariable variable(String name, String value, String source) {
+        return new ResolvedVariable(name, value, source);
+    }
+
+    @Test
+    void deeperGroupsOverrideShallowerOnesRegardlessOfName() {
+        List<ResolvedVariable> resolved = snapshot.getResolvedVariables().forHost(h1.getId(), null);
+
+        assertTrue(resolved.contains(variable("level", "aa_child", "组 aa_child")), resolved.toString());
+    }
+
+    @Test
+    void groupsAtTheSameDepthApplyInNameOrder() {
+        assertEquals(List.of(
+                variable("env", "inventory", "清单"),
+                variable("ansible_user", "inventory-user", "清单"),
+                variable("only_inventory", "1", "清单"),
+                variable("level", "b_root", "组 b_root"),
+                variable("ansible_host", "h2", "主机")),
+                snapshot.getResolvedVariables().forHost(h2.getId(), null));
+    }
+
+    @Test
+    void connectionFieldsOverrideGroupsAndHostVariablesOverrideConnectionFields() {
+        assertEquals(List.of(
+                variable("only_inventory", "1", "清单"),
+                variable("level", "aa_child", "组 aa_child"),
+                variable("ansible_host", "10.0.0.1", "主机"),
+                variable("ansible_user", "deploy", "主机"),
+                variable("ansible_password", "pw", "主机"),
+                variable("ansible_port", "2200", "主机"),
+                variable("env", "host", "主机")),
+                snapshot.getResolvedVariables().forHost(h1.getId(), Map.of()));
+    }
+
+    @Test
+    void templateVariablesOverrideEverythingAndComeLast() {
+        List<ResolvedVariable> resolved = snapshot.getResolvedVariables()
+                .forHost(h1.getId(), Map.of("env", "template"));
+
+        assertEquals(variable("env", "template", "模板"), resolved.get(resolved.size() - 1));
+        assertEquals(1, resolved.stream().filter(v -> v.name().equals("env")).count());
+    }
+
+    @Test
+    void ungroupedHostsInheritInventoryVariablesOnly() {
+        assertEquals(List.of(
+                variable("env", "inventory", "清单"),
+                variable("level", "inventory", "清单"),
+                variable("ansible_user", "inventory-user", "清单"),
+                variable("only_inventory", "1", "清单"),
+                variable("ansible_host", "h4", "主机")),
+                snapshot.getResolvedVariables().forHost(h4.getId(), null));
+    }
+
+    @Test
+    void hostsWithTheSameGroupsShareOneInheritedScope() {
+        VariableResolution resolution = snapshot.getResolvedVariables();
+
+        // 清单层 + {aa_child, b_root} + {a_root, b_root}
+        assertEquals(3, resolution.getSharedScopeCount());
+        assertEquals(resolution.forHost(h2.getId(), null).subList(0, 4),
+                resolution.forHost(h3.getId(), null).subList(0, 4));
+    }
+
+    @Test
+    void resolutionIsCachedOnTheSnapshot() {
+        VariableResolution resolution = snapshot.getResolvedVariables();
+
+        assertSame(resolution, snapshot.getResolvedVariables());
+        assertEquals(snapshot.getVersion(), resolution.getVersion());
+    }
+
+    @Test
+    void unknownHostsResolveToNothing() {
+        VariableResolution resolution = snapshot.getResolvedVariables();
+
+        assertFalse(resolution.containsHost(-1L));
+        assertEquals(List.of(), resolution.forHost(-1L, Map.of("env", "template")));
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.starter.service.inventory.importer;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 收集解析结果的接收方，同名主机按导入服务的方式合并
+ */
+class CollectingSink implements HostImportSink {
+
+    final List<HostImportRecord> records = new ArrayList<>();
+
+    final List<String[]> groupVariables = new ArrayList<>();
+
+    final List<String[]> groupChildren = new ArrayList<>();
+
+    final List<String> errors = new ArrayList<>();
+
+    static CollectingSink parse(HostImportParser parser, String content) throws IOException {
+        CollectingSink sink = new CollectingSink();
+        parser.parse(new StringReader(content), sink);
+        return sink;
+    }
+
+    @Override
+    public void host(HostImportRecord record) {
+        records.add(record);
+    }
+
+    @Override
+    public void groupVariable(String group, String name, String value) {
+        groupVariables.add(new String[] { group, name, value });
+    }
+
+    @Override
+    public void groupChild(String parent, String child) {
+        groupChildren.add(new String[] { parent, child });
+    }
+
+    @Override
+    public void error(String message) {
+        errors.add(message);
+    }
+
+    /**
+     * 按主机名合并后的记录
+     */
+    Map<String, HostImportRecord> merged() {
+        Map<String, HostImportRecord> merged = new LinkedHashMap<>();
+        for (HostImportRecord record : records) {
+            merged.merge(record.getName(), record, (current, next) -> {
+                current.merge(next);
+                return current;
+            });
+        }
+        return merged;
+    }
+
+    List<String> names() {
+        return records.stream().map(HostImportRecord::getName).toList();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.starter.service.inventory.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CSV 主机文件解析
+ */
+class CsvHostImportParserTest {
+
+    private static CollectingSink parse(String content) throws IOException {
+        return CollectingSink.parse(new CsvHostImportParser(), content);
+    }
+
+    @Test
+    void fixedColumnsMapToHostFieldsAndOthersToVariables() throws IOException {
+        CollectingSink sink = parse("""
+                \uFEFFName,Host,Port,Username,Password,Groups,rack
+                web1,10.0.0.1,2222,deploy,secret,web;prod,r1
+                """);
+
+        assertTrue(sink.errors.isEmpty());
+        HostImportRecord record = sink.records.get(0);
+        assertEquals("web1", record.getName());
+        assertEquals("10.0.0.1", record.getHost());
+        assertEquals(2222, record.getPort());
+        assertEquals("deploy", record.getUsername());
+        assertEquals("secret", record.getPassword());
+        assertEquals(List.of("web", "prod"), record.getGroups());
+        assertEquals(Map.of("rack", "r1"), record.getVariables());
+    }
+
+    @Test
+    void ansibleVariableColumnsMapToHostFields() throws IOException {
+        CollectingSink sink = parse("""
+                name,ansible_host,ansible_port
+                web1,10.0.0.9,2200
+                """);
+
+        HostImportRecord record = sink.records.get(0);
+        assertEquals("10.0.0.9", record.getHost());
+        assertEquals(2200, record.getPort());
+        assertTrue(record.getVariables().isEmpty());
+    }
+
+    @Test
+    void quotedFieldsMayContainSeparatorsNewlinesAndQuotes() throws IOException {
+        CollectingSink sink = parse("name,motd\r\nweb1,\"hello, \"\"world\"\"\nsecond line\"\r\nweb2,plain\r\n");
+
+        assertEquals(List.of("web1", "web2"), sink.names());
+        assertEquals("hello, \"world\"\nsecond line", sink.records.get(0).getVariables().get("motd"));
+        assertEquals("plain", sink.records.get(1).getVariables().get("motd"));
+    }
+
+    @Test
+    void emptyCellsAreIgnoredAndShortRowsAllowed() throws IOException {
+        CollectingSink sink = parse("""
+                name,host,rack
+                web1,,
+                web2
+                """);
+
+        assertEquals(List.of("web1", "web2"), sink.names());
+        sink.records.forEach(record -> {
+            assertNull(record.getHost());
+            assertTrue(record.getVariables().isEmpty());
+        });
+    }
+
+    @Test
+    void invalidRowsAreReportedWithLineNumbers() throws IOException {
+        CollectingSink sink = parse("""
+                name,port
+                ,22
+                web1,abc
+
+                web2,22
+                """);
+
+        assertEquals(List.of("web2"), sink.names());
+        assertEquals(2, sink.errors.size());
+        assertTrue(sink.errors.get(0).startsWith("第 2 行"));
+        assertTrue(sink.errors.get(1).startsWith("第 3 行 web1"));
+    }
+
+    @Test
+    void missingNameColumnIsAnError() throws IOException {
+        CollectingSink sink = parse("host\n10.0.0.1\n");
+
+        assertTrue(sink.records.isEmpty());
+        assertEquals(List.of("CSV 缺少 name 列"), sink.errors);
+    }
+
+    @Test
+    void repeatedRowsForOneHostMergeGroupsAndVariables() throws IOException {
+        CollectingSink sink = parse("""
+                name,host,groups,role
+                app1,10.0.0.1,web,frontend
+                app1,,db,
+                """);
+
+        HostImportRecord record = sink.merged().get("app1");
+        assertEquals("10.0.0.1", record.getHost());
+        assertEquals(List.of("web", "db"), record.getGroups());
+        assertEquals(Map.of("role", "frontend"), record.getVariables());
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.starter.service.inventory.importer;
+
+import com.example.starter.entity.Inventory;
+import com.example.starter.entity.InventoryGroup;
+import com.example.starter.entity.InventoryHost;
+import com.example.starter.entity.InventoryHostVariable;
+import com.example.starter.entity.InventoryVariable;
+import com.example.starter.service.inventory.InventoryService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 主机批量导入的写入路径：新建与更新、清单和组成员、组结构
+ */
+@QuarkusTest
+class HostImportServiceTest {
+
+    @Inject
+    HostImportService hostImportService;
+
+    @Inject
+    InventoryService inventoryService;
+
+    @Test
+    void importCreatesThenUpsertsWithoutDuplicatingMemberships() throws Exception {
+        String prefix = "import-" + System.nanoTime();
+        Long inventoryId = inventoryService.createInventory(prefix, null).getId();
+        String ini = """
+                [web]
+                %1$s-web[1:3] rack=r1
+                [db]
+                %1$s-db1
+                %1$s-web1
+                [prod:children]
+                web
+                [all:vars]
+                ansible_connection=ssh
+                """.formatted(prefix);
+
+        HostImportResult first = hostImportService.importHosts(new StringReader(ini), HostImportFormat.INI,
+                inventoryId, null);
+        assertEquals(4, first.created());
+        assertEquals(0, first.updated());
+        assertTrue(first.errors().isEmpty(), first.errors().toString());
+
+        HostImportResult second = hostImportService.importHosts(
+                new StringReader(ini.replace("rack=r1", "rack=r2")), HostImportFormat.INI, inventoryId, null);
+        assertEquals(0, second.created());
+        assertEquals(4, second.updated());
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            Inventory inventory = inventoryService.getInventoryByIdWithAssociations(inventoryId);
+            assertEquals(4, inventory.getHostInventories().size());
+            Map<String, InventoryGroup> groups = inventory.getGroups().stream()
+                    .collect(Collectors.toMap(InventoryGroup::getName, group -> group));
+            assertEquals(3, groups.get("web").getGroupHosts().size());
+            assertEquals(2, groups.get("db").getGroupHosts().size());
+            assertEquals(groups.get("prod"), groups.get("web").getParentGroup());
+            assertEquals(Map.of("ansible_connection", "ssh"), inventory.getVariables().stream()
+                    .collect(Collectors.toMap(InventoryVariable::getVariableName,
+                            InventoryVariable::getVariableValue)));
+
+            InventoryHost web2 = inventory.getHosts().stream()
+                    .filter(host -> host.getName().equals(prefix + "-web2"))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(Map.of("rack", "r2"), web2.getVariables().stream()
+                    .collect(Collectors.toMap(InventoryHostVariable::getVariableName,
+                            InventoryHostVariable::getVariableValue)));
+        });
+    }
+}
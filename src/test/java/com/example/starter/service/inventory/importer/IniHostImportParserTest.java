@@ -0,0 +1,159 @@
+package com.example.starter.service.inventory.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ansible INI 清单解析
+ */
+class IniHostImportParserTest {
+
+    private static CollectingSink parse(String content) throws IOException {
+        return CollectingSink.parse(new IniHostImportParser(), content);
+    }
+
+    @Test
+    void expandsNumericRangeKeepingLeadingZeros() {
+        assertEquals(List.of("web08.example.com", "web09.example.com", "web10.example.com"),
+                IniHostImportParser.expand("web[08:10].example.com"));
+        assertEquals(List.of("db1", "db2", "db3"), IniHostImportParser.expand("db[1:3]"));
+    }
+
+    @Test
+    void expandsAlphabeticAndNestedRanges() {
+        assertEquals(List.of("a-1", "a-2", "b-1", "b-2"), IniHostImportParser.expand("[a:b]-[1:2]"));
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> IniHostImportParser.expand("web[5:1]"));
+        assertThrows(IllegalArgumentException.class, () -> IniHostImportParser.expand("web[z:a]"));
+        assertThrows(IllegalArgumentException.class, () -> IniHostImportParser.expand("web[0:200000]"));
+    }
+
+    @Test
+    void rangeLineProducesOneRecordPerHostWithSharedVariables() throws IOException {
+        CollectingSink sink = parse("""
+                [web]
+                web[1:3] ansible_user=deploy http_port=8080
+                """);
+
+        assertEquals(List.of("web1", "web2", "web3"), sink.names());
+        for (HostImportRecord record : sink.records) {
+            assertEquals("deploy", record.getUsername());
+            assertEquals(Map.of("http_port", "8080"), record.getVariables());
+            assertEquals(List.of("web"), record.getGroups());
+        }
+    }
+
+    @Test
+    void hostsOutsideAnyGroupAndUnderAllOrUngroupedGetNoGroup() throws IOException {
+        CollectingSink sink = parse("""
+                bare ansible_host=10.0.0.1
+                [all]
+                in-all
+                [ungrouped]
+                in-ungrouped
+                """);
+
+        assertEquals(List.of("bare", "in-all", "in-ungrouped"), sink.names());
+        sink.records.forEach(record -> assertTrue(record.getGroups().isEmpty(), record.getName()));
+        assertEquals("10.0.0.1", sink.records.get(0).getHost());
+    }
+
+    @Test
+    void varsSectionsEmitGroupVariablesIncludingAll() throws IOException {
+        CollectingSink sink = parse("""
+                [all:vars]
+                ansible_connection=ssh
+                [web:vars]
+                greeting="hello world"
+                """);
+
+        assertEquals(2, sink.groupVariables.size());
+        assertArrayEquals(new String[] { "all", "ansible_connection", "ssh" }, sink.groupVariables.get(0));
+        assertArrayEquals(new String[] { "web", "greeting", "hello world" }, sink.groupVariables.get(1));
+        assertTrue(sink.records.isEmpty());
+    }
+
+    @Test
+    void childrenSectionEmitsGroupRelations() throws IOException {
+        CollectingSink sink = parse("""
+                [prod:children]
+                web
+                db
+                """);
+
+        assertEquals(2, sink.groupChildren.size());
+        assertArrayEquals(new String[] { "prod", "web" }, sink.groupChildren.get(0));
+        assertArrayEquals(new String[] { "prod", "db" }, sink.groupChildren.get(1));
+    }
+
+    @Test
+    void sectionAfterVarsReadsHostsAgain() throws IOException {
+        CollectingSink sink = parse("""
+                [web:vars]
+                a=1
+                [db]
+                db1
+                """);
+
+        assertEquals(List.of("db1"), sink.names());
+        assertEquals(List.of("db"), sink.records.get(0).getGroups());
+    }
+
+    @Test
+    void quotedValuesAndCommentsAreHandled() throws IOException {
+        CollectingSink sink = parse("""
+                # comment
+                ; another comment
+                [web]
+                web1 motd='hello  world' # trailing
+                """);
+
+        assertEquals(Map.of("motd", "hello  world"), sink.records.get(0).getVariables());
+        assertTrue(sink.errors.isEmpty());
+    }
+
+    @Test
+    void malformedLinesAreReportedAndSkipped() throws IOException {
+        CollectingSink sink = parse("""
+                [web]
+                web1 novalue
+                web2 ansible_port=abc
+                web3
+                [web:vars]
+                missing-equals
+                """);
+
+        assertEquals(List.of("web3"), sink.names());
+        assertEquals(3, sink.errors.size());
+        assertTrue(sink.errors.get(0).startsWith("第 2 行"));
+    }
+
+    @Test
+    void sameHostInSeveralGroupsMergesIntoOneRecord() throws IOException {
+        CollectingSink sink = parse("""
+                [web]
+                app1 ansible_host=10.0.0.1 role=web
+                [db]
+                app1 ansible_host=10.0.0.2 ansible_port=2222 tier=db
+                """);
+
+        Map<String, HostImportRecord> merged = sink.merged();
+        assertEquals(1, merged.size());
+        HostImportRecord record = merged.get("app1");
+        assertEquals(List.of("web", "db"), record.getGroups());
+        assertEquals("10.0.0.2", record.getHost());
+        assertEquals(2222, record.getPort());
+        assertEquals(Map.of("role", "web", "tier", "db"), record.getVariables());
+    }
+}
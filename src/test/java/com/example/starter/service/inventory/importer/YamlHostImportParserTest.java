@@ -0,0 +1,144 @@
+package com.example.starter.service.inventory.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ansible YAML 清单解析
+ */
+class YamlHostImportParserTest {
+
+    private static CollectingSink parse(String content) throws IOException {
+        return CollectingSink.parse(new YamlHostImportParser(), content);
+    }
+
+    @Test
+    void readsHostsVarsAndNestedChildren() throws IOException {
+        CollectingSink sink = parse("""
+                all:
+                  vars:
+                    ansible_connection: ssh
+                  hosts:
+                    bastion:
+                      ansible_host: 10.0.0.1
+                  children:
+                    prod:
+                      vars:
+                        env: production
+                      children:
+                        web:
+                          hosts:
+                            web1:
+                              ansible_port: 2222
+                              http_port: 8080
+                """);
+
+        assertTrue(sink.errors.isEmpty());
+        assertEquals(List.of("bastion", "web1"), sink.names());
+        assertTrue(sink.records.get(0).getGroups().isEmpty());
+        assertEquals("10.0.0.1", sink.records.get(0).getHost());
+        HostImportRecord web1 = sink.records.get(1);
+        assertEquals(List.of("web"), web1.getGroups());
+        assertEquals(2222, web1.getPort());
+        assertEquals(Map.of("http_port", "8080"), web1.getVariables());
+
+        assertEquals(2, sink.groupVariables.size());
+        assertArrayEquals(new String[] { "all", "ansible_connection", "ssh" }, sink.groupVariables.get(0));
+        assertArrayEquals(new String[] { "prod", "env", "production" }, sink.groupVariables.get(1));
+        assertEquals(2, sink.groupChildren.size());
+        assertArrayEquals(new String[] { "all", "prod" }, sink.groupChildren.get(0));
+        assertArrayEquals(new String[] { "prod", "web" }, sink.groupChildren.get(1));
+    }
+
+    @Test
+    void ungroupedHostsGetNoGroup() throws IOException {
+        CollectingSink sink = parse("""
+                ungrouped:
+                  hosts:
+                    lone:
+                """);
+
+        assertEquals(List.of("lone"), sink.names());
+        assertTrue(sink.records.get(0).getGroups().isEmpty());
+    }
+
+    @Test
+    void nestedHostVarsAndComplexValuesAreFlattened() throws IOException {
+        CollectingSink sink = parse("""
+                web:
+                  hosts:
+                    web1:
+                      vars:
+                        ansible_user: deploy
+                        schemes: [http, https]
+                """);
+
+        HostImportRecord record = sink.records.get(0);
+        assertEquals("deploy", record.getUsername());
+        assertEquals(Map.of("schemes", "[http, https]"), record.getVariables());
+    }
+
+    @Test
+    void unknownKeysAreSkipped() throws IOException {
+        CollectingSink sink = parse("""
+                web:
+                  metadata:
+                    owner: [ops, dev]
+                  hosts:
+                    web1:
+                """);
+
+        assertEquals(List.of("web1"), sink.names());
+        assertTrue(sink.errors.isEmpty());
+    }
+
+    @Test
+    void invalidHostValuesAreReported() throws IOException {
+        CollectingSink sink = parse("""
+                web:
+                  hosts:
+                    web1:
+                      ansible_port: not-a-port
+                    web2:
+                """);
+
+        assertEquals(List.of("web2"), sink.names());
+        assertEquals(1, sink.errors.size());
+        assertTrue(sink.errors.get(0).startsWith("web1: "));
+    }
+
+    @Test
+    void malformedYamlIsReportedNotThrown() throws IOException {
+        CollectingSink sink = parse("web: [unclosed\n");
+
+        assertEquals(1, sink.errors.size());
+        assertTrue(sink.errors.get(0).startsWith("YAML 格式错误"));
+    }
+
+    @Test
+    void hostListedInSeveralGroupsMergesIntoOneRecord() throws IOException {
+        CollectingSink sink = parse("""
+                web:
+                  hosts:
+                    app1:
+                      role: web
+                db:
+                  hosts:
+                    app1:
+                      ansible_host: 10.0.0.2
+                      tier: db
+                """);
+
+        HostImportRecord record = sink.merged().get("app1");
+        assertEquals(List.of("web", "db"), record.getGroups());
+        assertEquals("10.0.0.2", record.getHost());
+        assertEquals(Map.of("role", "web", "tier", "db"), record.getVariables());
+    }
+}
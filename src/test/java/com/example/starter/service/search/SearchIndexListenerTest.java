@@ -0,0 +1,94 @@
+package com.example.starter.service.search;
+
+import com.example.starter.entity.Project;
+import com.example.starter.service.ProjectService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 实体变更在事务提交后才进入待索引队列，定时写入与未提交的写事务并发时不会丢失更新
+ */
+@QuarkusTest
+@TestProfile(SearchIndexListenerTest.SearchIndexEnabled.class)
+class SearchIndexListenerTest {
+
+    public static class SearchIndexEnabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("search.index.enabled", "true");
+        }
+    }
+
+    @Inject
+    ProjectService projectService;
+
+    @Inject
+    SearchIndexService searchIndexService;
+
+    @Inject
+    EntityManager entityManager;
+
+    @BeforeEach
+    void waitForIndex() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!searchIndexService.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(searchIndexService.isReady(), "search index was not built");
+        searchIndexService.flush();
+    }
+
+    @Test
+    void flushDuringWriteTransactionDoesNotLoseUpdate() throws Exception {
+        String original = "listener-" + System.nanoTime();
+        Project project = projectService.createProject(original, null, "- hosts: all");
+        searchIndexService.flush();
+        String renamed = original + "-renamed";
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            Project managed = entityManager.find(Project.class, project.getId());
+            managed.setName(renamed);
+            // 触发 @PostUpdate，此时事务尚未提交
+            entityManager.flush();
+            assertEquals(0, searchIndexService.getPendingCount());
+            // 定时写入在另一个线程执行：不应取走未提交的变更
+            try {
+                CompletableFuture.runAsync(searchIndexService::flush).get(10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertEquals(1, searchIndexService.getPendingCount());
+        searchIndexService.flush();
+        assertTrue(searchIndexService.search(renamed, 10).stream()
+                .anyMatch(result -> result.kind() == SearchKind.PROJECT && result.id().equals(project.getId())));
+    }
+
+    @Test
+    void rolledBackWriteIsNotQueued() {
+        Project project = projectService.createProject("listener-" + System.nanoTime(), null, "- hosts: all");
+        searchIndexService.flush();
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            entityManager.find(Project.class, project.getId()).setName("rolled-back-" + System.nanoTime());
+            entityManager.flush();
+            QuarkusTransaction.setRollbackOnly();
+        });
+
+        assertEquals(0, searchIndexService.getPendingCount());
+    }
+}